@@ -71,4 +71,22 @@ public abstract class AbstractConverter
     m_aDisplayLocale = ValueEnforcer.notNull (aDisplayLocale, "DisplayLocale");
     m_aContentLocale = ValueEnforcer.notNull (aContentLocale, "ContentLocale");
   }
+
+  /**
+   * @return The locale for error messages. Never <code>null</code>.
+   */
+  @Nonnull
+  public final Locale getDisplayLocale ()
+  {
+    return m_aDisplayLocale;
+  }
+
+  /**
+   * @return The locale for the created documents. Never <code>null</code>.
+   */
+  @Nonnull
+  public final Locale getContentLocale ()
+  {
+    return m_aContentLocale;
+  }
 }
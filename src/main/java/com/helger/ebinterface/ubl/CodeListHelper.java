@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import java.util.Currency;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.ebinterface.v42.Ebi42AddressIdentifierTypeType;
+import com.helger.ubl21.codelist.EPaymentMeansCode21;
+import com.helger.ubl21.codelist.EUnitOfMeasureCode21;
+
+/**
+ * The precomputed code list indexes shared by the UBL to ebInterface and the
+ * ebInterface to UBL converters. All lookups are case insensitive and don't
+ * allocate.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class CodeListHelper
+{
+  private static final CodeListIndex <Ebi42AddressIdentifierTypeType> ADDRESS_IDENTIFIER_TYPES = new CodeListIndex <> (Ebi42AddressIdentifierTypeType.values (),
+                                                                                                                       Ebi42AddressIdentifierTypeType::value);
+  private static final CodeListIndex <EPaymentMeansCode21> PAYMENT_MEANS_CODES = new CodeListIndex <> (EPaymentMeansCode21.values (),
+                                                                                                       EPaymentMeansCode21::getID);
+  private static final CodeListIndex <EUnitOfMeasureCode21> UNITS_OF_MEASURE = new CodeListIndex <> (EUnitOfMeasureCode21.values (),
+                                                                                                     EUnitOfMeasureCode21::getID);
+  private static final CodeListIndex <Currency> CURRENCIES = new CodeListIndex <> (Currency.getAvailableCurrencies (),
+                                                                                   Currency::getCurrencyCode);
+
+  private CodeListHelper ()
+  {}
+
+  /**
+   * @param sID
+   *        The ebInterface address identifier type (e.g. <code>GLN</code>).
+   *        May be <code>null</code>.
+   * @return <code>null</code> if no such address identifier type exists.
+   */
+  @Nullable
+  public static Ebi42AddressIdentifierTypeType getAddressIdentifierType (@Nullable final String sID)
+  {
+    return ADDRESS_IDENTIFIER_TYPES.get (sID);
+  }
+
+  /**
+   * @param sID
+   *        The UBL 2.1 payment means code (e.g. <code>31</code>). May be
+   *        <code>null</code>.
+   * @return <code>null</code> if no such payment means code exists.
+   */
+  @Nullable
+  public static EPaymentMeansCode21 getPaymentMeansCode (@Nullable final String sID)
+  {
+    return PAYMENT_MEANS_CODES.get (sID);
+  }
+
+  /**
+   * @param sID
+   *        The UN/ECE Recommendation 20 unit of measure code (e.g.
+   *        <code>C62</code>). May be <code>null</code>.
+   * @return <code>null</code> if no such unit of measure exists.
+   */
+  @Nullable
+  public static EUnitOfMeasureCode21 getUnitOfMeasure (@Nullable final String sID)
+  {
+    return UNITS_OF_MEASURE.get (sID);
+  }
+
+  /**
+   * @param sCurrencyCode
+   *        The ISO 4217 currency code (e.g. <code>EUR</code>). May be
+   *        <code>null</code>.
+   * @return <code>null</code> if no such currency exists.
+   */
+  @Nullable
+  public static Currency getCurrency (@Nullable final String sCurrencyCode)
+  {
+    return CURRENCIES.get (sCurrencyCode);
+  }
+
+  /**
+   * @param sCurrencyCode
+   *        The ISO 4217 currency code (e.g. <code>EUR</code>). May be
+   *        <code>null</code>.
+   * @return <code>true</code> if the passed currency code is valid.
+   */
+  public static boolean isValidCurrencyCode (@Nullable final String sCurrencyCode)
+  {
+    return CURRENCIES.contains (sCurrencyCode);
+  }
+}
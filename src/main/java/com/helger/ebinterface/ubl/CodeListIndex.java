@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An immutable, case-insensitive index from the codes of a code list to the
+ * respective values. The index is an open addressing hash table that is built
+ * once, so that a lookup only hashes the passed code in place, compares it
+ * with the few colliding keys and never allocates. If two values have codes
+ * that only differ in case, the first one wins.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The value type
+ */
+@Immutable
+public final class CodeListIndex <T>
+{
+  private final String [] m_aKeys;
+  private final Object [] m_aValues;
+  private final int m_nMask;
+  private final int m_nSize;
+
+  /**
+   * Constructor
+   *
+   * @param aValues
+   *        All values of the code list. May not be <code>null</code>.
+   * @param aCodeExtractor
+   *        Extracts the code from a single value. If it returns
+   *        <code>null</code> the value is not indexed. May not be
+   *        <code>null</code>.
+   */
+  public CodeListIndex (@Nonnull final Iterable <? extends T> aValues,
+                        @Nonnull final Function <? super T, String> aCodeExtractor)
+  {
+    ValueEnforcer.notNull (aValues, "Values");
+    ValueEnforcer.notNull (aCodeExtractor, "CodeExtractor");
+
+    int nCount = 0;
+    for (final T aValue : aValues)
+      if (aCodeExtractor.apply (aValue) != null)
+        nCount++;
+
+    // Load factor of at most 0.5 to keep the probe sequences short
+    int nCapacity = 2;
+    while (nCapacity < nCount * 2)
+      nCapacity <<= 1;
+    m_aKeys = new String [nCapacity];
+    m_aValues = new Object [nCapacity];
+    m_nMask = nCapacity - 1;
+
+    int nSize = 0;
+    for (final T aValue : aValues)
+    {
+      final String sCode = aCodeExtractor.apply (aValue);
+      if (sCode != null)
+      {
+        final int nIndex = _getSlot (sCode);
+        if (m_aKeys[nIndex] == null)
+        {
+          m_aKeys[nIndex] = sCode;
+          m_aValues[nIndex] = aValue;
+          nSize++;
+        }
+      }
+    }
+    m_nSize = nSize;
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aValues
+   *        All values of the code list. May not be <code>null</code>.
+   * @param aCodeExtractor
+   *        Extracts the code from a single value. If it returns
+   *        <code>null</code> the value is not indexed. May not be
+   *        <code>null</code>.
+   */
+  public CodeListIndex (@Nonnull final T [] aValues, @Nonnull final Function <? super T, String> aCodeExtractor)
+  {
+    this (Arrays.asList (ValueEnforcer.notNull (aValues, "Values")), aCodeExtractor);
+  }
+
+  /**
+   * Fold the case the same way as {@link String#equalsIgnoreCase(String)}
+   * compares, with a fast path for ASCII characters.
+   */
+  private static int _getFoldedChar (final char c)
+  {
+    if (c < 0x80)
+      return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    return Character.toLowerCase (Character.toUpperCase (c));
+  }
+
+  private static int _getHash (@Nonnull final String sCode)
+  {
+    int ret = 0;
+    for (int i = 0; i < sCode.length (); ++i)
+      ret = 31 * ret + _getFoldedChar (sCode.charAt (i));
+    return ret ^ (ret >>> 16);
+  }
+
+  /**
+   * @return The slot that contains the passed code or the first free slot
+   *         where it would be stored.
+   */
+  private int _getSlot (@Nonnull final String sCode)
+  {
+    int nIndex = _getHash (sCode) & m_nMask;
+    while (true)
+    {
+      final String sKey = m_aKeys[nIndex];
+      if (sKey == null || (sKey.length () == sCode.length () && sKey.equalsIgnoreCase (sCode)))
+        return nIndex;
+      nIndex = (nIndex + 1) & m_nMask;
+    }
+  }
+
+  /**
+   * Find the value with the passed code.
+   *
+   * @param sCode
+   *        The code to search. Case insensitive. May be <code>null</code>.
+   * @return <code>null</code> if no such value exists.
+   */
+  @Nullable
+  @SuppressWarnings ("unchecked")
+  public T get (@Nullable final String sCode)
+  {
+    if (sCode == null)
+      return null;
+    return (T) m_aValues[_getSlot (sCode)];
+  }
+
+  /**
+   * @param sCode
+   *        The code to search. Case insensitive. May be <code>null</code>.
+   * @return <code>true</code> if a value with the passed code exists.
+   */
+  public boolean contains (@Nullable final String sCode)
+  {
+    return get (sCode) != null;
+  }
+
+  /**
+   * @return The number of indexed values.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_nSize;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Size", m_nSize).append ("Capacity", m_aKeys.length).toString ();
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.error.text.IHasErrorText;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.text.display.IHasDisplayTextWithArgs;
+
+/**
+ * An error text that only stores the text key and the arguments and formats
+ * them on demand in the requested locale. Using this instead of an eagerly
+ * formatted string means that no <code>MessageFormat</code> is invoked for
+ * errors that are never displayed, and that the same error list can be
+ * rendered in different locales.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class DeferredErrorText implements IHasErrorText
+{
+  private final IHasDisplayTextWithArgs m_aText;
+  private final Object [] m_aArgs;
+
+  /**
+   * Constructor
+   *
+   * @param aText
+   *        The text key, usually an <code>EText</code> enum constant. May not
+   *        be <code>null</code>.
+   * @param aArgs
+   *        The optional arguments to be filled in. May be <code>null</code>.
+   *        The array is copied, so later changes have no effect.
+   */
+  public DeferredErrorText (@Nonnull final IHasDisplayTextWithArgs aText, @Nullable final Object... aArgs)
+  {
+    m_aText = ValueEnforcer.notNull (aText, "Text");
+    m_aArgs = aArgs == null ? null : aArgs.clone ();
+  }
+
+  /**
+   * @return The text key as passed in the constructor. Never <code>null</code>.
+   */
+  @Nonnull
+  public IHasDisplayTextWithArgs getText ()
+  {
+    return m_aText;
+  }
+
+  /**
+   * @return <code>true</code> if at least one argument is present.
+   */
+  public boolean hasArgs ()
+  {
+    return m_aArgs != null && m_aArgs.length > 0;
+  }
+
+  /**
+   * @return A copy of the arguments. Never <code>null</code> but maybe empty.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public Object [] getAllArgs ()
+  {
+    return m_aArgs == null ? new Object [0] : m_aArgs.clone ();
+  }
+
+  @Nullable
+  public String getDisplayText (@Nonnull final Locale aContentLocale)
+  {
+    if (hasArgs ())
+      return m_aText.getDisplayTextWithArgs (aContentLocale, m_aArgs);
+    return m_aText.getDisplayText (aContentLocale);
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final DeferredErrorText rhs = (DeferredErrorText) o;
+    return m_aText.equals (rhs.m_aText) && Arrays.equals (m_aArgs, rhs.m_aArgs);
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_aText).append (m_aArgs).getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Text", m_aText).append ("Args", m_aArgs).toString ();
+  }
+}
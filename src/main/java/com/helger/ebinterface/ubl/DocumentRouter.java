@@ -0,0 +1,429 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.error.SingleError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.stream.NonBlockingBufferedInputStream;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+import com.helger.ebinterface.ubl.from.UBLToEbInterfaceJAXBPool;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.to.EbInterface42ToInvoiceConverter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Routes a document to the matching converter based on its root element. The
+ * beginning of the input is parsed incrementally in small chunks until the
+ * root element and - if it is located before any other element except the UBL
+ * extensions - the UBLVersionID are known. At most the sniff limit is read for
+ * this. Unsupported root elements and unsupported UBL versions are rejected
+ * without reading the rest of the input. Supported documents are read
+ * completely from the same stream, so that only the sniffed prefix is parsed
+ * twice:
+ * <ul>
+ * <li>UBL invoices are converted with {@link InvoiceToEbInterface42Converter}
+ * </li>
+ * <li>UBL credit notes are converted with
+ * {@link CreditNoteToEbInterface42Converter}</li>
+ * <li>ebInterface 4.2 invoices are converted with
+ * {@link EbInterface42ToInvoiceConverter}</li>
+ * </ul>
+ * Note: no XML Schema validation is performed. Exceptions of the conversion
+ * caused by schema-invalid input are reported as errors in the result.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class DocumentRouter
+{
+  /** The default number of bytes that are parsed to find the root element */
+  public static final int DEFAULT_SNIFF_LIMIT = 4096;
+  /** The maximum number of bytes passed to the parser at once while sniffing */
+  private static final int SNIFF_CHUNK_SIZE = 256;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (DocumentRouter.class);
+  private static final String NS_UBL_CBC = "urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2";
+  private static final String NS_UBL_EXT = "urn:oasis:names:specification:ubl:schema:xsd:CommonExtensionComponents-2";
+  private static final QName UBL_VERSION_ID = new QName (NS_UBL_CBC, "UBLVersionID");
+  private static final QName UBL_EXTENSIONS = new QName (NS_UBL_EXT, "UBLExtensions");
+  private static final ThreadLocal <XMLInputFactory> s_aXIF = ThreadLocal.withInitial ( () -> {
+    final XMLInputFactory aXIF = XMLInputFactory.newInstance ();
+    // Avoid XXE
+    aXIF.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    aXIF.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return aXIF;
+  });
+
+  /**
+   * The information found in the sniffed prefix.
+   *
+   * @author Philip Helger
+   */
+  private static final class RootInfo
+  {
+    private QName m_aRootElementName;
+    private String m_sUBLVersionID;
+    private XMLStreamException m_aException;
+  }
+
+  /**
+   * Passes at most the sniff limit bytes of the underlying stream to the
+   * parser in small chunks, so that the parser does not read ahead more than
+   * necessary and the stream can be reset afterwards.
+   *
+   * @author Philip Helger
+   */
+  private static final class SniffInputStream extends InputStream
+  {
+    private final InputStream m_aIS;
+    private int m_nRemaining;
+
+    SniffInputStream (@Nonnull final InputStream aIS, @Nonnegative final int nLimit)
+    {
+      m_aIS = aIS;
+      m_nRemaining = nLimit;
+    }
+
+    @Override
+    public int read () throws IOException
+    {
+      if (m_nRemaining <= 0)
+        return -1;
+      final int ret = m_aIS.read ();
+      if (ret >= 0)
+        m_nRemaining--;
+      return ret;
+    }
+
+    @Override
+    public int read (@Nonnull final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      if (m_nRemaining <= 0)
+        return -1;
+      final int ret = m_aIS.read (aBuf, nOfs, Math.min (nLen, Math.min (m_nRemaining, SNIFF_CHUNK_SIZE)));
+      if (ret > 0)
+        m_nRemaining -= ret;
+      return ret;
+    }
+  }
+
+  private final InvoiceToEbInterface42Converter m_aInvoiceConverter;
+  private final CreditNoteToEbInterface42Converter m_aCreditNoteConverter;
+  private final EbInterface42ToInvoiceConverter m_aEbInterfaceConverter;
+  private final UBLToEbInterfaceJAXBPool m_aJAXBPool;
+  private final int m_nSniffLimit;
+
+  /**
+   * Constructor using a new JAXB pool and the default sniff limit.
+   *
+   * @param aInvoiceConverter
+   *        The converter to be used for UBL invoices. May not be
+   *        <code>null</code>.
+   * @param aCreditNoteConverter
+   *        The converter to be used for UBL credit notes. May not be
+   *        <code>null</code>.
+   * @param aEbInterfaceConverter
+   *        The converter to be used for ebInterface 4.2 invoices. May not be
+   *        <code>null</code>.
+   */
+  public DocumentRouter (@Nonnull final InvoiceToEbInterface42Converter aInvoiceConverter,
+                         @Nonnull final CreditNoteToEbInterface42Converter aCreditNoteConverter,
+                         @Nonnull final EbInterface42ToInvoiceConverter aEbInterfaceConverter)
+  {
+    this (aInvoiceConverter,
+          aCreditNoteConverter,
+          aEbInterfaceConverter,
+          new UBLToEbInterfaceJAXBPool (2 * Runtime.getRuntime ().availableProcessors (), false),
+          DEFAULT_SNIFF_LIMIT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aInvoiceConverter
+   *        The converter to be used for UBL invoices. May not be
+   *        <code>null</code>.
+   * @param aCreditNoteConverter
+   *        The converter to be used for UBL credit notes. May not be
+   *        <code>null</code>.
+   * @param aEbInterfaceConverter
+   *        The converter to be used for ebInterface 4.2 invoices. May not be
+   *        <code>null</code>.
+   * @param aJAXBPool
+   *        The JAXB pool to be used for reading. May not be <code>null</code>.
+   * @param nSniffLimit
+   *        The maximum number of bytes to be parsed for the root element. If
+   *        no root element is found within this limit, the input is rejected.
+   *        Must be &gt; 0.
+   */
+  public DocumentRouter (@Nonnull final InvoiceToEbInterface42Converter aInvoiceConverter,
+                         @Nonnull final CreditNoteToEbInterface42Converter aCreditNoteConverter,
+                         @Nonnull final EbInterface42ToInvoiceConverter aEbInterfaceConverter,
+                         @Nonnull final UBLToEbInterfaceJAXBPool aJAXBPool,
+                         @Nonnegative final int nSniffLimit)
+  {
+    ValueEnforcer.isGT0 (nSniffLimit, "SniffLimit");
+    m_aInvoiceConverter = ValueEnforcer.notNull (aInvoiceConverter, "InvoiceConverter");
+    m_aCreditNoteConverter = ValueEnforcer.notNull (aCreditNoteConverter, "CreditNoteConverter");
+    m_aEbInterfaceConverter = ValueEnforcer.notNull (aEbInterfaceConverter, "EbInterfaceConverter");
+    m_aJAXBPool = ValueEnforcer.notNull (aJAXBPool, "JAXBPool");
+    m_nSniffLimit = nSniffLimit;
+  }
+
+  /**
+   * @return The maximum number of bytes parsed for the root element.
+   */
+  @Nonnegative
+  public int getSniffLimit ()
+  {
+    return m_nSniffLimit;
+  }
+
+  /**
+   * Parse the beginning of a document until the root element and the optional
+   * UBLVersionID are found. Parsing errors (e.g. because the sniff limit is
+   * reached within the markup) after the root element are ignored.
+   */
+  @Nonnull
+  private static RootInfo _sniff (@Nonnull final InputStream aIS, @Nonnegative final int nSniffLimit)
+  {
+    final RootInfo ret = new RootInfo ();
+    try
+    {
+      final XMLStreamReader aReader = s_aXIF.get ().createXMLStreamReader (new SniffInputStream (aIS, nSniffLimit));
+      try
+      {
+        aReader.nextTag ();
+        ret.m_aRootElementName = aReader.getName ();
+
+        final EDocumentRoute eRoute = EDocumentRoute.getFromRootElementNameOrNull (ret.m_aRootElementName);
+        if (eRoute != null && eRoute.isUBL ())
+        {
+          // UBLVersionID is the first element after the optional extensions
+          int nDepth = 1;
+          while (nDepth > 0)
+          {
+            final int nEvent = aReader.next ();
+            if (nEvent == XMLStreamConstants.START_ELEMENT)
+            {
+              if (nDepth == 1)
+              {
+                if (UBL_VERSION_ID.equals (aReader.getName ()))
+                {
+                  ret.m_sUBLVersionID = StringHelper.trim (aReader.getElementText ());
+                  break;
+                }
+                if (!UBL_EXTENSIONS.equals (aReader.getName ()))
+                  break;
+              }
+              ++nDepth;
+            }
+            else
+              if (nEvent == XMLStreamConstants.END_ELEMENT)
+                --nDepth;
+          }
+        }
+      }
+      finally
+      {
+        aReader.close ();
+      }
+    }
+    catch (final XMLStreamException ex)
+    {
+      if (ret.m_aRootElementName == null)
+        ret.m_aException = ex;
+    }
+    return ret;
+  }
+
+  /**
+   * Route the passed document to the matching converter and convert it.
+   *
+   * @param aIS
+   *        The source document. May not be <code>null</code>. The stream is not
+   *        closed by this method.
+   * @return The routing result. Never <code>null</code>.
+   */
+  @Nonnull
+  public DocumentRouterResult route (@Nonnull final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    final ErrorList aErrorList = new ErrorList ();
+    // Buffer not more than the sniff limit so that rejected input is not
+    // consumed any further
+    final InputStream aMarkIS = aIS.markSupported () ? aIS : new NonBlockingBufferedInputStream (aIS, m_nSniffLimit);
+
+    // Sniff the prefix
+    final RootInfo aRootInfo;
+    try
+    {
+      aMarkIS.mark (m_nSniffLimit);
+      aRootInfo = _sniff (aMarkIS, m_nSniffLimit);
+      aMarkIS.reset ();
+    }
+    catch (final IOException ex)
+    {
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorText (EText.XML_READ_ERROR.getAsErrorText ())
+                                 .setLinkedException (ex)
+                                 .build ());
+      return new DocumentRouterResult (null, null, aErrorList, null, null);
+    }
+
+    if (aRootInfo.m_aRootElementName == null)
+    {
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorText (EText.NO_ROOT_ELEMENT.getAsErrorText (Integer.valueOf (m_nSniffLimit)))
+                                 .setLinkedException (aRootInfo.m_aException)
+                                 .build ());
+      return new DocumentRouterResult (null, null, aErrorList, null, null);
+    }
+
+    final EDocumentRoute eRoute = EDocumentRoute.getFromRootElementNameOrNull (aRootInfo.m_aRootElementName);
+    if (eRoute == null)
+    {
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorText (EText.UNSUPPORTED_ROOT_ELEMENT.getAsErrorText (aRootInfo.m_aRootElementName))
+                                 .build ());
+      return new DocumentRouterResult (null, null, aErrorList, null, null);
+    }
+
+    final String sUBLVersionID = aRootInfo.m_sUBLVersionID;
+    if (sUBLVersionID != null &&
+        !AbstractConverter.UBL_VERSION_20.equals (sUBLVersionID) &&
+        !AbstractConverter.UBL_VERSION_21.equals (sUBLVersionID))
+    {
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorFieldName ("UBLVersionID")
+                                 .setErrorText (EText.INVALID_UBL_VERSION_ID.getAsErrorText (sUBLVersionID,
+                                                                                             AbstractConverter.UBL_VERSION_20,
+                                                                                             AbstractConverter.UBL_VERSION_21))
+                                 .build ());
+      return new DocumentRouterResult (eRoute, sUBLVersionID, aErrorList, null, null);
+    }
+
+    // Read the whole document
+    InvoiceType aUBLInvoice = null;
+    CreditNoteType aUBLCreditNote = null;
+    Ebi42InvoiceType aEbiInvoice = null;
+    try
+    {
+      final XMLStreamReader aReader = s_aXIF.get ().createXMLStreamReader (aMarkIS);
+      try
+      {
+        aReader.nextTag ();
+        switch (eRoute)
+        {
+          case UBL_INVOICE:
+            aUBLInvoice = m_aJAXBPool.readInvoice (aReader);
+            break;
+          case UBL_CREDIT_NOTE:
+            aUBLCreditNote = m_aJAXBPool.readCreditNote (aReader);
+            break;
+          case EBINTERFACE_42:
+            aEbiInvoice = m_aJAXBPool.readEbInterface (aReader);
+            break;
+          default:
+            throw new IllegalStateException ("Unsupported route " + eRoute);
+        }
+      }
+      finally
+      {
+        aReader.close ();
+      }
+    }
+    catch (final XMLStreamException ex)
+    {
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorText (EText.XML_READ_ERROR.getAsErrorText ())
+                                 .setLinkedException (ex)
+                                 .build ());
+      return new DocumentRouterResult (eRoute, sUBLVersionID, aErrorList, null, null);
+    }
+    if (aUBLInvoice == null && aUBLCreditNote == null && aEbiInvoice == null)
+    {
+      final String sLocalName = aRootInfo.m_aRootElementName.getLocalPart ();
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorText (EText.DOCUMENT_READ_ERROR.getAsErrorText (sLocalName))
+                                 .build ());
+      return new DocumentRouterResult (eRoute, sUBLVersionID, aErrorList, null, null);
+    }
+
+    // Convert
+    Ebi42InvoiceType aTargetEbi = null;
+    InvoiceType aTargetUBL = null;
+    try
+    {
+      if (aUBLInvoice != null)
+        aTargetEbi = m_aInvoiceConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+      else
+        if (aUBLCreditNote != null)
+          aTargetEbi = m_aCreditNoteConverter.convertToEbInterface (aUBLCreditNote, aErrorList);
+        else
+          aTargetUBL = m_aEbInterfaceConverter.convertInvoice (aEbiInvoice);
+    }
+    catch (final RuntimeException ex)
+    {
+      // The input is not validated against the XML Schema, so required
+      // elements may be missing
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorText (EText.CONVERSION_ERROR.getAsErrorText (ex.getClass ().getName ()))
+                                 .setLinkedException (ex)
+                                 .build ());
+      return new DocumentRouterResult (eRoute, sUBLVersionID, aErrorList, null, null);
+    }
+
+    if (s_aLogger.isDebugEnabled ())
+      s_aLogger.debug ("Routed document to " + eRoute);
+    return new DocumentRouterResult (eRoute, sUBLVersionID, aErrorList, aTargetEbi, aTargetUBL);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("InvoiceConverter", m_aInvoiceConverter)
+                                       .append ("CreditNoteConverter", m_aCreditNoteConverter)
+                                       .append ("EbInterfaceConverter", m_aEbInterfaceConverter)
+                                       .append ("JAXBPool", m_aJAXBPool)
+                                       .append ("SniffLimit", m_nSniffLimit)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * The result of a single {@link DocumentRouter} conversion.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class DocumentRouterResult
+{
+  private final EDocumentRoute m_eRoute;
+  private final String m_sUBLVersionID;
+  private final ErrorList m_aErrorList;
+  private final Ebi42InvoiceType m_aEbInterfaceDocument;
+  private final InvoiceType m_aUBLInvoice;
+
+  public DocumentRouterResult (@Nullable final EDocumentRoute eRoute,
+                               @Nullable final String sUBLVersionID,
+                               @Nonnull final ErrorList aErrorList,
+                               @Nullable final Ebi42InvoiceType aEbInterfaceDocument,
+                               @Nullable final InvoiceType aUBLInvoice)
+  {
+    m_eRoute = eRoute;
+    m_sUBLVersionID = sUBLVersionID;
+    m_aErrorList = aErrorList;
+    m_aEbInterfaceDocument = aEbInterfaceDocument;
+    m_aUBLInvoice = aUBLInvoice;
+  }
+
+  /**
+   * @return The route detected from the root element or <code>null</code> if
+   *         the root element is not supported.
+   */
+  @Nullable
+  public EDocumentRoute getRoute ()
+  {
+    return m_eRoute;
+  }
+
+  /**
+   * @return The UBLVersionID found while sniffing or <code>null</code> if the
+   *         source is no UBL document or the UBLVersionID is not located at
+   *         the beginning of the document.
+   */
+  @Nullable
+  public String getUBLVersionID ()
+  {
+    return m_sUBLVersionID;
+  }
+
+  /**
+   * @return The errors of routing, reading and converting. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public ErrorList getErrorList ()
+  {
+    return m_aErrorList;
+  }
+
+  /**
+   * @return The created ebInterface document for UBL sources. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public Ebi42InvoiceType getEbInterfaceDocument ()
+  {
+    return m_aEbInterfaceDocument;
+  }
+
+  /**
+   * @return The created UBL invoice for ebInterface sources. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public InvoiceType getUBLInvoice ()
+  {
+    return m_aUBLInvoice;
+  }
+
+  /**
+   * @return <code>true</code> if a target document was created and no error
+   *         occurred.
+   */
+  public boolean isSuccess ()
+  {
+    return (m_aEbInterfaceDocument != null || m_aUBLInvoice != null) && !m_aErrorList.containsAtLeastOneError ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Route", m_eRoute)
+                                       .append ("UBLVersionID", m_sUBLVersionID)
+                                       .append ("ErrorList", m_aErrorList)
+                                       .append ("EbInterfaceDocument", m_aEbInterfaceDocument)
+                                       .append ("UBLInvoice", m_aUBLInvoice)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.namespace.QName;
+
+import com.helger.ebinterface.CEbInterface;
+
+/**
+ * The document types that can be routed by the {@link DocumentRouter} together
+ * with the converter they are routed to. The route is also used to identify
+ * the conversion direction in conversion phase listeners.
+ *
+ * @author Philip Helger
+ */
+public enum EDocumentRoute
+{
+  /** UBL 2.0/2.1 invoice to ebInterface 4.2 */
+  UBL_INVOICE (EUBLDocumentType.INVOICE.getRootElementName (), EUBLDocumentType.INVOICE),
+  /** UBL 2.0/2.1 credit note to ebInterface 4.2 */
+  UBL_CREDIT_NOTE (EUBLDocumentType.CREDIT_NOTE.getRootElementName (), EUBLDocumentType.CREDIT_NOTE),
+  /** ebInterface 4.2 to UBL 2.1 invoice */
+  EBINTERFACE_42 (new QName (CEbInterface.EBINTERFACE_42_NS, "Invoice"), null);
+
+  private final QName m_aRootElementName;
+  private final EUBLDocumentType m_eUBLDocumentType;
+
+  private EDocumentRoute (@Nonnull final QName aRootElementName, @Nullable final EUBLDocumentType eUBLDocumentType)
+  {
+    m_aRootElementName = aRootElementName;
+    m_eUBLDocumentType = eUBLDocumentType;
+  }
+
+  /**
+   * @return The qualified name of the root element of this route. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public QName getRootElementName ()
+  {
+    return m_aRootElementName;
+  }
+
+  /**
+   * @return The UBL source document type or <code>null</code> if the source
+   *         document is not a UBL document.
+   */
+  @Nullable
+  public EUBLDocumentType getUBLDocumentType ()
+  {
+    return m_eUBLDocumentType;
+  }
+
+  /**
+   * @return <code>true</code> if the source document is a UBL document.
+   */
+  public boolean isUBL ()
+  {
+    return m_eUBLDocumentType != null;
+  }
+
+  /**
+   * Find the route with the passed root element name.
+   *
+   * @param aRootElementName
+   *        The qualified root element name. May be <code>null</code>.
+   * @return <code>null</code> if no such route exists.
+   */
+  @Nullable
+  public static EDocumentRoute getFromRootElementNameOrNull (@Nullable final QName aRootElementName)
+  {
+    for (final EDocumentRoute e : values ())
+      if (e.m_aRootElementName.equals (aRootElementName))
+        return e;
+    return null;
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.namespace.QName;
+
+/**
+ * The UBL document types that can be converted to ebInterface.
+ *
+ * @author Philip Helger
+ */
+public enum EUBLDocumentType
+{
+  INVOICE ("urn:oasis:names:specification:ubl:schema:xsd:Invoice-2", "Invoice"),
+  CREDIT_NOTE ("urn:oasis:names:specification:ubl:schema:xsd:CreditNote-2", "CreditNote");
+
+  private final QName m_aRootElementName;
+
+  private EUBLDocumentType (@Nonnull final String sNamespaceURI, @Nonnull final String sLocalName)
+  {
+    m_aRootElementName = new QName (sNamespaceURI, sLocalName);
+  }
+
+  /**
+   * @return The qualified name of the root element of this document type.
+   *         Identical for UBL 2.0 and UBL 2.1. Never <code>null</code>.
+   */
+  @Nonnull
+  public QName getRootElementName ()
+  {
+    return m_aRootElementName;
+  }
+
+  /**
+   * Find the document type with the passed root element name.
+   *
+   * @param aRootElementName
+   *        The qualified root element name. May be <code>null</code>.
+   * @return <code>null</code> if no such document type exists.
+   */
+  @Nullable
+  public static EUBLDocumentType getFromRootElementNameOrNull (@Nullable final QName aRootElementName)
+  {
+    for (final EUBLDocumentType e : values ())
+      if (e.m_aRootElementName.equals (aRootElementName))
+        return e;
+    return null;
+  }
+}
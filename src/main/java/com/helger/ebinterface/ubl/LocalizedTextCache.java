@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import java.text.MessageFormat;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A cache for the resolved display texts of a text enumeration. For each
+ * content locale an {@link EnumMap} with the resolved texts and the compiled
+ * {@link MessageFormat}s is built on first access, so that neither the text
+ * resolution nor the pattern parsing happens more than once per locale. As the
+ * content locales come from the callers, the number of cached locales is
+ * limited - texts of further locales are resolved and formatted on each access
+ * without caching. The results are identical to resolving the text and formatting it with
+ * {@link MessageFormat#format(String, Object...)}: texts are returned
+ * unchanged if no arguments are passed and the formats use the default format
+ * locale.
+ *
+ * @author Philip Helger
+ * @param <ENUMTYPE>
+ *        The text enumeration type
+ */
+@ThreadSafe
+public final class LocalizedTextCache <ENUMTYPE extends Enum <ENUMTYPE>>
+{
+  /**
+   * The resolved text of a single enum constant in a single locale.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  private static final class ResolvedText
+  {
+    private final String m_sText;
+    // Prototype that is cloned for each use, as MessageFormat is not
+    // thread-safe
+    private final MessageFormat m_aFormat;
+
+    ResolvedText (@Nullable final String sText)
+    {
+      m_sText = sText;
+      m_aFormat = sText == null ? null : _createFormat (sText);
+    }
+  }
+
+  /** The default maximum number of cached locales */
+  public static final int DEFAULT_MAX_LOCALES = 16;
+
+  private final Class <ENUMTYPE> m_aEnumClass;
+  private final BiFunction <ENUMTYPE, Locale, String> m_aResolver;
+  private final int m_nMaxLocales;
+  private final ConcurrentMap <Locale, EnumMap <ENUMTYPE, ResolvedText>> m_aTexts = new ConcurrentHashMap <> ();
+
+  /**
+   * Constructor caching at most {@link #DEFAULT_MAX_LOCALES} locales.
+   *
+   * @param aEnumClass
+   *        The enum class. May not be <code>null</code>.
+   * @param aResolver
+   *        The uncached resolver of the text of a single enum constant in a
+   *        single locale. May return <code>null</code>. May not be
+   *        <code>null</code>.
+   */
+  public LocalizedTextCache (@Nonnull final Class <ENUMTYPE> aEnumClass,
+                             @Nonnull final BiFunction <ENUMTYPE, Locale, String> aResolver)
+  {
+    this (aEnumClass, aResolver, DEFAULT_MAX_LOCALES);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aEnumClass
+   *        The enum class. May not be <code>null</code>.
+   * @param aResolver
+   *        The uncached resolver of the text of a single enum constant in a
+   *        single locale. May return <code>null</code>. May not be
+   *        <code>null</code>.
+   * @param nMaxLocales
+   *        The maximum number of locales to cache. Concurrent first accesses
+   *        may exceed it by the number of threads. Must be &ge; 0.
+   */
+  public LocalizedTextCache (@Nonnull final Class <ENUMTYPE> aEnumClass,
+                             @Nonnull final BiFunction <ENUMTYPE, Locale, String> aResolver,
+                             @Nonnegative final int nMaxLocales)
+  {
+    ValueEnforcer.isGE0 (nMaxLocales, "MaxLocales");
+    m_aEnumClass = ValueEnforcer.notNull (aEnumClass, "EnumClass");
+    m_aResolver = ValueEnforcer.notNull (aResolver, "Resolver");
+    m_nMaxLocales = nMaxLocales;
+  }
+
+  @Nonnull
+  private static MessageFormat _createFormat (@Nonnull final String sText)
+  {
+    return new MessageFormat (sText, Locale.getDefault (Locale.Category.FORMAT));
+  }
+
+  /**
+   * @return <code>null</code> if the passed locale is not cached and the
+   *         maximum number of cached locales is reached.
+   */
+  @Nullable
+  private EnumMap <ENUMTYPE, ResolvedText> _getTexts (@Nonnull final Locale aContentLocale)
+  {
+    ValueEnforcer.notNull (aContentLocale, "ContentLocale");
+
+    // Fast path without locking
+    final EnumMap <ENUMTYPE, ResolvedText> ret = m_aTexts.get (aContentLocale);
+    if (ret != null)
+      return ret;
+
+    if (m_aTexts.size () >= m_nMaxLocales)
+      return null;
+
+    // The map is completely filled before it is published and never modified
+    // afterwards
+    return m_aTexts.computeIfAbsent (aContentLocale, aLocale -> {
+      final EnumMap <ENUMTYPE, ResolvedText> aMap = new EnumMap <> (m_aEnumClass);
+      for (final ENUMTYPE e : m_aEnumClass.getEnumConstants ())
+        aMap.put (e, new ResolvedText (m_aResolver.apply (e, aLocale)));
+      return aMap;
+    });
+  }
+
+  /**
+   * Get the resolved text without formatting.
+   *
+   * @param eText
+   *        The enum constant. May not be <code>null</code>.
+   * @param aContentLocale
+   *        The locale to use. May not be <code>null</code>.
+   * @return The resolved text or <code>null</code> if the resolver returned
+   *         <code>null</code>.
+   */
+  @Nullable
+  public String getText (@Nonnull final ENUMTYPE eText, @Nonnull final Locale aContentLocale)
+  {
+    final EnumMap <ENUMTYPE, ResolvedText> aTexts = _getTexts (aContentLocale);
+    if (aTexts == null)
+      return m_aResolver.apply (eText, aContentLocale);
+    return aTexts.get (eText).m_sText;
+  }
+
+  /**
+   * Get the resolved text formatted with the passed arguments.
+   *
+   * @param eText
+   *        The enum constant. May not be <code>null</code>.
+   * @param aContentLocale
+   *        The locale to use. May not be <code>null</code>.
+   * @param aArgs
+   *        The arguments to be filled in. May be <code>null</code>.
+   * @return The formatted text, the unformatted text if no arguments are
+   *         present or <code>null</code> if the resolver returned
+   *         <code>null</code>.
+   */
+  @Nullable
+  public String getTextWithArgs (@Nonnull final ENUMTYPE eText,
+                                 @Nonnull final Locale aContentLocale,
+                                 @Nullable final Object... aArgs)
+  {
+    final EnumMap <ENUMTYPE, ResolvedText> aTexts = _getTexts (aContentLocale);
+    if (aTexts == null)
+    {
+      // Uncached
+      final String sText = m_aResolver.apply (eText, aContentLocale);
+      if (sText == null || aArgs == null || aArgs.length == 0)
+        return sText;
+      return _createFormat (sText).format (aArgs);
+    }
+
+    final ResolvedText aText = aTexts.get (eText);
+    if (aText.m_aFormat == null || aArgs == null || aArgs.length == 0)
+      return aText.m_sText;
+    return ((MessageFormat) aText.m_aFormat.clone ()).format (aArgs);
+  }
+
+  /**
+   * @return The maximum number of cached locales. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getMaxLocales ()
+  {
+    return m_nMaxLocales;
+  }
+
+  /**
+   * @return The number of locales for which the texts were resolved and cached
+   *         so far.
+   */
+  @Nonnegative
+  public int getLocaleCount ()
+  {
+    return m_aTexts.size ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("EnumClass", m_aEnumClass)
+                                       .append ("MaxLocales", m_nMaxLocales)
+                                       .append ("Locales", m_aTexts.keySet ())
+                                       .toString ();
+  }
+}
@@ -16,28 +16,50 @@
  */
 package com.helger.ebinterface.ubl.from;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import com.helger.commons.annotation.Translatable;
+import com.helger.commons.error.SingleError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.error.text.IHasErrorText;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.text.IMultilingualText;
 import com.helger.commons.text.display.IHasDisplayTextWithArgs;
 import com.helger.commons.text.resolve.DefaultTextResolver;
 import com.helger.commons.text.util.TextHelper;
 import com.helger.ebinterface.ubl.AbstractConverter;
+import com.helger.ebinterface.ubl.DeferredErrorText;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.LocalizedTextCache;
+import com.helger.ebinterface.ubl.from.helper.BankAccountValidator;
+import com.helger.ebinterface.ubl.from.helper.ConversionPhaseTimer;
+import com.helger.ebinterface.ubl.from.helper.EBICValidationResult;
+import com.helger.ebinterface.ubl.from.helper.EIBANValidationResult;
+import com.helger.ebinterface.ubl.from.helper.PeppolProfileIndex;
+import com.helger.ebinterface.ubl.from.helper.TotalsAccumulator;
 import com.helger.ebinterface.v42.Ebi42DocumentTypeType;
 import com.helger.ebinterface.v42.Ebi42InvoiceType;
 import com.helger.ebinterface.v42.Ebi42RelatedDocumentType;
+import com.helger.ebinterface.v42.Ebi42VATItemType;
 
 import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.AllowanceChargeType;
 import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.BillingReferenceType;
 import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.DocumentReferenceType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.MonetaryTotalType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxTotalType;
 import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.AllowanceChargeReasonType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.CustomizationIDType;
 
 /**
  * Base class for PEPPOL UBL to ebInterface converter
@@ -126,8 +148,28 @@ public abstract class AbstractToEbInterfaceConverter extends AbstractConverter
     PAYMENT_ID_TOO_LONG_CUT ("Die Zahlungsreferenz ''{0}'' ist zu lang und wird abgeschnitten.",
                              "The payment reference ''{0}'' is too long and therefore cut."),
     BIC_INVALID ("Der BIC ''{0}'' ist ungültig.", "The BIC ''{0}'' is invalid."),
+    BIC_INVALID_LENGTH ("Der BIC ''{0}'' muss 8 oder 11 Zeichen lang sein, ist aber {1} Zeichen lang.",
+                        "The BIC ''{0}'' must have 8 or 11 characters but has {1} characters."),
+    BIC_INVALID_CHARACTER ("Der BIC ''{0}'' darf nur Buchstaben und Ziffern enthalten.",
+                           "The BIC ''{0}'' may only contain letters and digits."),
+    BIC_INVALID_COUNTRY_CODE ("Der BIC ''{0}'' enthält an der fünften und sechsten Stelle keinen Ländercode.",
+                              "The BIC ''{0}'' does not contain a country code at the fifth and sixth position."),
+    TOTALS_AMOUNT_MISMATCH ("Der Betrag {1} von ''{0}'' weicht um mehr als {3} vom berechneten Betrag {2} ab.",
+                            "The amount {1} of ''{0}'' differs by more than {3} from the calculated amount {2}."),
+    TOTALS_TAXABLE_AMOUNT_MISMATCH ("Der steuerbare Betrag {1} für den Steuersatz {0}% weicht um mehr als {3} vom berechneten Betrag {2} ab.",
+                                    "The taxable amount {1} for the tax rate {0}% differs by more than {3} from the calculated amount {2}."),
     IBAN_TOO_LONG ("Der IBAN ''{0}'' ist zu lang. Er wurde nach {1} Zeichen abgeschnitten.",
                    "The IBAN ''{0}'' is too long and was cut to {1} characters."),
+    IBAN_INVALID_CHARACTER ("Der IBAN ''{0}'' darf nur Buchstaben und Ziffern ohne Leerzeichen enthalten.",
+                            "The IBAN ''{0}'' may only contain letters and digits without spaces."),
+    IBAN_INVALID_FORMAT ("Der IBAN ''{0}'' muss mit einem Ländercode aus zwei Buchstaben und zwei Prüfziffern beginnen.",
+                         "The IBAN ''{0}'' must start with a two letter country code and two check digits."),
+    IBAN_UNKNOWN_COUNTRY ("Der Ländercode ''{1}'' des IBAN ''{0}'' wird für IBANs nicht verwendet.",
+                          "The country code ''{1}'' of the IBAN ''{0}'' is not used for IBANs."),
+    IBAN_INVALID_LENGTH ("Der IBAN ''{0}'' muss für das Land ''{1}'' {2} Zeichen lang sein, ist aber {3} Zeichen lang.",
+                         "The IBAN ''{0}'' must have {2} characters for country ''{1}'' but has {3} characters."),
+    IBAN_INVALID_CHECKSUM ("Die Prüfziffern des IBAN ''{0}'' sind falsch.",
+                           "The check digits of the IBAN ''{0}'' are wrong."),
     PAYMENTMEANS_UNSUPPORTED_CHANNELCODE ("Die Zahlungsart mit dem ChannelCode ''{0}'' wird ignoriert.",
                                           "The payment means with ChannelCode ''{0}'' are ignored."),
     ERB_NO_PAYMENT_METHOD ("Es muss eine Zahlungsart angegeben werden.", "A payment method must be provided."),
@@ -143,7 +185,23 @@ public abstract class AbstractToEbInterfaceConverter extends AbstractConverter
                           "A Delivery/DeliveryDate or an InvoicePeriod must be present."),
     PREPAID_NOT_SUPPORTED ("Das Element <PrepaidAmount> wird nicht unterstützt.",
                            "The <PrepaidAmount> element is not supported!"),
-    MISSING_TAXCATEGORY_ID ("Das Element <ID> fehlt.", "Element <ID> is missing.");
+    MISSING_TAXCATEGORY_ID ("Das Element <ID> fehlt.", "Element <ID> is missing."),
+    UNSUPPORTED_ROOT_ELEMENT ("Das Wurzelelement ''{0}'' wird nicht unterstützt.",
+                              "The root element ''{0}'' is not supported."),
+    XML_READ_ERROR ("Das XML-Dokument konnte nicht gelesen werden.", "Failed to read the XML document."),
+    UBL_READ_ERROR ("Das UBL-Dokument vom Typ ''{0}'' konnte nicht gelesen werden.",
+                    "Failed to read the UBL document of type ''{0}''."),
+    DOCUMENT_READ_ERROR ("Das Dokument vom Typ ''{0}'' konnte nicht gelesen werden.",
+                         "Failed to read the document of type ''{0}''."),
+    NO_ROOT_ELEMENT ("In den ersten {0} Bytes wurde kein XML-Wurzelelement gefunden.",
+                     "No XML root element was found in the first {0} bytes."),
+    EBI_WRITE_ERROR ("Das ebInterface-Dokument konnte nicht geschrieben werden.",
+                     "Failed to write the ebInterface document."),
+    CONVERSION_ERROR ("Beim Konvertieren des Dokuments ist ein unerwarteter Fehler aufgetreten: {0}",
+                      "An unexpected error occurred while converting the document: {0}");
+
+    private static final LocalizedTextCache <EText> s_aTextCache = new LocalizedTextCache <> (EText.class,
+                                                                                             EText::_resolveText);
 
     private final IMultilingualText m_aTP;
 
@@ -152,10 +210,45 @@ public abstract class AbstractToEbInterfaceConverter extends AbstractConverter
       m_aTP = TextHelper.create_DE_EN (sDE, sEN);
     }
 
+    @Nullable
+    private static String _resolveText (@Nonnull final EText eText, @Nonnull final Locale aContentLocale)
+    {
+      return DefaultTextResolver.getTextStatic (eText, eText.m_aTP, aContentLocale);
+    }
+
+    /**
+     * Get the display text in the passed locale. The texts of each locale are
+     * resolved once and cached afterwards.
+     *
+     * @param aContentLocale
+     *        The locale to use. May not be <code>null</code>.
+     * @return The resolved text.
+     */
     @Nullable
     public String getDisplayText (@Nonnull final Locale aContentLocale)
     {
-      return DefaultTextResolver.getTextStatic (this, m_aTP, aContentLocale);
+      return s_aTextCache.getText (this, aContentLocale);
+    }
+
+    @Override
+    @Nullable
+    public String getDisplayTextWithArgs (@Nonnull final Locale aContentLocale, @Nullable final Object... aArgs)
+    {
+      return s_aTextCache.getTextWithArgs (this, aContentLocale, aArgs);
+    }
+
+    /**
+     * Get an error text that is formatted lazily in the locale requested by
+     * the caller of {@link com.helger.commons.error.IError#getErrorText(Locale)}.
+     *
+     * @param aArgs
+     *        The optional arguments to be filled in. May be <code>null</code>.
+     * @return The deferred error text. Never <code>null</code>.
+     */
+    @Nonnull
+    public IHasErrorText getAsErrorText (@Nullable final Object... aArgs)
+    {
+      return new DeferredErrorText (this, aArgs);
     }
   }
 
@@ -165,7 +258,22 @@ public abstract class AbstractToEbInterfaceConverter extends AbstractConverter
    */
   public static final String PEPPOL_FAKE_BILLER_EMAIL_ADDRESS = "no-email-address-provided@peppol.eu";
 
+  /** A reasonable tolerance for the totals verification: one cent */
+  public static final BigDecimal DEFAULT_TOTALS_TOLERANCE = new BigDecimal ("0.01");
+  /** By default lines are converted sequentially */
+  public static final int DEFAULT_PARALLEL_LINE_THRESHOLD = 0;
+  /** The default number of lines converted by a single parallel task */
+  public static final int DEFAULT_PARALLEL_LINE_CHUNK_SIZE = 1024;
+
   protected final boolean m_bStrictERBMode;
+  protected final boolean m_bFailFast;
+  protected final boolean m_bCheckCustomizationID;
+  protected final BigDecimal m_aTotalsTolerance;
+  protected final boolean m_bTotalsMismatchIsError;
+  protected final int m_nParallelLineThreshold;
+  protected final int m_nParallelLineChunkSize;
+  protected final boolean m_bParallelSections;
+  protected final IConversionPhaseListener m_aPhaseListener;
 
   /**
    * Constructor
@@ -185,6 +293,391 @@ public abstract class AbstractToEbInterfaceConverter extends AbstractConverter
   {
     super (aDisplayLocale, aContentLocale);
     m_bStrictERBMode = bStrictERBMode;
+    m_bFailFast = false;
+    m_bCheckCustomizationID = false;
+    m_aTotalsTolerance = null;
+    m_bTotalsMismatchIsError = false;
+    m_nParallelLineThreshold = DEFAULT_PARALLEL_LINE_THRESHOLD;
+    m_nParallelLineChunkSize = DEFAULT_PARALLEL_LINE_CHUNK_SIZE;
+    m_bParallelSections = false;
+    m_aPhaseListener = null;
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aBuilder
+   *        The builder with all settings. May not be <code>null</code>.
+   */
+  protected AbstractToEbInterfaceConverter (@Nonnull final AbstractToEbInterfaceConverterBuilder <?, ?, ?> aBuilder)
+  {
+    super (aBuilder.m_aDisplayLocale, aBuilder.m_aContentLocale);
+    m_bStrictERBMode = aBuilder.m_bStrictERBMode;
+    m_bFailFast = aBuilder.m_bFailFast;
+    m_bCheckCustomizationID = aBuilder.m_bCheckCustomizationID;
+    m_aTotalsTolerance = aBuilder.m_aTotalsTolerance;
+    m_bTotalsMismatchIsError = aBuilder.m_bTotalsMismatchIsError;
+    m_nParallelLineThreshold = aBuilder.m_nParallelLineThreshold;
+    m_nParallelLineChunkSize = aBuilder.m_nParallelLineChunkSize;
+    m_bParallelSections = aBuilder.m_bParallelSections;
+    m_aPhaseListener = aBuilder.m_aPhaseListener;
+  }
+
+  /**
+   * @return <code>true</code> if E-RECHNUNG.GV.AT specific checks are
+   *         performed.
+   */
+  public final boolean isStrictERBMode ()
+  {
+    return m_bStrictERBMode;
+  }
+
+  /**
+   * @return <code>true</code> if the conversion stops at the first error and
+   *         returns <code>null</code>, <code>false</code> if all errors of a
+   *         document are collected.
+   */
+  public final boolean isFailFast ()
+  {
+    return m_bFailFast;
+  }
+
+  /**
+   * @return <code>true</code> if the UBL CustomizationID is checked against
+   *         the predefined PEPPOL process of the ProfileID.
+   */
+  public final boolean isCheckCustomizationID ()
+  {
+    return m_bCheckCustomizationID;
+  }
+
+  /**
+   * @return The maximum allowed difference between the declared and the
+   *         calculated totals or <code>null</code> if the totals are not
+   *         verified.
+   */
+  @Nullable
+  public final BigDecimal getTotalsTolerance ()
+  {
+    return m_aTotalsTolerance;
+  }
+
+  /**
+   * @return <code>true</code> if mismatching totals are reported as errors,
+   *         <code>false</code> if they are reported as warnings.
+   */
+  public final boolean isTotalsMismatchIsError ()
+  {
+    return m_bTotalsMismatchIsError;
+  }
+
+  /**
+   * @return The minimum number of lines of a document so that the lines are
+   *         converted in parallel. Values &le; 0 mean that lines are always
+   *         converted sequentially.
+   */
+  public final int getParallelLineThreshold ()
+  {
+    return m_nParallelLineThreshold;
+  }
+
+  /**
+   * @return The number of lines converted by a single parallel task. Always
+   *         &gt; 0.
+   */
+  @Nonnegative
+  public final int getParallelLineChunkSize ()
+  {
+    return m_nParallelLineChunkSize;
+  }
+
+  /**
+   * @return <code>true</code> if independent sections of a document (header,
+   *         parties, tax totals, monetary totals and payment, delivery) are
+   *         converted in parallel, <code>false</code> if everything is
+   *         converted sequentially.
+   */
+  public final boolean isParallelSections ()
+  {
+    return m_bParallelSections;
+  }
+
+  /**
+   * @return The optional listener for the conversion phases. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public final IConversionPhaseListener getPhaseListener ()
+  {
+    return m_aPhaseListener;
+  }
+
+  /**
+   * Create the timer for a single conversion.
+   *
+   * @param eRoute
+   *        The conversion route of the UBL document type to be converted. May
+   *        not be <code>null</code>.
+   * @return <code>null</code> if no phase listener is installed.
+   */
+  @Nullable
+  protected final ConversionPhaseTimer createPhaseTimer (@Nonnull final EDocumentRoute eRoute)
+  {
+    return m_aPhaseListener == null ? null : new ConversionPhaseTimer (m_aPhaseListener, eRoute, m_bStrictERBMode);
+  }
+
+  /**
+   * Check if the lines of a document should be converted in parallel.
+   *
+   * @param nLineCount
+   *        The number of lines of the document.
+   * @return <code>true</code> to convert in parallel.
+   */
+  protected final boolean isParallelLineConversion (final int nLineCount)
+  {
+    return m_nParallelLineThreshold > 0 && nLineCount >= m_nParallelLineThreshold && nLineCount > m_nParallelLineChunkSize;
+  }
+
+  /**
+   * Check if the conversion should be aborted, because fail-fast mode is
+   * enabled and an error is already present.
+   *
+   * @param aTransformationErrorList
+   *        The error list to check. May not be <code>null</code>.
+   * @return <code>true</code> to abort the conversion.
+   */
+  protected final boolean isFailFastAbort (@Nonnull final ErrorList aTransformationErrorList)
+  {
+    return m_bFailFast && aTransformationErrorList.containsAtLeastOneError ();
+  }
+
+  /**
+   * Check the UBL CustomizationID of a document. Only called if
+   * {@link #isCheckCustomizationID()} is <code>true</code>. The supported
+   * CustomizationIDs are taken from the precomputed {@link PeppolProfileIndex}
+   * so this check does not scan the document types of the process.
+   *
+   * @param aCustomizationID
+   *        The UBL CustomizationID of the document. May be <code>null</code>.
+   * @param sProfileID
+   *        The trimmed UBL ProfileID of the document. If it is not a
+   *        predefined PEPPOL process, the CustomizationID value is not checked.
+   *        May be <code>null</code>.
+   * @param aTransformationErrorList
+   *        The error list to add the warnings to. May not be
+   *        <code>null</code>.
+   */
+  protected static void checkCustomizationID (@Nullable final CustomizationIDType aCustomizationID,
+                                              @Nullable final String sProfileID,
+                                              @Nonnull final ErrorList aTransformationErrorList)
+  {
+    if (aCustomizationID == null)
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName ("CustomizationID")
+                                               .setErrorText (EText.NO_CUSTOMIZATION_ID.getAsErrorText ())
+                                               .build ());
+    else
+      if (!CUSTOMIZATION_SCHEMEID.equals (aCustomizationID.getSchemeID ()))
+        aTransformationErrorList.add (SingleError.builderWarn ()
+                                                 .setErrorFieldName ("CustomizationID/schemeID")
+                                                 .setErrorText (EText.INVALID_CUSTOMIZATION_SCHEME_ID.getAsErrorText (aCustomizationID.getSchemeID (),
+                                                                                                                      CUSTOMIZATION_SCHEMEID))
+                                                 .build ());
+      else
+        if (PeppolProfileIndex.getPredefinedProcessIdentifier (sProfileID) != null)
+        {
+          final String sCustomizationID = StringHelper.trim (aCustomizationID.getValue ());
+          if (PeppolProfileIndex.getDocumentTypeIdentifier (sProfileID, sCustomizationID) == null)
+            aTransformationErrorList.add (SingleError.builderWarn ()
+                                                     .setErrorFieldName ("CustomizationID")
+                                                     .setErrorText (EText.INVALID_CUSTOMIZATION_ID.getAsErrorText (sCustomizationID))
+                                                     .build ());
+        }
+  }
+
+  private void _addTotalsMismatch (@Nonnull final String sFieldName,
+                                   @Nonnull final IHasErrorText aErrorText,
+                                   @Nonnull final ErrorList aTransformationErrorList)
+  {
+    if (m_bTotalsMismatchIsError)
+      aTransformationErrorList.add (SingleError.builderError ()
+                                               .setErrorFieldName (sFieldName)
+                                               .setErrorText (aErrorText)
+                                               .build ());
+    else
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName (sFieldName)
+                                               .setErrorText (aErrorText)
+                                               .build ());
+  }
+
+  private void _verifyAmount (@Nonnull final String sFieldName,
+                              @Nullable final BigDecimal aDeclared,
+                              @Nonnull final BigDecimal aCalculated,
+                              @Nonnull final ErrorList aTransformationErrorList)
+  {
+    if (aDeclared == null)
+      return;
+    final BigDecimal aDeclared2 = aDeclared.setScale (SCALE_PRICE2, ROUNDING_MODE);
+    final BigDecimal aCalculated2 = aCalculated.setScale (SCALE_PRICE2, ROUNDING_MODE);
+    if (aDeclared2.subtract (aCalculated2).abs ().compareTo (m_aTotalsTolerance) > 0)
+      _addTotalsMismatch (sFieldName,
+                          EText.TOTALS_AMOUNT_MISMATCH.getAsErrorText (sFieldName,
+                                                                       aDeclared2,
+                                                                       aCalculated2,
+                                                                       m_aTotalsTolerance),
+                          aTransformationErrorList);
+  }
+
+  /**
+   * Verify the declared totals of a document against the totals calculated
+   * during the conversion. Does nothing if no totals tolerance is set. The
+   * taxable amounts per VAT rate are taken from the already converted VAT
+   * items (one per tax subtotal), so the converted lines are not traversed
+   * again.
+   *
+   * @param aTotals
+   *        The totals accumulated during the conversion of the lines and the
+   *        global allowances and charges. May not be <code>null</code>.
+   * @param aUBLMonetaryTotal
+   *        The UBL legal monetary total. May be <code>null</code>.
+   * @param sMonetaryTotalFieldName
+   *        The error field name of the legal monetary total. May not be
+   *        <code>null</code>.
+   * @param aTransformationErrorList
+   *        The error list to add the mismatches to. May not be
+   *        <code>null</code>.
+   * @param aEbiDoc
+   *        The ebInterface document with the converted tax. May not be
+   *        <code>null</code>.
+   */
+  protected final void verifyTotals (@Nonnull final TotalsAccumulator aTotals,
+                                     @Nullable final MonetaryTotalType aUBLMonetaryTotal,
+                                     @Nonnull final String sMonetaryTotalFieldName,
+                                     @Nonnull final ErrorList aTransformationErrorList,
+                                     @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    if (m_aTotalsTolerance == null)
+      return;
+
+    if (aUBLMonetaryTotal != null)
+    {
+      _verifyAmount (sMonetaryTotalFieldName + "/LineExtensionAmount",
+                     aUBLMonetaryTotal.getLineExtensionAmountValue (),
+                     aTotals.getLineItemAmount (),
+                     aTransformationErrorList);
+      _verifyAmount (sMonetaryTotalFieldName + "/AllowanceTotalAmount",
+                     aUBLMonetaryTotal.getAllowanceTotalAmountValue (),
+                     aTotals.getAllowanceTotalAmount (),
+                     aTransformationErrorList);
+      _verifyAmount (sMonetaryTotalFieldName + "/ChargeTotalAmount",
+                     aUBLMonetaryTotal.getChargeTotalAmountValue (),
+                     aTotals.getChargeTotalAmount (),
+                     aTransformationErrorList);
+      _verifyAmount (sMonetaryTotalFieldName + "/TaxExclusiveAmount",
+                     aUBLMonetaryTotal.getTaxExclusiveAmountValue (),
+                     aTotals.getTaxExclusiveAmount (),
+                     aTransformationErrorList);
+    }
+
+    // Taxable amounts per VAT rate - only if all rates are known
+    if (aTotals.isAllVATRatesKnown () && aEbiDoc.getTax () != null && aEbiDoc.getTax ().getVAT () != null)
+    {
+      final Map <BigDecimal, BigDecimal> aDeclared = new TreeMap <> ();
+      for (final Ebi42VATItemType aEbiVATItem : aEbiDoc.getTax ().getVAT ().getVATItem ())
+        if (aEbiVATItem.getVATRate () != null && aEbiVATItem.getTaxedAmount () != null)
+          aDeclared.merge (aEbiVATItem.getVATRate ().getValue (), aEbiVATItem.getTaxedAmount (), BigDecimal::add);
+
+      final Set <BigDecimal> aAllVATRates = new TreeSet <> (aDeclared.keySet ());
+      aAllVATRates.addAll (aTotals.getAllVATRates ());
+      for (final BigDecimal aVATRate : aAllVATRates)
+      {
+        final BigDecimal aDeclaredAmount = aDeclared.getOrDefault (aVATRate, BigDecimal.ZERO)
+                                                    .setScale (SCALE_PRICE2, ROUNDING_MODE);
+        final BigDecimal aCalculatedAmount = aTotals.getTaxableAmount (aVATRate).setScale (SCALE_PRICE2, ROUNDING_MODE);
+        if (aDeclaredAmount.subtract (aCalculatedAmount).abs ().compareTo (m_aTotalsTolerance) > 0)
+          _addTotalsMismatch ("TaxTotal/TaxSubtotal",
+                              EText.TOTALS_TAXABLE_AMOUNT_MISMATCH.getAsErrorText (aVATRate,
+                                                                                   aDeclaredAmount,
+                                                                                   aCalculatedAmount,
+                                                                                   m_aTotalsTolerance),
+                              aTransformationErrorList);
+      }
+    }
+  }
+
+  /**
+   * @param aUBLTaxTotals
+   *        The UBL tax totals. May not be <code>null</code>.
+   * @return The number of tax subtotals in all passed tax totals.
+   */
+  @Nonnegative
+  protected static int getTaxSubtotalCount (@Nonnull final List <TaxTotalType> aUBLTaxTotals)
+  {
+    int ret = 0;
+    for (final TaxTotalType aUBLTaxTotal : aUBLTaxTotals)
+      ret += aUBLTaxTotal.getTaxSubtotalCount ();
+    return ret;
+  }
+
+  /**
+   * @param sBIC
+   *        The checked BIC. May be <code>null</code>.
+   * @param eResult
+   *        The result of {@link BankAccountValidator#validateBIC(String)}. May
+   *        not be <code>null</code> and may not be valid.
+   * @return The error text describing the problem. Never <code>null</code>.
+   */
+  @Nonnull
+  protected static IHasErrorText getBICErrorText (@Nullable final String sBIC,
+                                                  @Nonnull final EBICValidationResult eResult)
+  {
+    if (StringHelper.hasNoText (sBIC))
+      return EText.BIC_INVALID.getAsErrorText (sBIC);
+    switch (eResult)
+    {
+      case INVALID_LENGTH:
+        return EText.BIC_INVALID_LENGTH.getAsErrorText (sBIC, Integer.valueOf (sBIC.length ()));
+      case INVALID_CHARACTER:
+        return EText.BIC_INVALID_CHARACTER.getAsErrorText (sBIC);
+      case INVALID_COUNTRY_CODE:
+        return EText.BIC_INVALID_COUNTRY_CODE.getAsErrorText (sBIC);
+      default:
+        return EText.BIC_INVALID.getAsErrorText (sBIC);
+    }
+  }
+
+  /**
+   * @param sIBAN
+   *        The checked IBAN. May not be <code>null</code>.
+   * @param eResult
+   *        The result of {@link BankAccountValidator#validateIBAN(String)}.
+   *        May not be <code>null</code> and may not be valid.
+   * @return The error text describing the problem. Never <code>null</code>.
+   */
+  @Nonnull
+  protected static IHasErrorText getIBANErrorText (@Nonnull final String sIBAN,
+                                                   @Nonnull final EIBANValidationResult eResult)
+  {
+    switch (eResult)
+    {
+      case INVALID_CHARACTER:
+        return EText.IBAN_INVALID_CHARACTER.getAsErrorText (sIBAN);
+      case UNKNOWN_COUNTRY:
+        return EText.IBAN_UNKNOWN_COUNTRY.getAsErrorText (sIBAN, sIBAN.substring (0, 2));
+      case INVALID_LENGTH:
+      {
+        final String sCountryCode = sIBAN.substring (0, 2);
+        return EText.IBAN_INVALID_LENGTH.getAsErrorText (sIBAN,
+                                                         sCountryCode,
+                                                         Integer.valueOf (BankAccountValidator.getIBANLength (sCountryCode)),
+                                                         Integer.valueOf (sIBAN.length ()));
+      }
+      case INVALID_CHECKSUM:
+        return EText.IBAN_INVALID_CHECKSUM.getAsErrorText (sIBAN);
+      default:
+        return EText.IBAN_INVALID_FORMAT.getAsErrorText (sIBAN);
+    }
   }
 
   @Nonnull
@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.builder.IBuilder;
+
+/**
+ * Abstract builder for the immutable UBL to ebInterface converters.
+ *
+ * @author Philip Helger
+ * @param <IMPLTYPE>
+ *        Implementation type
+ * @param <CUSTOMIZERTYPE>
+ *        Customizer type
+ * @param <CONVERTERTYPE>
+ *        Converter type to be build
+ */
+@NotThreadSafe
+public abstract class AbstractToEbInterfaceConverterBuilder <IMPLTYPE extends AbstractToEbInterfaceConverterBuilder <IMPLTYPE, CUSTOMIZERTYPE, CONVERTERTYPE>, CUSTOMIZERTYPE, CONVERTERTYPE extends AbstractToEbInterfaceConverter>
+                                                            implements
+                                                            IBuilder <CONVERTERTYPE>
+{
+  protected Locale m_aDisplayLocale;
+  protected Locale m_aContentLocale;
+  protected boolean m_bStrictERBMode = false;
+  protected boolean m_bFailFast = false;
+  protected boolean m_bCheckCustomizationID = false;
+  protected BigDecimal m_aTotalsTolerance;
+  protected boolean m_bTotalsMismatchIsError = false;
+  protected int m_nParallelLineThreshold = AbstractToEbInterfaceConverter.DEFAULT_PARALLEL_LINE_THRESHOLD;
+  protected int m_nParallelLineChunkSize = AbstractToEbInterfaceConverter.DEFAULT_PARALLEL_LINE_CHUNK_SIZE;
+  protected boolean m_bParallelSections = false;
+  protected IConversionPhaseListener m_aPhaseListener;
+  protected CUSTOMIZERTYPE m_aCustomizer;
+
+  protected AbstractToEbInterfaceConverterBuilder ()
+  {}
+
+  @SuppressWarnings ("unchecked")
+  @Nonnull
+  protected final IMPLTYPE thisAsT ()
+  {
+    return (IMPLTYPE) this;
+  }
+
+  /**
+   * @param aDisplayLocale
+   *        The locale for error messages. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setDisplayLocale (@Nonnull final Locale aDisplayLocale)
+  {
+    ValueEnforcer.notNull (aDisplayLocale, "DisplayLocale");
+    m_aDisplayLocale = aDisplayLocale;
+    return thisAsT ();
+  }
+
+  /**
+   * @param aContentLocale
+   *        The locale for the created ebInterface files. May not be
+   *        <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setContentLocale (@Nonnull final Locale aContentLocale)
+  {
+    ValueEnforcer.notNull (aContentLocale, "ContentLocale");
+    m_aContentLocale = aContentLocale;
+    return thisAsT ();
+  }
+
+  /**
+   * Set display locale and content locale at once.
+   *
+   * @param aLocale
+   *        The locale for error messages and the created ebInterface files.
+   *        May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setLocale (@Nonnull final Locale aLocale)
+  {
+    return setDisplayLocale (aLocale).setContentLocale (aLocale);
+  }
+
+  /**
+   * Take over all settings of an existing converter except the customizer.
+   *
+   * @param aConverter
+   *        The converter to take the settings from. May not be
+   *        <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setAllFrom (@Nonnull final AbstractToEbInterfaceConverter aConverter)
+  {
+    ValueEnforcer.notNull (aConverter, "Converter");
+    m_aDisplayLocale = aConverter.getDisplayLocale ();
+    m_aContentLocale = aConverter.getContentLocale ();
+    m_bStrictERBMode = aConverter.isStrictERBMode ();
+    m_bFailFast = aConverter.isFailFast ();
+    m_bCheckCustomizationID = aConverter.isCheckCustomizationID ();
+    m_aTotalsTolerance = aConverter.getTotalsTolerance ();
+    m_bTotalsMismatchIsError = aConverter.isTotalsMismatchIsError ();
+    m_nParallelLineThreshold = aConverter.getParallelLineThreshold ();
+    m_nParallelLineChunkSize = aConverter.getParallelLineChunkSize ();
+    m_bParallelSections = aConverter.isParallelSections ();
+    m_aPhaseListener = aConverter.getPhaseListener ();
+    return thisAsT ();
+  }
+
+  /**
+   * @param bStrictERBMode
+   *        <code>true</code> if E-RECHNUNG.GV.AT specific checks should be
+   *        performed. Default is <code>false</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setStrictERBMode (final boolean bStrictERBMode)
+  {
+    m_bStrictERBMode = bStrictERBMode;
+    return thisAsT ();
+  }
+
+  /**
+   * @param bFailFast
+   *        <code>true</code> to stop the conversion at the first error and
+   *        return <code>null</code>. The error list then contains all problems
+   *        found up to and including the first error. Default is
+   *        <code>false</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setFailFast (final boolean bFailFast)
+  {
+    m_bFailFast = bFailFast;
+    return thisAsT ();
+  }
+
+  /**
+   * @param bCheckCustomizationID
+   *        <code>true</code> to check that the UBL CustomizationID has the
+   *        schemeID {@value
+   *        AbstractToEbInterfaceConverter#CUSTOMIZATION_SCHEMEID} and is
+   *        supported by the predefined PEPPOL process of the ProfileID.
+   *        Problems are reported as warnings. Default is <code>false</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setCheckCustomizationID (final boolean bCheckCustomizationID)
+  {
+    m_bCheckCustomizationID = bCheckCustomizationID;
+    return thisAsT ();
+  }
+
+  /**
+   * Enable the verification of the UBL tax subtotals and the legal monetary
+   * total against the sums calculated while converting the lines and the
+   * global allowances and charges. All values are rounded to 2 fraction digits
+   * with {@link AbstractToEbInterfaceConverter#ROUNDING_MODE} before they are
+   * compared.
+   *
+   * @param aTotalsTolerance
+   *        The maximum allowed absolute difference. Must be &ge; 0 if present.
+   *        <code>null</code> disables the verification, which is the default.
+   *        See {@link AbstractToEbInterfaceConverter#DEFAULT_TOTALS_TOLERANCE}.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setTotalsTolerance (@Nullable final BigDecimal aTotalsTolerance)
+  {
+    if (aTotalsTolerance != null)
+      ValueEnforcer.isGE0 (aTotalsTolerance, "TotalsTolerance");
+    m_aTotalsTolerance = aTotalsTolerance;
+    return thisAsT ();
+  }
+
+  /**
+   * @param bTotalsMismatchIsError
+   *        <code>true</code> to report mismatching totals as errors,
+   *        <code>false</code> to report them as warnings. Only relevant if a
+   *        totals tolerance is set. Default is <code>false</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setTotalsMismatchIsError (final boolean bTotalsMismatchIsError)
+  {
+    m_bTotalsMismatchIsError = bTotalsMismatchIsError;
+    return thisAsT ();
+  }
+
+  /**
+   * Enable the parallel conversion of the lines of large documents. The lines
+   * are split into chunks that are converted in the common fork/join pool. The
+   * order of the created line items and of the errors is identical to the
+   * sequential conversion. The item customizer is invoked afterwards in line
+   * order in the calling thread. In fail-fast mode the lines after the first
+   * line with an error are not converted.
+   *
+   * @param nParallelLineThreshold
+   *        The minimum number of lines of a document so that the lines are
+   *        converted in parallel. Values &le; 0 disable the parallel
+   *        conversion. Default is {@value
+   *        AbstractToEbInterfaceConverter#DEFAULT_PARALLEL_LINE_THRESHOLD}.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setParallelLineThreshold (final int nParallelLineThreshold)
+  {
+    m_nParallelLineThreshold = nParallelLineThreshold;
+    return thisAsT ();
+  }
+
+  /**
+   * @param nParallelLineChunkSize
+   *        The number of lines converted by a single parallel task. Must be
+   *        &gt; 0. Default is {@value
+   *        AbstractToEbInterfaceConverter#DEFAULT_PARALLEL_LINE_CHUNK_SIZE}.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setParallelLineChunkSize (@Nonnegative final int nParallelLineChunkSize)
+  {
+    ValueEnforcer.isGT0 (nParallelLineChunkSize, "ParallelLineChunkSize");
+    m_nParallelLineChunkSize = nParallelLineChunkSize;
+    return thisAsT ();
+  }
+
+  /**
+   * Enable the parallel conversion of independent sections of a document. The
+   * header, the parties, the tax totals, the monetary totals with the payment
+   * and the delivery are converted concurrently in the common fork/join pool.
+   * The lines are converted as soon as the sections they depend on are done.
+   * All sections are finished when the conversion returns and the errors are
+   * merged in the same order as for the sequential conversion.
+   *
+   * @param bParallelSections
+   *        <code>true</code> to convert independent sections in parallel.
+   *        Default is <code>false</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setParallelSections (final boolean bParallelSections)
+  {
+    m_bParallelSections = bParallelSections;
+    return thisAsT ();
+  }
+
+  /**
+   * @param aPhaseListener
+   *        The optional listener to be informed about the duration of the
+   *        single conversion phases. As the built converter may be shared
+   *        between threads, the listener must be thread-safe as well. If it is
+   *        <code>null</code> no timing is performed. May be <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setPhaseListener (@Nullable final IConversionPhaseListener aPhaseListener)
+  {
+    m_aPhaseListener = aPhaseListener;
+    return thisAsT ();
+  }
+
+  /**
+   * @param aCustomizer
+   *        The optional customizer to be invoked after the default mapping.
+   *        As the built converter may be shared between threads, the
+   *        customizer must be thread-safe as well. Within a single conversion
+   *        the customizer is only invoked from the calling thread. May be
+   *        <code>null</code>.
+   * @return this for chaining
+   */
+  @Nonnull
+  public final IMPLTYPE setCustomizer (@Nullable final CUSTOMIZERTYPE aCustomizer)
+  {
+    m_aCustomizer = aCustomizer;
+    return thisAsT ();
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+/**
+ * The phases of a UBL to ebInterface conversion that are reported to an
+ * {@link IConversionPhaseListener}.
+ *
+ * @author Philip Helger
+ */
+public enum EConversionPhase
+{
+  /** Check of UBLVersionID, ProfileID, CustomizationID etc. */
+  CONSISTENCY_CHECK,
+  /** Header data like invoice number, dates and currency */
+  HEADER,
+  /** Biller, invoice recipient, ordering party and order reference */
+  PARTIES,
+  /** Tax totals and tax subtotals */
+  TAX_TOTALS,
+  /**
+   * All invoice or credit note lines, including the item mapping of the
+   * customizer
+   */
+  LINES,
+  /** Global allowances and charges */
+  GLOBAL_ALLOWANCE_CHARGES,
+  /** Legal monetary totals */
+  MONETARY_TOTAL,
+  /** Payment means and payment terms */
+  PAYMENT,
+  /** Delivery */
+  DELIVERY,
+  /** The global mapping of the customizer */
+  CUSTOMIZER;
+}
@@ -26,9 +26,10 @@ import com.helger.commons.collection.ext.CommonsArrayList;
 import com.helger.commons.collection.ext.ICommonsList;
 import com.helger.commons.error.SingleError;
 import com.helger.commons.error.list.ErrorList;
-import com.helger.commons.locale.country.CountryCache;
 import com.helger.commons.string.StringHelper;
+import com.helger.ebinterface.ubl.CodeListHelper;
 import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+import com.helger.ebinterface.ubl.from.helper.CountryNameCache;
 import com.helger.ebinterface.v42.Ebi42AddressIdentifierType;
 import com.helger.ebinterface.v42.Ebi42AddressIdentifierTypeType;
 import com.helger.ebinterface.v42.Ebi42AddressType;
@@ -58,8 +59,6 @@ public final class EbInterface42Helper
                                      @Nonnull final Locale aContentLocale,
                                      @Nonnull final Locale aDisplayLocale)
   {
-    final boolean bCountryErrorMsgEmitted = false;
-
     // Convert main address
     if (aUBLAddress != null)
     {
@@ -79,12 +78,25 @@ public final class EbInterface42Helper
 
         final String sCountryName = StringHelper.trim (aUBLAddress.getCountry ().getNameValue ());
         aEbiCountry.setValue (sCountryName);
-        if (StringHelper.hasNoText (sCountryName) && StringHelper.hasText (sEbiCountryCode))
+        if (StringHelper.hasText (sEbiCountryCode))
         {
-          // Write locale of country in content locale
-          final Locale aLocale = CountryCache.getInstance ().getCountry (sEbiCountryCode);
-          if (aLocale != null)
-            aEbiCountry.setValue (aLocale.getDisplayCountry (aContentLocale));
+          // Write the upper case code, as ebInterface is case sensitive
+          final String sNormalizedCountryCode = CountryNameCache.getNormalizedCountryCode (sEbiCountryCode);
+          if (sNormalizedCountryCode == null)
+            aTransformationErrorList.add (SingleError.builderError ()
+                                                     .setErrorFieldName (sPartyType +
+                                                                         "/PostalAddress/Country/IdentificationCode")
+                                                     .setErrorText (EText.ADDRESS_INVALID_COUNTRY.getAsErrorText (sEbiCountryCode))
+                                                     .build ());
+          else
+          {
+            aEbiCountry.setCountryCode (sNormalizedCountryCode);
+            if (StringHelper.hasNoText (sCountryName))
+            {
+              // Write name of country in content locale
+              aEbiCountry.setValue (CountryNameCache.getCountryName (sNormalizedCountryCode, aContentLocale));
+            }
+          }
         }
         aEbiAddress.setCountry (aEbiCountry);
       }
@@ -93,23 +105,23 @@ public final class EbInterface42Helper
     if (aEbiAddress.getStreet () == null)
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName (sPartyType + "/PostalAddress/StreetName")
-                                               .setErrorText (EText.ADDRESS_NO_STREET.getDisplayText (aDisplayLocale))
+                                               .setErrorText (EText.ADDRESS_NO_STREET.getAsErrorText ())
                                                .build ());
     if (aEbiAddress.getTown () == null)
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName (sPartyType + "/PostalAddress/CityName")
-                                               .setErrorText (EText.ADDRESS_NO_CITY.getDisplayText (aDisplayLocale))
+                                               .setErrorText (EText.ADDRESS_NO_CITY.getAsErrorText ())
                                                .build ());
     if (aEbiAddress.getZIP () == null)
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName (sPartyType + "/PostalAddress/PostalZone")
-                                               .setErrorText (EText.ADDRESS_NO_ZIPCODE.getDisplayText (aDisplayLocale))
+                                               .setErrorText (EText.ADDRESS_NO_ZIPCODE.getAsErrorText ())
                                                .build ());
-    if (aEbiAddress.getCountry () == null && !bCountryErrorMsgEmitted)
+    if (aEbiAddress.getCountry () == null)
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName (sPartyType +
                                                                    "/PostalAddress/Country/IdentificationCode")
-                                               .setErrorText (EText.ADDRESS_NO_COUNTRY.getDisplayText (aDisplayLocale))
+                                               .setErrorText (EText.ADDRESS_NO_COUNTRY.getAsErrorText ())
                                                .build ());
   }
 
@@ -125,7 +137,7 @@ public final class EbInterface42Helper
     if (aUBLParty.getPartyNameCount () > 1)
       aTransformationErrorList.add (SingleError.builderWarn ()
                                                .setErrorFieldName (sPartyType + "/PartyName")
-                                               .setErrorText (EText.MULTIPLE_PARTIES.getDisplayText (aDisplayLocale))
+                                               .setErrorText (EText.MULTIPLE_PARTIES.getAsErrorText ())
                                                .build ());
 
     // Convert name
@@ -136,7 +148,7 @@ public final class EbInterface42Helper
     if (aEbiAddress.getName () == null)
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName (sPartyType)
-                                               .setErrorText (EText.PARTY_NO_NAME.getDisplayText (aDisplayLocale))
+                                               .setErrorText (EText.PARTY_NO_NAME.getAsErrorText ())
                                                .build ());
 
     // Convert main address
@@ -180,22 +192,21 @@ public final class EbInterface42Helper
         // Check all identifier types
         final String sSchemeIDToSearch = StringHelper.trim (aUBLParty.getEndpointID ().getSchemeID ());
 
-        for (final Ebi42AddressIdentifierTypeType eType : Ebi42AddressIdentifierTypeType.values ())
-          if (eType.value ().equalsIgnoreCase (sSchemeIDToSearch))
-          {
-            final Ebi42AddressIdentifierType aEbiType = new Ebi42AddressIdentifierType ();
-            aEbiType.setAddressIdentifierType (eType);
-            aEbiType.setValue (sEndpointID);
-            aEbiAddress.getAddressIdentifier ().add (aEbiType);
-          }
+        final Ebi42AddressIdentifierTypeType eType = CodeListHelper.getAddressIdentifierType (sSchemeIDToSearch);
+        if (eType != null)
+        {
+          final Ebi42AddressIdentifierType aEbiType = new Ebi42AddressIdentifierType ();
+          aEbiType.setAddressIdentifierType (eType);
+          aEbiType.setValue (sEndpointID);
+          aEbiAddress.getAddressIdentifier ().add (aEbiType);
+        }
 
         if (aEbiAddress.hasNoAddressIdentifierEntries ())
           aTransformationErrorList.add (SingleError.builderWarn ()
                                                    .setErrorFieldName (sPartyType)
-                                                   .setErrorText (EText.PARTY_UNSUPPORTED_ENDPOINT.getDisplayTextWithArgs (aDisplayLocale,
-                                                                                                                           sEndpointID,
-                                                                                                                           aUBLParty.getEndpointID ()
-                                                                                                                                    .getSchemeID ()))
+                                                   .setErrorText (EText.PARTY_UNSUPPORTED_ENDPOINT.getAsErrorText (sEndpointID,
+                                                                                                                   aUBLParty.getEndpointID ()
+                                                                                                                            .getSchemeID ()))
                                                    .build ());
       }
     }
@@ -207,25 +218,25 @@ public final class EbInterface42Helper
       for (final PartyIdentificationType aUBLPartyID : aUBLParty.getPartyIdentification ())
       {
         final String sUBLPartyID = StringHelper.trim (aUBLPartyID.getIDValue ());
-        for (final Ebi42AddressIdentifierTypeType eType : Ebi42AddressIdentifierTypeType.values ())
-          if (eType.value ().equalsIgnoreCase (aUBLPartyID.getID ().getSchemeID ()))
-          {
-            // Add GLN/DUNS number
-            final Ebi42AddressIdentifierType aEbiType = new Ebi42AddressIdentifierType ();
-            aEbiType.setAddressIdentifierType (eType);
-            aEbiType.setValue (sUBLPartyID);
-            aEbiAddress.getAddressIdentifier ().add (aEbiType);
-          }
+        final Ebi42AddressIdentifierTypeType eType = CodeListHelper.getAddressIdentifierType (aUBLPartyID.getID ()
+                                                                                                         .getSchemeID ());
+        if (eType != null)
+        {
+          // Add GLN/DUNS number
+          final Ebi42AddressIdentifierType aEbiType = new Ebi42AddressIdentifierType ();
+          aEbiType.setAddressIdentifierType (eType);
+          aEbiType.setValue (sUBLPartyID);
+          aEbiAddress.getAddressIdentifier ().add (aEbiType);
+        }
         if (aEbiAddress.hasNoAddressIdentifierEntries ())
           aTransformationErrorList.add (SingleError.builderWarn ()
                                                    .setErrorFieldName (sPartyType +
                                                                        "/PartyIdentification[" +
                                                                        nPartyIdentificationIndex +
                                                                        "]")
-                                                   .setErrorText (EText.PARTY_UNSUPPORTED_ADDRESS_IDENTIFIER.getDisplayTextWithArgs (aDisplayLocale,
-                                                                                                                                     sUBLPartyID,
-                                                                                                                                     aUBLPartyID.getID ()
-                                                                                                                                                .getSchemeID ()))
+                                                   .setErrorText (EText.PARTY_UNSUPPORTED_ADDRESS_IDENTIFIER.getAsErrorText (sUBLPartyID,
+                                                                                                                             aUBLPartyID.getID ()
+                                                                                                                                        .getSchemeID ()))
                                                    .build ());
         ++nPartyIdentificationIndex;
       }
@@ -300,7 +311,7 @@ public final class EbInterface42Helper
       if (StringHelper.hasNoText (aEbiAddress.getName ()))
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName (sDeliveryType + "/DeliveryParty")
-                                                 .setErrorText (EText.DELIVERY_WITHOUT_NAME.getDisplayText (aDisplayLocale))
+                                                 .setErrorText (EText.DELIVERY_WITHOUT_NAME.getAsErrorText ())
                                                  .build ());
 
       aEbiDelivery.setAddress (aEbiAddress);
@@ -0,0 +1,867 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementRef;
+import javax.xml.bind.annotation.XmlElementRefs;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlValue;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.state.ESuccess;
+import com.helger.ebinterface.CEbInterface;
+import com.helger.ebinterface.v42.Ebi42AccountType;
+import com.helger.ebinterface.v42.Ebi42AddressIdentifierType;
+import com.helger.ebinterface.v42.Ebi42AddressType;
+import com.helger.ebinterface.v42.Ebi42BillerType;
+import com.helger.ebinterface.v42.Ebi42DeliveryType;
+import com.helger.ebinterface.v42.Ebi42DetailsType;
+import com.helger.ebinterface.v42.Ebi42DiscountType;
+import com.helger.ebinterface.v42.Ebi42FurtherIdentificationType;
+import com.helger.ebinterface.v42.Ebi42InvoiceRecipientType;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ebinterface.v42.Ebi42ItemListType;
+import com.helger.ebinterface.v42.Ebi42ListLineItemType;
+import com.helger.ebinterface.v42.Ebi42OrderReferenceDetailType;
+import com.helger.ebinterface.v42.Ebi42OrderReferenceType;
+import com.helger.ebinterface.v42.Ebi42OrderingPartyType;
+import com.helger.ebinterface.v42.Ebi42OtherTaxType;
+import com.helger.ebinterface.v42.Ebi42PaymentConditionsType;
+import com.helger.ebinterface.v42.Ebi42PaymentMethodType;
+import com.helger.ebinterface.v42.Ebi42PeriodType;
+import com.helger.ebinterface.v42.Ebi42ReductionAndSurchargeBaseType;
+import com.helger.ebinterface.v42.Ebi42ReductionAndSurchargeDetailsType;
+import com.helger.ebinterface.v42.Ebi42ReductionAndSurchargeListLineItemDetailsType;
+import com.helger.ebinterface.v42.Ebi42ReductionAndSurchargeType;
+import com.helger.ebinterface.v42.Ebi42RelatedDocumentType;
+import com.helger.ebinterface.v42.Ebi42TaxType;
+import com.helger.ebinterface.v42.Ebi42UniversalBankTransactionType;
+import com.helger.ebinterface.v42.Ebi42VATItemType;
+import com.helger.ebinterface.v42.Ebi42VATRateType;
+import com.helger.ebinterface.v42.Ebi42VATType;
+
+/**
+ * Hand written ebInterface 4.2 serializer based on {@link XMLStreamWriter}.
+ * Compared to the JAXB marshaller this avoids the reflection based JAXB
+ * machinery and any intermediate DOM or String representation. The elements
+ * are written in the order defined by the ebInterface 4.2 XML Schema.<br>
+ * Note: only the elements created by the UBL to ebInterface converters of this
+ * project are written by this class. Before writing, the invoice is checked for
+ * any other content (e.g. elements added by a customizer) and if such content
+ * is present, the invoice is written with the JAXB marshaller of the provided
+ * {@link UBLToEbInterfaceJAXBPool} instead, so that nothing is lost. No XML
+ * Schema validation is performed.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class EbInterface42StreamWriter
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (EbInterface42StreamWriter.class);
+  private static final String NS = CEbInterface.EBINTERFACE_42_NS;
+  private static final String ENCODING = "UTF-8";
+
+  /** Pseudo name for the text content of simple content elements */
+  private static final String TEXT_VALUE = "#value";
+  /** Pseudo name for element reference fields - the names are in the values */
+  private static final String ELEMENT_REF = "";
+  /**
+   * The child elements and attributes that are written by this class, per
+   * element name. Everything else requires the JAXB fallback.
+   */
+  private static final Map <String, Set <String>> s_aSupported = new HashMap <> ();
+  /** The relevant fields per JAXB class, including all super classes */
+  private static final ClassValue <List <XmlField>> s_aFields = new ClassValue <List <XmlField>> ()
+  {
+    @Override
+    protected List <XmlField> computeValue (final Class <?> aClass)
+    {
+      final List <XmlField> ret = new ArrayList <> ();
+      for (Class <?> aCur = aClass; aCur != null && aCur != Object.class; aCur = aCur.getSuperclass ())
+        for (final Field aField : aCur.getDeclaredFields ())
+        {
+          final int nModifiers = aField.getModifiers ();
+          if (Modifier.isStatic (nModifiers) ||
+              Modifier.isTransient (nModifiers) ||
+              aField.isSynthetic () ||
+              aField.isAnnotationPresent (XmlTransient.class))
+            continue;
+          aField.setAccessible (true);
+          ret.add (new XmlField (aField, _getXmlName (aField)));
+        }
+      return ret;
+    }
+  };
+
+  private static void _supports (@Nonnull final String sElement, @Nonnull final String... aChildren)
+  {
+    s_aSupported.put (sElement, new HashSet <> (Arrays.asList (aChildren)));
+  }
+
+  static
+  {
+    _supports ("Invoice",
+               "GeneratingSystem",
+               "DocumentType",
+               "InvoiceCurrency",
+               "IsDuplicate",
+               "InvoiceNumber",
+               "InvoiceDate",
+               "RelatedDocument",
+               "Delivery",
+               "Biller",
+               "InvoiceRecipient",
+               "OrderingParty",
+               "Details",
+               "ReductionAndSurchargeDetails",
+               "Tax",
+               "TotalGrossAmount",
+               "PayableAmount",
+               "PaymentMethod",
+               "PaymentConditions",
+               "Comment");
+    _supports ("RelatedDocument", "InvoiceNumber", "InvoiceDate", "DocumentType", "Comment");
+    _supports ("Delivery", "DeliveryID", "Date", "Period", "Address", "Description");
+    _supports ("Period", "FromDate", "ToDate");
+    _supports ("Address",
+               "AddressIdentifier",
+               "Salutation",
+               "Name",
+               "Street",
+               "POBox",
+               "Town",
+               "ZIP",
+               "Country",
+               "Phone",
+               "Email",
+               "Contact");
+    _supports ("AddressIdentifier", "AddressIdentifierType", TEXT_VALUE);
+    _supports ("Country", "CountryCode", TEXT_VALUE);
+    _supports ("Biller",
+               "VATIdentificationNumber",
+               "FurtherIdentification",
+               "OrderReference",
+               "Address",
+               "InvoiceRecipientsBillerID");
+    _supports ("InvoiceRecipient",
+               "VATIdentificationNumber",
+               "FurtherIdentification",
+               "OrderReference",
+               "Address",
+               "BillersInvoiceRecipientID");
+    _supports ("OrderingParty",
+               "VATIdentificationNumber",
+               "FurtherIdentification",
+               "OrderReference",
+               "Address",
+               "BillersOrderingPartyID");
+    _supports ("FurtherIdentification", "IdentificationType", TEXT_VALUE);
+    _supports ("OrderReference", "OrderID", "ReferenceDate", "Description", "OrderPositionNumber");
+    _supports ("InvoiceRecipientsOrderReference", "OrderID", "ReferenceDate", "Description", "OrderPositionNumber");
+    _supports ("Details", "HeaderDescription", "ItemList", "FooterDescription");
+    _supports ("ItemList", "HeaderDescription", "ListLineItem", "FooterDescription");
+    _supports ("ListLineItem",
+               "PositionNumber",
+               "Description",
+               "Quantity",
+               "UnitPrice",
+               "VATRate",
+               "ReductionAndSurchargeListLineItemDetails",
+               "Delivery",
+               "InvoiceRecipientsOrderReference",
+               "LineItemAmount");
+    _supports ("Quantity", "Unit", TEXT_VALUE);
+    _supports ("UnitPrice", "BaseQuantity", TEXT_VALUE);
+    _supports ("VATRate", "TaxCode", TEXT_VALUE);
+    _supports ("ReductionAndSurchargeListLineItemDetails", ELEMENT_REF);
+    _supports ("ReductionListLineItem", "BaseAmount", "Percentage", "Amount", "Comment");
+    _supports ("SurchargeListLineItem", "BaseAmount", "Percentage", "Amount", "Comment");
+    _supports ("ReductionAndSurchargeDetails", ELEMENT_REF);
+    _supports ("Reduction", "BaseAmount", "Percentage", "Amount", "Comment", "VATRate");
+    _supports ("Surcharge", "BaseAmount", "Percentage", "Amount", "Comment", "VATRate");
+    _supports ("Tax", "VAT", "OtherTax");
+    _supports ("VAT", "VATItem");
+    _supports ("VATItem", "TaxedAmount", "VATRate", "Amount");
+    _supports ("OtherTax", "Comment", "Amount");
+    _supports ("PaymentMethod", "Comment", "NoPayment", "DirectDebit", "UniversalBankTransaction");
+    _supports ("NoPayment");
+    _supports ("DirectDebit");
+    _supports ("UniversalBankTransaction", "BeneficiaryAccount", "PaymentReference");
+    _supports ("BeneficiaryAccount", "BankName", "BIC", "BankAccountNr", "IBAN", "BankAccountOwner");
+    _supports ("PaymentReference", "CheckSum", TEXT_VALUE);
+    _supports ("PaymentConditions", "DueDate", "Discount", "MinimumPayment", "Comment");
+    _supports ("Discount", "PaymentDate", "BaseAmount", "Percentage", "Amount");
+  }
+
+  private static final class XmlField
+  {
+    private final Field m_aField;
+    private final String m_sName;
+
+    XmlField (@Nonnull final Field aField, @Nullable final String sName)
+    {
+      m_aField = aField;
+      m_sName = sName;
+    }
+  }
+
+  private final XMLOutputFactory m_aXOF = XMLOutputFactory.newInstance ();
+  private final String m_sPrefix;
+  private final UBLToEbInterfaceJAXBPool m_aJAXBPool;
+
+  /**
+   * Constructor using a new {@link UBLToEbInterfaceJAXBPool} for compact output
+   * as fallback.
+   */
+  public EbInterface42StreamWriter ()
+  {
+    this (new UBLToEbInterfaceJAXBPool (2 * Runtime.getRuntime ().availableProcessors (), false));
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aJAXBPool
+   *        The JAXB pool whose marshaller is used for invoices containing
+   *        content that is not supported by this class. May not be
+   *        <code>null</code>.
+   */
+  public EbInterface42StreamWriter (@Nonnull final UBLToEbInterfaceJAXBPool aJAXBPool)
+  {
+    ValueEnforcer.notNull (aJAXBPool, "JAXBPool");
+    m_sPrefix = new EbiNamespaceContext ().getPrefix (NS);
+    m_aJAXBPool = aJAXBPool;
+  }
+
+  /**
+   * @param aField
+   *        The field to get the XML name of. May not be <code>null</code>.
+   * @return {@link #TEXT_VALUE} for the text content, {@link #ELEMENT_REF} for
+   *         element references and <code>null</code> for all kind of wildcards
+   *         which are never supported.
+   */
+  @Nullable
+  private static String _getXmlName (@Nonnull final Field aField)
+  {
+    final XmlElement aElement = aField.getAnnotation (XmlElement.class);
+    if (aElement != null)
+      return "##default".equals (aElement.name ()) ? aField.getName () : aElement.name ();
+    final XmlAttribute aAttribute = aField.getAnnotation (XmlAttribute.class);
+    if (aAttribute != null)
+      return "##default".equals (aAttribute.name ()) ? aField.getName () : aAttribute.name ();
+    if (aField.isAnnotationPresent (XmlValue.class))
+      return TEXT_VALUE;
+    if (aField.isAnnotationPresent (XmlElementRef.class) || aField.isAnnotationPresent (XmlElementRefs.class))
+      return ELEMENT_REF;
+    for (final Annotation aAnnotation : aField.getAnnotations ())
+      if (aAnnotation.annotationType ().getName ().startsWith ("javax.xml.bind.annotation.Xml"))
+      {
+        // XmlAnyElement, XmlAnyAttribute, XmlElements, XmlMixed etc.
+        return null;
+      }
+    return aField.getName ();
+  }
+
+  private static boolean _isSimpleValue (@Nonnull final Object aValue)
+  {
+    return aValue instanceof String ||
+           aValue instanceof Number ||
+           aValue instanceof Boolean ||
+           aValue instanceof Enum <?> ||
+           aValue instanceof XMLGregorianCalendar;
+  }
+
+  private static boolean _isSupportedChild (@Nonnull final Set <String> aAllowed,
+                                            @Nullable final String sFieldName,
+                                            @Nonnull final Object aValue)
+  {
+    String sName = sFieldName;
+    Object aRealValue = aValue;
+    if (aValue instanceof JAXBElement <?>)
+    {
+      final JAXBElement <?> aElement = (JAXBElement <?>) aValue;
+      sName = aElement.getName ().getLocalPart ();
+      aRealValue = aElement.getValue ();
+      if (aRealValue == null)
+        return false;
+    }
+    else
+      if (ELEMENT_REF.equals (sName))
+        return false;
+
+    if (sName == null || !aAllowed.contains (sName))
+      return false;
+    return _isSimpleValue (aRealValue) || _isSupported (sName, aRealValue);
+  }
+
+  private static boolean _isSupported (@Nonnull final String sElement, @Nonnull final Object aObject)
+  {
+    final Set <String> aAllowed = s_aSupported.get (sElement);
+    if (aAllowed == null)
+      return false;
+
+    for (final XmlField aXmlField : s_aFields.get (aObject.getClass ()))
+    {
+      final Object aValue;
+      try
+      {
+        aValue = aXmlField.m_aField.get (aObject);
+      }
+      catch (final IllegalAccessException ex)
+      {
+        return false;
+      }
+      if (aValue == null)
+        continue;
+
+      if (aValue instanceof Collection <?>)
+      {
+        for (final Object aItem : (Collection <?>) aValue)
+          if (aItem == null || !_isSupportedChild (aAllowed, aXmlField.m_sName, aItem))
+            return false;
+      }
+      else
+        if (aValue instanceof Map <?, ?>)
+        {
+          // Any attributes
+          if (!((Map <?, ?>) aValue).isEmpty ())
+            return false;
+        }
+        else
+          if (!_isSupportedChild (aAllowed, aXmlField.m_sName, aValue))
+            return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check if the passed invoice only contains content that is written by this
+   * class. Invoices created by the converters of this project are always fully
+   * supported.
+   *
+   * @param aInvoice
+   *        The invoice to check. May not be <code>null</code>.
+   * @return <code>true</code> if the invoice can be written without the JAXB
+   *         fallback, <code>false</code> if it contains other content.
+   */
+  static boolean isFullySupported (@Nonnull final Ebi42InvoiceType aInvoice)
+  {
+    return _isSupported ("Invoice", aInvoice);
+  }
+
+  private final class Writer
+  {
+    private final XMLStreamWriter m_aXSW;
+
+    Writer (@Nonnull final XMLStreamWriter aXSW)
+    {
+      m_aXSW = aXSW;
+    }
+
+    private void _start (@Nonnull final String sLocalName) throws XMLStreamException
+    {
+      m_aXSW.writeStartElement (m_sPrefix, sLocalName, NS);
+    }
+
+    private void _end () throws XMLStreamException
+    {
+      m_aXSW.writeEndElement ();
+    }
+
+    private void _attr (@Nonnull final String sLocalName, @Nullable final String sValue) throws XMLStreamException
+    {
+      if (sValue != null)
+        m_aXSW.writeAttribute (m_sPrefix, NS, sLocalName, sValue);
+    }
+
+    private void _text (@Nonnull final String sLocalName, @Nullable final String sValue) throws XMLStreamException
+    {
+      if (sValue != null)
+      {
+        _start (sLocalName);
+        m_aXSW.writeCharacters (sValue);
+        _end ();
+      }
+    }
+
+    private void _text (@Nonnull final String sLocalName, @Nullable final BigDecimal aValue) throws XMLStreamException
+    {
+      if (aValue != null)
+        _text (sLocalName, aValue.toPlainString ());
+    }
+
+    private void _text (@Nonnull final String sLocalName,
+                        @Nullable final XMLGregorianCalendar aValue) throws XMLStreamException
+    {
+      if (aValue != null)
+        _text (sLocalName, aValue.toXMLFormat ());
+    }
+
+    private void _orderReference (@Nonnull final String sLocalName,
+                                  @Nullable final Ebi42OrderReferenceType aOrderRef) throws XMLStreamException
+    {
+      if (aOrderRef != null)
+      {
+        _start (sLocalName);
+        _text ("OrderID", aOrderRef.getOrderID ());
+        _text ("ReferenceDate", aOrderRef.getReferenceDate ());
+        _text ("Description", aOrderRef.getDescription ());
+        if (aOrderRef instanceof Ebi42OrderReferenceDetailType)
+          _text ("OrderPositionNumber", ((Ebi42OrderReferenceDetailType) aOrderRef).getOrderPositionNumber ());
+        _end ();
+      }
+    }
+
+    private void _address (@Nullable final Ebi42AddressType aAddress) throws XMLStreamException
+    {
+      if (aAddress != null)
+      {
+        _start ("Address");
+        for (final Ebi42AddressIdentifierType aAI : aAddress.getAddressIdentifier ())
+        {
+          _start ("AddressIdentifier");
+          if (aAI.getAddressIdentifierType () != null)
+            _attr ("AddressIdentifierType", aAI.getAddressIdentifierType ().value ());
+          if (aAI.getValue () != null)
+            m_aXSW.writeCharacters (aAI.getValue ());
+          _end ();
+        }
+        _text ("Salutation", aAddress.getSalutation ());
+        _text ("Name", aAddress.getName ());
+        _text ("Street", aAddress.getStreet ());
+        _text ("POBox", aAddress.getPOBox ());
+        _text ("Town", aAddress.getTown ());
+        _text ("ZIP", aAddress.getZIP ());
+        if (aAddress.getCountry () != null)
+        {
+          _start ("Country");
+          _attr ("CountryCode", aAddress.getCountry ().getCountryCode ());
+          if (aAddress.getCountry ().getValue () != null)
+            m_aXSW.writeCharacters (aAddress.getCountry ().getValue ());
+          _end ();
+        }
+        _text ("Phone", aAddress.getPhone ());
+        _text ("Email", aAddress.getEmail ());
+        _text ("Contact", aAddress.getContact ());
+        _end ();
+      }
+    }
+
+    private void _furtherIdentification (@Nonnull final Iterable <Ebi42FurtherIdentificationType> aFIs) throws XMLStreamException
+    {
+      for (final Ebi42FurtherIdentificationType aFI : aFIs)
+      {
+        _start ("FurtherIdentification");
+        _attr ("IdentificationType", aFI.getIdentificationType ());
+        if (aFI.getValue () != null)
+          m_aXSW.writeCharacters (aFI.getValue ());
+        _end ();
+      }
+    }
+
+    private void _delivery (@Nullable final Ebi42DeliveryType aDelivery) throws XMLStreamException
+    {
+      if (aDelivery != null)
+      {
+        _start ("Delivery");
+        _text ("DeliveryID", aDelivery.getDeliveryID ());
+        _text ("Date", aDelivery.getDate ());
+        final Ebi42PeriodType aPeriod = aDelivery.getPeriod ();
+        if (aPeriod != null)
+        {
+          _start ("Period");
+          _text ("FromDate", aPeriod.getFromDate ());
+          _text ("ToDate", aPeriod.getToDate ());
+          _end ();
+        }
+        _address (aDelivery.getAddress ());
+        _text ("Description", aDelivery.getDescription ());
+        _end ();
+      }
+    }
+
+    private void _vatRate (@Nullable final Ebi42VATRateType aVATRate) throws XMLStreamException
+    {
+      if (aVATRate != null)
+      {
+        _start ("VATRate");
+        _attr ("TaxCode", aVATRate.getTaxCode ());
+        if (aVATRate.getValue () != null)
+          m_aXSW.writeCharacters (aVATRate.getValue ().toPlainString ());
+        _end ();
+      }
+    }
+
+    private void _reductionAndSurcharge (@Nonnull final JAXBElement <?> aElement) throws XMLStreamException
+    {
+      final Object aValue = aElement.getValue ();
+      if (aValue instanceof Ebi42ReductionAndSurchargeBaseType)
+      {
+        final Ebi42ReductionAndSurchargeBaseType aRS = (Ebi42ReductionAndSurchargeBaseType) aValue;
+        _start (aElement.getName ().getLocalPart ());
+        _text ("BaseAmount", aRS.getBaseAmount ());
+        _text ("Percentage", aRS.getPercentage ());
+        _text ("Amount", aRS.getAmount ());
+        _text ("Comment", aRS.getComment ());
+        if (aRS instanceof Ebi42ReductionAndSurchargeType)
+          _vatRate (((Ebi42ReductionAndSurchargeType) aRS).getVATRate ());
+        _end ();
+      }
+      else
+        throw new XMLStreamException ("Unsupported reduction and surcharge element " + aElement.getName ());
+    }
+
+    private void _listLineItem (@Nonnull final Ebi42ListLineItemType aItem) throws XMLStreamException
+    {
+      _start ("ListLineItem");
+      if (aItem.getPositionNumber () != null)
+        _text ("PositionNumber", aItem.getPositionNumber ().toString ());
+      for (final String sDescription : aItem.getDescription ())
+        _text ("Description", sDescription);
+      if (aItem.getQuantity () != null)
+      {
+        _start ("Quantity");
+        _attr ("Unit", aItem.getQuantity ().getUnit ());
+        if (aItem.getQuantity ().getValue () != null)
+          m_aXSW.writeCharacters (aItem.getQuantity ().getValue ().toPlainString ());
+        _end ();
+      }
+      if (aItem.getUnitPrice () != null)
+      {
+        _start ("UnitPrice");
+        if (aItem.getUnitPrice ().getBaseQuantity () != null)
+          _attr ("BaseQuantity", aItem.getUnitPrice ().getBaseQuantity ().toPlainString ());
+        if (aItem.getUnitPrice ().getValue () != null)
+          m_aXSW.writeCharacters (aItem.getUnitPrice ().getValue ().toPlainString ());
+        _end ();
+      }
+      _vatRate (aItem.getVATRate ());
+      final Ebi42ReductionAndSurchargeListLineItemDetailsType aRSDetails = aItem.getReductionAndSurchargeListLineItemDetails ();
+      if (aRSDetails != null)
+      {
+        _start ("ReductionAndSurchargeListLineItemDetails");
+        for (final JAXBElement <?> aElement : aRSDetails.getReductionListLineItemOrSurchargeListLineItemOrOtherVATableTaxListLineItem ())
+          _reductionAndSurcharge (aElement);
+        _end ();
+      }
+      _delivery (aItem.getDelivery ());
+      _orderReference ("InvoiceRecipientsOrderReference", aItem.getInvoiceRecipientsOrderReference ());
+      _text ("LineItemAmount", aItem.getLineItemAmount ());
+      _end ();
+    }
+
+    private void _tax (@Nullable final Ebi42TaxType aTax) throws XMLStreamException
+    {
+      if (aTax != null)
+      {
+        _start ("Tax");
+        final Ebi42VATType aVAT = aTax.getVAT ();
+        if (aVAT != null)
+        {
+          _start ("VAT");
+          for (final Ebi42VATItemType aVATItem : aVAT.getVATItem ())
+          {
+            _start ("VATItem");
+            _text ("TaxedAmount", aVATItem.getTaxedAmount ());
+            _vatRate (aVATItem.getVATRate ());
+            _text ("Amount", aVATItem.getAmount ());
+            _end ();
+          }
+          _end ();
+        }
+        for (final Ebi42OtherTaxType aOtherTax : aTax.getOtherTax ())
+        {
+          _start ("OtherTax");
+          _text ("Comment", aOtherTax.getComment ());
+          _text ("Amount", aOtherTax.getAmount ());
+          _end ();
+        }
+        _end ();
+      }
+    }
+
+    private void _paymentMethod (@Nullable final Ebi42PaymentMethodType aPaymentMethod) throws XMLStreamException
+    {
+      if (aPaymentMethod != null)
+      {
+        _start ("PaymentMethod");
+        _text ("Comment", aPaymentMethod.getComment ());
+        if (aPaymentMethod.getNoPayment () != null)
+        {
+          _start ("NoPayment");
+          _end ();
+        }
+        if (aPaymentMethod.getDirectDebit () != null)
+        {
+          _start ("DirectDebit");
+          _end ();
+        }
+        final Ebi42UniversalBankTransactionType aUBT = aPaymentMethod.getUniversalBankTransaction ();
+        if (aUBT != null)
+        {
+          _start ("UniversalBankTransaction");
+          for (final Ebi42AccountType aAccount : aUBT.getBeneficiaryAccount ())
+          {
+            _start ("BeneficiaryAccount");
+            _text ("BankName", aAccount.getBankName ());
+            _text ("BIC", aAccount.getBIC ());
+            _text ("BankAccountNr", aAccount.getBankAccountNr ());
+            _text ("IBAN", aAccount.getIBAN ());
+            _text ("BankAccountOwner", aAccount.getBankAccountOwner ());
+            _end ();
+          }
+          if (aUBT.getPaymentReference () != null)
+          {
+            _start ("PaymentReference");
+            _attr ("CheckSum", aUBT.getPaymentReference ().getCheckSum ());
+            if (aUBT.getPaymentReference ().getValue () != null)
+              m_aXSW.writeCharacters (aUBT.getPaymentReference ().getValue ());
+            _end ();
+          }
+          _end ();
+        }
+        _end ();
+      }
+    }
+
+    private void _paymentConditions (@Nullable final Ebi42PaymentConditionsType aPaymentConditions) throws XMLStreamException
+    {
+      if (aPaymentConditions != null)
+      {
+        _start ("PaymentConditions");
+        _text ("DueDate", aPaymentConditions.getDueDate ());
+        for (final Ebi42DiscountType aDiscount : aPaymentConditions.getDiscount ())
+        {
+          _start ("Discount");
+          _text ("PaymentDate", aDiscount.getPaymentDate ());
+          _text ("BaseAmount", aDiscount.getBaseAmount ());
+          _text ("Percentage", aDiscount.getPercentage ());
+          _text ("Amount", aDiscount.getAmount ());
+          _end ();
+        }
+        _text ("MinimumPayment", aPaymentConditions.getMinimumPayment ());
+        _text ("Comment", aPaymentConditions.getComment ());
+        _end ();
+      }
+    }
+
+    void writeInvoice (@Nonnull final Ebi42InvoiceType aInvoice) throws XMLStreamException
+    {
+      m_aXSW.writeStartDocument (ENCODING, "1.0");
+      m_aXSW.setPrefix (m_sPrefix, NS);
+      _start ("Invoice");
+      m_aXSW.writeNamespace (m_sPrefix, NS);
+      _attr ("GeneratingSystem", aInvoice.getGeneratingSystem ());
+      if (aInvoice.getDocumentType () != null)
+        _attr ("DocumentType", aInvoice.getDocumentType ().value ());
+      _attr ("InvoiceCurrency", aInvoice.getInvoiceCurrency ());
+      if (aInvoice.isIsDuplicate () != null)
+        _attr ("IsDuplicate", aInvoice.isIsDuplicate ().toString ());
+
+      _text ("InvoiceNumber", aInvoice.getInvoiceNumber ());
+      _text ("InvoiceDate", aInvoice.getInvoiceDate ());
+      for (final Ebi42RelatedDocumentType aRelatedDoc : aInvoice.getRelatedDocument ())
+      {
+        _start ("RelatedDocument");
+        _text ("InvoiceNumber", aRelatedDoc.getInvoiceNumber ());
+        _text ("InvoiceDate", aRelatedDoc.getInvoiceDate ());
+        if (aRelatedDoc.getDocumentType () != null)
+          _text ("DocumentType", aRelatedDoc.getDocumentType ().value ());
+        _text ("Comment", aRelatedDoc.getComment ());
+        _end ();
+      }
+      _delivery (aInvoice.getDelivery ());
+
+      final Ebi42BillerType aBiller = aInvoice.getBiller ();
+      if (aBiller != null)
+      {
+        _start ("Biller");
+        _text ("VATIdentificationNumber", aBiller.getVATIdentificationNumber ());
+        _furtherIdentification (aBiller.getFurtherIdentification ());
+        _orderReference ("OrderReference", aBiller.getOrderReference ());
+        _address (aBiller.getAddress ());
+        _text ("InvoiceRecipientsBillerID", aBiller.getInvoiceRecipientsBillerID ());
+        _end ();
+      }
+
+      final Ebi42InvoiceRecipientType aRecipient = aInvoice.getInvoiceRecipient ();
+      if (aRecipient != null)
+      {
+        _start ("InvoiceRecipient");
+        _text ("VATIdentificationNumber", aRecipient.getVATIdentificationNumber ());
+        _furtherIdentification (aRecipient.getFurtherIdentification ());
+        _orderReference ("OrderReference", aRecipient.getOrderReference ());
+        _address (aRecipient.getAddress ());
+        _text ("BillersInvoiceRecipientID", aRecipient.getBillersInvoiceRecipientID ());
+        _end ();
+      }
+
+      final Ebi42OrderingPartyType aOrderingParty = aInvoice.getOrderingParty ();
+      if (aOrderingParty != null)
+      {
+        _start ("OrderingParty");
+        _text ("VATIdentificationNumber", aOrderingParty.getVATIdentificationNumber ());
+        _furtherIdentification (aOrderingParty.getFurtherIdentification ());
+        _orderReference ("OrderReference", aOrderingParty.getOrderReference ());
+        _address (aOrderingParty.getAddress ());
+        _text ("BillersOrderingPartyID", aOrderingParty.getBillersOrderingPartyID ());
+        _end ();
+      }
+
+      final Ebi42DetailsType aDetails = aInvoice.getDetails ();
+      if (aDetails != null)
+      {
+        _start ("Details");
+        _text ("HeaderDescription", aDetails.getHeaderDescription ());
+        for (final Ebi42ItemListType aItemList : aDetails.getItemList ())
+        {
+          _start ("ItemList");
+          _text ("HeaderDescription", aItemList.getHeaderDescription ());
+          for (final Ebi42ListLineItemType aItem : aItemList.getListLineItem ())
+            _listLineItem (aItem);
+          _text ("FooterDescription", aItemList.getFooterDescription ());
+          _end ();
+        }
+        _text ("FooterDescription", aDetails.getFooterDescription ());
+        _end ();
+      }
+
+      final Ebi42ReductionAndSurchargeDetailsType aRSDetails = aInvoice.getReductionAndSurchargeDetails ();
+      if (aRSDetails != null)
+      {
+        _start ("ReductionAndSurchargeDetails");
+        for (final JAXBElement <?> aElement : aRSDetails.getReductionOrSurchargeOrOtherVATableTax ())
+          _reductionAndSurcharge (aElement);
+        _end ();
+      }
+
+      _tax (aInvoice.getTax ());
+      _text ("TotalGrossAmount", aInvoice.getTotalGrossAmount ());
+      _text ("PayableAmount", aInvoice.getPayableAmount ());
+      _paymentMethod (aInvoice.getPaymentMethod ());
+      _paymentConditions (aInvoice.getPaymentConditions ());
+      _text ("Comment", aInvoice.getComment ());
+      _end ();
+      m_aXSW.writeEndDocument ();
+      m_aXSW.flush ();
+    }
+  }
+
+  /**
+   * Write the passed ebInterface 4.2 invoice to the passed output stream. The
+   * stream is flushed but not closed. If the invoice contains content that is
+   * not supported by this class, the JAXB marshaller is used instead.
+   *
+   * @param aInvoice
+   *        The invoice to be written. May not be <code>null</code>.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @Nonnull
+  public ESuccess write (@Nonnull final Ebi42InvoiceType aInvoice, @Nonnull final OutputStream aOS)
+  {
+    ValueEnforcer.notNull (aInvoice, "Invoice");
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    if (!isFullySupported (aInvoice))
+    {
+      if (s_aLogger.isDebugEnabled ())
+        s_aLogger.debug ("Invoice contains content not supported by the stream writer - using JAXB");
+      return m_aJAXBPool.writeEbInterface (aInvoice, aOS);
+    }
+
+    XMLStreamWriter aXSW = null;
+    try
+    {
+      aXSW = m_aXOF.createXMLStreamWriter (aOS, ENCODING);
+      new Writer (aXSW).writeInvoice (aInvoice);
+      return ESuccess.SUCCESS;
+    }
+    catch (final XMLStreamException ex)
+    {
+      s_aLogger.error ("Failed to write ebInterface 4.2 invoice", ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      if (aXSW != null)
+        try
+        {
+          // Does not close the underlying stream
+          aXSW.close ();
+        }
+        catch (final XMLStreamException ex)
+        {
+          s_aLogger.warn ("Failed to close XML stream writer", ex);
+        }
+    }
+  }
+
+  /**
+   * Write the passed ebInterface 4.2 invoice to the passed channel. The channel
+   * is not closed.
+   *
+   * @param aInvoice
+   *        The invoice to be written. May not be <code>null</code>.
+   * @param aChannel
+   *        The channel to write to. May not be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @Nonnull
+  public ESuccess write (@Nonnull final Ebi42InvoiceType aInvoice, @Nonnull final WritableByteChannel aChannel)
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+
+    // Buffer to avoid a channel write per event
+    final OutputStream aOS = StreamHelper.getBuffered (Channels.newOutputStream (aChannel));
+    final ESuccess eSuccess = write (aInvoice, aOS);
+    if (StreamHelper.flush (aOS).isFailure ())
+      return ESuccess.FAILURE;
+    return eSuccess;
+  }
+}
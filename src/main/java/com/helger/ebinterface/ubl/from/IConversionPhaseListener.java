@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+
+/**
+ * Optional listener that is informed about the time spent in the different
+ * phases of a UBL to ebInterface or an ebInterface to UBL conversion. If no
+ * listener is installed no timing is performed at all. As converters may be
+ * shared between threads and independent sections may be converted in
+ * parallel, implementations must be thread-safe.
+ * <p>
+ * The start and the end of a conversion or a phase are always reported in the
+ * same thread. Within a thread the calls are properly nested, so that the last
+ * started conversion or phase is the first one to end.
+ *
+ * @author Philip Helger
+ */
+public interface IConversionPhaseListener
+{
+  /**
+   * Called before the conversion of a document starts.
+   *
+   * @param eRoute
+   *        The conversion route identifying the source document type. Never
+   *        <code>null</code>.
+   * @param bStrictERBMode
+   *        <code>true</code> if the conversion is performed with the
+   *        E-RECHNUNG.GV.AT specific checks.
+   */
+  default void onConversionStart (@Nonnull final EDocumentRoute eRoute, final boolean bStrictERBMode)
+  {}
+
+  /**
+   * Called before a single conversion phase starts. Every started phase is
+   * ended by a call to
+   * {@link #onPhaseEnd(EDocumentRoute, EConversionPhase, long, int)}, unless
+   * the conversion is aborted by an exception.
+   *
+   * @param eRoute
+   *        The conversion route identifying the source document type. Never
+   *        <code>null</code>.
+   * @param ePhase
+   *        The phase that starts. Never <code>null</code>.
+   */
+  default void onPhaseStart (@Nonnull final EDocumentRoute eRoute, @Nonnull final EConversionPhase ePhase)
+  {}
+
+  /**
+   * Called after a single conversion phase finished. Phases that are skipped
+   * (e.g. because the document has no global allowances or charges or because
+   * of fail-fast mode) are not reported.
+   *
+   * @param eRoute
+   *        The conversion route identifying the source document type. Never
+   *        <code>null</code>.
+   * @param ePhase
+   *        The phase that finished. Never <code>null</code>.
+   * @param nDurationNanos
+   *        The duration of the phase in nanoseconds.
+   * @param nElementCount
+   *        The number of UBL elements handled in this phase (lines, tax
+   *        subtotals, allowances and charges, payment means or deliveries) or 0
+   *        for phases without countable elements.
+   */
+  default void onPhaseEnd (@Nonnull final EDocumentRoute eRoute,
+                           @Nonnull final EConversionPhase ePhase,
+                           final long nDurationNanos,
+                           @Nonnegative final int nElementCount)
+  {}
+
+  /**
+   * Called after the conversion of a document finished.
+   *
+   * @param eRoute
+   *        The conversion route identifying the source document type. Never
+   *        <code>null</code>.
+   * @param bStrictERBMode
+   *        <code>true</code> if the conversion was performed with the
+   *        E-RECHNUNG.GV.AT specific checks.
+   * @param nDurationNanos
+   *        The duration of the whole conversion in nanoseconds.
+   * @param nLineCount
+   *        The number of converted lines.
+   * @param aErrorList
+   *        The errors and warnings of the conversion. Never <code>null</code>.
+   * @param bSuccess
+   *        <code>true</code> if the target document was created,
+   *        <code>false</code> if the conversion returned <code>null</code>.
+   */
+  default void onConversionEnd (@Nonnull final EDocumentRoute eRoute,
+                                final boolean bStrictERBMode,
+                                final long nDurationNanos,
+                                @Nonnegative final int nLineCount,
+                                @Nonnull final ErrorList aErrorList,
+                                final boolean bSuccess)
+  {}
+}
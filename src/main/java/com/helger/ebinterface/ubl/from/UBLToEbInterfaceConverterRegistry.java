@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+
+/**
+ * Registry for shared, immutable UBL to ebInterface converters without a
+ * customizer. For each combination of display locale, content locale and
+ * strict ERB mode only a single converter instance is created. Converters with
+ * a customizer must be created via the respective <code>builder ()</code>
+ * method.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class UBLToEbInterfaceConverterRegistry
+{
+  /**
+   * Key of a single converter.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  private static final class ConverterKey
+  {
+    private final Locale m_aDisplayLocale;
+    private final Locale m_aContentLocale;
+    private final boolean m_bStrictERBMode;
+
+    ConverterKey (@Nonnull final Locale aDisplayLocale,
+                  @Nonnull final Locale aContentLocale,
+                  final boolean bStrictERBMode)
+    {
+      m_aDisplayLocale = ValueEnforcer.notNull (aDisplayLocale, "DisplayLocale");
+      m_aContentLocale = ValueEnforcer.notNull (aContentLocale, "ContentLocale");
+      m_bStrictERBMode = bStrictERBMode;
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final ConverterKey rhs = (ConverterKey) o;
+      return m_aDisplayLocale.equals (rhs.m_aDisplayLocale) &&
+             m_aContentLocale.equals (rhs.m_aContentLocale) &&
+             m_bStrictERBMode == rhs.m_bStrictERBMode;
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return new HashCodeGenerator (this).append (m_aDisplayLocale)
+                                         .append (m_aContentLocale)
+                                         .append (m_bStrictERBMode)
+                                         .getHashCode ();
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("DisplayLocale", m_aDisplayLocale)
+                                         .append ("ContentLocale", m_aContentLocale)
+                                         .append ("StrictERBMode", m_bStrictERBMode)
+                                         .toString ();
+    }
+  }
+
+  private static final UBLToEbInterfaceConverterRegistry s_aDefaultInstance = new UBLToEbInterfaceConverterRegistry ();
+
+  private final ConcurrentMap <ConverterKey, InvoiceToEbInterface42Converter> m_aInvoiceConverters = new ConcurrentHashMap <> ();
+  private final ConcurrentMap <ConverterKey, CreditNoteToEbInterface42Converter> m_aCreditNoteConverters = new ConcurrentHashMap <> ();
+
+  public UBLToEbInterfaceConverterRegistry ()
+  {}
+
+  /**
+   * @return The global default registry. Never <code>null</code>.
+   */
+  @Nonnull
+  public static UBLToEbInterfaceConverterRegistry getDefaultInstance ()
+  {
+    return s_aDefaultInstance;
+  }
+
+  /**
+   * Get the shared invoice converter for the passed parameters.
+   *
+   * @param aDisplayLocale
+   *        The locale for error messages. May not be <code>null</code>.
+   * @param aContentLocale
+   *        The locale for the created ebInterface files. May not be
+   *        <code>null</code>.
+   * @param bStrictERBMode
+   *        <code>true</code> if E-RECHNUNG.GV.AT specific checks should be
+   *        performed
+   * @return The shared converter and never <code>null</code>. Repeated calls
+   *         with the same parameters return the same object.
+   */
+  @Nonnull
+  public InvoiceToEbInterface42Converter getInvoiceConverter (@Nonnull final Locale aDisplayLocale,
+                                                              @Nonnull final Locale aContentLocale,
+                                                              final boolean bStrictERBMode)
+  {
+    return m_aInvoiceConverters.computeIfAbsent (new ConverterKey (aDisplayLocale, aContentLocale, bStrictERBMode),
+                                                 k -> InvoiceToEbInterface42Converter.builder ()
+                                                                                     .setDisplayLocale (k.m_aDisplayLocale)
+                                                                                     .setContentLocale (k.m_aContentLocale)
+                                                                                     .setStrictERBMode (k.m_bStrictERBMode)
+                                                                                     .build ());
+  }
+
+  /**
+   * Get the shared credit note converter for the passed parameters.
+   *
+   * @param aDisplayLocale
+   *        The locale for error messages. May not be <code>null</code>.
+   * @param aContentLocale
+   *        The locale for the created ebInterface files. May not be
+   *        <code>null</code>.
+   * @param bStrictERBMode
+   *        <code>true</code> if E-RECHNUNG.GV.AT specific checks should be
+   *        performed
+   * @return The shared converter and never <code>null</code>. Repeated calls
+   *         with the same parameters return the same object.
+   */
+  @Nonnull
+  public CreditNoteToEbInterface42Converter getCreditNoteConverter (@Nonnull final Locale aDisplayLocale,
+                                                                    @Nonnull final Locale aContentLocale,
+                                                                    final boolean bStrictERBMode)
+  {
+    return m_aCreditNoteConverters.computeIfAbsent (new ConverterKey (aDisplayLocale, aContentLocale, bStrictERBMode),
+                                                    k -> CreditNoteToEbInterface42Converter.builder ()
+                                                                                           .setDisplayLocale (k.m_aDisplayLocale)
+                                                                                           .setContentLocale (k.m_aContentLocale)
+                                                                                           .setStrictERBMode (k.m_bStrictERBMode)
+                                                                                           .build ());
+  }
+
+  /**
+   * @return The number of converters created so far.
+   */
+  @Nonnegative
+  public int getConverterCount ()
+  {
+    return m_aInvoiceConverters.size () + m_aCreditNoteConverters.size ();
+  }
+}
@@ -0,0 +1,468 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.ubl.EUBLDocumentType;
+import com.helger.ebinterface.ubl.from.helper.BoundedObjectPool;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ebinterface.v42.ObjectFactory;
+import com.helger.jaxb.JAXBContextCache;
+import com.helger.jaxb.JAXBMarshallerHelper;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Thread-safe pool of pre-configured JAXB unmarshallers for UBL 2.1 invoices
+ * and credit notes and of pre-configured JAXB marshallers and unmarshallers
+ * for ebInterface 4.2 (incl. the namespace prefix mapping of
+ * {@link EbiNamespaceContext}). The
+ * JAXB contexts are taken from the JAXB context cache, so that only the
+ * (un)marshallers need to be pooled. Compared to <code>UBL21Reader</code> and
+ * <code>EbInterfaceWriter</code> this avoids the creation and configuration of
+ * a new (un)marshaller for every document.<br>
+ * Note: in contrast to the <code>UBL21Reader</code> and the
+ * <code>EbInterfaceWriter</code> no XML Schema validation is performed.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class UBLToEbInterfaceJAXBPool
+{
+  /**
+   * A single unmarshaller together with the StAX factory for its input, as
+   * both may not be used concurrently.
+   *
+   * @author Philip Helger
+   */
+  private static final class PooledUnmarshaller
+  {
+    private final XMLInputFactory m_aXIF;
+    private final Unmarshaller m_aUnmarshaller;
+
+    PooledUnmarshaller (@Nonnull final Class <?> aClass)
+    {
+      m_aXIF = XMLInputFactory.newInstance ();
+      // Avoid XXE
+      m_aXIF.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+      m_aXIF.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+      try
+      {
+        m_aUnmarshaller = JAXBContextCache.getInstance ().getFromCache (aClass).createUnmarshaller ();
+      }
+      catch (final JAXBException ex)
+      {
+        throw new IllegalStateException ("Failed to create JAXB unmarshaller for " + aClass.getName (), ex);
+      }
+    }
+  }
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (UBLToEbInterfaceJAXBPool.class);
+  private static final ObjectFactory s_aEbiObjectFactory = new ObjectFactory ();
+
+  private final int m_nMaxIdleObjects;
+  private final boolean m_bFormattedOutput;
+  private final BoundedObjectPool <PooledUnmarshaller> m_aInvoiceUnmarshallers;
+  private final BoundedObjectPool <PooledUnmarshaller> m_aCreditNoteUnmarshallers;
+  private final BoundedObjectPool <Marshaller> m_aEbiMarshallers;
+  private final BoundedObjectPool <PooledUnmarshaller> m_aEbiUnmarshallers;
+
+  /**
+   * Constructor retaining up to twice the number of available processors
+   * objects of each kind and creating formatted ebInterface output.
+   */
+  public UBLToEbInterfaceJAXBPool ()
+  {
+    this (2 * Runtime.getRuntime ().availableProcessors ());
+  }
+
+  /**
+   * Constructor creating formatted ebInterface output.
+   *
+   * @param nMaxIdleObjects
+   *        The maximum number of idle objects of each kind to retain. More
+   *        objects are created on demand if more threads work concurrently.
+   *        Must be &gt; 0.
+   */
+  public UBLToEbInterfaceJAXBPool (@Nonnegative final int nMaxIdleObjects)
+  {
+    this (nMaxIdleObjects, true);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxIdleObjects
+   *        The maximum number of idle objects of each kind to retain. More
+   *        objects are created on demand if more threads work concurrently.
+   *        Must be &gt; 0.
+   * @param bFormattedOutput
+   *        <code>true</code> to create indented ebInterface output,
+   *        <code>false</code> to create compact output without any whitespace
+   *        between the elements.
+   */
+  public UBLToEbInterfaceJAXBPool (@Nonnegative final int nMaxIdleObjects, final boolean bFormattedOutput)
+  {
+    ValueEnforcer.isGT0 (nMaxIdleObjects, "MaxIdleObjects");
+    m_nMaxIdleObjects = nMaxIdleObjects;
+    m_bFormattedOutput = bFormattedOutput;
+    m_aInvoiceUnmarshallers = new BoundedObjectPool <> (nMaxIdleObjects,
+                                                        () -> new PooledUnmarshaller (InvoiceType.class));
+    m_aCreditNoteUnmarshallers = new BoundedObjectPool <> (nMaxIdleObjects,
+                                                           () -> new PooledUnmarshaller (CreditNoteType.class));
+    m_aEbiMarshallers = new BoundedObjectPool <> (nMaxIdleObjects, () -> _createEbiMarshaller (bFormattedOutput));
+    m_aEbiUnmarshallers = new BoundedObjectPool <> (nMaxIdleObjects,
+                                                    () -> new PooledUnmarshaller (Ebi42InvoiceType.class));
+  }
+
+  @Nonnull
+  private static Marshaller _createEbiMarshaller (final boolean bFormattedOutput)
+  {
+    try
+    {
+      final Marshaller aMarshaller = JAXBContextCache.getInstance ().getFromCache (Ebi42InvoiceType.class).createMarshaller ();
+      aMarshaller.setProperty (Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.valueOf (bFormattedOutput));
+      aMarshaller.setProperty (Marshaller.JAXB_ENCODING, "UTF-8");
+      JAXBMarshallerHelper.setSunNamespacePrefixMapper (aMarshaller, new EbiNamespaceContext ());
+      return aMarshaller;
+    }
+    catch (final JAXBException ex)
+    {
+      throw new IllegalStateException ("Failed to create JAXB marshaller for ebInterface 4.2", ex);
+    }
+  }
+
+  /**
+   * @return The maximum number of idle objects of each kind that are retained.
+   *         Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxIdleObjects ()
+  {
+    return m_nMaxIdleObjects;
+  }
+
+  /**
+   * @return <code>true</code> if the ebInterface output is indented.
+   */
+  public boolean isFormattedOutput ()
+  {
+    return m_bFormattedOutput;
+  }
+
+  @Nullable
+  private static <T> T _read (@Nonnull final BoundedObjectPool <PooledUnmarshaller> aPool,
+                              @Nonnull final Class <T> aClass,
+                              @Nonnull final XMLStreamReader aReader)
+  {
+    final PooledUnmarshaller aPooled = aPool.borrowObject ();
+    try
+    {
+      return aPooled.m_aUnmarshaller.unmarshal (aReader, aClass).getValue ();
+    }
+    catch (final JAXBException ex)
+    {
+      s_aLogger.error ("Failed to read " + aClass.getSimpleName (), ex);
+      return null;
+    }
+    finally
+    {
+      aPool.returnObject (aPooled);
+    }
+  }
+
+  @Nullable
+  private static <T> T _read (@Nonnull final BoundedObjectPool <PooledUnmarshaller> aPool,
+                              @Nonnull final EUBLDocumentType eDocType,
+                              @Nonnull final Class <T> aClass,
+                              @Nonnull final InputStream aIS)
+  {
+    final PooledUnmarshaller aPooled = aPool.borrowObject ();
+    try
+    {
+      final XMLStreamReader aReader = aPooled.m_aXIF.createXMLStreamReader (aIS);
+      try
+      {
+        // Unmarshalling with a declared type does not check the root element
+        aReader.nextTag ();
+        if (!eDocType.getRootElementName ().equals (aReader.getName ()))
+        {
+          s_aLogger.error ("Expected root element " +
+                           eDocType.getRootElementName () +
+                           " but found " +
+                           aReader.getName ());
+          return null;
+        }
+        return aPooled.m_aUnmarshaller.unmarshal (aReader, aClass).getValue ();
+      }
+      finally
+      {
+        aReader.close ();
+      }
+    }
+    catch (final XMLStreamException | JAXBException ex)
+    {
+      s_aLogger.error ("Failed to read UBL " + eDocType, ex);
+      return null;
+    }
+    finally
+    {
+      aPool.returnObject (aPooled);
+    }
+  }
+
+  /**
+   * Read a UBL 2.1 invoice.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. The
+   *        stream is not closed by this method.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public InvoiceType readInvoice (@Nonnull final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    return _read (m_aInvoiceUnmarshallers, EUBLDocumentType.INVOICE, InvoiceType.class, aIS);
+  }
+
+  /**
+   * Read a UBL 2.1 invoice from a StAX reader that is positioned on the root
+   * element. The root element name is not checked.
+   *
+   * @param aReader
+   *        The StAX reader to read from. May not be <code>null</code>. The
+   *        reader is not closed by this method.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public InvoiceType readInvoice (@Nonnull final XMLStreamReader aReader)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    return _read (m_aInvoiceUnmarshallers, InvoiceType.class, aReader);
+  }
+
+  /**
+   * Read a UBL 2.1 invoice.
+   *
+   * @param aBytes
+   *        The bytes to read from. May not be <code>null</code>.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public InvoiceType readInvoice (@Nonnull final byte [] aBytes)
+  {
+    ValueEnforcer.notNull (aBytes, "Bytes");
+    return readInvoice (new NonBlockingByteArrayInputStream (aBytes));
+  }
+
+  /**
+   * Read a UBL 2.1 invoice.
+   *
+   * @param aResource
+   *        The resource to read from. May not be <code>null</code>.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public InvoiceType readInvoice (@Nonnull final IReadableResource aResource)
+  {
+    ValueEnforcer.notNull (aResource, "Resource");
+    final InputStream aIS = aResource.getInputStream ();
+    if (aIS == null)
+      return null;
+    try
+    {
+      return readInvoice (aIS);
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+  }
+
+  /**
+   * Read a UBL 2.1 credit note.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. The
+   *        stream is not closed by this method.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public CreditNoteType readCreditNote (@Nonnull final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    return _read (m_aCreditNoteUnmarshallers, EUBLDocumentType.CREDIT_NOTE, CreditNoteType.class, aIS);
+  }
+
+  /**
+   * Read a UBL 2.1 credit note from a StAX reader that is positioned on the
+   * root element. The root element name is not checked.
+   *
+   * @param aReader
+   *        The StAX reader to read from. May not be <code>null</code>. The
+   *        reader is not closed by this method.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public CreditNoteType readCreditNote (@Nonnull final XMLStreamReader aReader)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    return _read (m_aCreditNoteUnmarshallers, CreditNoteType.class, aReader);
+  }
+
+  /**
+   * Read a UBL 2.1 credit note.
+   *
+   * @param aBytes
+   *        The bytes to read from. May not be <code>null</code>.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public CreditNoteType readCreditNote (@Nonnull final byte [] aBytes)
+  {
+    ValueEnforcer.notNull (aBytes, "Bytes");
+    return readCreditNote (new NonBlockingByteArrayInputStream (aBytes));
+  }
+
+  /**
+   * Read a UBL 2.1 credit note.
+   *
+   * @param aResource
+   *        The resource to read from. May not be <code>null</code>.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public CreditNoteType readCreditNote (@Nonnull final IReadableResource aResource)
+  {
+    ValueEnforcer.notNull (aResource, "Resource");
+    final InputStream aIS = aResource.getInputStream ();
+    if (aIS == null)
+      return null;
+    try
+    {
+      return readCreditNote (aIS);
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+  }
+
+  /**
+   * Read an ebInterface 4.2 invoice from a StAX reader that is positioned on
+   * the root element. The root element name is not checked.
+   *
+   * @param aReader
+   *        The StAX reader to read from. May not be <code>null</code>. The
+   *        reader is not closed by this method.
+   * @return <code>null</code> if the document could not be read.
+   */
+  @Nullable
+  public Ebi42InvoiceType readEbInterface (@Nonnull final XMLStreamReader aReader)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    return _read (m_aEbiUnmarshallers, Ebi42InvoiceType.class, aReader);
+  }
+
+  /**
+   * Write an ebInterface 4.2 invoice.
+   *
+   * @param aEbiDoc
+   *        The invoice to write. May not be <code>null</code>.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. The
+   *        stream is not closed by this method.
+   * @return {@link ESuccess}
+   */
+  @Nonnull
+  public ESuccess writeEbInterface (@Nonnull final Ebi42InvoiceType aEbiDoc, @Nonnull final OutputStream aOS)
+  {
+    ValueEnforcer.notNull (aEbiDoc, "EbiDoc");
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    final Marshaller aMarshaller = m_aEbiMarshallers.borrowObject ();
+    try
+    {
+      aMarshaller.marshal (s_aEbiObjectFactory.createInvoice (aEbiDoc), aOS);
+      return ESuccess.SUCCESS;
+    }
+    catch (final JAXBException ex)
+    {
+      s_aLogger.error ("Failed to write ebInterface 4.2 invoice", ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      m_aEbiMarshallers.returnObject (aMarshaller);
+    }
+  }
+
+  /**
+   * Write an ebInterface 4.2 invoice to a byte array.
+   *
+   * @param aEbiDoc
+   *        The invoice to write. May not be <code>null</code>.
+   * @return <code>null</code> if the document could not be written.
+   */
+  @Nullable
+  public byte [] getEbInterfaceAsBytes (@Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    if (writeEbInterface (aEbiDoc, aOS).isFailure ())
+      return null;
+    return aOS.toByteArray ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxIdleObjects", m_nMaxIdleObjects)
+                                       .append ("FormattedOutput", m_bFormattedOutput)
+                                       .append ("IdleInvoiceUnmarshallers",
+                                                m_aInvoiceUnmarshallers.getIdleObjectCount ())
+                                       .append ("IdleCreditNoteUnmarshallers",
+                                                m_aCreditNoteUnmarshallers.getIdleObjectCount ())
+                                       .append ("IdleEbiMarshallers", m_aEbiMarshallers.getIdleObjectCount ())
+                                       .append ("IdleEbiUnmarshallers", m_aEbiUnmarshallers.getIdleObjectCount ())
+                                       .toString ();
+  }
+}
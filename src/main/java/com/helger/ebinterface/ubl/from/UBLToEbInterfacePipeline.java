@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.error.SingleError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.ubl.EUBLDocumentType;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * One-call pipeline that reads a UBL invoice or credit note from a byte
+ * stream, converts it to ebInterface 4.2 and writes the result to another
+ * byte stream. The document type is detected from the root element. The UBL
+ * document is unmarshalled directly from the StAX reader used for the
+ * detection, so that no intermediate <code>String</code>, DOM or byte array is
+ * created for the input. The ebInterface document is marshalled into a byte
+ * buffer that is kept per thread and that is only copied to the output if
+ * writing succeeded, so that the output never contains a partial document.
+ * The StAX factories are kept per thread as well and the JAXB (un)marshallers
+ * are taken from a {@link UBLToEbInterfaceJAXBPool}.<br>
+ * Note: no XML Schema validation is performed. Exceptions of the conversion
+ * caused by schema-invalid input are reported as errors in the result.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class UBLToEbInterfacePipeline
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (UBLToEbInterfacePipeline.class);
+  private static final ThreadLocal <XMLInputFactory> s_aXIF = ThreadLocal.withInitial ( () -> {
+    final XMLInputFactory aXIF = XMLInputFactory.newInstance ();
+    // Avoid XXE
+    aXIF.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    aXIF.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return aXIF;
+  });
+  /** Output buffers larger than this are not kept for the next conversion */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+  private static final ThreadLocal <NonBlockingByteArrayOutputStream> s_aOutputBuffer = ThreadLocal.withInitial (NonBlockingByteArrayOutputStream::new);
+
+  private final InvoiceToEbInterface42Converter m_aInvoiceConverter;
+  private final CreditNoteToEbInterface42Converter m_aCreditNoteConverter;
+  private final UBLToEbInterfaceJAXBPool m_aJAXBPool;
+
+  /**
+   * Constructor using a new JAXB pool creating compact ebInterface output.
+   *
+   * @param aInvoiceConverter
+   *        The converter to be used for UBL invoices. May not be
+   *        <code>null</code>.
+   * @param aCreditNoteConverter
+   *        The converter to be used for UBL credit notes. May not be
+   *        <code>null</code>.
+   */
+  public UBLToEbInterfacePipeline (@Nonnull final InvoiceToEbInterface42Converter aInvoiceConverter,
+                                   @Nonnull final CreditNoteToEbInterface42Converter aCreditNoteConverter)
+  {
+    this (aInvoiceConverter,
+          aCreditNoteConverter,
+          new UBLToEbInterfaceJAXBPool (2 * Runtime.getRuntime ().availableProcessors (), false));
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aInvoiceConverter
+   *        The converter to be used for UBL invoices. May not be
+   *        <code>null</code>.
+   * @param aCreditNoteConverter
+   *        The converter to be used for UBL credit notes. May not be
+   *        <code>null</code>.
+   * @param aJAXBPool
+   *        The JAXB pool to be used for reading and writing. May not be
+   *        <code>null</code>.
+   */
+  public UBLToEbInterfacePipeline (@Nonnull final InvoiceToEbInterface42Converter aInvoiceConverter,
+                                   @Nonnull final CreditNoteToEbInterface42Converter aCreditNoteConverter,
+                                   @Nonnull final UBLToEbInterfaceJAXBPool aJAXBPool)
+  {
+    m_aInvoiceConverter = ValueEnforcer.notNull (aInvoiceConverter, "InvoiceConverter");
+    m_aCreditNoteConverter = ValueEnforcer.notNull (aCreditNoteConverter, "CreditNoteConverter");
+    m_aJAXBPool = ValueEnforcer.notNull (aJAXBPool, "JAXBPool");
+  }
+
+  /**
+   * @return The JAXB pool used for reading and writing. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public UBLToEbInterfaceJAXBPool getJAXBPool ()
+  {
+    return m_aJAXBPool;
+  }
+
+  /**
+   * Convert a UBL invoice or credit note to ebInterface 4.2. The output is only
+   * written if the conversion succeeded without errors. If writing the
+   * ebInterface document fails, nothing is written to the output.
+   *
+   * @param aIS
+   *        The UBL input. May not be <code>null</code>. The stream is not
+   *        closed by this method.
+   * @param aOS
+   *        The ebInterface output in UTF-8. May not be <code>null</code>. The
+   *        stream is not closed by this method.
+   * @return The conversion result. Never <code>null</code>.
+   */
+  @Nonnull
+  public UBLToEbInterfacePipelineResult convert (@Nonnull final InputStream aIS, @Nonnull final OutputStream aOS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    final ErrorList aErrorList = new ErrorList ();
+    EUBLDocumentType eDocType = null;
+    InvoiceType aUBLInvoice = null;
+    CreditNoteType aUBLCreditNote = null;
+
+    // Detect and read
+    final long nReadStart = System.nanoTime ();
+    try
+    {
+      final XMLStreamReader aReader = s_aXIF.get ().createXMLStreamReader (aIS);
+      try
+      {
+        aReader.nextTag ();
+        eDocType = EUBLDocumentType.getFromRootElementNameOrNull (aReader.getName ());
+        if (eDocType == null)
+          aErrorList.add (SingleError.builderError ()
+                                     .setErrorText (EText.UNSUPPORTED_ROOT_ELEMENT.getAsErrorText (aReader.getName ()))
+                                     .build ());
+        else
+        {
+          switch (eDocType)
+          {
+            case INVOICE:
+              aUBLInvoice = m_aJAXBPool.readInvoice (aReader);
+              break;
+            case CREDIT_NOTE:
+              aUBLCreditNote = m_aJAXBPool.readCreditNote (aReader);
+              break;
+            default:
+              throw new IllegalStateException ("Unsupported document type " + eDocType);
+          }
+          if (aUBLInvoice == null && aUBLCreditNote == null)
+          {
+            final String sLocalName = eDocType.getRootElementName ().getLocalPart ();
+            aErrorList.add (SingleError.builderError ()
+                                       .setErrorText (EText.UBL_READ_ERROR.getAsErrorText (sLocalName))
+                                       .build ());
+          }
+        }
+      }
+      finally
+      {
+        aReader.close ();
+      }
+    }
+    catch (final XMLStreamException ex)
+    {
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorText (EText.XML_READ_ERROR.getAsErrorText ())
+                                 .setLinkedException (ex)
+                                 .build ());
+    }
+    final long nReadNanos = System.nanoTime () - nReadStart;
+
+    // Convert
+    long nConvertNanos = 0;
+    Ebi42InvoiceType aEbiDoc = null;
+    if (aUBLInvoice != null || aUBLCreditNote != null)
+    {
+      final long nConvertStart = System.nanoTime ();
+      try
+      {
+        if (aUBLInvoice != null)
+          aEbiDoc = m_aInvoiceConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+        else
+          aEbiDoc = m_aCreditNoteConverter.convertToEbInterface (aUBLCreditNote, aErrorList);
+      }
+      catch (final RuntimeException ex)
+      {
+        // The input is not validated against the XML Schema, so required
+        // elements may be missing
+        aEbiDoc = null;
+        aErrorList.add (SingleError.builderError ()
+                                   .setErrorText (EText.CONVERSION_ERROR.getAsErrorText (ex.getClass ().getName ()))
+                                   .setLinkedException (ex)
+                                   .build ());
+      }
+      nConvertNanos = System.nanoTime () - nConvertStart;
+    }
+
+    // Write
+    long nWriteNanos = 0;
+    boolean bSuccess = false;
+    if (aEbiDoc != null && !aErrorList.containsAtLeastOneError ())
+    {
+      final long nWriteStart = System.nanoTime ();
+      final NonBlockingByteArrayOutputStream aBuffer = s_aOutputBuffer.get ();
+      aBuffer.reset ();
+      if (m_aJAXBPool.writeEbInterface (aEbiDoc, aBuffer).isFailure ())
+        aErrorList.add (SingleError.builderError ().setErrorText (EText.EBI_WRITE_ERROR.getAsErrorText ()).build ());
+      else
+        try
+        {
+          aBuffer.writeTo (aOS);
+          bSuccess = true;
+        }
+        catch (final IOException ex)
+        {
+          aErrorList.add (SingleError.builderError ()
+                                     .setErrorText (EText.EBI_WRITE_ERROR.getAsErrorText ())
+                                     .setLinkedException (ex)
+                                     .build ());
+        }
+      // Don't keep the memory of very large documents
+      if (aBuffer.size () > MAX_RETAINED_BUFFER_SIZE)
+        s_aOutputBuffer.remove ();
+      nWriteNanos = System.nanoTime () - nWriteStart;
+    }
+
+    if (s_aLogger.isDebugEnabled ())
+      s_aLogger.debug ("Converted UBL " + eDocType + " document (success=" + bSuccess + ")");
+    return new UBLToEbInterfacePipelineResult (eDocType, aErrorList, bSuccess, nReadNanos, nConvertNanos, nWriteNanos);
+  }
+
+  /**
+   * Convert a UBL invoice or credit note to ebInterface 4.2. The output is only
+   * written if the conversion succeeded without errors. If writing the
+   * ebInterface document fails, nothing is written to the output.
+   *
+   * @param aInChannel
+   *        The UBL input. May not be <code>null</code>. The channel is not
+   *        closed by this method.
+   * @param aOutChannel
+   *        The ebInterface output in UTF-8. May not be <code>null</code>. The
+   *        channel is not closed by this method.
+   * @return The conversion result. Never <code>null</code>.
+   */
+  @Nonnull
+  public UBLToEbInterfacePipelineResult convert (@Nonnull final ReadableByteChannel aInChannel,
+                                                 @Nonnull final WritableByteChannel aOutChannel)
+  {
+    ValueEnforcer.notNull (aInChannel, "InChannel");
+    ValueEnforcer.notNull (aOutChannel, "OutChannel");
+    return convert (Channels.newInputStream (aInChannel), Channels.newOutputStream (aOutChannel));
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("InvoiceConverter", m_aInvoiceConverter)
+                                       .append ("CreditNoteConverter", m_aCreditNoteConverter)
+                                       .append ("JAXBPool", m_aJAXBPool)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.ubl.EUBLDocumentType;
+
+/**
+ * The result of a single {@link UBLToEbInterfacePipeline} conversion.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class UBLToEbInterfacePipelineResult
+{
+  private final EUBLDocumentType m_eDocType;
+  private final ErrorList m_aErrorList;
+  private final boolean m_bSuccess;
+  private final long m_nReadNanos;
+  private final long m_nConvertNanos;
+  private final long m_nWriteNanos;
+
+  public UBLToEbInterfacePipelineResult (@Nullable final EUBLDocumentType eDocType,
+                                         @Nonnull final ErrorList aErrorList,
+                                         final boolean bSuccess,
+                                         final long nReadNanos,
+                                         final long nConvertNanos,
+                                         final long nWriteNanos)
+  {
+    m_eDocType = eDocType;
+    m_aErrorList = aErrorList;
+    m_bSuccess = bSuccess;
+    m_nReadNanos = nReadNanos;
+    m_nConvertNanos = nConvertNanos;
+    m_nWriteNanos = nWriteNanos;
+  }
+
+  /**
+   * @return The detected UBL document type or <code>null</code> if the input
+   *         is not a supported UBL document.
+   */
+  @Nullable
+  public EUBLDocumentType getDocumentType ()
+  {
+    return m_eDocType;
+  }
+
+  /**
+   * @return The errors of reading, converting and writing. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public ErrorList getErrorList ()
+  {
+    return m_aErrorList;
+  }
+
+  /**
+   * @return <code>true</code> if the ebInterface document was written.
+   */
+  public boolean isSuccess ()
+  {
+    return m_bSuccess;
+  }
+
+  /**
+   * @return The nanoseconds spent detecting and reading the UBL document.
+   */
+  public long getReadNanos ()
+  {
+    return m_nReadNanos;
+  }
+
+  /**
+   * @return The nanoseconds spent converting to ebInterface. 0 if reading
+   *         failed.
+   */
+  public long getConvertNanos ()
+  {
+    return m_nConvertNanos;
+  }
+
+  /**
+   * @return The nanoseconds spent writing the ebInterface document. 0 if
+   *         nothing was written.
+   */
+  public long getWriteNanos ()
+  {
+    return m_nWriteNanos;
+  }
+
+  /**
+   * @return The total nanoseconds of this conversion.
+   */
+  public long getTotalNanos ()
+  {
+    return m_nReadNanos + m_nConvertNanos + m_nWriteNanos;
+  }
+
+  /**
+   * @return The total milliseconds of this conversion.
+   */
+  public long getTotalMillis ()
+  {
+    return TimeUnit.NANOSECONDS.toMillis (getTotalNanos ());
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("DocumentType", m_eDocType)
+                                       .append ("ErrorList", m_aErrorList)
+                                       .append ("Success", m_bSuccess)
+                                       .append ("ReadNanos", m_nReadNanos)
+                                       .append ("ConvertNanos", m_nConvertNanos)
+                                       .append ("WriteNanos", m_nWriteNanos)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,364 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.batch;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.error.SingleError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.ebinterface.ubl.EUBLDocumentType;
+import com.helger.ebinterface.ubl.from.EbInterface42StreamWriter;
+import com.helger.ebinterface.ubl.from.UBLToEbInterfaceJAXBPool;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Batch converter that reads, converts and serializes many UBL documents in
+ * parallel. The number of documents in flight is bounded so that a huge input
+ * does not result in a huge amount of pending results (back-pressure). The
+ * passed converters are shared between all worker threads.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public final class UBLToEbInterfaceBatchConverter
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (UBLToEbInterfaceBatchConverter.class);
+
+  private final InvoiceToEbInterface42Converter m_aInvoiceConverter;
+  private final CreditNoteToEbInterface42Converter m_aCreditNoteConverter;
+  private final EbInterface42StreamWriter m_aWriter = new EbInterface42StreamWriter ();
+  private int m_nParallelism = Runtime.getRuntime ().availableProcessors ();
+  private int m_nMaxPendingDocuments = 2 * m_nParallelism;
+  private boolean m_bOrdered = true;
+  private UBLToEbInterfaceJAXBPool m_aJAXBPool;
+
+  /**
+   * Constructor
+   *
+   * @param aInvoiceConverter
+   *        The converter to be used for UBL invoices. May not be
+   *        <code>null</code>.
+   * @param aCreditNoteConverter
+   *        The converter to be used for UBL credit notes. May not be
+   *        <code>null</code>.
+   */
+  public UBLToEbInterfaceBatchConverter (@Nonnull final InvoiceToEbInterface42Converter aInvoiceConverter,
+                                         @Nonnull final CreditNoteToEbInterface42Converter aCreditNoteConverter)
+  {
+    m_aInvoiceConverter = ValueEnforcer.notNull (aInvoiceConverter, "InvoiceConverter");
+    m_aCreditNoteConverter = ValueEnforcer.notNull (aCreditNoteConverter, "CreditNoteConverter");
+  }
+
+  /**
+   * @return The number of worker threads. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getParallelism ()
+  {
+    return m_nParallelism;
+  }
+
+  /**
+   * Set the number of worker threads. This also resets the maximum number of
+   * pending documents to twice the parallelism.
+   *
+   * @param nParallelism
+   *        The number of worker threads. Must be &gt; 0.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLToEbInterfaceBatchConverter setParallelism (@Nonnegative final int nParallelism)
+  {
+    ValueEnforcer.isGT0 (nParallelism, "Parallelism");
+    m_nParallelism = nParallelism;
+    m_nMaxPendingDocuments = 2 * nParallelism;
+    return this;
+  }
+
+  /**
+   * @return The maximum number of documents that are submitted but whose
+   *         results were not yet handed to the result consumer. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxPendingDocuments ()
+  {
+    return m_nMaxPendingDocuments;
+  }
+
+  /**
+   * Set the maximum number of documents that are submitted but whose results
+   * were not yet handed to the result consumer. Reading from the input is
+   * paused when this limit is reached.
+   *
+   * @param nMaxPendingDocuments
+   *        The maximum number of pending documents. Must be &gt; 0.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLToEbInterfaceBatchConverter setMaxPendingDocuments (@Nonnegative final int nMaxPendingDocuments)
+  {
+    ValueEnforcer.isGT0 (nMaxPendingDocuments, "MaxPendingDocuments");
+    m_nMaxPendingDocuments = nMaxPendingDocuments;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if results are handed back in input order,
+   *         <code>false</code> if they are handed back in completion order.
+   */
+  public boolean isOrdered ()
+  {
+    return m_bOrdered;
+  }
+
+  /**
+   * @param bOrdered
+   *        <code>true</code> to hand back results in input order,
+   *        <code>false</code> to hand them back in completion order.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLToEbInterfaceBatchConverter setOrdered (final boolean bOrdered)
+  {
+    m_bOrdered = bOrdered;
+    return this;
+  }
+
+  /**
+   * @return The JAXB pool used to read the UBL documents or <code>null</code>
+   *         if the UBL documents are read with the <code>UBL21Reader</code>.
+   */
+  @Nullable
+  public UBLToEbInterfaceJAXBPool getJAXBPool ()
+  {
+    return m_aJAXBPool;
+  }
+
+  /**
+   * Set the JAXB pool to read the UBL documents with. This avoids the creation
+   * of a new JAXB unmarshaller per document, but no XML Schema validation of
+   * the UBL documents is performed.
+   *
+   * @param aJAXBPool
+   *        The JAXB pool to use. May be <code>null</code> to use the
+   *        <code>UBL21Reader</code> (with XML Schema validation).
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLToEbInterfaceBatchConverter setJAXBPool (@Nullable final UBLToEbInterfaceJAXBPool aJAXBPool)
+  {
+    m_aJAXBPool = aJAXBPool;
+    return this;
+  }
+
+  @Nonnull
+  private UBLToEbInterfaceBatchResult _convert (@Nonnegative final int nIndex,
+                                                @Nonnull final IReadableResource aSource,
+                                                @Nonnull final EUBLDocumentType eDocType)
+  {
+    final ErrorList aErrorList = new ErrorList ();
+    byte [] aBytes = null;
+    try
+    {
+      Ebi42InvoiceType aEbiDoc = null;
+      switch (eDocType)
+      {
+        case INVOICE:
+        {
+          final InvoiceType aUBLDoc = m_aJAXBPool != null ? m_aJAXBPool.readInvoice (aSource)
+                                                          : UBL21Reader.invoice ().read (aSource);
+          if (aUBLDoc != null)
+            aEbiDoc = m_aInvoiceConverter.convertToEbInterface (aUBLDoc, aErrorList);
+          break;
+        }
+        case CREDIT_NOTE:
+        {
+          final CreditNoteType aUBLDoc = m_aJAXBPool != null ? m_aJAXBPool.readCreditNote (aSource)
+                                                             : UBL21Reader.creditNote ().read (aSource);
+          if (aUBLDoc != null)
+            aEbiDoc = m_aCreditNoteConverter.convertToEbInterface (aUBLDoc, aErrorList);
+          break;
+        }
+        default:
+          throw new IllegalStateException ("Unsupported document type " + eDocType);
+      }
+
+      if (aEbiDoc == null || aErrorList.containsAtLeastOneError ())
+      {
+        // Conversion errors result in an invalid ebInterface document
+        if (aErrorList.isEmpty ())
+          aErrorList.add (SingleError.builderError ()
+                                     .setErrorFieldName (aSource.getPath ())
+                                     .setErrorText ("Failed to read UBL " + eDocType + " document")
+                                     .build ());
+      }
+      else
+      {
+        final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+        if (m_aWriter.write (aEbiDoc, aOS).isSuccess ())
+          aBytes = aOS.toByteArray ();
+        else
+          aErrorList.add (SingleError.builderError ()
+                                     .setErrorFieldName (aSource.getPath ())
+                                     .setErrorText ("Failed to write ebInterface document")
+                                     .build ());
+      }
+    }
+    catch (final RuntimeException ex)
+    {
+      // Don't let a single document kill the whole batch
+      aErrorList.add (SingleError.builderError ()
+                                 .setErrorFieldName (aSource.getPath ())
+                                 .setErrorText ("Error converting document")
+                                 .setLinkedException (ex)
+                                 .build ());
+    }
+    return new UBLToEbInterfaceBatchResult (nIndex, aSource, aErrorList, aBytes);
+  }
+
+  /**
+   * Convert all passed documents of the same type. The input is iterated
+   * lazily from the calling thread, and the result consumer is also invoked
+   * from the calling thread, so it does not need to be thread-safe.
+   *
+   * @param eDocType
+   *        The UBL document type of all inputs. May not be <code>null</code>.
+   * @param aInputs
+   *        The documents to be converted. May not be <code>null</code>.
+   * @param aResultConsumer
+   *        The consumer that is invoked for each result. May not be
+   *        <code>null</code>.
+   * @return The statistics of this batch. Never <code>null</code>.
+   * @throws InterruptedException
+   *         If the calling thread is interrupted while waiting for a result
+   */
+  @Nonnull
+  public UBLToEbInterfaceBatchStatistics convert (@Nonnull final EUBLDocumentType eDocType,
+                                                  @Nonnull final Iterable <? extends IReadableResource> aInputs,
+                                                  @Nonnull final Consumer <? super UBLToEbInterfaceBatchResult> aResultConsumer) throws InterruptedException
+  {
+    ValueEnforcer.notNull (eDocType, "DocType");
+    ValueEnforcer.notNull (aInputs, "Inputs");
+    ValueEnforcer.notNull (aResultConsumer, "ResultConsumer");
+
+    final long nStartNanos = System.nanoTime ();
+    int nDocumentCount = 0;
+    int nSuccessCount = 0;
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (m_nParallelism);
+    try
+    {
+      // Ordered: take the results in submission order
+      // Unordered: take the results in completion order
+      final Deque <Future <UBLToEbInterfaceBatchResult>> aPending = new ArrayDeque <> ();
+      final CompletionService <UBLToEbInterfaceBatchResult> aCompletionService = m_bOrdered ? null
+                                                                                            : new ExecutorCompletionService <> (aExecutor);
+      int nPendingCount = 0;
+      for (final IReadableResource aInput : aInputs)
+      {
+        if (nPendingCount >= m_nMaxPendingDocuments)
+        {
+          // Back-pressure: wait for a result before submitting the next one
+          final Future <UBLToEbInterfaceBatchResult> aFuture = m_bOrdered ? aPending.removeFirst ()
+                                                                          : aCompletionService.take ();
+          if (_deliver (aFuture, aResultConsumer))
+            nSuccessCount++;
+          nPendingCount--;
+        }
+
+        final int nIndex = nDocumentCount++;
+        if (m_bOrdered)
+          aPending.addLast (aExecutor.submit ( () -> _convert (nIndex, aInput, eDocType)));
+        else
+          aCompletionService.submit ( () -> _convert (nIndex, aInput, eDocType));
+        nPendingCount++;
+      }
+
+      // Wait for the rest
+      while (nPendingCount > 0)
+      {
+        final Future <UBLToEbInterfaceBatchResult> aFuture = m_bOrdered ? aPending.removeFirst ()
+                                                                        : aCompletionService.take ();
+        if (_deliver (aFuture, aResultConsumer))
+          nSuccessCount++;
+        nPendingCount--;
+      }
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    final UBLToEbInterfaceBatchStatistics ret = new UBLToEbInterfaceBatchStatistics (nDocumentCount,
+                                                                                     nSuccessCount,
+                                                                                     System.nanoTime () - nStartNanos);
+    s_aLogger.info ("Converted " +
+                    ret.getDocumentCount () +
+                    " UBL " +
+                    eDocType +
+                    " documents (" +
+                    ret.getFailureCount () +
+                    " failed) with " +
+                    m_nParallelism +
+                    " threads: " +
+                    String.format ("%.1f", Double.valueOf (ret.getDocumentsPerSecond ())) +
+                    " documents/sec");
+    return ret;
+  }
+
+  private static boolean _deliver (@Nonnull final Future <UBLToEbInterfaceBatchResult> aFuture,
+                                   @Nonnull final Consumer <? super UBLToEbInterfaceBatchResult> aResultConsumer) throws InterruptedException
+  {
+    final UBLToEbInterfaceBatchResult aResult;
+    try
+    {
+      aResult = aFuture.get ();
+    }
+    catch (final ExecutionException ex)
+    {
+      // Cannot happen, as _convert catches all runtime exceptions
+      throw new IllegalStateException ("Batch conversion failed", ex.getCause ());
+    }
+    aResultConsumer.accept (aResult);
+    return aResult.isSuccess ();
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.batch;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * The result of a single document within a batch conversion.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class UBLToEbInterfaceBatchResult
+{
+  private final int m_nIndex;
+  private final IReadableResource m_aSource;
+  private final ErrorList m_aErrorList;
+  private final byte [] m_aEbInterface;
+
+  public UBLToEbInterfaceBatchResult (@Nonnegative final int nIndex,
+                                      @Nonnull final IReadableResource aSource,
+                                      @Nonnull final ErrorList aErrorList,
+                                      @Nullable final byte [] aEbInterface)
+  {
+    m_nIndex = nIndex;
+    m_aSource = aSource;
+    m_aErrorList = aErrorList;
+    m_aEbInterface = aEbInterface;
+  }
+
+  /**
+   * @return The 0-based index of the source document within the batch input.
+   */
+  @Nonnegative
+  public int getIndex ()
+  {
+    return m_nIndex;
+  }
+
+  /**
+   * @return The source document. Never <code>null</code>.
+   */
+  @Nonnull
+  public IReadableResource getSource ()
+  {
+    return m_aSource;
+  }
+
+  /**
+   * @return The errors of parsing and converting this document. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public ErrorList getErrorList ()
+  {
+    return m_aErrorList;
+  }
+
+  /**
+   * @return <code>true</code> if the ebInterface document was created.
+   */
+  public boolean isSuccess ()
+  {
+    return m_aEbInterface != null;
+  }
+
+  /**
+   * @return The serialized ebInterface 4.2 document in UTF-8 or
+   *         <code>null</code> if the conversion failed.
+   */
+  @Nullable
+  @ReturnsMutableObject ("performance")
+  public byte [] getEbInterface ()
+  {
+    return m_aEbInterface;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Index", m_nIndex)
+                                       .append ("Source", m_aSource)
+                                       .append ("ErrorList", m_aErrorList)
+                                       .append ("Success", isSuccess ())
+                                       .toString ();
+  }
+}
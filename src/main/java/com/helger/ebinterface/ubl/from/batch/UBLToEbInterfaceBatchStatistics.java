@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.batch;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Statistics of a single batch conversion run.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class UBLToEbInterfaceBatchStatistics
+{
+  private final int m_nDocumentCount;
+  private final int m_nSuccessCount;
+  private final long m_nDurationNanos;
+
+  public UBLToEbInterfaceBatchStatistics (@Nonnegative final int nDocumentCount,
+                                          @Nonnegative final int nSuccessCount,
+                                          @Nonnegative final long nDurationNanos)
+  {
+    m_nDocumentCount = nDocumentCount;
+    m_nSuccessCount = nSuccessCount;
+    m_nDurationNanos = nDurationNanos;
+  }
+
+  /**
+   * @return The number of processed documents.
+   */
+  @Nonnegative
+  public int getDocumentCount ()
+  {
+    return m_nDocumentCount;
+  }
+
+  /**
+   * @return The number of successfully converted documents.
+   */
+  @Nonnegative
+  public int getSuccessCount ()
+  {
+    return m_nSuccessCount;
+  }
+
+  /**
+   * @return The number of documents that could not be converted.
+   */
+  @Nonnegative
+  public int getFailureCount ()
+  {
+    return m_nDocumentCount - m_nSuccessCount;
+  }
+
+  /**
+   * @return The wall clock duration of the batch in nanoseconds.
+   */
+  @Nonnegative
+  public long getDurationNanos ()
+  {
+    return m_nDurationNanos;
+  }
+
+  /**
+   * @return The throughput in documents per second. 0 if no time elapsed.
+   */
+  public double getDocumentsPerSecond ()
+  {
+    if (m_nDurationNanos <= 0)
+      return 0;
+    return m_nDocumentCount * (double) TimeUnit.SECONDS.toNanos (1) / m_nDurationNanos;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("DocumentCount", m_nDocumentCount)
+                                       .append ("SuccessCount", m_nSuccessCount)
+                                       .append ("DurationNanos", m_nDurationNanos)
+                                       .append ("DocumentsPerSecond", getDocumentsPerSecond ())
+                                       .toString ();
+  }
+}
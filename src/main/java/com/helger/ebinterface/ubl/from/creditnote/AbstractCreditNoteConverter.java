@@ -25,11 +25,10 @@ import com.helger.commons.error.SingleError;
 import com.helger.commons.error.list.ErrorList;
 import com.helger.commons.string.StringHelper;
 import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter;
-import com.helger.peppol.identifier.peppol.doctype.IPeppolPredefinedDocumentTypeIdentifier;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverterBuilder;
+import com.helger.ebinterface.ubl.from.helper.PeppolProfileIndex;
 import com.helger.peppol.identifier.peppol.process.IPeppolPredefinedProcessIdentifier;
-import com.helger.peppol.identifier.peppol.process.PredefinedProcessIdentifierManager;
 
-import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.CustomizationIDType;
 import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.ProfileIDType;
 import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.UBLVersionIDType;
 import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
@@ -61,6 +60,17 @@ public abstract class AbstractCreditNoteConverter extends AbstractToEbInterfaceC
     super (aDisplayLocale, aContentLocale, bStrictERBMode);
   }
 
+  /**
+   * Constructor
+   *
+   * @param aBuilder
+   *        The builder with all settings. May not be <code>null</code>.
+   */
+  protected AbstractCreditNoteConverter (@Nonnull final AbstractToEbInterfaceConverterBuilder <?, ?, ?> aBuilder)
+  {
+    super (aBuilder);
+  }
+
   /**
    * Check if the passed UBL invoice is transformable
    *
@@ -76,9 +86,8 @@ public abstract class AbstractCreditNoteConverter extends AbstractToEbInterfaceC
     {
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName ("UBLVersionID")
-                                               .setErrorText (EText.NO_UBL_VERSION_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                              UBL_VERSION_20,
-                                                                                                              UBL_VERSION_21))
+                                               .setErrorText (EText.NO_UBL_VERSION_ID.getAsErrorText (UBL_VERSION_20,
+                                                                                                      UBL_VERSION_21))
                                                .build ());
     }
     else
@@ -88,75 +97,38 @@ public abstract class AbstractCreditNoteConverter extends AbstractToEbInterfaceC
       {
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("UBLVersionID")
-                                                 .setErrorText (EText.INVALID_UBL_VERSION_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                     sUBLVersionID,
-                                                                                                                     UBL_VERSION_20,
-                                                                                                                     UBL_VERSION_21))
+                                                 .setErrorText (EText.INVALID_UBL_VERSION_ID.getAsErrorText (sUBLVersionID,
+                                                                                                             UBL_VERSION_20,
+                                                                                                             UBL_VERSION_21))
                                                  .build ());
       }
     }
 
     // Check ProfileID
-    IPeppolPredefinedProcessIdentifier aProcID = null;
+    String sProfileID = null;
     final ProfileIDType aProfileID = aUBLCreditNote.getProfileID ();
     if (aProfileID == null)
     {
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName ("ProfileID")
-                                               .setErrorText (EText.NO_PROFILE_ID.getDisplayText (m_aDisplayLocale))
+                                               .setErrorText (EText.NO_PROFILE_ID.getAsErrorText ())
                                                .build ());
     }
     else
     {
-      final String sProfileID = StringHelper.trim (aProfileID.getValue ());
-      aProcID = PredefinedProcessIdentifierManager.getProcessIdentifierOfID (sProfileID);
+      sProfileID = StringHelper.trim (aProfileID.getValue ());
+      final IPeppolPredefinedProcessIdentifier aProcID = PeppolProfileIndex.getPredefinedProcessIdentifier (sProfileID);
       if (aProcID == null)
       {
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("ProfileID")
-                                                 .setErrorText (EText.INVALID_PROFILE_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                 sProfileID))
+                                                 .setErrorText (EText.INVALID_PROFILE_ID.getAsErrorText (sProfileID))
                                                  .build ());
       }
     }
 
     // Check CustomizationID
-    // I'm not quite sure whether the document ID or "PEPPOL" should be used!
-    if (false)
-    {
-      final CustomizationIDType aCustomizationID = aUBLCreditNote.getCustomizationID ();
-      if (aCustomizationID == null)
-        aTransformationErrorList.add (SingleError.builderError ()
-                                                 .setErrorFieldName ("CustomizationID")
-                                                 .setErrorText (EText.NO_CUSTOMIZATION_ID.getDisplayText (m_aDisplayLocale))
-                                                 .build ());
-      else
-        if (!CUSTOMIZATION_SCHEMEID.equals (aCustomizationID.getSchemeID ()))
-          aTransformationErrorList.add (SingleError.builderError ()
-                                                   .setErrorFieldName ("CustomizationID/schemeID")
-                                                   .setErrorText (EText.INVALID_CUSTOMIZATION_SCHEME_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                                aCustomizationID.getSchemeID (),
-                                                                                                                                CUSTOMIZATION_SCHEMEID))
-                                                   .build ());
-        else
-          if (aProcID != null)
-          {
-            final String sCustomizationID = StringHelper.trim (aCustomizationID.getValue ());
-            IPeppolPredefinedDocumentTypeIdentifier aMatchingDocID = null;
-            for (final IPeppolPredefinedDocumentTypeIdentifier aDocID : aProcID.getDocumentTypeIdentifiers ())
-              if (aDocID.getAsUBLCustomizationID ().equals (sCustomizationID))
-              {
-                // We found a match
-                aMatchingDocID = aDocID;
-                break;
-              }
-            if (aMatchingDocID == null)
-              aTransformationErrorList.add (SingleError.builderError ()
-                                                       .setErrorFieldName ("CustomizationID")
-                                                       .setErrorText (EText.INVALID_CUSTOMIZATION_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                             sCustomizationID))
-                                                       .build ());
-          }
-    }
+    if (m_bCheckCustomizationID)
+      checkCustomizationID (aUBLCreditNote.getCustomizationID (), sProfileID, aTransformationErrorList);
   }
 }
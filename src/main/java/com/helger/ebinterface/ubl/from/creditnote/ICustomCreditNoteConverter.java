@@ -33,7 +33,9 @@ public interface ICustomCreditNoteConverter
 {
   /**
    * Perform optional mapping after the conversion of a single details item
-   * finished.
+   * finished. This method is always invoked in the thread that started the
+   * conversion and in the order of the lines, even if the lines were converted
+   * in parallel.
    *
    * @param aUBLCreditNoteLine
    *        Existing UBL credit note line. Never <code>null</code>.
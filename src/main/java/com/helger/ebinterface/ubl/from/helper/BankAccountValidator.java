@@ -0,0 +1,299 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Hand-written validators for BICs (ISO 9362) and IBANs (ISO 13616). The
+ * checks work directly on the characters of the passed strings and neither
+ * allocate objects nor use regular expressions or {@link java.math.BigInteger}
+ * so that they can be called for every payment means of every document.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class BankAccountValidator
+{
+  /** The length of a BIC without branch code */
+  public static final int BIC_LENGTH_SHORT = 8;
+  /** The length of a BIC with branch code */
+  public static final int BIC_LENGTH_LONG = 11;
+
+  private static final int LETTER_COUNT = 'Z' - 'A' + 1;
+
+  // IBAN length per country index or 0 if the country does not use IBANs
+  private static final byte [] IBAN_LENGTHS = new byte [LETTER_COUNT * LETTER_COUNT];
+
+  private static void _addIBANCountry (@Nonnull final String sCountryCode, final int nLength)
+  {
+    IBAN_LENGTHS[_getIndex (sCountryCode.charAt (0), sCountryCode.charAt (1))] = (byte) nLength;
+  }
+
+  static
+  {
+    // As in the SWIFT IBAN registry
+    _addIBANCountry ("AD", 24);
+    _addIBANCountry ("AE", 23);
+    _addIBANCountry ("AL", 28);
+    _addIBANCountry ("AT", 20);
+    _addIBANCountry ("AZ", 28);
+    _addIBANCountry ("BA", 20);
+    _addIBANCountry ("BE", 16);
+    _addIBANCountry ("BG", 22);
+    _addIBANCountry ("BH", 22);
+    _addIBANCountry ("BI", 27);
+    _addIBANCountry ("BR", 29);
+    _addIBANCountry ("BY", 28);
+    _addIBANCountry ("CH", 21);
+    _addIBANCountry ("CR", 22);
+    _addIBANCountry ("CY", 28);
+    _addIBANCountry ("CZ", 24);
+    _addIBANCountry ("DE", 22);
+    _addIBANCountry ("DJ", 27);
+    _addIBANCountry ("DK", 18);
+    _addIBANCountry ("DO", 28);
+    _addIBANCountry ("EE", 20);
+    _addIBANCountry ("EG", 29);
+    _addIBANCountry ("ES", 24);
+    _addIBANCountry ("FI", 18);
+    _addIBANCountry ("FK", 18);
+    _addIBANCountry ("FO", 18);
+    _addIBANCountry ("FR", 27);
+    _addIBANCountry ("GB", 22);
+    _addIBANCountry ("GE", 22);
+    _addIBANCountry ("GI", 23);
+    _addIBANCountry ("GL", 18);
+    _addIBANCountry ("GR", 27);
+    _addIBANCountry ("GT", 28);
+    _addIBANCountry ("HN", 28);
+    _addIBANCountry ("HR", 21);
+    _addIBANCountry ("HU", 28);
+    _addIBANCountry ("IE", 22);
+    _addIBANCountry ("IL", 23);
+    _addIBANCountry ("IQ", 23);
+    _addIBANCountry ("IS", 26);
+    _addIBANCountry ("IT", 27);
+    _addIBANCountry ("JO", 30);
+    _addIBANCountry ("KW", 30);
+    _addIBANCountry ("KZ", 20);
+    _addIBANCountry ("LB", 28);
+    _addIBANCountry ("LC", 32);
+    _addIBANCountry ("LI", 21);
+    _addIBANCountry ("LT", 20);
+    _addIBANCountry ("LU", 20);
+    _addIBANCountry ("LV", 21);
+    _addIBANCountry ("LY", 25);
+    _addIBANCountry ("MC", 27);
+    _addIBANCountry ("MD", 24);
+    _addIBANCountry ("ME", 22);
+    _addIBANCountry ("MK", 19);
+    _addIBANCountry ("MN", 20);
+    _addIBANCountry ("MR", 27);
+    _addIBANCountry ("MT", 31);
+    _addIBANCountry ("MU", 30);
+    _addIBANCountry ("NI", 28);
+    _addIBANCountry ("NL", 18);
+    _addIBANCountry ("NO", 15);
+    _addIBANCountry ("OM", 23);
+    _addIBANCountry ("PK", 24);
+    _addIBANCountry ("PL", 28);
+    _addIBANCountry ("PS", 29);
+    _addIBANCountry ("PT", 25);
+    _addIBANCountry ("QA", 29);
+    _addIBANCountry ("RO", 24);
+    _addIBANCountry ("RS", 22);
+    _addIBANCountry ("RU", 33);
+    _addIBANCountry ("SA", 24);
+    _addIBANCountry ("SC", 31);
+    _addIBANCountry ("SD", 18);
+    _addIBANCountry ("SE", 24);
+    _addIBANCountry ("SI", 19);
+    _addIBANCountry ("SK", 24);
+    _addIBANCountry ("SM", 27);
+    _addIBANCountry ("SO", 23);
+    _addIBANCountry ("ST", 25);
+    _addIBANCountry ("SV", 28);
+    _addIBANCountry ("TL", 23);
+    _addIBANCountry ("TN", 24);
+    _addIBANCountry ("TR", 26);
+    _addIBANCountry ("UA", 29);
+    _addIBANCountry ("VA", 22);
+    _addIBANCountry ("VG", 24);
+    _addIBANCountry ("XK", 20);
+    _addIBANCountry ("YE", 30);
+  }
+
+  private BankAccountValidator ()
+  {}
+
+  private static boolean _isLetter (final char c)
+  {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+
+  private static boolean _isDigit (final char c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * @return The value of the passed letter or digit as used in the IBAN check
+   *         digit calculation: 0-9 for digits and 10-35 for letters
+   *         independent of the case. -1 for all other characters.
+   */
+  private static int _getCharValue (final char c)
+  {
+    if (c >= '0' && c <= '9')
+      return c - '0';
+    if (c >= 'A' && c <= 'Z')
+      return c - 'A' + 10;
+    if (c >= 'a' && c <= 'z')
+      return c - 'a' + 10;
+    return -1;
+  }
+
+  /**
+   * @return The index of the country consisting of the two passed letters.
+   *         Only valid if both characters are letters.
+   */
+  private static int _getIndex (final char c0, final char c1)
+  {
+    return (_getCharValue (c0) - 10) * LETTER_COUNT + _getCharValue (c1) - 10;
+  }
+
+  /**
+   * Check the structure of a BIC: 4 characters institution code, 2 letters
+   * country code, 2 characters location code and an optional 3 characters
+   * branch code. As defined in ISO 9362:2014 the institution code may contain
+   * digits. The country code is not checked against the list of existing
+   * countries. Upper and lower case letters are accepted.
+   *
+   * @param sBIC
+   *        The BIC to check. May be <code>null</code>.
+   * @return The check result and never <code>null</code>.
+   */
+  @Nonnull
+  public static EBICValidationResult validateBIC (@Nullable final String sBIC)
+  {
+    if (sBIC == null)
+      return EBICValidationResult.INVALID_LENGTH;
+    final int nLength = sBIC.length ();
+    if (nLength != BIC_LENGTH_SHORT && nLength != BIC_LENGTH_LONG)
+      return EBICValidationResult.INVALID_LENGTH;
+    for (int i = 0; i < nLength; ++i)
+      if (_getCharValue (sBIC.charAt (i)) < 0)
+        return EBICValidationResult.INVALID_CHARACTER;
+    if (!_isLetter (sBIC.charAt (4)) || !_isLetter (sBIC.charAt (5)))
+      return EBICValidationResult.INVALID_COUNTRY_CODE;
+    return EBICValidationResult.VALID;
+  }
+
+  /**
+   * @param sBIC
+   *        The BIC to check. May be <code>null</code>.
+   * @return <code>true</code> if the BIC is structurally valid.
+   * @see #validateBIC(String)
+   */
+  public static boolean isValidBIC (@Nullable final String sBIC)
+  {
+    return validateBIC (sBIC).isValid ();
+  }
+
+  /**
+   * Get the IBAN length of a country as defined in the IBAN registry.
+   *
+   * @param sCountryCode
+   *        The two letter country code. Upper and lower case are accepted. May
+   *        be <code>null</code>.
+   * @return The total length of the IBANs of that country or -1 if the country
+   *         does not use IBANs.
+   */
+  @CheckForSigned
+  public static int getIBANLength (@Nullable final String sCountryCode)
+  {
+    if (sCountryCode == null || sCountryCode.length () != 2)
+      return -1;
+    final char c0 = sCountryCode.charAt (0);
+    final char c1 = sCountryCode.charAt (1);
+    if (!_isLetter (c0) || !_isLetter (c1))
+      return -1;
+    final int nLength = IBAN_LENGTHS[_getIndex (c0, c1)];
+    return nLength > 0 ? nLength : -1;
+  }
+
+  /**
+   * Check an IBAN in electronic format (without spaces). Checked are the
+   * characters, the country code, the length for the country and the ISO 13616
+   * mod-97 check digits. Upper and lower case letters are accepted.
+   *
+   * @param sIBAN
+   *        The IBAN to check. May be <code>null</code>.
+   * @return The check result and never <code>null</code>.
+   */
+  @Nonnull
+  public static EIBANValidationResult validateIBAN (@Nullable final String sIBAN)
+  {
+    if (sIBAN == null)
+      return EIBANValidationResult.INVALID_FORMAT;
+    final int nLength = sIBAN.length ();
+    for (int i = 0; i < nLength; ++i)
+      if (_getCharValue (sIBAN.charAt (i)) < 0)
+        return EIBANValidationResult.INVALID_CHARACTER;
+    if (nLength < 4 ||
+        !_isLetter (sIBAN.charAt (0)) ||
+        !_isLetter (sIBAN.charAt (1)) ||
+        !_isDigit (sIBAN.charAt (2)) ||
+        !_isDigit (sIBAN.charAt (3)))
+      return EIBANValidationResult.INVALID_FORMAT;
+
+    final int nExpectedLength = IBAN_LENGTHS[_getIndex (sIBAN.charAt (0), sIBAN.charAt (1))];
+    if (nExpectedLength == 0)
+      return EIBANValidationResult.UNKNOWN_COUNTRY;
+    if (nLength != nExpectedLength)
+      return EIBANValidationResult.INVALID_LENGTH;
+
+    // Check digits 00, 01 and 99 are never issued
+    final int nCheckDigits = (sIBAN.charAt (2) - '0') * 10 + sIBAN.charAt (3) - '0';
+    if (nCheckDigits < 2 || nCheckDigits > 98)
+      return EIBANValidationResult.INVALID_CHECKSUM;
+
+    // Move the first 4 characters to the end, replace letters by 10-35 and
+    // calculate the remainder digit by digit
+    int nRemainder = 0;
+    for (int i = 0; i < nLength; ++i)
+    {
+      final int nValue = _getCharValue (sIBAN.charAt ((i + 4) % nLength));
+      nRemainder = (nRemainder * (nValue < 10 ? 10 : 100) + nValue) % 97;
+    }
+    return nRemainder == 1 ? EIBANValidationResult.VALID : EIBANValidationResult.INVALID_CHECKSUM;
+  }
+
+  /**
+   * @param sIBAN
+   *        The IBAN to check. May be <code>null</code>.
+   * @return <code>true</code> if the IBAN is valid.
+   * @see #validateIBAN(String)
+   */
+  public static boolean isValidIBAN (@Nullable final String sIBAN)
+  {
+    return validateIBAN (sIBAN).isValid ();
+  }
+}
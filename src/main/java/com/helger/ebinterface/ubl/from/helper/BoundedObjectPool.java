@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A simple non-blocking object pool for objects that are expensive to create
+ * but not thread-safe. Borrowing never blocks: if no idle object is available
+ * a new one is created. At most the configured number of idle objects are
+ * retained, surplus objects that are returned are discarded.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The pooled object type
+ */
+@ThreadSafe
+public final class BoundedObjectPool <T>
+{
+  private final BlockingQueue <T> m_aIdleObjects;
+  private final Supplier <? extends T> m_aFactory;
+
+  /**
+   * Constructor
+   *
+   * @param nMaxIdleObjects
+   *        The maximum number of idle objects to retain. Must be &gt; 0.
+   * @param aFactory
+   *        The factory to create new objects. May not be <code>null</code> and
+   *        may not return <code>null</code>.
+   */
+  public BoundedObjectPool (@Nonnegative final int nMaxIdleObjects, @Nonnull final Supplier <? extends T> aFactory)
+  {
+    ValueEnforcer.isGT0 (nMaxIdleObjects, "MaxIdleObjects");
+    ValueEnforcer.notNull (aFactory, "Factory");
+    m_aIdleObjects = new ArrayBlockingQueue <> (nMaxIdleObjects);
+    m_aFactory = aFactory;
+  }
+
+  /**
+   * @return An idle object or a newly created object. Never <code>null</code>.
+   *         Must be handed back via {@link #returnObject(Object)} after usage.
+   */
+  @Nonnull
+  public T borrowObject ()
+  {
+    final T ret = m_aIdleObjects.poll ();
+    return ret != null ? ret : m_aFactory.get ();
+  }
+
+  /**
+   * Return a previously borrowed object. It must not be used afterwards.
+   *
+   * @param aObject
+   *        The object to return. May not be <code>null</code>.
+   */
+  public void returnObject (@Nonnull final T aObject)
+  {
+    ValueEnforcer.notNull (aObject, "Object");
+    // Discarded if the pool is full
+    m_aIdleObjects.offer (aObject);
+  }
+
+  /**
+   * @return The number of idle objects currently in the pool.
+   */
+  @Nonnegative
+  public int getIdleObjectCount ()
+  {
+    return m_aIdleObjects.size ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("IdleObjectCount", m_aIdleObjects.size ())
+                                       .append ("Factory", m_aFactory)
+                                       .toString ();
+  }
+}
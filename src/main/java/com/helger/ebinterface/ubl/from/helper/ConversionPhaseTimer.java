@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.from.EConversionPhase;
+import com.helger.ebinterface.ubl.from.IConversionPhaseListener;
+
+/**
+ * Measures the phases of a single conversion and forwards them to an
+ * {@link IConversionPhaseListener}. An instance is only created if a listener
+ * is installed, so that the converters only need a <code>null</code> check in
+ * the default case.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class ConversionPhaseTimer
+{
+  private final IConversionPhaseListener m_aListener;
+  private final EDocumentRoute m_eRoute;
+  private final boolean m_bStrictERBMode;
+  private final long m_nStartNanos;
+  private volatile int m_nLineCount;
+
+  public ConversionPhaseTimer (@Nonnull final IConversionPhaseListener aListener,
+                               @Nonnull final EDocumentRoute eRoute,
+                               final boolean bStrictERBMode)
+  {
+    m_aListener = ValueEnforcer.notNull (aListener, "Listener");
+    m_eRoute = ValueEnforcer.notNull (eRoute, "Route");
+    m_bStrictERBMode = bStrictERBMode;
+    aListener.onConversionStart (eRoute, bStrictERBMode);
+    m_nStartNanos = System.nanoTime ();
+  }
+
+  /**
+   * Report the start of a phase. Must be called in the same thread that later
+   * calls {@link #onPhaseEnd(EConversionPhase, long, int)} for this phase.
+   *
+   * @param ePhase
+   *        The phase that starts. May not be <code>null</code>.
+   * @return The {@link System#nanoTime()} when the phase started, to be passed
+   *         to {@link #onPhaseEnd(EConversionPhase, long, int)}.
+   */
+  public long onPhaseStart (@Nonnull final EConversionPhase ePhase)
+  {
+    m_aListener.onPhaseStart (m_eRoute, ePhase);
+    return System.nanoTime ();
+  }
+
+  /**
+   * Report a finished phase.
+   *
+   * @param ePhase
+   *        The phase that finished. May not be <code>null</code>.
+   * @param nPhaseStartNanos
+   *        The {@link System#nanoTime()} as returned by
+   *        {@link #onPhaseStart(EConversionPhase)}.
+   * @param nElementCount
+   *        The number of UBL elements handled in the phase.
+   */
+  public void onPhaseEnd (@Nonnull final EConversionPhase ePhase,
+                          final long nPhaseStartNanos,
+                          @Nonnegative final int nElementCount)
+  {
+    final long nDurationNanos = System.nanoTime () - nPhaseStartNanos;
+    if (ePhase == EConversionPhase.LINES)
+      m_nLineCount = nElementCount;
+    m_aListener.onPhaseEnd (m_eRoute, ePhase, nDurationNanos, nElementCount);
+  }
+
+  /**
+   * Report the end of the whole conversion.
+   *
+   * @param aErrorList
+   *        The errors of the conversion. May not be <code>null</code>.
+   * @param bSuccess
+   *        <code>true</code> if the target document was created.
+   */
+  public void onConversionEnd (@Nonnull final ErrorList aErrorList, final boolean bSuccess)
+  {
+    m_aListener.onConversionEnd (m_eRoute,
+                                 m_bStrictERBMode,
+                                 System.nanoTime () - m_nStartNanos,
+                                 m_nLineCount,
+                                 aErrorList,
+                                 bSuccess);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Listener", m_aListener)
+                                       .append ("Route", m_eRoute)
+                                       .append ("StrictERBMode", m_bStrictERBMode)
+                                       .append ("StartNanos", m_nStartNanos)
+                                       .append ("LineCount", m_nLineCount)
+                                       .toString ();
+  }
+}
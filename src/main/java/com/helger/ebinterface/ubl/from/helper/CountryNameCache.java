@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+
+/**
+ * Validates ISO 3166-1 alpha-2 country codes and provides the localized country
+ * names. The valid codes and, per content locale, the country names are stored
+ * in immutable arrays indexed by the two letters of the code, so that a lookup
+ * neither allocates nor locks. The names of a locale are computed once on
+ * first access with {@link Locale#getDisplayCountry(Locale)}.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class CountryNameCache
+{
+  private static final int LETTER_COUNT = 'Z' - 'A' + 1;
+
+  // Upper case code per index or null if the index is not a valid code
+  private static final String [] COUNTRY_CODES = new String [LETTER_COUNT * LETTER_COUNT];
+
+  static
+  {
+    for (final String sCountryCode : Locale.getISOCountries ())
+      COUNTRY_CODES[_getIndex (sCountryCode)] = sCountryCode;
+  }
+
+  // Country names per index and content locale
+  private static final ConcurrentMap <Locale, String []> s_aCountryNames = new ConcurrentHashMap <> ();
+
+  private CountryNameCache ()
+  {}
+
+  private static int _getLetterIndex (final char c)
+  {
+    if (c >= 'A' && c <= 'Z')
+      return c - 'A';
+    if (c >= 'a' && c <= 'z')
+      return c - 'a';
+    return -1;
+  }
+
+  /**
+   * @return The index of the passed two letter code or -1 if it is not a two
+   *         letter code. Upper and lower case letters result in the same
+   *         index.
+   */
+  private static int _getIndex (@Nullable final String sCountryCode)
+  {
+    if (sCountryCode == null || sCountryCode.length () != 2)
+      return -1;
+    final int n0 = _getLetterIndex (sCountryCode.charAt (0));
+    final int n1 = _getLetterIndex (sCountryCode.charAt (1));
+    if (n0 < 0 || n1 < 0)
+      return -1;
+    return n0 * LETTER_COUNT + n1;
+  }
+
+  /**
+   * Get the upper case version of a valid country code.
+   *
+   * @param sCountryCode
+   *        The country code to check. Case insensitive. May be
+   *        <code>null</code>.
+   * @return <code>null</code> if the passed code is not a valid ISO 3166-1
+   *         alpha-2 country code.
+   */
+  @Nullable
+  public static String getNormalizedCountryCode (@Nullable final String sCountryCode)
+  {
+    final int nIndex = _getIndex (sCountryCode);
+    return nIndex < 0 ? null : COUNTRY_CODES[nIndex];
+  }
+
+  /**
+   * @param sCountryCode
+   *        The country code to check. Case insensitive. May be
+   *        <code>null</code>.
+   * @return <code>true</code> if the passed code is a valid ISO 3166-1 alpha-2
+   *         country code.
+   */
+  public static boolean isValidCountryCode (@Nullable final String sCountryCode)
+  {
+    return getNormalizedCountryCode (sCountryCode) != null;
+  }
+
+  @Nonnull
+  private static String [] _getCountryNames (@Nonnull final Locale aContentLocale)
+  {
+    ValueEnforcer.notNull (aContentLocale, "ContentLocale");
+
+    final String [] ret = s_aCountryNames.get (aContentLocale);
+    if (ret != null)
+      return ret;
+
+    // The array is completely filled before it is published
+    return s_aCountryNames.computeIfAbsent (aContentLocale, aLocale -> {
+      final String [] aNames = new String [COUNTRY_CODES.length];
+      for (int i = 0; i < COUNTRY_CODES.length; ++i)
+        if (COUNTRY_CODES[i] != null)
+          aNames[i] = new Locale ("", COUNTRY_CODES[i]).getDisplayCountry (aLocale);
+      return aNames;
+    });
+  }
+
+  /**
+   * Get the name of the passed country in the passed locale.
+   *
+   * @param sCountryCode
+   *        The country code to use. Case insensitive. May be <code>null</code>.
+   * @param aContentLocale
+   *        The locale in which the name should be returned. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if the passed code is not a valid ISO 3166-1
+   *         alpha-2 country code.
+   */
+  @Nullable
+  public static String getCountryName (@Nullable final String sCountryCode, @Nonnull final Locale aContentLocale)
+  {
+    final int nIndex = _getIndex (sCountryCode);
+    if (nIndex < 0)
+      return null;
+    return _getCountryNames (aContentLocale)[nIndex];
+  }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+/**
+ * The result of a BIC check with {@link BankAccountValidator}.
+ *
+ * @author Philip Helger
+ */
+public enum EBICValidationResult
+{
+  /** The BIC is structurally valid */
+  VALID,
+  /** The BIC has neither 8 nor 11 characters */
+  INVALID_LENGTH,
+  /** The BIC contains characters other than ASCII letters and digits */
+  INVALID_CHARACTER,
+  /** The 5th and 6th characters of the BIC are not letters */
+  INVALID_COUNTRY_CODE;
+
+  public boolean isValid ()
+  {
+    return this == VALID;
+  }
+
+  public boolean isInvalid ()
+  {
+    return this != VALID;
+  }
+}
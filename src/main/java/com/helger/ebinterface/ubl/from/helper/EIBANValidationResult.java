@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+/**
+ * The result of an IBAN check with {@link BankAccountValidator}.
+ *
+ * @author Philip Helger
+ */
+public enum EIBANValidationResult
+{
+  /** The IBAN is valid */
+  VALID,
+  /** The IBAN contains characters other than ASCII letters and digits */
+  INVALID_CHARACTER,
+  /**
+   * The IBAN does not start with two letters followed by two digits or is
+   * shorter than that
+   */
+  INVALID_FORMAT,
+  /** The country of the IBAN is not part of the IBAN registry */
+  UNKNOWN_COUNTRY,
+  /** The length of the IBAN does not match the length of the country */
+  INVALID_LENGTH,
+  /** The ISO 13616 mod-97 check digits are wrong */
+  INVALID_CHECKSUM;
+
+  public boolean isValid ()
+  {
+    return this == VALID;
+  }
+
+  public boolean isInvalid ()
+  {
+    return this != VALID;
+  }
+
+  /**
+   * @return <code>true</code> if the value has the structure of an IBAN but
+   *         the country, the length or the check digits are wrong. Such values
+   *         are no usable account numbers. <code>false</code> for valid IBANs
+   *         and for values that are not IBANs at all (e.g. national account
+   *         numbers).
+   */
+  public boolean isDefectiveIBAN ()
+  {
+    return this == UNKNOWN_COUNTRY || this == INVALID_LENGTH || this == INVALID_CHECKSUM;
+  }
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.v42.Ebi42ListLineItemType;
+
+/**
+ * Converts the lines of a single document in parallel using fork/join. The
+ * results are stored by line index, so that they can be processed in the
+ * original order afterwards. The errors of each line are stored separately, so
+ * that merging them in line order results in exactly the same error list as
+ * the sequential conversion. In fail-fast mode the lines after the first line
+ * with an error are not converted, as the sequential conversion would stop at
+ * that line as well.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public final class ParallelLineConversion
+{
+  /**
+   * Converts a single line.
+   *
+   * @author Philip Helger
+   * @param <LINETYPE>
+   *        UBL line type
+   */
+  @FunctionalInterface
+  public interface ILineConverter <LINETYPE>
+  {
+    /**
+     * Convert a single line. Is called concurrently for different lines.
+     *
+     * @param aUBLLine
+     *        The UBL line to convert. Never <code>null</code>.
+     * @param nLineIndex
+     *        The 0-based index of the line within the document.
+     * @param aTransformationErrorList
+     *        The error list for this line only. Never <code>null</code>.
+     * @return The converted line. May not be <code>null</code>.
+     */
+    @Nonnull
+    Ebi42ListLineItemType convertLine (@Nonnull LINETYPE aUBLLine,
+                                       @Nonnegative int nLineIndex,
+                                       @Nonnull ErrorList aTransformationErrorList);
+  }
+
+  /**
+   * Fork/join task converting a range of lines.
+   *
+   * @author Philip Helger
+   * @param <LINETYPE>
+   *        UBL line type
+   */
+  private static final class ConvertLinesAction <LINETYPE> extends RecursiveAction
+  {
+    private final List <? extends LINETYPE> m_aUBLLines;
+    private final ILineConverter <LINETYPE> m_aLineConverter;
+    private final int m_nChunkSize;
+    private final int m_nStart;
+    private final int m_nEnd;
+    private final Ebi42ListLineItemType [] m_aLineItems;
+    private final ErrorList [] m_aLineErrors;
+    private final boolean m_bFailFast;
+    private final AtomicInteger m_aFirstErrorLineIndex;
+
+    ConvertLinesAction (@Nonnull final List <? extends LINETYPE> aUBLLines,
+                        @Nonnull final ILineConverter <LINETYPE> aLineConverter,
+                        final int nChunkSize,
+                        final int nStart,
+                        final int nEnd,
+                        @Nonnull final Ebi42ListLineItemType [] aLineItems,
+                        @Nonnull final ErrorList [] aLineErrors,
+                        final boolean bFailFast,
+                        @Nonnull final AtomicInteger aFirstErrorLineIndex)
+    {
+      m_aUBLLines = aUBLLines;
+      m_aLineConverter = aLineConverter;
+      m_nChunkSize = nChunkSize;
+      m_nStart = nStart;
+      m_nEnd = nEnd;
+      m_aLineItems = aLineItems;
+      m_aLineErrors = aLineErrors;
+      m_bFailFast = bFailFast;
+      m_aFirstErrorLineIndex = aFirstErrorLineIndex;
+    }
+
+    @Override
+    protected void compute ()
+    {
+      // Lines after the first line with an error are not needed in fail-fast
+      // mode
+      if (m_nStart > m_aFirstErrorLineIndex.get ())
+        return;
+
+      if (m_nEnd - m_nStart > m_nChunkSize)
+      {
+        // Split in halves
+        final int nMiddle = (m_nStart + m_nEnd) >>> 1;
+        invokeAll (new ConvertLinesAction <> (m_aUBLLines,
+                                              m_aLineConverter,
+                                              m_nChunkSize,
+                                              m_nStart,
+                                              nMiddle,
+                                              m_aLineItems,
+                                              m_aLineErrors,
+                                              m_bFailFast,
+                                              m_aFirstErrorLineIndex),
+                   new ConvertLinesAction <> (m_aUBLLines,
+                                              m_aLineConverter,
+                                              m_nChunkSize,
+                                              nMiddle,
+                                              m_nEnd,
+                                              m_aLineItems,
+                                              m_aLineErrors,
+                                              m_bFailFast,
+                                              m_aFirstErrorLineIndex));
+      }
+      else
+      {
+        // Only lines with errors keep their error list
+        ErrorList aLineErrorList = new ErrorList ();
+        for (int i = m_nStart; i < m_nEnd && i <= m_aFirstErrorLineIndex.get (); ++i)
+        {
+          m_aLineItems[i] = m_aLineConverter.convertLine (m_aUBLLines.get (i), i, aLineErrorList);
+          if (!aLineErrorList.isEmpty ())
+          {
+            if (m_bFailFast && aLineErrorList.containsAtLeastOneError ())
+              m_aFirstErrorLineIndex.accumulateAndGet (i, Math::min);
+            m_aLineErrors[i] = aLineErrorList;
+            aLineErrorList = new ErrorList ();
+          }
+        }
+      }
+    }
+  }
+
+  private final Ebi42ListLineItemType [] m_aLineItems;
+  private final ErrorList [] m_aLineErrors;
+
+  private ParallelLineConversion (@Nonnull final Ebi42ListLineItemType [] aLineItems,
+                                  @Nonnull final ErrorList [] aLineErrors)
+  {
+    m_aLineItems = aLineItems;
+    m_aLineErrors = aLineErrors;
+  }
+
+  /**
+   * @return The number of converted lines.
+   */
+  @Nonnegative
+  public int getLineCount ()
+  {
+    return m_aLineItems.length;
+  }
+
+  /**
+   * Get the converted line with the passed index and add the errors of that
+   * line to the passed error list. Calling this for all lines in ascending
+   * order results in the same error list as the sequential conversion.
+   *
+   * @param nLineIndex
+   *        The 0-based index of the line.
+   * @param aTransformationErrorList
+   *        The error list to add the errors of the line to. May not be
+   *        <code>null</code>.
+   * @return The converted line. Only <code>null</code> in fail-fast mode for
+   *         lines after the first line with an error.
+   */
+  @Nullable
+  public Ebi42ListLineItemType getLineItem (@Nonnegative final int nLineIndex,
+                                            @Nonnull final ErrorList aTransformationErrorList)
+  {
+    final ErrorList aLineErrors = m_aLineErrors[nLineIndex];
+    if (aLineErrors != null)
+      for (final IError aError : aLineErrors)
+        aTransformationErrorList.add (aError);
+    return m_aLineItems[nLineIndex];
+  }
+
+  /**
+   * Convert all lines in parallel and wait until all lines are converted.
+   *
+   * @param aUBLLines
+   *        The lines to convert. Must support efficient random access. May not
+   *        be <code>null</code>.
+   * @param aLineConverter
+   *        The line converter to use. May not be <code>null</code>.
+   * @param nChunkSize
+   *        The maximum number of lines converted by a single task. Must be
+   *        &gt; 0.
+   * @param bFailFast
+   *        <code>true</code> to not convert the lines after the first line
+   *        with an error.
+   * @param aPool
+   *        The fork/join pool to use. May not be <code>null</code>.
+   * @return The conversion result. Never <code>null</code>.
+   * @param <LINETYPE>
+   *        UBL line type
+   */
+  @Nonnull
+  public static <LINETYPE> ParallelLineConversion convert (@Nonnull final List <? extends LINETYPE> aUBLLines,
+                                                           @Nonnull final ILineConverter <LINETYPE> aLineConverter,
+                                                           @Nonnegative final int nChunkSize,
+                                                           final boolean bFailFast,
+                                                           @Nonnull final ForkJoinPool aPool)
+  {
+    ValueEnforcer.notNull (aUBLLines, "UBLLines");
+    ValueEnforcer.notNull (aLineConverter, "LineConverter");
+    ValueEnforcer.isGT0 (nChunkSize, "ChunkSize");
+    ValueEnforcer.notNull (aPool, "Pool");
+
+    final int nLineCount = aUBLLines.size ();
+    final Ebi42ListLineItemType [] aLineItems = new Ebi42ListLineItemType [nLineCount];
+    final ErrorList [] aLineErrors = new ErrorList [nLineCount];
+    aPool.invoke (new ConvertLinesAction <> (aUBLLines,
+                                             aLineConverter,
+                                             nChunkSize,
+                                             0,
+                                             nLineCount,
+                                             aLineItems,
+                                             aLineErrors,
+                                             bFailFast,
+                                             new AtomicInteger (Integer.MAX_VALUE)));
+    return new ParallelLineConversion (aLineItems, aLineErrors);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("LineCount", m_aLineItems.length).toString ();
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Runs independent sections of a single document conversion concurrently. Each
+ * section writes its errors into its own error list. The results and errors
+ * of the sections are taken over by the converting thread in a fixed order via
+ * {@link Section#join(ErrorList)}, so that the resulting error list is
+ * identical to the one of the sequential conversion. {@link #close()} skips
+ * all sections that have not started yet (e.g. after a fail fast abort) and
+ * waits until the running sections are finished, so that no section outlives
+ * the conversion.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public final class ParallelSections implements AutoCloseable
+{
+  /**
+   * A single forked section.
+   *
+   * @author Philip Helger
+   * @param <T>
+   *        Result type of the section
+   */
+  public static final class Section <T>
+  {
+    private final ErrorList m_aErrorList;
+    private final CompletableFuture <T> m_aFuture;
+
+    Section (@Nonnull final ErrorList aErrorList, @Nonnull final CompletableFuture <T> aFuture)
+    {
+      m_aErrorList = aErrorList;
+      m_aFuture = aFuture;
+    }
+
+    /**
+     * Wait until the section is finished and add all errors of the section to
+     * the passed error list.
+     *
+     * @param aTransformationErrorList
+     *        The error list to add the errors of the section to. May not be
+     *        <code>null</code>.
+     * @return The result of the section. May be <code>null</code>.
+     */
+    @Nullable
+    public T join (@Nonnull final ErrorList aTransformationErrorList)
+    {
+      final T ret;
+      try
+      {
+        ret = m_aFuture.join ();
+      }
+      catch (final CompletionException ex)
+      {
+        // Rethrow the original exception like the sequential conversion
+        final Throwable aCause = ex.getCause ();
+        if (aCause instanceof RuntimeException)
+          throw (RuntimeException) aCause;
+        if (aCause instanceof Error)
+          throw (Error) aCause;
+        throw ex;
+      }
+      for (final IError aError : m_aErrorList)
+        aTransformationErrorList.add (aError);
+      return ret;
+    }
+  }
+
+  private final Executor m_aExecutor;
+  private final ICommonsList <CompletableFuture <?>> m_aFutures = new CommonsArrayList <> ();
+  // Read by the executor threads
+  private volatile boolean m_bCancelled = false;
+
+  /**
+   * Constructor
+   *
+   * @param aExecutor
+   *        The executor to run the sections in. May not be <code>null</code>.
+   */
+  public ParallelSections (@Nonnull final Executor aExecutor)
+  {
+    m_aExecutor = ValueEnforcer.notNull (aExecutor, "Executor");
+  }
+
+  @Nullable
+  private <T> T _apply (@Nonnull final Function <ErrorList, T> aSection, @Nonnull final ErrorList aErrorList)
+  {
+    if (m_bCancelled)
+      return null;
+    return aSection.apply (aErrorList);
+  }
+
+  /**
+   * Start a new section.
+   *
+   * @param aSection
+   *        The section to run. It receives the error list for this section
+   *        only. May not be <code>null</code>.
+   * @return The handle to join the section. Never <code>null</code>.
+   * @param <T>
+   *        Result type of the section
+   */
+  @Nonnull
+  public <T> Section <T> fork (@Nonnull final Function <ErrorList, T> aSection)
+  {
+    ValueEnforcer.notNull (aSection, "Section");
+
+    final ErrorList aErrorList = new ErrorList ();
+    final CompletableFuture <T> aFuture = CompletableFuture.supplyAsync ( () -> _apply (aSection, aErrorList),
+                                                                         m_aExecutor);
+    m_aFutures.add (aFuture);
+    return new Section <> (aErrorList, aFuture);
+  }
+
+  /**
+   * Start a new section that is run after the passed section finished.
+   *
+   * @param aPredecessor
+   *        The section to wait for. Must have been forked by this object. May
+   *        not be <code>null</code>.
+   * @param aSection
+   *        The section to run. It receives the error list for this section
+   *        only. May not be <code>null</code>.
+   * @return The handle to join the section. Never <code>null</code>.
+   * @param <T>
+   *        Result type of the section
+   */
+  @Nonnull
+  public <T> Section <T> forkAfter (@Nonnull final Section <?> aPredecessor,
+                                    @Nonnull final Function <ErrorList, T> aSection)
+  {
+    ValueEnforcer.notNull (aPredecessor, "Predecessor");
+    ValueEnforcer.notNull (aSection, "Section");
+
+    final ErrorList aErrorList = new ErrorList ();
+    final CompletableFuture <T> aFuture = aPredecessor.m_aFuture.thenApplyAsync (x -> _apply (aSection, aErrorList),
+                                                                                m_aExecutor);
+    m_aFutures.add (aFuture);
+    return new Section <> (aErrorList, aFuture);
+  }
+
+  /**
+   * Skip all sections that have not started yet. They complete immediately with
+   * a <code>null</code> result and without errors. Sections that are already
+   * running are not interrupted.
+   */
+  public void cancelPending ()
+  {
+    m_bCancelled = true;
+  }
+
+  /**
+   * Skip all sections that have not started yet and wait until the running
+   * sections are finished. Results and exceptions of sections that were not
+   * joined are ignored.
+   */
+  @Override
+  public void close ()
+  {
+    cancelPending ();
+    for (final CompletableFuture <?> aFuture : m_aFutures)
+      try
+      {
+        aFuture.join ();
+      }
+      catch (final CompletionException ex)
+      {
+        // Ignore - either already reported via join or not relevant
+      }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Executor", m_aExecutor)
+                                       .append ("SectionCount", m_aFutures.size ())
+                                       .toString ();
+  }
+}
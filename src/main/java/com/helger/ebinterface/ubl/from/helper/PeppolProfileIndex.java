@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.peppol.identifier.factory.PeppolIdentifierFactory;
+import com.helger.peppol.identifier.generic.process.IProcessIdentifier;
+import com.helger.peppol.identifier.peppol.doctype.IPeppolPredefinedDocumentTypeIdentifier;
+import com.helger.peppol.identifier.peppol.process.IPeppolPredefinedProcessIdentifier;
+import com.helger.peppol.identifier.peppol.process.PredefinedProcessIdentifierManager;
+
+/**
+ * Index of the predefined PEPPOL process identifiers (UBL ProfileID) and
+ * their document type identifiers (UBL CustomizationID). The index is built
+ * once when the class is loaded and is immutable afterwards. ProfileIDs that
+ * are not predefined are parsed once and the result is kept in a bounded
+ * cache, so that documents with the same custom ProfileID don't need to be
+ * parsed again. When the cache is full, new ProfileIDs are still parsed but
+ * no longer cached.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class PeppolProfileIndex
+{
+  /** The maximum number of non-predefined ProfileIDs that are cached */
+  public static final int MAX_CACHED_PROFILE_IDS = 1000;
+
+  // ProfileID to predefined process identifier
+  private static final Map <String, IPeppolPredefinedProcessIdentifier> PROCESS_IDS;
+  // ProfileID to CustomizationID to predefined document type identifier
+  private static final Map <String, Map <String, IPeppolPredefinedDocumentTypeIdentifier>> DOCUMENT_TYPE_IDS;
+
+  static
+  {
+    final Map <String, IPeppolPredefinedProcessIdentifier> aProcessIDs = new HashMap <> ();
+    final Map <String, Map <String, IPeppolPredefinedDocumentTypeIdentifier>> aDocTypeIDs = new HashMap <> ();
+    for (final IPeppolPredefinedProcessIdentifier aProcID : PredefinedProcessIdentifierManager.getAllProcessIdentifiers ())
+    {
+      final String sProfileID = aProcID.getValue ();
+      aProcessIDs.put (sProfileID, aProcID);
+
+      final Map <String, IPeppolPredefinedDocumentTypeIdentifier> aDocTypes = new HashMap <> ();
+      for (final IPeppolPredefinedDocumentTypeIdentifier aDocTypeID : aProcID.getDocumentTypeIdentifiers ())
+        aDocTypes.putIfAbsent (aDocTypeID.getAsUBLCustomizationID (), aDocTypeID);
+      aDocTypeIDs.put (sProfileID, Collections.unmodifiableMap (aDocTypes));
+    }
+    PROCESS_IDS = Collections.unmodifiableMap (aProcessIDs);
+    DOCUMENT_TYPE_IDS = Collections.unmodifiableMap (aDocTypeIDs);
+  }
+
+  // Parsed non-predefined ProfileIDs - empty if the ProfileID is invalid
+  private static final ConcurrentMap <String, Optional <IProcessIdentifier>> s_aParsedProfileIDs = new ConcurrentHashMap <> ();
+
+  private PeppolProfileIndex ()
+  {}
+
+  /**
+   * @param sProfileID
+   *        The UBL ProfileID to resolve. May be <code>null</code>.
+   * @return The predefined PEPPOL process identifier with the passed value or
+   *         <code>null</code> if it is not predefined.
+   */
+  @Nullable
+  public static IPeppolPredefinedProcessIdentifier getPredefinedProcessIdentifier (@Nullable final String sProfileID)
+  {
+    return sProfileID == null ? null : PROCESS_IDS.get (sProfileID);
+  }
+
+  /**
+   * Resolve a UBL ProfileID. Predefined process identifiers are taken from the
+   * index, all other values are parsed with the PEPPOL identifier factory.
+   *
+   * @param sProfileID
+   *        The UBL ProfileID to resolve. May be <code>null</code>.
+   * @return The matching process identifier or <code>null</code> if the
+   *         ProfileID is neither predefined nor a valid process identifier.
+   */
+  @Nullable
+  public static IProcessIdentifier getProcessIdentifier (@Nullable final String sProfileID)
+  {
+    if (sProfileID == null)
+      return null;
+
+    final IProcessIdentifier aPredefined = PROCESS_IDS.get (sProfileID);
+    if (aPredefined != null)
+      return aPredefined;
+
+    Optional <IProcessIdentifier> aParsed = s_aParsedProfileIDs.get (sProfileID);
+    if (aParsed == null)
+    {
+      aParsed = Optional.ofNullable (PeppolIdentifierFactory.INSTANCE.parseProcessIdentifier (sProfileID));
+      // Don't grow unbounded - an approximate limit is sufficient
+      if (s_aParsedProfileIDs.size () < MAX_CACHED_PROFILE_IDS)
+        s_aParsedProfileIDs.putIfAbsent (sProfileID, aParsed);
+    }
+    return aParsed.orElse (null);
+  }
+
+  /**
+   * @param sProfileID
+   *        The UBL ProfileID of a predefined process. May be <code>null</code>.
+   * @param sCustomizationID
+   *        The UBL CustomizationID to search. May be <code>null</code>.
+   * @return The document type identifier of the passed process that has the
+   *         passed UBL CustomizationID or <code>null</code> if the process is
+   *         not predefined or does not support the CustomizationID.
+   */
+  @Nullable
+  public static IPeppolPredefinedDocumentTypeIdentifier getDocumentTypeIdentifier (@Nullable final String sProfileID,
+                                                                                   @Nullable final String sCustomizationID)
+  {
+    if (sProfileID == null || sCustomizationID == null)
+      return null;
+    final Map <String, IPeppolPredefinedDocumentTypeIdentifier> aDocTypes = DOCUMENT_TYPE_IDS.get (sProfileID);
+    return aDocTypes == null ? null : aDocTypes.get (sCustomizationID);
+  }
+
+  /**
+   * @return The number of predefined process identifiers in the index.
+   */
+  @Nonnegative
+  public static int getPredefinedProcessIdentifierCount ()
+  {
+    return PROCESS_IDS.size ();
+  }
+
+  /**
+   * @return The number of non-predefined ProfileIDs currently cached. Apart
+   *         from concurrent insertions at most
+   *         {@link #MAX_CACHED_PROFILE_IDS}.
+   */
+  @Nonnegative
+  public static int getCachedProfileIDCount ()
+  {
+    return s_aParsedProfileIDs.size ();
+  }
+}
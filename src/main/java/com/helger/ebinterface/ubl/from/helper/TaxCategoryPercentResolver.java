@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.string.ToStringGenerator;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxCategoryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IDType;
+
+/**
+ * Resolves the percentage of a tax category that is referenced from an invoice
+ * line or an allowance/charge without an explicit percentage. It is filled
+ * once from the tax subtotals of a document and afterwards resolves tax
+ * categories without creating any objects - the values of the passed tax
+ * category are compared in place, ignoring leading and trailing whitespaces.
+ * <br>
+ * This replaces a map with {@link TaxCategoryKey} keys, as the number of tax
+ * categories per document is small and creating the keys for each line is
+ * expensive on large documents.<br>
+ * Thread-safety: filling via
+ * {@link #addTaxCategory(String, String, String, String, BigDecimal)} is not
+ * thread-safe. The converters fill it completely while converting the tax
+ * totals and do not modify it afterwards - from then on it is effectively
+ * immutable and {@link #getPercentage(TaxCategoryType)} may be called
+ * concurrently, e.g. from the parallel line conversion. The instance is handed
+ * to other threads only via task submission or <code>Future.get</code>, which
+ * safely publishes the filled state.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public final class TaxCategoryPercentResolver
+{
+  private static final int DEFAULT_CAPACITY = 8;
+
+  // All strings are stored trimmed
+  private String [] m_aTaxSchemeSchemeIDs = new String [DEFAULT_CAPACITY];
+  private String [] m_aTaxSchemeIDs = new String [DEFAULT_CAPACITY];
+  private String [] m_aTaxCategorySchemeIDs = new String [DEFAULT_CAPACITY];
+  private String [] m_aTaxCategoryIDs = new String [DEFAULT_CAPACITY];
+  private BigDecimal [] m_aPercentages = new BigDecimal [DEFAULT_CAPACITY];
+  private int m_nCount = 0;
+
+  public TaxCategoryPercentResolver ()
+  {}
+
+  /**
+   * Add a new tax category. If the same tax category is added more than once,
+   * the last one wins.
+   *
+   * @param sTaxSchemeSchemeID
+   *        Trimmed scheme ID of the tax scheme. May be <code>null</code>.
+   * @param sTaxSchemeID
+   *        Trimmed tax scheme ID. May be <code>null</code>.
+   * @param sTaxCategorySchemeID
+   *        Trimmed scheme ID of the tax category. May be <code>null</code>.
+   * @param sTaxCategoryID
+   *        Trimmed tax category ID. May be <code>null</code> in which case only
+   *        tax categories with an ID without value match.
+   * @param aPercentage
+   *        The percentage to use. May be <code>null</code>.
+   */
+  public void addTaxCategory (@Nullable final String sTaxSchemeSchemeID,
+                              @Nullable final String sTaxSchemeID,
+                              @Nullable final String sTaxCategorySchemeID,
+                              @Nullable final String sTaxCategoryID,
+                              @Nullable final BigDecimal aPercentage)
+  {
+    if (m_nCount == m_aTaxCategoryIDs.length)
+    {
+      final int nNewCapacity = m_nCount * 2;
+      m_aTaxSchemeSchemeIDs = Arrays.copyOf (m_aTaxSchemeSchemeIDs, nNewCapacity);
+      m_aTaxSchemeIDs = Arrays.copyOf (m_aTaxSchemeIDs, nNewCapacity);
+      m_aTaxCategorySchemeIDs = Arrays.copyOf (m_aTaxCategorySchemeIDs, nNewCapacity);
+      m_aTaxCategoryIDs = Arrays.copyOf (m_aTaxCategoryIDs, nNewCapacity);
+      m_aPercentages = Arrays.copyOf (m_aPercentages, nNewCapacity);
+    }
+    m_aTaxSchemeSchemeIDs[m_nCount] = sTaxSchemeSchemeID;
+    m_aTaxSchemeIDs[m_nCount] = sTaxSchemeID;
+    m_aTaxCategorySchemeIDs[m_nCount] = sTaxCategorySchemeID;
+    m_aTaxCategoryIDs[m_nCount] = sTaxCategoryID;
+    m_aPercentages[m_nCount] = aPercentage;
+    m_nCount++;
+  }
+
+  /**
+   * @return The number of contained tax categories. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_nCount;
+  }
+
+  /**
+   * @return <code>true</code> if no tax category is contained.
+   */
+  public boolean isEmpty ()
+  {
+    return m_nCount == 0;
+  }
+
+  /**
+   * Check if the passed string equals the already trimmed string, if leading
+   * and trailing whitespaces of the passed string are ignored. Uses the same
+   * definition of whitespace as {@link String#trim()}.
+   *
+   * @param sTrimmed
+   *        The trimmed string. May be <code>null</code>.
+   * @param sRaw
+   *        The untrimmed string. May be <code>null</code>.
+   * @return <code>true</code> if they are equal.
+   */
+  static boolean isEqualTrimmed (@Nullable final String sTrimmed, @Nullable final String sRaw)
+  {
+    if (sRaw == null)
+      return sTrimmed == null;
+    if (sTrimmed == null)
+      return false;
+
+    int nStart = 0;
+    int nEnd = sRaw.length ();
+    while (nStart < nEnd && sRaw.charAt (nStart) <= ' ')
+      nStart++;
+    while (nEnd > nStart && sRaw.charAt (nEnd - 1) <= ' ')
+      nEnd--;
+    final int nLen = nEnd - nStart;
+    return nLen == sTrimmed.length () && sRaw.regionMatches (nStart, sTrimmed, 0, nLen);
+  }
+
+  /**
+   * Get the percentage of the passed tax category as specified in the tax
+   * subtotals. The percentage of the passed tax category itself is not
+   * considered.
+   *
+   * @param aUBLTaxCategory
+   *        The tax category to resolve. May not be <code>null</code>.
+   * @return <code>null</code> if the tax category has no ID or tax scheme ID,
+   *         or if no matching tax category is contained.
+   */
+  @Nullable
+  public BigDecimal getPercentage (@Nonnull final TaxCategoryType aUBLTaxCategory)
+  {
+    final IDType aUBLTaxCategoryID = aUBLTaxCategory.getID ();
+    if (aUBLTaxCategoryID == null)
+      return null;
+    final TaxSchemeType aUBLTaxScheme = aUBLTaxCategory.getTaxScheme ();
+    if (aUBLTaxScheme == null)
+      return null;
+    final IDType aUBLTaxSchemeID = aUBLTaxScheme.getID ();
+    if (aUBLTaxSchemeID == null)
+      return null;
+
+    final String sTaxCategoryID = aUBLTaxCategoryID.getValue ();
+    final String sTaxCategorySchemeID = aUBLTaxCategoryID.getSchemeID ();
+    final String sTaxSchemeID = aUBLTaxSchemeID.getValue ();
+    final String sTaxSchemeSchemeID = aUBLTaxSchemeID.getSchemeID ();
+
+    // Search backwards, so that the last added entry wins
+    for (int i = m_nCount - 1; i >= 0; --i)
+      if (isEqualTrimmed (m_aTaxCategoryIDs[i], sTaxCategoryID) &&
+          isEqualTrimmed (m_aTaxSchemeIDs[i], sTaxSchemeID) &&
+          isEqualTrimmed (m_aTaxCategorySchemeIDs[i], sTaxCategorySchemeID) &&
+          isEqualTrimmed (m_aTaxSchemeSchemeIDs[i], sTaxSchemeSchemeID))
+        return m_aPercentages[i];
+    return null;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Count", m_nCount).toString ();
+  }
+}
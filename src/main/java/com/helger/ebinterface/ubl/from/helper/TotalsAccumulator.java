@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Accumulates the monetary totals of a document while its lines and global
+ * allowances/charges are converted, so that no additional pass over the
+ * converted lines is required. The taxable amounts are summed per VAT rate;
+ * rates with a different scale (e.g. <code>20</code> and <code>20.00</code>)
+ * are treated as the same rate.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public final class TotalsAccumulator
+{
+  // Sorted by value - compareTo ignores the scale
+  private final Map <BigDecimal, BigDecimal> m_aTaxableAmounts = new TreeMap <> ();
+  private int m_nLineCount = 0;
+  private BigDecimal m_aLineItemAmount = BigDecimal.ZERO;
+  private BigDecimal m_aAllowanceTotalAmount = BigDecimal.ZERO;
+  private BigDecimal m_aChargeTotalAmount = BigDecimal.ZERO;
+  private boolean m_bAllVATRatesKnown = true;
+
+  public TotalsAccumulator ()
+  {}
+
+  private void _addTaxableAmount (@Nonnull final BigDecimal aVATRate, @Nonnull final BigDecimal aAmount)
+  {
+    m_aTaxableAmounts.merge (aVATRate, aAmount, BigDecimal::add);
+  }
+
+  /**
+   * Add a converted line.
+   *
+   * @param aVATRate
+   *        The VAT rate of the line. May not be <code>null</code>.
+   * @param aLineItemAmount
+   *        The line item amount including the line allowances and charges. May
+   *        not be <code>null</code>.
+   */
+  public void addLine (@Nonnull final BigDecimal aVATRate, @Nonnull final BigDecimal aLineItemAmount)
+  {
+    ValueEnforcer.notNull (aVATRate, "VATRate");
+    ValueEnforcer.notNull (aLineItemAmount, "LineItemAmount");
+
+    m_nLineCount++;
+    m_aLineItemAmount = m_aLineItemAmount.add (aLineItemAmount);
+    _addTaxableAmount (aVATRate, aLineItemAmount);
+  }
+
+  /**
+   * Add a converted global allowance or charge.
+   *
+   * @param bIsCharge
+   *        <code>true</code> for a charge (surcharge), <code>false</code> for
+   *        an allowance (reduction).
+   * @param aVATRate
+   *        The VAT rate of the allowance or charge. May be <code>null</code> if
+   *        it could not be resolved. In this case the taxable amounts per VAT
+   *        rate are no longer complete.
+   * @param aAmount
+   *        The positive amount. May not be <code>null</code>.
+   */
+  public void addAllowanceCharge (final boolean bIsCharge,
+                                  @Nullable final BigDecimal aVATRate,
+                                  @Nonnull final BigDecimal aAmount)
+  {
+    ValueEnforcer.notNull (aAmount, "Amount");
+
+    if (bIsCharge)
+      m_aChargeTotalAmount = m_aChargeTotalAmount.add (aAmount);
+    else
+      m_aAllowanceTotalAmount = m_aAllowanceTotalAmount.add (aAmount);
+
+    if (aVATRate == null)
+      m_bAllVATRatesKnown = false;
+    else
+      _addTaxableAmount (aVATRate, bIsCharge ? aAmount : aAmount.negate ());
+  }
+
+  /**
+   * @return The number of lines added. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getLineCount ()
+  {
+    return m_nLineCount;
+  }
+
+  /**
+   * @return The sum of all line item amounts. Never <code>null</code>.
+   */
+  @Nonnull
+  public BigDecimal getLineItemAmount ()
+  {
+    return m_aLineItemAmount;
+  }
+
+  /**
+   * @return The sum of all global allowances. Never <code>null</code>.
+   */
+  @Nonnull
+  public BigDecimal getAllowanceTotalAmount ()
+  {
+    return m_aAllowanceTotalAmount;
+  }
+
+  /**
+   * @return The sum of all global charges. Never <code>null</code>.
+   */
+  @Nonnull
+  public BigDecimal getChargeTotalAmount ()
+  {
+    return m_aChargeTotalAmount;
+  }
+
+  /**
+   * @return The sum of all line item amounts minus the global allowances plus
+   *         the global charges. Never <code>null</code>.
+   */
+  @Nonnull
+  public BigDecimal getTaxExclusiveAmount ()
+  {
+    return m_aLineItemAmount.subtract (m_aAllowanceTotalAmount).add (m_aChargeTotalAmount);
+  }
+
+  /**
+   * @return All VAT rates of the added lines and allowances/charges in
+   *         ascending order. Never <code>null</code>.
+   */
+  @Nonnull
+  public Set <BigDecimal> getAllVATRates ()
+  {
+    return Collections.unmodifiableSet (m_aTaxableAmounts.keySet ());
+  }
+
+  /**
+   * @param aVATRate
+   *        The VAT rate to query. May not be <code>null</code>.
+   * @return The taxable amount of all lines and allowances/charges with the
+   *         passed VAT rate. {@link BigDecimal#ZERO} if no such line was
+   *         added.
+   */
+  @Nonnull
+  public BigDecimal getTaxableAmount (@Nonnull final BigDecimal aVATRate)
+  {
+    ValueEnforcer.notNull (aVATRate, "VATRate");
+    final BigDecimal ret = m_aTaxableAmounts.get (aVATRate);
+    return ret != null ? ret : BigDecimal.ZERO;
+  }
+
+  /**
+   * @return <code>false</code> if the VAT rate of at least one allowance or
+   *         charge was unknown and therefore the taxable amounts per VAT rate
+   *         are incomplete.
+   */
+  public boolean isAllVATRatesKnown ()
+  {
+    return m_bAllVATRatesKnown;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("TaxableAmounts", m_aTaxableAmounts)
+                                       .append ("LineCount", m_nLineCount)
+                                       .append ("LineItemAmount", m_aLineItemAmount)
+                                       .append ("AllowanceTotalAmount", m_aAllowanceTotalAmount)
+                                       .append ("ChargeTotalAmount", m_aChargeTotalAmount)
+                                       .append ("AllVATRatesKnown", m_bAllVATRatesKnown)
+                                       .toString ();
+  }
+}
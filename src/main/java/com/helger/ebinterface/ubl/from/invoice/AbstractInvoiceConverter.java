@@ -25,9 +25,9 @@ import com.helger.commons.error.SingleError;
 import com.helger.commons.error.list.ErrorList;
 import com.helger.commons.string.StringHelper;
 import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter;
-import com.helger.peppol.identifier.factory.PeppolIdentifierFactory;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverterBuilder;
+import com.helger.ebinterface.ubl.from.helper.PeppolProfileIndex;
 import com.helger.peppol.identifier.generic.process.IProcessIdentifier;
-import com.helger.peppol.identifier.peppol.process.PredefinedProcessIdentifierManager;
 
 import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.InvoiceTypeCodeType;
 import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.ProfileIDType;
@@ -61,6 +61,17 @@ public abstract class AbstractInvoiceConverter extends AbstractToEbInterfaceConv
     super (aDisplayLocale, aContentLocale, bStrictERBMode);
   }
 
+  /**
+   * Constructor
+   *
+   * @param aBuilder
+   *        The builder with all settings. May not be <code>null</code>.
+   */
+  protected AbstractInvoiceConverter (@Nonnull final AbstractToEbInterfaceConverterBuilder <?, ?, ?> aBuilder)
+  {
+    super (aBuilder);
+  }
+
   /**
    * Check if the passed UBL invoice is transformable
    *
@@ -76,9 +87,8 @@ public abstract class AbstractInvoiceConverter extends AbstractToEbInterfaceConv
     {
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName ("UBLVersionID")
-                                               .setErrorText (EText.NO_UBL_VERSION_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                              UBL_VERSION_20,
-                                                                                                              UBL_VERSION_21))
+                                               .setErrorText (EText.NO_UBL_VERSION_ID.getAsErrorText (UBL_VERSION_20,
+                                                                                                      UBL_VERSION_21))
                                                .build ());
     }
     else
@@ -88,84 +98,40 @@ public abstract class AbstractInvoiceConverter extends AbstractToEbInterfaceConv
       {
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("UBLVersionID")
-                                                 .setErrorText (EText.INVALID_UBL_VERSION_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                     sUBLVersionID,
-                                                                                                                     UBL_VERSION_20,
-                                                                                                                     UBL_VERSION_21))
+                                                 .setErrorText (EText.INVALID_UBL_VERSION_ID.getAsErrorText (sUBLVersionID,
+                                                                                                             UBL_VERSION_20,
+                                                                                                             UBL_VERSION_21))
                                                  .build ());
       }
     }
 
     // Check ProfileID
-    IProcessIdentifier aProcID = null;
+    String sProfileID = null;
     final ProfileIDType aProfileID = aUBLInvoice.getProfileID ();
     if (aProfileID == null)
     {
       aTransformationErrorList.add (SingleError.builderWarn ()
                                                .setErrorFieldName ("ProfileID")
-                                               .setErrorText (EText.NO_PROFILE_ID.getDisplayText (m_aDisplayLocale))
+                                               .setErrorText (EText.NO_PROFILE_ID.getAsErrorText ())
                                                .build ());
     }
     else
     {
-      final String sProfileID = StringHelper.trim (aProfileID.getValue ());
-      aProcID = PredefinedProcessIdentifierManager.getProcessIdentifierOfID (sProfileID);
-      if (aProcID == null)
-      {
-        // Parse basically
-        aProcID = PeppolIdentifierFactory.INSTANCE.parseProcessIdentifier (sProfileID);
-      }
-
+      sProfileID = StringHelper.trim (aProfileID.getValue ());
+      // Predefined or parsed basically
+      final IProcessIdentifier aProcID = PeppolProfileIndex.getProcessIdentifier (sProfileID);
       if (aProcID == null)
       {
         aTransformationErrorList.add (SingleError.builderWarn ()
                                                  .setErrorFieldName ("ProfileID")
-                                                 .setErrorText (EText.INVALID_PROFILE_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                 sProfileID))
+                                                 .setErrorText (EText.INVALID_PROFILE_ID.getAsErrorText (sProfileID))
                                                  .build ());
       }
     }
 
     // Check CustomizationID
-    // I'm not quite sure whether the document ID or "PEPPOL" should be used!
-    // if (false)
-    // {
-    // final CustomizationIDType aCustomizationID =
-    // aUBLInvoice.getCustomizationID ();
-    // if (aCustomizationID == null)
-    // aTransformationErrorList.add (SingleError.builderError
-    // ().setErrorFieldName ("CustomizationID",
-    // EText.NO_CUSTOMIZATION_ID.getDisplayText (m_aDisplayLocale));
-    // else
-    // if (!CPeppolUBL.CUSTOMIZATION_SCHEMEID.equals
-    // (aCustomizationID.getSchemeID ()))
-    // aTransformationErrorList.add (SingleError.builderError
-    // ().setErrorFieldName ("CustomizationID/schemeID",
-    // EText.INVALID_CUSTOMIZATION_SCHEME_ID.getDisplayTextWithArgs
-    // (m_aDisplayLocale,
-    // aCustomizationID.getSchemeID (),
-    // CPeppolUBL.CUSTOMIZATION_SCHEMEID));
-    // else
-    // if (aProcID != null)
-    // {
-    // final String sCustomizationID = StringHelper.trim
-    // (aCustomizationID.getValue ());
-    // IPeppolPredefinedDocumentTypeIdentifier aMatchingDocID = null;
-    // for (final IPeppolPredefinedDocumentTypeIdentifier aDocID :
-    // aProcID.getDocumentTypeIdentifiers ())
-    // if (aDocID.getAsUBLCustomizationID ().equals (sCustomizationID))
-    // {
-    // // We found a match
-    // aMatchingDocID = aDocID;
-    // break;
-    // }
-    // if (aMatchingDocID == null)
-    // aTransformationErrorList.add (SingleError.builderError
-    // ().setErrorFieldName ("CustomizationID",
-    // EText.INVALID_CUSTOMIZATION_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-    // sCustomizationID));
-    // }
-    // }
+    if (m_bCheckCustomizationID)
+      checkCustomizationID (aUBLInvoice.getCustomizationID (), sProfileID, aTransformationErrorList);
 
     // Invoice type code
     final InvoiceTypeCodeType aInvoiceTypeCode = aUBLInvoice.getInvoiceTypeCode ();
@@ -174,8 +140,7 @@ public abstract class AbstractInvoiceConverter extends AbstractToEbInterfaceConv
       // None present
       aTransformationErrorList.add (SingleError.builderWarn ()
                                                .setErrorFieldName ("InvoiceTypeCode")
-                                               .setErrorText (EText.NO_INVOICE_TYPECODE.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                INVOICE_TYPE_CODE))
+                                               .setErrorText (EText.NO_INVOICE_TYPECODE.getAsErrorText (INVOICE_TYPE_CODE))
                                                .build ());
     }
     else
@@ -186,9 +151,8 @@ public abstract class AbstractInvoiceConverter extends AbstractToEbInterfaceConv
       {
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("InvoiceTypeCode")
-                                                 .setErrorText (EText.INVALID_INVOICE_TYPECODE.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                       sInvoiceTypeCode,
-                                                                                                                       INVOICE_TYPE_CODE))
+                                                 .setErrorText (EText.INVALID_INVOICE_TYPECODE.getAsErrorText (sInvoiceTypeCode,
+                                                                                                               INVOICE_TYPE_CODE))
                                                  .build ());
       }
     }
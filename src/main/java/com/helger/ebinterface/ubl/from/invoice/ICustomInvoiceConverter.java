@@ -33,7 +33,9 @@ public interface ICustomInvoiceConverter
 {
   /**
    * Perform optional mapping after the conversion of a single details item
-   * finished.
+   * finished. This method is always invoked in the thread that started the
+   * conversion and in the order of the lines, even if the lines were converted
+   * in parallel.
    *
    * @param aUBLInvoiceLine
    *        Existing UBL invoice line. Never <code>null</code>.
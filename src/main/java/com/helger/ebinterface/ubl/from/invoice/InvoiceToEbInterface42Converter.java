@@ -18,31 +18,43 @@ package com.helger.ebinterface.ubl.from.invoice;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 import javax.xml.datatype.XMLGregorianCalendar;
 
 import com.helger.commons.CGlobal;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.collection.CollectionHelper;
 import com.helger.commons.collection.ext.CommonsArrayList;
-import com.helger.commons.collection.ext.CommonsHashMap;
 import com.helger.commons.collection.ext.ICommonsList;
-import com.helger.commons.collection.ext.ICommonsMap;
 import com.helger.commons.error.SingleError;
 import com.helger.commons.error.list.ErrorList;
 import com.helger.commons.math.MathHelper;
-import com.helger.commons.regex.RegExHelper;
 import com.helger.commons.state.ETriState;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.StringParser;
 import com.helger.ebinterface.codelist.ETaxCode;
+import com.helger.ebinterface.ubl.CodeListHelper;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverterBuilder;
+import com.helger.ebinterface.ubl.from.EConversionPhase;
 import com.helger.ebinterface.ubl.from.EbInterface42Helper;
-import com.helger.ebinterface.ubl.from.helper.SchemedID;
-import com.helger.ebinterface.ubl.from.helper.TaxCategoryKey;
+import com.helger.ebinterface.ubl.from.helper.BankAccountValidator;
+import com.helger.ebinterface.ubl.from.helper.ConversionPhaseTimer;
+import com.helger.ebinterface.ubl.from.helper.EBICValidationResult;
+import com.helger.ebinterface.ubl.from.helper.EIBANValidationResult;
+import com.helger.ebinterface.ubl.from.helper.ParallelLineConversion;
+import com.helger.ebinterface.ubl.from.helper.ParallelSections;
+import com.helger.ebinterface.ubl.from.helper.TaxCategoryPercentResolver;
+import com.helger.ebinterface.ubl.from.helper.TotalsAccumulator;
 import com.helger.ebinterface.v42.Ebi42AccountType;
 import com.helger.ebinterface.v42.Ebi42BillerType;
 import com.helger.ebinterface.v42.Ebi42DeliveryType;
@@ -109,6 +121,12 @@ import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
 
 /**
  * Main converter between UBL 2.1 invoice and ebInterface 4.2 invoice.
+ * <p>
+ * Instances are immutable and may be shared between threads. Use
+ * {@link #builder()} to create a converter with a customizer or use
+ * {@link com.helger.ebinterface.ubl.from.UBLToEbInterfaceConverterRegistry}
+ * to get shared instances.
+ * </p>
  *
  * @author philip
  */
@@ -117,7 +135,25 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
 {
   public static final int PAYMENT_REFERENCE_MAX_LENGTH = 35;
 
-  private ICustomInvoiceConverter m_aCustomizer;
+  /**
+   * Builder for {@link InvoiceToEbInterface42Converter} objects.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  public static final class Builder extends AbstractToEbInterfaceConverterBuilder <Builder, ICustomInvoiceConverter, InvoiceToEbInterface42Converter>
+  {
+    Builder ()
+    {}
+
+    @Nonnull
+    public InvoiceToEbInterface42Converter build ()
+    {
+      return new InvoiceToEbInterface42Converter (this, m_aCustomizer);
+    }
+  }
+
+  private final ICustomInvoiceConverter m_aCustomizer;
 
   /**
    * Constructor
@@ -136,13 +172,32 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
                                           final boolean bStrictERBMode)
   {
     super (aDisplayLocale, aContentLocale, bStrictERBMode);
+    m_aCustomizer = null;
   }
 
-  @Nonnull
-  public InvoiceToEbInterface42Converter setCustomizer (@Nullable final ICustomInvoiceConverter aCustomizer)
+  private InvoiceToEbInterface42Converter (@Nonnull final Builder aBuilder,
+                                           @Nullable final ICustomInvoiceConverter aCustomizer)
   {
+    super (aBuilder);
     m_aCustomizer = aCustomizer;
-    return this;
+  }
+
+  /**
+   * @return The customizer used by this converter. May be <code>null</code>.
+   */
+  @Nullable
+  public ICustomInvoiceConverter getCustomizer ()
+  {
+    return m_aCustomizer;
+  }
+
+  /**
+   * @return A new builder for a converter. Never <code>null</code>.
+   */
+  @Nonnull
+  public static Builder builder ()
+  {
+    return new Builder ();
   }
 
   private static void _setPaymentMeansComment (@Nonnull final PaymentMeansType aUBLPaymentMeans,
@@ -174,7 +229,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
       for (final PaymentMeansType aUBLPaymentMeans : aUBLDoc.getPaymentMeans ())
       {
         final String sPaymentMeansCode = StringHelper.trim (aUBLPaymentMeans.getPaymentMeansCodeValue ());
-        final EPaymentMeansCode21 ePaymentMeans = EPaymentMeansCode21.getFromIDOrNull (sPaymentMeansCode);
+        final EPaymentMeansCode21 ePaymentMeans = CodeListHelper.getPaymentMeansCode (sPaymentMeansCode);
         if (ePaymentMeans == EPaymentMeansCode21._30 ||
             ePaymentMeans == EPaymentMeansCode21._31 ||
             ePaymentMeans == EPaymentMeansCode21._42)
@@ -207,8 +262,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
                                                                                "]/PaymentID[" +
                                                                                nPaymentIDIndex +
                                                                                "]")
-                                                           .setErrorText (EText.PAYMENT_ID_TOO_LONG_CUT.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                                sUBLPaymentID))
+                                                           .setErrorText (EText.PAYMENT_ID_TOO_LONG_CUT.getAsErrorText (sUBLPaymentID))
                                                            .build ());
                   sUBLPaymentID = sUBLPaymentID.substring (0, PAYMENT_REFERENCE_MAX_LENGTH);
                 }
@@ -234,21 +288,23 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
 
               aEbiAccount.setBIC (sBIC);
 
-              if (StringHelper.hasNoText (sBIC) || !RegExHelper.stringMatchesPattern (REGEX_BIC, sBIC))
+              final EBICValidationResult eBICResult = BankAccountValidator.validateBIC (sBIC);
+              if (eBICResult.isInvalid ())
               {
                 aTransformationErrorList.add (SingleError.builderError ()
                                                          .setErrorFieldName ("PaymentMeans[" +
                                                                              nPaymentMeansIndex +
                                                                              "]/PayeeFinancialAccount/FinancialInstitutionBranch/FinancialInstitution/ID")
-                                                         .setErrorText (EText.BIC_INVALID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                  sBIC))
+                                                         .setErrorText (getBICErrorText (sBIC, eBICResult))
                                                          .build ());
                 aEbiAccount.setBIC (null);
               }
             }
 
-            // IBAN
-            final String sIBAN = StringHelper.trim (aUBLPaymentMeans.getPayeeFinancialAccount ().getIDValue ());
+            // IBAN - remove the spaces of the printed format
+            final String sIBAN = StringHelper.removeAll (StringHelper.trim (aUBLPaymentMeans.getPayeeFinancialAccount ()
+                                                                                            .getIDValue ()),
+                                                         ' ');
             aEbiAccount.setIBAN (sIBAN);
             if (StringHelper.getLength (sIBAN) > IBAN_MAX_LENGTH)
             {
@@ -256,12 +312,37 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
                                                        .setErrorFieldName ("PaymentMeans[" +
                                                                            nPaymentMeansIndex +
                                                                            "]/PayeeFinancialAccount/ID")
-                                                       .setErrorText (EText.IBAN_TOO_LONG.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                  sIBAN,
-                                                                                                                  Integer.valueOf (IBAN_MAX_LENGTH)))
+                                                       .setErrorText (EText.IBAN_TOO_LONG.getAsErrorText (sIBAN,
+                                                                                                          Integer.valueOf (IBAN_MAX_LENGTH)))
                                                        .build ());
               aEbiAccount.setIBAN (sIBAN.substring (0, IBAN_MAX_LENGTH));
             }
+            else
+              if (StringHelper.hasText (sIBAN))
+              {
+                final EIBANValidationResult eIBANResult = BankAccountValidator.validateIBAN (sIBAN);
+                if (eIBANResult.isDefectiveIBAN ())
+                {
+                  // Wrong country, length or check digits - not payable
+                  aTransformationErrorList.add (SingleError.builderError ()
+                                                           .setErrorFieldName ("PaymentMeans[" +
+                                                                               nPaymentMeansIndex +
+                                                                               "]/PayeeFinancialAccount/ID")
+                                                           .setErrorText (getIBANErrorText (sIBAN, eIBANResult))
+                                                           .build ());
+                }
+                else
+                  if (eIBANResult.isInvalid ())
+                  {
+                    // Maybe a national account number
+                    aTransformationErrorList.add (SingleError.builderWarn ()
+                                                             .setErrorFieldName ("PaymentMeans[" +
+                                                                                 nPaymentMeansIndex +
+                                                                                 "]/PayeeFinancialAccount/ID")
+                                                             .setErrorText (getIBANErrorText (sIBAN, eIBANResult))
+                                                             .build ());
+                  }
+              }
 
             // Bank Account Owner - no field present - check PayeePart or
             // SupplierPartyName
@@ -298,8 +379,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
 
           aTransformationErrorList.add (SingleError.builderWarn ()
                                                    .setErrorFieldName ("PaymentMeans[" + nPaymentMeansIndex + "]")
-                                                   .setErrorText (EText.PAYMENTMEANS_UNSUPPORTED_CHANNELCODE.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                                     sPaymentChannelCode))
+                                                   .setErrorText (EText.PAYMENTMEANS_UNSUPPORTED_CHANNELCODE.getAsErrorText (sPaymentChannelCode))
                                                    .build ());
         }
         else
@@ -331,10 +411,9 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
 
             aTransformationErrorList.add (SingleError.builderError ()
                                                      .setErrorFieldName ("PaymentMeans[" + nPaymentMeansIndex + "]")
-                                                     .setErrorText (EText.PAYMENTMEANS_CODE_INVALID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                            ePaymentMeans.getID (),
-                                                                                                                            EPaymentMeansCode21._31.getID (),
-                                                                                                                            EPaymentMeansCode21._49.getID ()))
+                                                     .setErrorText (EText.PAYMENTMEANS_CODE_INVALID.getAsErrorText (ePaymentMeans.getID (),
+                                                                                                                    EPaymentMeansCode21._31.getID (),
+                                                                                                                    EPaymentMeansCode21._49.getID ()))
                                                      .build ());
           }
 
@@ -347,7 +426,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
       if (aEbiDoc.getPaymentMethod () == null)
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("Invoice")
-                                                 .setErrorText (EText.ERB_NO_PAYMENT_METHOD.getDisplayText (m_aDisplayLocale))
+                                                 .setErrorText (EText.ERB_NO_PAYMENT_METHOD.getAsErrorText ())
                                                  .build ());
     }
 
@@ -366,7 +445,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
                                                      .setErrorFieldName ("PaymentTerms[" +
                                                                          nPaymentTermsIndex +
                                                                          "]/SettlementPeriod")
-                                                     .setErrorText (EText.SETTLEMENT_PERIOD_MISSING.getDisplayText (m_aDisplayLocale))
+                                                     .setErrorText (EText.SETTLEMENT_PERIOD_MISSING.getAsErrorText ())
                                                      .build ());
           }
           else
@@ -392,7 +471,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
           {
             aTransformationErrorList.add (SingleError.builderWarn ()
                                                      .setErrorFieldName ("PaymentTerms[" + nPaymentTermsIndex + "]")
-                                                     .setErrorText (EText.PENALTY_NOT_ALLOWED.getDisplayText (m_aDisplayLocale))
+                                                     .setErrorText (EText.PENALTY_NOT_ALLOWED.getAsErrorText ())
                                                      .build ());
           }
 
@@ -409,7 +488,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
       if (aEbiPaymentConditions.hasDiscountEntries ())
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("PaymentMeans/PaymentDueDate")
-                                                 .setErrorText (EText.DISCOUNT_WITHOUT_DUEDATE.getDisplayText (m_aDisplayLocale))
+                                                 .setErrorText (EText.DISCOUNT_WITHOUT_DUEDATE.getAsErrorText ())
                                                  .build ());
     }
     else
@@ -427,7 +506,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
    * @param aTransformationErrorList
    *        Error list. Must be empty!
    * @return The created ebInterface document or <code>null</code> in case of a
-   *         severe error.
+   *         severe error or if fail-fast mode is enabled and an error occurred.
    */
   @Nullable
   public Ebi42InvoiceType convertToEbInterface (@Nonnull final InvoiceType aUBLDoc,
@@ -438,13 +517,66 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
     if (!aTransformationErrorList.isEmpty ())
       throw new IllegalArgumentException ("TransformationErrorList must be empty!");
 
-    // Consistency check before starting the conversion
-    _checkConsistency (aUBLDoc, aTransformationErrorList);
-    if (aTransformationErrorList.containsAtLeastOneError ())
-      return null;
+    final List <InvoiceLineType> aUBLLines = aUBLDoc.getInvoiceLine ();
+    final ConversionPhaseTimer aTimer = createPhaseTimer (EDocumentRoute.UBL_INVOICE);
+    final Ebi42InvoiceType ret = _convertToEbInterface (aUBLDoc,
+                                                        aUBLLines,
+                                                        aUBLLines.iterator (),
+                                                        null,
+                                                        aTimer,
+                                                        aTransformationErrorList);
+    if (aTimer != null)
+      aTimer.onConversionEnd (aTransformationErrorList, ret != null);
+    return ret;
+  }
 
-    // Build ebInterface invoice
-    final Ebi42InvoiceType aEbiDoc = new Ebi42InvoiceType ();
+  /**
+   * Streaming conversion method to convert from UBL to ebInterface. The UBL
+   * header is taken from the passed reader and the invoice lines are read and
+   * converted one by one, so that only a single line needs to be in memory at
+   * a time.
+   *
+   * @param aUBLReader
+   *        The streaming UBL invoice reader. May not be <code>null</code>. The
+   *        reader is not closed by this method.
+   * @param aLineItemConsumer
+   *        The consumer that receives each converted ebInterface line item. If
+   *        it is <code>null</code> the line items are added to the resulting
+   *        document, which means that all lines are kept in memory. If it is
+   *        non-<code>null</code> the item list of the resulting document
+   *        remains empty and the caller is responsible for handling the line
+   *        items.
+   * @param aTransformationErrorList
+   *        Error list. Must be empty!
+   * @return The created ebInterface document or <code>null</code> in case of a
+   *         severe error or if fail-fast mode is enabled and an error occurred.
+   */
+  @Nullable
+  public Ebi42InvoiceType convertToEbInterface (@Nonnull final UBLInvoiceStreamReader aUBLReader,
+                                                @Nullable final Consumer <? super Ebi42ListLineItemType> aLineItemConsumer,
+                                                @Nonnull final ErrorList aTransformationErrorList)
+  {
+    ValueEnforcer.notNull (aUBLReader, "UBLReader");
+    ValueEnforcer.notNull (aTransformationErrorList, "TransformationErrorList");
+    if (!aTransformationErrorList.isEmpty ())
+      throw new IllegalArgumentException ("TransformationErrorList must be empty!");
+
+    final ConversionPhaseTimer aTimer = createPhaseTimer (EDocumentRoute.UBL_INVOICE);
+    final Ebi42InvoiceType ret = _convertToEbInterface (aUBLReader.getHeader (),
+                                                        null,
+                                                        aUBLReader,
+                                                        aLineItemConsumer,
+                                                        aTimer,
+                                                        aTransformationErrorList);
+    if (aTimer != null)
+      aTimer.onConversionEnd (aTransformationErrorList, ret != null);
+    return ret;
+  }
+
+  private void _convertHeader (@Nonnull final InvoiceType aUBLDoc,
+                               @Nonnull final ErrorList aTransformationErrorList,
+                               @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
     aEbiDoc.setGeneratingSystem (EBI_GENERATING_SYSTEM_42);
     aEbiDoc.setDocumentType (Ebi42DocumentTypeType.INVOICE);
 
@@ -452,6 +584,11 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
     // have the 2letter code!
 
     final String sUBLCurrencyCode = StringHelper.trim (aUBLDoc.getDocumentCurrencyCodeValue ());
+    if (StringHelper.hasText (sUBLCurrencyCode) && !CodeListHelper.isValidCurrencyCode (sUBLCurrencyCode))
+      aTransformationErrorList.add (SingleError.builderError ()
+                                               .setErrorFieldName ("DocumentCurrencyCode")
+                                               .setErrorText (EText.INVALID_CURRENCY_CODE.getAsErrorText (sUBLCurrencyCode))
+                                               .build ());
     aEbiDoc.setInvoiceCurrency (sUBLCurrencyCode);
 
     // Invoice Number
@@ -459,7 +596,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
     if (StringHelper.hasNoText (sInvoiceNumber))
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName ("ID")
-                                               .setErrorText (EText.MISSING_INVOICE_NUMBER.getDisplayText (m_aDisplayLocale))
+                                               .setErrorText (EText.MISSING_INVOICE_NUMBER.getAsErrorText ())
                                                .build ());
     aEbiDoc.setInvoiceNumber (sInvoiceNumber);
 
@@ -468,7 +605,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
     if (aEbiDoc.getInvoiceDate () == null)
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName ("IssueDate")
-                                               .setErrorText (EText.MISSING_INVOICE_DATE.getDisplayText (m_aDisplayLocale))
+                                               .setErrorText (EText.MISSING_INVOICE_DATE.getAsErrorText ())
                                                .build ());
 
     // Is duplicate/copy indicator?
@@ -493,156 +630,164 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
       if (!aEbiComment.isEmpty ())
         aEbiDoc.setComment (StringHelper.getImplodedNonEmpty ('\n', aEbiComment));
     }
+  }
 
-    // Biller/Supplier (creator of the invoice)
-    {
-      final SupplierPartyType aUBLSupplier = aUBLDoc.getAccountingSupplierParty ();
-      final Ebi42BillerType aEbiBiller = new Ebi42BillerType ();
-      // Find the tax scheme that uses VAT
-      if (aUBLSupplier.getParty () != null)
-        for (final PartyTaxSchemeType aUBLPartyTaxScheme : aUBLSupplier.getParty ().getPartyTaxScheme ())
-        {
-          // TaxScheme is a mandatory field
-          if (SUPPORTED_TAX_SCHEME_ID.getID ().equals (aUBLPartyTaxScheme.getTaxScheme ().getIDValue ()))
-          {
-            aEbiBiller.setVATIdentificationNumber (StringHelper.trim (aUBLPartyTaxScheme.getCompanyIDValue ()));
-            break;
-          }
-        }
-      if (StringHelper.hasNoText (aEbiBiller.getVATIdentificationNumber ()))
-      {
-        // Required by ebInterface
-        aEbiBiller.setVATIdentificationNumber ("ATU00000000");
-        aTransformationErrorList.add (SingleError.builderWarn ()
-                                                 .setErrorFieldName ("AccountingSupplierParty/Party/PartyTaxScheme")
-                                                 .setErrorText (EText.BILLER_VAT_MISSING.getDisplayText (m_aDisplayLocale))
-                                                 .build ());
-      }
-      if (aUBLSupplier.getCustomerAssignedAccountID () != null)
-      {
-        // The customer's internal identifier for the supplier.
-        aEbiBiller.setInvoiceRecipientsBillerID (StringHelper.trim (aUBLSupplier.getCustomerAssignedAccountIDValue ()));
-      }
-      if (StringHelper.hasNoText (aEbiBiller.getInvoiceRecipientsBillerID ()) &&
-          aUBLSupplier.getParty () != null &&
-          aUBLSupplier.getParty ().hasPartyIdentificationEntries ())
+  private void _convertBiller (@Nonnull final InvoiceType aUBLDoc,
+                               @Nonnull final ErrorList aTransformationErrorList,
+                               @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    final SupplierPartyType aUBLSupplier = aUBLDoc.getAccountingSupplierParty ();
+    final Ebi42BillerType aEbiBiller = new Ebi42BillerType ();
+    // Find the tax scheme that uses VAT
+    if (aUBLSupplier.getParty () != null)
+      for (final PartyTaxSchemeType aUBLPartyTaxScheme : aUBLSupplier.getParty ().getPartyTaxScheme ())
       {
-        // New version for BIS V2
-        aEbiBiller.setInvoiceRecipientsBillerID (StringHelper.trim (aUBLSupplier.getParty ()
-                                                                                .getPartyIdentificationAtIndex (0)
-                                                                                .getIDValue ()));
-      }
-
-      // Disabled because field is optional
-      if (false)
-        if (m_bStrictERBMode && StringHelper.hasNoText (aEbiBiller.getInvoiceRecipientsBillerID ()))
+        // TaxScheme is a mandatory field
+        if (SUPPORTED_TAX_SCHEME_ID.getID ().equals (aUBLPartyTaxScheme.getTaxScheme ().getIDValue ()))
         {
-          // Mandatory field
-          aTransformationErrorList.add (SingleError.builderError ()
-                                                   .setErrorFieldName ("AccountingSupplierParty/CustomerAssignedAccountID")
-                                                   .setErrorText (EText.ERB_CUSTOMER_ASSIGNED_ACCOUNTID_MISSING.getDisplayText (m_aDisplayLocale))
-                                                   .build ());
+          aEbiBiller.setVATIdentificationNumber (StringHelper.trim (aUBLPartyTaxScheme.getCompanyIDValue ()));
+          break;
         }
-
-      for (final AdditionalAccountIDType aUBLAddAccountID : aUBLSupplier.getAdditionalAccountID ())
-      {
-        final Ebi42FurtherIdentificationType aFI = new Ebi42FurtherIdentificationType ();
-        aFI.setIdentificationType ("Consolidator");
-        aFI.setValue (StringHelper.trim (aUBLAddAccountID.getValue ()));
-        aEbiBiller.addFurtherIdentification (aFI);
       }
+    if (StringHelper.hasNoText (aEbiBiller.getVATIdentificationNumber ()))
+    {
+      // Required by ebInterface
+      aEbiBiller.setVATIdentificationNumber ("ATU00000000");
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName ("AccountingSupplierParty/Party/PartyTaxScheme")
+                                               .setErrorText (EText.BILLER_VAT_MISSING.getAsErrorText ())
+                                               .build ());
+    }
+    if (aUBLSupplier.getCustomerAssignedAccountID () != null)
+    {
+      // The customer's internal identifier for the supplier.
+      aEbiBiller.setInvoiceRecipientsBillerID (StringHelper.trim (aUBLSupplier.getCustomerAssignedAccountIDValue ()));
+    }
+    if (StringHelper.hasNoText (aEbiBiller.getInvoiceRecipientsBillerID ()) &&
+        aUBLSupplier.getParty () != null &&
+        aUBLSupplier.getParty ().hasPartyIdentificationEntries ())
+    {
+      // New version for BIS V2
+      aEbiBiller.setInvoiceRecipientsBillerID (StringHelper.trim (aUBLSupplier.getParty ()
+                                                                              .getPartyIdentificationAtIndex (0)
+                                                                              .getIDValue ()));
+    }
 
-      if (aUBLSupplier.getParty () != null)
+    // Disabled because field is optional
+    if (false)
+      if (m_bStrictERBMode && StringHelper.hasNoText (aEbiBiller.getInvoiceRecipientsBillerID ()))
       {
-        aEbiBiller.setAddress (EbInterface42Helper.convertParty (aUBLSupplier.getParty (),
-                                                                 "AccountingSupplierParty",
-                                                                 aTransformationErrorList,
-                                                                 m_aContentLocale,
-                                                                 m_aDisplayLocale));
-
-        // Ensure a fake biller email address is present
-        if (StringHelper.hasNoText (aEbiBiller.getAddress ().getEmail ()))
-          aEbiBiller.getAddress ().setEmail (PEPPOL_FAKE_BILLER_EMAIL_ADDRESS);
+        // Mandatory field
+        aTransformationErrorList.add (SingleError.builderError ()
+                                                 .setErrorFieldName ("AccountingSupplierParty/CustomerAssignedAccountID")
+                                                 .setErrorText (EText.ERB_CUSTOMER_ASSIGNED_ACCOUNTID_MISSING.getAsErrorText ())
+                                                 .build ());
       }
 
-      // Add contract reference as further identification
-      for (final DocumentReferenceType aDocumentReference : aUBLDoc.getContractDocumentReference ())
-        if (StringHelper.hasTextAfterTrim (aDocumentReference.getIDValue ()))
-        {
-          final String sKey = StringHelper.hasText (aDocumentReference.getID ().getSchemeID ())
-                                                                                                ? aDocumentReference.getID ()
-                                                                                                                    .getSchemeID ()
-                                                                                                : "Contract";
-
-          final Ebi42FurtherIdentificationType aEbiFurtherIdentification = new Ebi42FurtherIdentificationType ();
-          aEbiFurtherIdentification.setIdentificationType (sKey);
-          aEbiFurtherIdentification.setValue (StringHelper.trim (aDocumentReference.getIDValue ()));
-          aEbiBiller.addFurtherIdentification (aEbiFurtherIdentification);
-        }
-
-      aEbiDoc.setBiller (aEbiBiller);
+    for (final AdditionalAccountIDType aUBLAddAccountID : aUBLSupplier.getAdditionalAccountID ())
+    {
+      final Ebi42FurtherIdentificationType aFI = new Ebi42FurtherIdentificationType ();
+      aFI.setIdentificationType ("Consolidator");
+      aFI.setValue (StringHelper.trim (aUBLAddAccountID.getValue ()));
+      aEbiBiller.addFurtherIdentification (aFI);
     }
 
-    // Invoice recipient
+    if (aUBLSupplier.getParty () != null)
     {
-      final CustomerPartyType aUBLCustomer = aUBLDoc.getAccountingCustomerParty ();
-      final Ebi42InvoiceRecipientType aEbiRecipient = new Ebi42InvoiceRecipientType ();
-      // Find the tax scheme that uses VAT
-      if (aUBLCustomer.getParty () != null)
-        for (final PartyTaxSchemeType aUBLPartyTaxScheme : aUBLCustomer.getParty ().getPartyTaxScheme ())
-        {
-          // TaxScheme is a mandatory field
-          if (SUPPORTED_TAX_SCHEME_ID.getID ().equals (aUBLPartyTaxScheme.getTaxScheme ().getIDValue ()))
-          {
-            aEbiRecipient.setVATIdentificationNumber (StringHelper.trim (aUBLPartyTaxScheme.getCompanyIDValue ()));
-            break;
-          }
-        }
-      if (StringHelper.hasNoText (aEbiRecipient.getVATIdentificationNumber ()))
-      {
-        // Required by ebInterface
-        aEbiRecipient.setVATIdentificationNumber ("ATU00000000");
-        aTransformationErrorList.add (SingleError.builderWarn ()
-                                                 .setErrorFieldName ("AccountingCustomerParty/PartyTaxScheme")
-                                                 .setErrorText (EText.INVOICE_RECIPIENT_VAT_MISSING.getDisplayText (m_aDisplayLocale))
-                                                 .build ());
-      }
-      if (aUBLCustomer.getSupplierAssignedAccountID () != null)
-      {
-        // UBL: An identifier for the Customer's account, assigned by the
-        // Supplier.
-        // eb: Identifikation des Rechnungsempfängers beim Rechnungssteller.
-        aEbiRecipient.setBillersInvoiceRecipientID (StringHelper.trim (aUBLCustomer.getSupplierAssignedAccountIDValue ()));
-      }
-      // BillersInvoiceRecipientID is no longer mandatory in ebi
+      aEbiBiller.setAddress (EbInterface42Helper.convertParty (aUBLSupplier.getParty (),
+                                                               "AccountingSupplierParty",
+                                                               aTransformationErrorList,
+                                                               m_aContentLocale,
+                                                               m_aDisplayLocale));
+
+      // Ensure a fake biller email address is present
+      if (StringHelper.hasNoText (aEbiBiller.getAddress ().getEmail ()))
+        aEbiBiller.getAddress ().setEmail (PEPPOL_FAKE_BILLER_EMAIL_ADDRESS);
+    }
 
-      for (final AdditionalAccountIDType aUBLAddAccountID : aUBLCustomer.getAdditionalAccountID ())
+    // Add contract reference as further identification
+    for (final DocumentReferenceType aDocumentReference : aUBLDoc.getContractDocumentReference ())
+      if (StringHelper.hasTextAfterTrim (aDocumentReference.getIDValue ()))
       {
-        final Ebi42FurtherIdentificationType aFI = new Ebi42FurtherIdentificationType ();
-        aFI.setIdentificationType ("Consolidator");
-        aFI.setValue (StringHelper.trim (aUBLAddAccountID.getValue ()));
-        aEbiRecipient.addFurtherIdentification (aFI);
+        final String sKey = StringHelper.hasText (aDocumentReference.getID ().getSchemeID ())
+                                                                                              ? aDocumentReference.getID ()
+                                                                                                                  .getSchemeID ()
+                                                                                              : "Contract";
+
+        final Ebi42FurtherIdentificationType aEbiFurtherIdentification = new Ebi42FurtherIdentificationType ();
+        aEbiFurtherIdentification.setIdentificationType (sKey);
+        aEbiFurtherIdentification.setValue (StringHelper.trim (aDocumentReference.getIDValue ()));
+        aEbiBiller.addFurtherIdentification (aEbiFurtherIdentification);
       }
 
-      if (aUBLCustomer.getParty () != null)
-        aEbiRecipient.setAddress (EbInterface42Helper.convertParty (aUBLCustomer.getParty (),
-                                                                    "AccountingCustomerParty",
-                                                                    aTransformationErrorList,
-                                                                    m_aContentLocale,
-                                                                    m_aDisplayLocale));
-      if (aEbiRecipient.getAddress () == null)
+    aEbiDoc.setBiller (aEbiBiller);
+  }
+
+  private void _convertInvoiceRecipient (@Nonnull final InvoiceType aUBLDoc,
+                                         @Nonnull final ErrorList aTransformationErrorList,
+                                         @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    final CustomerPartyType aUBLCustomer = aUBLDoc.getAccountingCustomerParty ();
+    final Ebi42InvoiceRecipientType aEbiRecipient = new Ebi42InvoiceRecipientType ();
+    // Find the tax scheme that uses VAT
+    if (aUBLCustomer.getParty () != null)
+      for (final PartyTaxSchemeType aUBLPartyTaxScheme : aUBLCustomer.getParty ().getPartyTaxScheme ())
       {
-        // Required by ebInterface
-        aTransformationErrorList.add (SingleError.builderError ()
-                                                 .setErrorFieldName ("AccountingCustomerParty/Party")
-                                                 .setErrorText (EText.INVOICE_RECIPIENT_PARTY_MISSING.getDisplayText (m_aDisplayLocale))
-                                                 .build ());
+        // TaxScheme is a mandatory field
+        if (SUPPORTED_TAX_SCHEME_ID.getID ().equals (aUBLPartyTaxScheme.getTaxScheme ().getIDValue ()))
+        {
+          aEbiRecipient.setVATIdentificationNumber (StringHelper.trim (aUBLPartyTaxScheme.getCompanyIDValue ()));
+          break;
+        }
       }
+    if (StringHelper.hasNoText (aEbiRecipient.getVATIdentificationNumber ()))
+    {
+      // Required by ebInterface
+      aEbiRecipient.setVATIdentificationNumber ("ATU00000000");
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName ("AccountingCustomerParty/PartyTaxScheme")
+                                               .setErrorText (EText.INVOICE_RECIPIENT_VAT_MISSING.getAsErrorText ())
+                                               .build ());
+    }
+    if (aUBLCustomer.getSupplierAssignedAccountID () != null)
+    {
+      // UBL: An identifier for the Customer's account, assigned by the
+      // Supplier.
+      // eb: Identifikation des Rechnungsempfängers beim Rechnungssteller.
+      aEbiRecipient.setBillersInvoiceRecipientID (StringHelper.trim (aUBLCustomer.getSupplierAssignedAccountIDValue ()));
+    }
+    // BillersInvoiceRecipientID is no longer mandatory in ebi
+
+    for (final AdditionalAccountIDType aUBLAddAccountID : aUBLCustomer.getAdditionalAccountID ())
+    {
+      final Ebi42FurtherIdentificationType aFI = new Ebi42FurtherIdentificationType ();
+      aFI.setIdentificationType ("Consolidator");
+      aFI.setValue (StringHelper.trim (aUBLAddAccountID.getValue ()));
+      aEbiRecipient.addFurtherIdentification (aFI);
+    }
 
-      aEbiDoc.setInvoiceRecipient (aEbiRecipient);
+    if (aUBLCustomer.getParty () != null)
+      aEbiRecipient.setAddress (EbInterface42Helper.convertParty (aUBLCustomer.getParty (),
+                                                                  "AccountingCustomerParty",
+                                                                  aTransformationErrorList,
+                                                                  m_aContentLocale,
+                                                                  m_aDisplayLocale));
+    if (aEbiRecipient.getAddress () == null)
+    {
+      // Required by ebInterface
+      aTransformationErrorList.add (SingleError.builderError ()
+                                               .setErrorFieldName ("AccountingCustomerParty/Party")
+                                               .setErrorText (EText.INVOICE_RECIPIENT_PARTY_MISSING.getAsErrorText ())
+                                               .build ());
     }
 
-    // Ordering party
+    aEbiDoc.setInvoiceRecipient (aEbiRecipient);
+  }
+
+  private void _convertOrderingParty (@Nonnull final InvoiceType aUBLDoc,
+                                      @Nonnull final ErrorList aTransformationErrorList,
+                                      @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
     final CustomerPartyType aUBLBuyer = aUBLDoc.getBuyerCustomerParty ();
     if (aUBLBuyer != null)
     {
@@ -663,7 +808,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
         // Required by ebInterface
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("BuyerCustomerParty/PartyTaxScheme")
-                                                 .setErrorText (EText.ORDERING_PARTY_VAT_MISSING.getDisplayText (m_aDisplayLocale))
+                                                 .setErrorText (EText.ORDERING_PARTY_VAT_MISSING.getAsErrorText ())
                                                  .build ());
       }
 
@@ -678,7 +823,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
         // Required by ebInterface
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("BuyerCustomerParty/Party")
-                                                 .setErrorText (EText.ORDERING_PARTY_PARTY_MISSING.getDisplayText (m_aDisplayLocale))
+                                                 .setErrorText (EText.ORDERING_PARTY_PARTY_MISSING.getAsErrorText ())
                                                  .build ());
       }
 
@@ -708,543 +853,635 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
         // Required by ebInterface
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("BuyerCustomerParty/SupplierAssignedAccountID")
-                                                 .setErrorText (EText.ORDERING_PARTY_SUPPLIER_ASSIGNED_ACCOUNT_ID_MISSING.getDisplayText (m_aDisplayLocale))
+                                                 .setErrorText (EText.ORDERING_PARTY_SUPPLIER_ASSIGNED_ACCOUNT_ID_MISSING.getAsErrorText ())
                                                  .build ());
       }
 
       aEbiDoc.setOrderingParty (aEbiOrderingParty);
     }
+  }
 
-    // Order reference of invoice recipient
+  private void _convertParties (@Nonnull final InvoiceType aUBLDoc,
+                                @Nonnull final ErrorList aTransformationErrorList,
+                                @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    // Biller/Supplier (creator of the invoice)
+    _convertBiller (aUBLDoc, aTransformationErrorList, aEbiDoc);
+
+    // Invoice recipient
+    _convertInvoiceRecipient (aUBLDoc, aTransformationErrorList, aEbiDoc);
+
+    // Ordering party
+    _convertOrderingParty (aUBLDoc, aTransformationErrorList, aEbiDoc);
+  }
+
+  /**
+   * Convert the order reference of the invoice recipient
+   *
+   * @return The order reference ID to be used as the default for all lines.
+   *         May be <code>null</code>.
+   */
+  @Nullable
+  private String _convertOrderReference (@Nonnull final InvoiceType aUBLDoc,
+                                         @Nonnull final ErrorList aTransformationErrorList,
+                                         @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
     String sUBLOrderReferenceID = null;
+    final OrderReferenceType aUBLOrderReference = aUBLDoc.getOrderReference ();
+    if (aUBLOrderReference != null)
     {
-      final OrderReferenceType aUBLOrderReference = aUBLDoc.getOrderReference ();
-      if (aUBLOrderReference != null)
-      {
-        // Use directly from order reference
-        sUBLOrderReferenceID = StringHelper.trim (aUBLOrderReference.getIDValue ());
-      }
+      // Use directly from order reference
+      sUBLOrderReferenceID = StringHelper.trim (aUBLOrderReference.getIDValue ());
+    }
 
-      if (StringHelper.hasNoText (sUBLOrderReferenceID))
-      {
-        if (m_bStrictERBMode)
-          aTransformationErrorList.add (SingleError.builderError ()
+    if (StringHelper.hasNoText (sUBLOrderReferenceID))
+    {
+      if (m_bStrictERBMode)
+        aTransformationErrorList.add (SingleError.builderError ()
+                                                 .setErrorFieldName ("OrderReference/ID")
+                                                 .setErrorText (EText.ORDER_REFERENCE_MISSING.getAsErrorText ())
+                                                 .build ());
+    }
+    else
+    {
+      if (m_bStrictERBMode)
+        if (sUBLOrderReferenceID.length () > ORDER_REFERENCE_MAX_LENGTH)
+        {
+          aTransformationErrorList.add (SingleError.builderWarn ()
                                                    .setErrorFieldName ("OrderReference/ID")
-                                                   .setErrorText (EText.ORDER_REFERENCE_MISSING.getDisplayText (m_aDisplayLocale))
+                                                   .setErrorText (EText.ORDER_REFERENCE_TOO_LONG.getAsErrorText (sUBLOrderReferenceID,
+                                                                                                                 Integer.valueOf (ORDER_REFERENCE_MAX_LENGTH)))
                                                    .build ());
-      }
-      else
-      {
-        if (m_bStrictERBMode)
-          if (sUBLOrderReferenceID.length () > ORDER_REFERENCE_MAX_LENGTH)
-          {
-            aTransformationErrorList.add (SingleError.builderWarn ()
-                                                     .setErrorFieldName ("OrderReference/ID")
-                                                     .setErrorText (EText.ORDER_REFERENCE_TOO_LONG.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                           sUBLOrderReferenceID,
-                                                                                                                           Integer.valueOf (ORDER_REFERENCE_MAX_LENGTH)))
-                                                     .build ());
-            sUBLOrderReferenceID = sUBLOrderReferenceID.substring (0, ORDER_REFERENCE_MAX_LENGTH);
-          }
+          sUBLOrderReferenceID = sUBLOrderReferenceID.substring (0, ORDER_REFERENCE_MAX_LENGTH);
+        }
 
-        final Ebi42OrderReferenceType aEbiOrderReference = new Ebi42OrderReferenceType ();
-        aEbiOrderReference.setOrderID (sUBLOrderReferenceID);
-        aEbiDoc.getInvoiceRecipient ().setOrderReference (aEbiOrderReference);
-      }
+      final Ebi42OrderReferenceType aEbiOrderReference = new Ebi42OrderReferenceType ();
+      aEbiOrderReference.setOrderID (sUBLOrderReferenceID);
+      aEbiDoc.getInvoiceRecipient ().setOrderReference (aEbiOrderReference);
     }
+    return sUBLOrderReferenceID;
+  }
 
-    // Tax totals
-    // Map from tax category to percentage
-    final ICommonsMap <TaxCategoryKey, BigDecimal> aTaxCategoryPercMap = new CommonsHashMap<> ();
+  /**
+   * Convert the tax totals
+   *
+   * @return Resolver from tax category to percentage. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  private TaxCategoryPercentResolver _convertTaxTotals (@Nonnull final InvoiceType aUBLDoc,
+                                                        @Nonnull final ErrorList aTransformationErrorList,
+                                                        @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    final TaxCategoryPercentResolver aTaxCategoryPercResolver = new TaxCategoryPercentResolver ();
     final Ebi42TaxType aEbiTax = new Ebi42TaxType ();
     final Ebi42VATType aEbiVAT = new Ebi42VATType ();
+    int nTaxTotalIndex = 0;
+    for (final TaxTotalType aUBLTaxTotal : aUBLDoc.getTaxTotal ())
     {
-      int nTaxTotalIndex = 0;
-      for (final TaxTotalType aUBLTaxTotal : aUBLDoc.getTaxTotal ())
+      int nTaxSubtotalIndex = 0;
+      for (final TaxSubtotalType aUBLSubtotal : aUBLTaxTotal.getTaxSubtotal ())
       {
-        int nTaxSubtotalIndex = 0;
-        for (final TaxSubtotalType aUBLSubtotal : aUBLTaxTotal.getTaxSubtotal ())
+        // Tax category is a mandatory element
+        final TaxCategoryType aUBLTaxCategory = aUBLSubtotal.getTaxCategory ();
+        BigDecimal aUBLTaxAmount = aUBLSubtotal.getTaxAmountValue ();
+        BigDecimal aUBLTaxableAmount = aUBLSubtotal.getTaxableAmountValue ();
+
+        // Is the percentage value directly specified
+        BigDecimal aUBLPercentage = aUBLTaxCategory.getPercentValue ();
+        if (aUBLPercentage == null)
         {
-          // Tax category is a mandatory element
-          final TaxCategoryType aUBLTaxCategory = aUBLSubtotal.getTaxCategory ();
-          BigDecimal aUBLTaxAmount = aUBLSubtotal.getTaxAmountValue ();
-          BigDecimal aUBLTaxableAmount = aUBLSubtotal.getTaxableAmountValue ();
-
-          // Is the percentage value directly specified
-          BigDecimal aUBLPercentage = aUBLTaxCategory.getPercentValue ();
-          if (aUBLPercentage == null)
+          // no it is not :(
+          if (aUBLTaxAmount != null && aUBLTaxableAmount != null)
           {
-            // no it is not :(
-            if (aUBLTaxAmount != null && aUBLTaxableAmount != null)
-            {
-              // Calculate percentage
-              aUBLPercentage = MathHelper.isEqualToZero (aUBLTaxableAmount) ? BigDecimal.ZERO
-                                                                            : aUBLTaxAmount.multiply (CGlobal.BIGDEC_100)
-                                                                                           .divide (aUBLTaxableAmount,
-                                                                                                    SCALE_PERC,
-                                                                                                    ROUNDING_MODE);
-            }
+            // Calculate percentage
+            aUBLPercentage = MathHelper.isEqualToZero (aUBLTaxableAmount) ? BigDecimal.ZERO
+                                                                          : aUBLTaxAmount.multiply (CGlobal.BIGDEC_100)
+                                                                                         .divide (aUBLTaxableAmount,
+                                                                                                  SCALE_PERC,
+                                                                                                  ROUNDING_MODE);
           }
+        }
 
-          if (aUBLPercentage != null)
+        if (aUBLPercentage != null)
+        {
+          // We have at least the percentage
+          if (aUBLTaxableAmount == null && aUBLTaxAmount != null)
           {
-            // We have at least the percentage
-            if (aUBLTaxableAmount == null && aUBLTaxAmount != null)
+            // Cannot "back" calculate the taxable amount from 0 percentage!
+            if (MathHelper.isNotEqualToZero (aUBLPercentage))
             {
-              // Cannot "back" calculate the taxable amount from 0 percentage!
-              if (MathHelper.isNotEqualToZero (aUBLPercentage))
-              {
-                // Calculate (inexact) subtotal
-                aUBLTaxableAmount = aUBLTaxAmount.multiply (CGlobal.BIGDEC_100).divide (aUBLPercentage,
-                                                                                        SCALE_PRICE4,
-                                                                                        ROUNDING_MODE);
-              }
+              // Calculate (inexact) subtotal
+              aUBLTaxableAmount = aUBLTaxAmount.multiply (CGlobal.BIGDEC_100).divide (aUBLPercentage,
+                                                                                      SCALE_PRICE4,
+                                                                                      ROUNDING_MODE);
             }
-            else
-              if (aUBLTaxableAmount != null && aUBLTaxAmount == null)
-              {
-                // Calculate (inexact) subtotal
-                aUBLTaxAmount = MathHelper.isEqualToZero (aUBLPercentage) ? BigDecimal.ZERO
-                                                                          : aUBLTaxableAmount.multiply (aUBLPercentage)
-                                                                                             .divide (CGlobal.BIGDEC_100,
-                                                                                                      SCALE_PRICE4,
-                                                                                                      ROUNDING_MODE);
-              }
           }
+          else
+            if (aUBLTaxableAmount != null && aUBLTaxAmount == null)
+            {
+              // Calculate (inexact) subtotal
+              aUBLTaxAmount = MathHelper.isEqualToZero (aUBLPercentage) ? BigDecimal.ZERO
+                                                                        : aUBLTaxableAmount.multiply (aUBLPercentage)
+                                                                                           .divide (CGlobal.BIGDEC_100,
+                                                                                                    SCALE_PRICE4,
+                                                                                                    ROUNDING_MODE);
+            }
+        }
 
-          // Save item and put in map
-          final String sUBLTaxSchemeSchemeID = StringHelper.trim (aUBLTaxCategory.getTaxScheme ()
-                                                                                 .getID ()
-                                                                                 .getSchemeID ());
-          final String sUBLTaxSchemeID = StringHelper.trim (aUBLTaxCategory.getTaxScheme ().getIDValue ());
+        // Save item and put in map
+        final String sUBLTaxSchemeSchemeID = StringHelper.trim (aUBLTaxCategory.getTaxScheme ()
+                                                                               .getID ()
+                                                                               .getSchemeID ());
+        final String sUBLTaxSchemeID = StringHelper.trim (aUBLTaxCategory.getTaxScheme ().getIDValue ());
 
-          if (aUBLTaxCategory.getID () == null)
+        if (aUBLTaxCategory.getID () == null)
+        {
+          aTransformationErrorList.add (SingleError.builderError ()
+                                                   .setErrorFieldName ("TaxTotal[" +
+                                                                       nTaxTotalIndex +
+                                                                       "]/TaxSubtotal[" +
+                                                                       nTaxSubtotalIndex +
+                                                                       "]/TaxCategory")
+                                                   .setErrorText (EText.MISSING_TAXCATEGORY_ID.getAsErrorText ())
+                                                   .build ());
+          break;
+        }
+
+        final String sUBLTaxCategorySchemeID = StringHelper.trim (aUBLTaxCategory.getID ().getSchemeID ());
+        final String sUBLTaxCategoryID = StringHelper.trim (aUBLTaxCategory.getID ().getValue ());
+
+        aTaxCategoryPercResolver.addTaxCategory (sUBLTaxSchemeSchemeID,
+                                                 sUBLTaxSchemeID,
+                                                 sUBLTaxCategorySchemeID,
+                                                 sUBLTaxCategoryID,
+                                                 aUBLPercentage);
+
+        {
+          // Resolve the tax scheme ID
+          final ETaxSchemeID eUBLTaxScheme = ETaxSchemeID.getFromIDOrNull (sUBLTaxSchemeID);
+          if (eUBLTaxScheme == null)
           {
             aTransformationErrorList.add (SingleError.builderError ()
                                                      .setErrorFieldName ("TaxTotal[" +
                                                                          nTaxTotalIndex +
                                                                          "]/TaxSubtotal[" +
                                                                          nTaxSubtotalIndex +
-                                                                         "]/TaxCategory")
-                                                     .setErrorText (EText.MISSING_TAXCATEGORY_ID.getDisplayText (m_aDisplayLocale))
+                                                                         "]/TaxCategory/TaxScheme/ID")
+                                                     .setErrorText (EText.UNSUPPORTED_TAX_SCHEME_ID.getAsErrorText (sUBLTaxSchemeID))
                                                      .build ());
-            break;
           }
-
-          final String sUBLTaxCategorySchemeID = StringHelper.trim (aUBLTaxCategory.getID ().getSchemeID ());
-          final String sUBLTaxCategoryID = StringHelper.trim (aUBLTaxCategory.getID ().getValue ());
-
-          aTaxCategoryPercMap.put (new TaxCategoryKey (new SchemedID (sUBLTaxSchemeSchemeID, sUBLTaxSchemeID),
-                                                       new SchemedID (sUBLTaxCategorySchemeID, sUBLTaxCategoryID)),
-                                   aUBLPercentage);
-
+          else
           {
-            // Resolve the tax scheme ID
-            final ETaxSchemeID eUBLTaxScheme = ETaxSchemeID.getFromIDOrNull (sUBLTaxSchemeID);
-            if (eUBLTaxScheme == null)
+            if (SUPPORTED_TAX_SCHEME_ID.equals (eUBLTaxScheme))
             {
-              aTransformationErrorList.add (SingleError.builderError ()
-                                                       .setErrorFieldName ("TaxTotal[" +
-                                                                           nTaxTotalIndex +
-                                                                           "]/TaxSubtotal[" +
-                                                                           nTaxSubtotalIndex +
-                                                                           "]/TaxCategory/TaxScheme/ID")
-                                                       .setErrorText (EText.UNSUPPORTED_TAX_SCHEME_ID.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                              sUBLTaxSchemeID))
-                                                       .build ());
-            }
-            else
-            {
-              if (SUPPORTED_TAX_SCHEME_ID.equals (eUBLTaxScheme))
+              if (aUBLPercentage == null)
               {
-                if (aUBLPercentage == null)
+                aTransformationErrorList.add (SingleError.builderError ()
+                                                         .setErrorFieldName ("TaxTotal[" +
+                                                                             nTaxTotalIndex +
+                                                                             "]/TaxSubtotal[" +
+                                                                             nTaxSubtotalIndex +
+                                                                             "]/TaxCategory/Percent")
+                                                         .setErrorText (EText.TAX_PERCENT_MISSING.getAsErrorText ())
+                                                         .build ());
+              }
+              else
+                if (aUBLTaxableAmount == null)
                 {
                   aTransformationErrorList.add (SingleError.builderError ()
                                                            .setErrorFieldName ("TaxTotal[" +
                                                                                nTaxTotalIndex +
                                                                                "]/TaxSubtotal[" +
                                                                                nTaxSubtotalIndex +
-                                                                               "]/TaxCategory/Percent")
-                                                           .setErrorText (EText.TAX_PERCENT_MISSING.getDisplayText (m_aDisplayLocale))
+                                                                               "]/TaxableAmount")
+                                                           .setErrorText (EText.TAXABLE_AMOUNT_MISSING.getAsErrorText ())
                                                            .build ());
                 }
                 else
-                  if (aUBLTaxableAmount == null)
-                  {
-                    aTransformationErrorList.add (SingleError.builderError ()
-                                                             .setErrorFieldName ("TaxTotal[" +
-                                                                                 nTaxTotalIndex +
-                                                                                 "]/TaxSubtotal[" +
-                                                                                 nTaxSubtotalIndex +
-                                                                                 "]/TaxableAmount")
-                                                             .setErrorText (EText.TAXABLE_AMOUNT_MISSING.getDisplayText (m_aDisplayLocale))
-                                                             .build ());
-                  }
-                  else
-                  {
-                    // add VAT item
-                    final Ebi42VATItemType aEbiVATItem = new Ebi42VATItemType ();
-                    // Base amount
-                    aEbiVATItem.setTaxedAmount (aUBLTaxableAmount.setScale (SCALE_PRICE2, ROUNDING_MODE));
-                    // tax rate
-                    final Ebi42VATRateType aEbiVATVATRate = new Ebi42VATRateType ();
-                    // Optional
-                    if (false)
-                      aEbiVATVATRate.setTaxCode (sUBLTaxCategoryID);
-                    aEbiVATVATRate.setValue (aUBLPercentage);
-                    aEbiVATItem.setVATRate (aEbiVATVATRate);
-                    // Tax amount (mandatory)
-                    aEbiVATItem.setAmount (aUBLTaxAmount.setScale (SCALE_PRICE2, ROUNDING_MODE));
-                    // Add to list
-                    aEbiVAT.addVATItem (aEbiVATItem);
-                  }
-              }
-              else
-              {
-                // Other TAX
-                final Ebi42OtherTaxType aOtherTax = new Ebi42OtherTaxType ();
-                // As no comment is present, use the scheme ID
-                aOtherTax.setComment (sUBLTaxSchemeID);
-                // Tax amount (mandatory)
-                aOtherTax.setAmount (aUBLTaxAmount.setScale (SCALE_PRICE2, ROUNDING_MODE));
-                aEbiTax.addOtherTax (aOtherTax);
-              }
+                {
+                  // add VAT item
+                  final Ebi42VATItemType aEbiVATItem = new Ebi42VATItemType ();
+                  // Base amount
+                  aEbiVATItem.setTaxedAmount (aUBLTaxableAmount.setScale (SCALE_PRICE2, ROUNDING_MODE));
+                  // tax rate
+                  final Ebi42VATRateType aEbiVATVATRate = new Ebi42VATRateType ();
+                  // Optional
+                  if (false)
+                    aEbiVATVATRate.setTaxCode (sUBLTaxCategoryID);
+                  aEbiVATVATRate.setValue (aUBLPercentage);
+                  aEbiVATItem.setVATRate (aEbiVATVATRate);
+                  // Tax amount (mandatory)
+                  aEbiVATItem.setAmount (aUBLTaxAmount.setScale (SCALE_PRICE2, ROUNDING_MODE));
+                  // Add to list
+                  aEbiVAT.addVATItem (aEbiVATItem);
+                }
+            }
+            else
+            {
+              // Other TAX
+              final Ebi42OtherTaxType aOtherTax = new Ebi42OtherTaxType ();
+              // As no comment is present, use the scheme ID
+              aOtherTax.setComment (sUBLTaxSchemeID);
+              // Tax amount (mandatory)
+              aOtherTax.setAmount (aUBLTaxAmount.setScale (SCALE_PRICE2, ROUNDING_MODE));
+              aEbiTax.addOtherTax (aOtherTax);
             }
           }
-          ++nTaxSubtotalIndex;
         }
-        ++nTaxTotalIndex;
+        ++nTaxSubtotalIndex;
       }
-
-      aEbiTax.setVAT (aEbiVAT);
-      aEbiDoc.setTax (aEbiTax);
+      ++nTaxTotalIndex;
     }
 
-    // Line items
-    BigDecimal aTotalZeroPercLineExtensionAmount = BigDecimal.ZERO;
+    aEbiTax.setVAT (aEbiVAT);
+    aEbiDoc.setTax (aEbiTax);
+    return aTaxCategoryPercResolver;
+  }
+
+  private void _convertLineAllowanceCharges (@Nonnull final InvoiceLineType aUBLLine,
+                                             @Nonnull final BigDecimal aEbiUnitPriceValue,
+                                             @Nonnull final Ebi42ListLineItemType aEbiListLineItem)
+  {
+    // Start with quantity*unitPrice for base amount
+    BigDecimal aEbiBaseAmount = aEbiListLineItem.getQuantity ().getValue ().multiply (aEbiUnitPriceValue);
+    final Ebi42ReductionAndSurchargeListLineItemDetailsType aEbiRSDetails = new Ebi42ReductionAndSurchargeListLineItemDetailsType ();
+
+    // ebInterface can handle only Reduction or only Surcharge
+    ETriState eSurcharge = ETriState.UNDEFINED;
+    for (final AllowanceChargeType aUBLAllowanceCharge : aUBLLine.getAllowanceCharge ())
     {
-      final Ebi42DetailsType aEbiDetails = new Ebi42DetailsType ();
-      final Ebi42ItemListType aEbiItemList = new Ebi42ItemListType ();
-      int nLineIndex = 0;
-      for (final InvoiceLineType aUBLLine : aUBLDoc.getInvoiceLine ())
-      {
-        // Try to resolve tax category
-        TaxCategoryType aUBLTaxCategory = CollectionHelper.getAtIndex (aUBLLine.getItem ().getClassifiedTaxCategory (),
-                                                                       0);
-        if (aUBLTaxCategory == null)
-        {
-          // No direct tax category -> check if it is somewhere in the tax total
-          outer: for (final TaxTotalType aUBLTaxTotal : aUBLLine.getTaxTotal ())
-            for (final TaxSubtotalType aUBLTaxSubTotal : aUBLTaxTotal.getTaxSubtotal ())
-            {
-              // Only handle VAT items
-              if (SUPPORTED_TAX_SCHEME_ID.getID ()
-                                         .equals (aUBLTaxSubTotal.getTaxCategory ().getTaxScheme ().getIDValue ()))
-              {
-                // We found one -> just use it
-                aUBLTaxCategory = aUBLTaxSubTotal.getTaxCategory ();
-                break outer;
-              }
-            }
-        }
+      final boolean bItemIsSurcharge = aUBLAllowanceCharge.getChargeIndicator ().isValue ();
 
-        // Try to resolve tax percentage
-        BigDecimal aUBLPercent = null;
-        if (aUBLTaxCategory != null)
-        {
-          // Specified at tax category?
-          if (aUBLTaxCategory.getPercent () != null)
-            aUBLPercent = aUBLTaxCategory.getPercentValue ();
-
-          if (aUBLPercent == null &&
-              aUBLTaxCategory.getID () != null &&
-              aUBLTaxCategory.getTaxScheme () != null &&
-              aUBLTaxCategory.getTaxScheme ().getID () != null)
-          {
-            // Not specified - check from previous map
-            final String sUBLTaxSchemeSchemeID = StringHelper.trim (aUBLTaxCategory.getTaxScheme ()
-                                                                                   .getID ()
-                                                                                   .getSchemeID ());
-            final String sUBLTaxSchemeID = StringHelper.trim (aUBLTaxCategory.getTaxScheme ().getIDValue ());
-
-            final String sUBLTaxCategorySchemeID = StringHelper.trim (aUBLTaxCategory.getID ().getSchemeID ());
-            final String sUBLTaxCategoryID = StringHelper.trim (aUBLTaxCategory.getIDValue ());
-
-            final TaxCategoryKey aKey = new TaxCategoryKey (new SchemedID (sUBLTaxSchemeSchemeID, sUBLTaxSchemeID),
-                                                            new SchemedID (sUBLTaxCategorySchemeID, sUBLTaxCategoryID));
-            aUBLPercent = aTaxCategoryPercMap.get (aKey);
-          }
-        }
-        if (aUBLPercent == null)
-        {
-          aUBLPercent = BigDecimal.ZERO;
-          aTransformationErrorList.add (SingleError.builderWarn ()
-                                                   .setErrorFieldName ("InvoiceLine[" +
-                                                                       nLineIndex +
-                                                                       "]/Item/ClassifiedTaxCategory")
-                                                   .setErrorText (EText.DETAILS_TAX_PERCENTAGE_NOT_FOUND.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                                 aUBLPercent))
-                                                   .build ());
-        }
+      // Remember for next item
+      if (eSurcharge.isUndefined ())
+        eSurcharge = ETriState.valueOf (bItemIsSurcharge);
+      final boolean bSwapSigns = bItemIsSurcharge != eSurcharge.isTrue ();
 
-        // Start creating ebInterface line
-        final Ebi42ListLineItemType aEbiListLineItem = new Ebi42ListLineItemType ();
+      final Ebi42ReductionAndSurchargeBaseType aEbiRSItem = new Ebi42ReductionAndSurchargeBaseType ();
+      // Amount is mandatory
+      final BigDecimal aAmount = aUBLAllowanceCharge.getAmountValue ();
+      aEbiRSItem.setAmount (bSwapSigns ? aAmount.negate () : aAmount);
 
-        // Invoice line number
-        final String sUBLPositionNumber = StringHelper.trim (aUBLLine.getIDValue ());
-        BigInteger aUBLPositionNumber = StringParser.parseBigInteger (sUBLPositionNumber);
-        if (aUBLPositionNumber == null)
-        {
-          aUBLPositionNumber = BigInteger.valueOf (nLineIndex + 1);
-          aTransformationErrorList.add (SingleError.builderWarn ()
-                                                   .setErrorFieldName ("InvoiceLine[" + nLineIndex + "]/ID")
-                                                   .setErrorText (EText.DETAILS_INVALID_POSITION.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                         sUBLPositionNumber,
-                                                                                                                         aUBLPositionNumber))
-                                                   .build ());
-        }
-        aEbiListLineItem.setPositionNumber (aUBLPositionNumber);
+      // Base amount is optional
+      if (aUBLAllowanceCharge.getBaseAmount () != null)
+        aEbiRSItem.setBaseAmount (aUBLAllowanceCharge.getBaseAmountValue ());
+      if (aEbiRSItem.getBaseAmount () == null)
+        aEbiRSItem.setBaseAmount (aEbiBaseAmount);
 
-        // Descriptions
-        for (final DescriptionType aUBLDescription : aUBLLine.getItem ().getDescription ())
-          aEbiListLineItem.addDescription (StringHelper.trim (aUBLDescription.getValue ()));
-        if (aEbiListLineItem.hasNoDescriptionEntries ())
-        {
-          // Use item name as description
-          final NameType aUBLName = aUBLLine.getItem ().getName ();
-          if (aUBLName != null)
-            aEbiListLineItem.addDescription (StringHelper.trim (aUBLName.getValue ()));
-        }
-        // Add the Note elements as well (IBM, 2016-11)
-        for (final NoteType aUBLNote : aUBLLine.getNote ())
-          aEbiListLineItem.addDescription (StringHelper.trim (aUBLNote.getValue ()));
+      if (aUBLAllowanceCharge.getMultiplierFactorNumeric () != null)
+      {
+        // Percentage is optional
+        final BigDecimal aPerc = aUBLAllowanceCharge.getMultiplierFactorNumericValue ()
+                                                    .multiply (CGlobal.BIGDEC_100);
+        aEbiRSItem.setPercentage (bSwapSigns ? aPerc.negate () : aPerc);
+      }
 
-        // Quantity
-        final Ebi42UnitType aEbiQuantity = new Ebi42UnitType ();
-        if (aUBLLine.getInvoicedQuantity () != null)
-        {
-          // Unit code is optional
-          if (aUBLLine.getInvoicedQuantity ().getUnitCode () != null)
-            aEbiQuantity.setUnit (StringHelper.trim (aUBLLine.getInvoicedQuantity ().getUnitCode ()));
-          aEbiQuantity.setValue (aUBLLine.getInvoicedQuantityValue ());
-        }
-        if (aEbiQuantity.getUnit () == null)
-        {
-          // ebInterface requires a quantity!
-          aEbiQuantity.setUnit (EUnitOfMeasureCode21.C62.getID ());
-          aTransformationErrorList.add (SingleError.builderWarn ()
-                                                   .setErrorFieldName ("InvoiceLine[" +
-                                                                       nLineIndex +
-                                                                       "]/InvoicedQuantity/UnitCode")
-                                                   .setErrorText (EText.DETAILS_INVALID_UNIT.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                     aEbiQuantity.getUnit ()))
-                                                   .build ());
-        }
-        if (aEbiQuantity.getValue () == null)
-        {
-          aEbiQuantity.setValue (BigDecimal.ONE);
-          aTransformationErrorList.add (SingleError.builderWarn ()
-                                                   .setErrorFieldName ("InvoiceLine[" +
-                                                                       nLineIndex +
-                                                                       "]/InvoicedQuantity")
-                                                   .setErrorText (EText.DETAILS_INVALID_QUANTITY.getDisplayTextWithArgs (m_aDisplayLocale,
-                                                                                                                         aEbiQuantity.getValue ()))
-                                                   .build ());
-        }
-        aEbiListLineItem.setQuantity (aEbiQuantity);
+      if (eSurcharge.isTrue ())
+      {
+        aEbiRSDetails.addReductionListLineItemOrSurchargeListLineItemOrOtherVATableTaxListLineItem (new ObjectFactory ().createSurchargeListLineItem (aEbiRSItem));
+        aEbiBaseAmount = aEbiBaseAmount.add (aEbiRSItem.getAmount ());
+      }
+      else
+      {
+        aEbiRSDetails.addReductionListLineItemOrSurchargeListLineItemOrOtherVATableTaxListLineItem (new ObjectFactory ().createReductionListLineItem (aEbiRSItem));
+        aEbiBaseAmount = aEbiBaseAmount.subtract (aEbiRSItem.getAmount ());
+      }
+
+      aEbiRSItem.setComment (getAllowanceChargeComment (aUBLAllowanceCharge));
+    }
+    aEbiListLineItem.setReductionAndSurchargeListLineItemDetails (aEbiRSDetails);
+  }
 
-        // Unit price
-        if (aUBLLine.getPrice () != null)
+  @Nonnull
+  private Ebi42ListLineItemType _convertLine (@Nonnull final InvoiceType aUBLDoc,
+                                              @Nonnull final InvoiceLineType aUBLLine,
+                                              final int nLineIndex,
+                                              @Nonnull final TaxCategoryPercentResolver aTaxCategoryPercResolver,
+                                              @Nullable final String sUBLOrderReferenceID,
+                                              @Nonnull final ErrorList aTransformationErrorList)
+  {
+    // Try to resolve tax category
+    TaxCategoryType aUBLTaxCategory = CollectionHelper.getAtIndex (aUBLLine.getItem ().getClassifiedTaxCategory (),
+                                                                   0);
+    if (aUBLTaxCategory == null)
+    {
+      // No direct tax category -> check if it is somewhere in the tax total
+      outer: for (final TaxTotalType aUBLTaxTotal : aUBLLine.getTaxTotal ())
+        for (final TaxSubtotalType aUBLTaxSubTotal : aUBLTaxTotal.getTaxSubtotal ())
         {
-          final Ebi42UnitPriceType aEbiUnitPrice = new Ebi42UnitPriceType ();
-          // Unit price = priceAmount/baseQuantity (mandatory)
-          final BigDecimal aUBLPriceAmount = aUBLLine.getPrice ().getPriceAmountValue ();
-          aEbiUnitPrice.setValue (aUBLPriceAmount);
-          // If no base quantity is present, assume 1 (optional)
-          final BigDecimal aUBLBaseQuantity = aUBLLine.getPrice ().getBaseQuantityValue ();
-          if (aUBLBaseQuantity != null)
+          // Only handle VAT items
+          if (SUPPORTED_TAX_SCHEME_ID.getID ()
+                                     .equals (aUBLTaxSubTotal.getTaxCategory ().getTaxScheme ().getIDValue ()))
           {
-            aEbiUnitPrice.setBaseQuantity (aUBLBaseQuantity);
-            if (MathHelper.isEqualToZero (aUBLBaseQuantity))
-              aEbiUnitPrice.setValue (BigDecimal.ZERO);
+            // We found one -> just use it
+            aUBLTaxCategory = aUBLTaxSubTotal.getTaxCategory ();
+            break outer;
           }
-          aEbiListLineItem.setUnitPrice (aEbiUnitPrice);
-        }
-        else
-        {
-          // Unit price = lineExtensionAmount / quantity (mandatory)
-          final BigDecimal aUBLLineExtensionAmount = aUBLLine.getLineExtensionAmountValue ();
-          final Ebi42UnitPriceType aEbiUnitPrice = new Ebi42UnitPriceType ();
-          if (MathHelper.isEqualToZero (aEbiQuantity.getValue ()))
-            aEbiUnitPrice.setValue (BigDecimal.ZERO);
-          else
-            aEbiUnitPrice.setValue (aUBLLineExtensionAmount.divide (aEbiQuantity.getValue (),
-                                                                    SCALE_PRICE4,
-                                                                    ROUNDING_MODE));
-          aEbiListLineItem.setUnitPrice (aEbiUnitPrice);
         }
+    }
 
-        BigDecimal aEbiUnitPriceValue = aEbiListLineItem.getUnitPrice ().getValue ();
-        if (aEbiListLineItem.getUnitPrice ().getBaseQuantity () != null)
-          aEbiUnitPriceValue = aEbiUnitPriceValue.divide (aEbiListLineItem.getUnitPrice ().getBaseQuantity (),
-                                                          SCALE_PRICE4,
-                                                          ROUNDING_MODE);
-
-        // Tax rate (mandatory)
-        final Ebi42VATRateType aEbiVATRate = new Ebi42VATRateType ();
-        aEbiVATRate.setValue (aUBLPercent);
-        if (aUBLTaxCategory != null)
-        {
-          // Optional
-          if (false)
-            aEbiVATRate.setTaxCode (aUBLTaxCategory.getIDValue ());
-        }
-        aEbiListLineItem.setVATRate (aEbiVATRate);
-
-        // Line item amount (quantity * unit price +- reduction / surcharge)
-        aEbiListLineItem.setLineItemAmount (aUBLLine.getLineExtensionAmountValue ().setScale (SCALE_PRICE2,
-                                                                                              ROUNDING_MODE));
+    // Try to resolve tax percentage
+    BigDecimal aUBLPercent = null;
+    if (aUBLTaxCategory != null)
+    {
+      // Specified at tax category?
+      if (aUBLTaxCategory.getPercent () != null)
+        aUBLPercent = aUBLTaxCategory.getPercentValue ();
 
-        // Special handling in case no VAT item is present
-        if (MathHelper.isEqualToZero (aUBLPercent))
-          aTotalZeroPercLineExtensionAmount = aTotalZeroPercLineExtensionAmount.add (aEbiListLineItem.getLineItemAmount ());
+      if (aUBLPercent == null)
+      {
+        // Not specified - check from tax totals
+        aUBLPercent = aTaxCategoryPercResolver.getPercentage (aUBLTaxCategory);
+      }
+    }
+    if (aUBLPercent == null)
+    {
+      aUBLPercent = BigDecimal.ZERO;
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName ("InvoiceLine[" +
+                                                                   nLineIndex +
+                                                                   "]/Item/ClassifiedTaxCategory")
+                                               .setErrorText (EText.DETAILS_TAX_PERCENTAGE_NOT_FOUND.getAsErrorText (aUBLPercent))
+                                               .build ());
+    }
 
-        // Order reference per line
-        for (final OrderLineReferenceType aUBLOrderLineReference : aUBLLine.getOrderLineReference ())
-          if (StringHelper.hasText (aUBLOrderLineReference.getLineIDValue ()))
-          {
-            final Ebi42OrderReferenceDetailType aEbiOrderRefDetail = new Ebi42OrderReferenceDetailType ();
+    // Start creating ebInterface line
+    final Ebi42ListLineItemType aEbiListLineItem = new Ebi42ListLineItemType ();
 
-            // order reference
-            String sUBLLineOrderReferenceID = null;
-            if (aUBLOrderLineReference.getOrderReference () != null)
-              sUBLLineOrderReferenceID = StringHelper.trim (aUBLOrderLineReference.getOrderReference ().getIDValue ());
-            if (StringHelper.hasNoText (sUBLLineOrderReferenceID))
-            {
-              // Use the global order reference from header level
-              sUBLLineOrderReferenceID = sUBLOrderReferenceID;
-            }
-            aEbiOrderRefDetail.setOrderID (sUBLLineOrderReferenceID);
-
-            // Order position number
-            final String sOrderPosNumber = StringHelper.trim (aUBLOrderLineReference.getLineIDValue ());
-            if (sOrderPosNumber != null)
-            {
-              if (sOrderPosNumber.length () == 0)
-              {
-                aTransformationErrorList.add (SingleError.builderError ()
-                                                         .setErrorFieldName ("InvoiceLine[" +
-                                                                             nLineIndex +
-                                                                             "]/OrderLineReference/LineID")
-                                                         .setErrorText (EText.ORDERLINE_REF_ID_EMPTY.getDisplayText (m_aDisplayLocale))
-                                                         .build ());
-              }
-              else
-              {
-                aEbiOrderRefDetail.setOrderPositionNumber (sOrderPosNumber);
-              }
-            }
-            aEbiListLineItem.setInvoiceRecipientsOrderReference (aEbiOrderRefDetail);
-            break;
-          }
+    // Invoice line number
+    final String sUBLPositionNumber = StringHelper.trim (aUBLLine.getIDValue ());
+    BigInteger aUBLPositionNumber = StringParser.parseBigInteger (sUBLPositionNumber);
+    if (aUBLPositionNumber == null)
+    {
+      aUBLPositionNumber = BigInteger.valueOf (nLineIndex + 1);
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName ("InvoiceLine[" + nLineIndex + "]/ID")
+                                               .setErrorText (EText.DETAILS_INVALID_POSITION.getAsErrorText (sUBLPositionNumber,
+                                                                                                             aUBLPositionNumber))
+                                               .build ());
+    }
+    aEbiListLineItem.setPositionNumber (aUBLPositionNumber);
 
-        // Reduction and surcharge
-        if (aUBLLine.hasAllowanceChargeEntries ())
-        {
-          // Start with quantity*unitPrice for base amount
-          BigDecimal aEbiBaseAmount = aEbiListLineItem.getQuantity ().getValue ().multiply (aEbiUnitPriceValue);
-          final Ebi42ReductionAndSurchargeListLineItemDetailsType aEbiRSDetails = new Ebi42ReductionAndSurchargeListLineItemDetailsType ();
+    // Descriptions
+    for (final DescriptionType aUBLDescription : aUBLLine.getItem ().getDescription ())
+      aEbiListLineItem.addDescription (StringHelper.trim (aUBLDescription.getValue ()));
+    if (aEbiListLineItem.hasNoDescriptionEntries ())
+    {
+      // Use item name as description
+      final NameType aUBLName = aUBLLine.getItem ().getName ();
+      if (aUBLName != null)
+        aEbiListLineItem.addDescription (StringHelper.trim (aUBLName.getValue ()));
+    }
+    // Add the Note elements as well (IBM, 2016-11)
+    for (final NoteType aUBLNote : aUBLLine.getNote ())
+      aEbiListLineItem.addDescription (StringHelper.trim (aUBLNote.getValue ()));
 
-          // ebInterface can handle only Reduction or only Surcharge
-          ETriState eSurcharge = ETriState.UNDEFINED;
-          for (final AllowanceChargeType aUBLAllowanceCharge : aUBLLine.getAllowanceCharge ())
-          {
-            final boolean bItemIsSurcharge = aUBLAllowanceCharge.getChargeIndicator ().isValue ();
+    // Quantity
+    final Ebi42UnitType aEbiQuantity = new Ebi42UnitType ();
+    if (aUBLLine.getInvoicedQuantity () != null)
+    {
+      // Unit code is optional
+      if (aUBLLine.getInvoicedQuantity ().getUnitCode () != null)
+        aEbiQuantity.setUnit (StringHelper.trim (aUBLLine.getInvoicedQuantity ().getUnitCode ()));
+      aEbiQuantity.setValue (aUBLLine.getInvoicedQuantityValue ());
+    }
+    if (aEbiQuantity.getUnit () == null)
+    {
+      // ebInterface requires a quantity!
+      aEbiQuantity.setUnit (EUnitOfMeasureCode21.C62.getID ());
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName ("InvoiceLine[" +
+                                                                   nLineIndex +
+                                                                   "]/InvoicedQuantity/UnitCode")
+                                               .setErrorText (EText.DETAILS_INVALID_UNIT.getAsErrorText (aEbiQuantity.getUnit ()))
+                                               .build ());
+    }
+    if (aEbiQuantity.getValue () == null)
+    {
+      aEbiQuantity.setValue (BigDecimal.ONE);
+      aTransformationErrorList.add (SingleError.builderWarn ()
+                                               .setErrorFieldName ("InvoiceLine[" +
+                                                                   nLineIndex +
+                                                                   "]/InvoicedQuantity")
+                                               .setErrorText (EText.DETAILS_INVALID_QUANTITY.getAsErrorText (aEbiQuantity.getValue ()))
+                                               .build ());
+    }
+    aEbiListLineItem.setQuantity (aEbiQuantity);
 
-            // Remember for next item
-            if (eSurcharge.isUndefined ())
-              eSurcharge = ETriState.valueOf (bItemIsSurcharge);
-            final boolean bSwapSigns = bItemIsSurcharge != eSurcharge.isTrue ();
+    // Unit price
+    if (aUBLLine.getPrice () != null)
+    {
+      final Ebi42UnitPriceType aEbiUnitPrice = new Ebi42UnitPriceType ();
+      // Unit price = priceAmount/baseQuantity (mandatory)
+      final BigDecimal aUBLPriceAmount = aUBLLine.getPrice ().getPriceAmountValue ();
+      aEbiUnitPrice.setValue (aUBLPriceAmount);
+      // If no base quantity is present, assume 1 (optional)
+      final BigDecimal aUBLBaseQuantity = aUBLLine.getPrice ().getBaseQuantityValue ();
+      if (aUBLBaseQuantity != null)
+      {
+        aEbiUnitPrice.setBaseQuantity (aUBLBaseQuantity);
+        if (MathHelper.isEqualToZero (aUBLBaseQuantity))
+          aEbiUnitPrice.setValue (BigDecimal.ZERO);
+      }
+      aEbiListLineItem.setUnitPrice (aEbiUnitPrice);
+    }
+    else
+    {
+      // Unit price = lineExtensionAmount / quantity (mandatory)
+      final BigDecimal aUBLLineExtensionAmount = aUBLLine.getLineExtensionAmountValue ();
+      final Ebi42UnitPriceType aEbiUnitPrice = new Ebi42UnitPriceType ();
+      if (MathHelper.isEqualToZero (aEbiQuantity.getValue ()))
+        aEbiUnitPrice.setValue (BigDecimal.ZERO);
+      else
+        aEbiUnitPrice.setValue (aUBLLineExtensionAmount.divide (aEbiQuantity.getValue (),
+                                                                SCALE_PRICE4,
+                                                                ROUNDING_MODE));
+      aEbiListLineItem.setUnitPrice (aEbiUnitPrice);
+    }
 
-            final Ebi42ReductionAndSurchargeBaseType aEbiRSItem = new Ebi42ReductionAndSurchargeBaseType ();
-            // Amount is mandatory
-            final BigDecimal aAmount = aUBLAllowanceCharge.getAmountValue ();
-            aEbiRSItem.setAmount (bSwapSigns ? aAmount.negate () : aAmount);
+    BigDecimal aEbiUnitPriceValue = aEbiListLineItem.getUnitPrice ().getValue ();
+    if (aEbiListLineItem.getUnitPrice ().getBaseQuantity () != null)
+      aEbiUnitPriceValue = aEbiUnitPriceValue.divide (aEbiListLineItem.getUnitPrice ().getBaseQuantity (),
+                                                      SCALE_PRICE4,
+                                                      ROUNDING_MODE);
 
-            // Base amount is optional
-            if (aUBLAllowanceCharge.getBaseAmount () != null)
-              aEbiRSItem.setBaseAmount (aUBLAllowanceCharge.getBaseAmountValue ());
-            if (aEbiRSItem.getBaseAmount () == null)
-              aEbiRSItem.setBaseAmount (aEbiBaseAmount);
+    // Tax rate (mandatory)
+    final Ebi42VATRateType aEbiVATRate = new Ebi42VATRateType ();
+    aEbiVATRate.setValue (aUBLPercent);
+    if (aUBLTaxCategory != null)
+    {
+      // Optional
+      if (false)
+        aEbiVATRate.setTaxCode (aUBLTaxCategory.getIDValue ());
+    }
+    aEbiListLineItem.setVATRate (aEbiVATRate);
 
-            if (aUBLAllowanceCharge.getMultiplierFactorNumeric () != null)
-            {
-              // Percentage is optional
-              final BigDecimal aPerc = aUBLAllowanceCharge.getMultiplierFactorNumericValue ()
-                                                          .multiply (CGlobal.BIGDEC_100);
-              aEbiRSItem.setPercentage (bSwapSigns ? aPerc.negate () : aPerc);
-            }
+    // Line item amount (quantity * unit price +- reduction / surcharge)
+    aEbiListLineItem.setLineItemAmount (aUBLLine.getLineExtensionAmountValue ().setScale (SCALE_PRICE2,
+                                                                                          ROUNDING_MODE));
 
-            if (eSurcharge.isTrue ())
-            {
-              aEbiRSDetails.addReductionListLineItemOrSurchargeListLineItemOrOtherVATableTaxListLineItem (new ObjectFactory ().createSurchargeListLineItem (aEbiRSItem));
-              aEbiBaseAmount = aEbiBaseAmount.add (aEbiRSItem.getAmount ());
-            }
-            else
-            {
-              aEbiRSDetails.addReductionListLineItemOrSurchargeListLineItemOrOtherVATableTaxListLineItem (new ObjectFactory ().createReductionListLineItem (aEbiRSItem));
-              aEbiBaseAmount = aEbiBaseAmount.subtract (aEbiRSItem.getAmount ());
-            }
+    // Order reference per line
+    for (final OrderLineReferenceType aUBLOrderLineReference : aUBLLine.getOrderLineReference ())
+      if (StringHelper.hasText (aUBLOrderLineReference.getLineIDValue ()))
+      {
+        final Ebi42OrderReferenceDetailType aEbiOrderRefDetail = new Ebi42OrderReferenceDetailType ();
 
-            aEbiRSItem.setComment (getAllowanceChargeComment (aUBLAllowanceCharge));
-          }
-          aEbiListLineItem.setReductionAndSurchargeListLineItemDetails (aEbiRSDetails);
+        // order reference
+        String sUBLLineOrderReferenceID = null;
+        if (aUBLOrderLineReference.getOrderReference () != null)
+          sUBLLineOrderReferenceID = StringHelper.trim (aUBLOrderLineReference.getOrderReference ().getIDValue ());
+        if (StringHelper.hasNoText (sUBLLineOrderReferenceID))
+        {
+          // Use the global order reference from header level
+          sUBLLineOrderReferenceID = sUBLOrderReferenceID;
         }
+        aEbiOrderRefDetail.setOrderID (sUBLLineOrderReferenceID);
 
-        // Delivery per line item
-        if (aUBLLine.hasDeliveryEntries ())
+        // Order position number
+        final String sOrderPosNumber = StringHelper.trim (aUBLOrderLineReference.getLineIDValue ());
+        if (sOrderPosNumber != null)
         {
-          // Delivery address
-          final int nDeliveryIndex = 0;
-          final DeliveryType aUBLDelivery = aUBLLine.getDeliveryAtIndex (0);
-
-          if (aUBLDelivery.getActualDeliveryDate () != null)
+          if (sOrderPosNumber.length () == 0)
           {
-            final Ebi42DeliveryType aEbiDelivery = EbInterface42Helper.convertDelivery (aUBLDelivery,
-                                                                                        "InvoiceLine[" +
-                                                                                                      nLineIndex +
-                                                                                                      "]/Delivery[" +
-                                                                                                      nDeliveryIndex +
-                                                                                                      "]",
-                                                                                        aUBLDoc.getAccountingCustomerParty (),
-                                                                                        aTransformationErrorList,
-                                                                                        m_aContentLocale,
-                                                                                        m_aDisplayLocale);
-            aEbiListLineItem.setDelivery (aEbiDelivery);
+            aTransformationErrorList.add (SingleError.builderError ()
+                                                     .setErrorFieldName ("InvoiceLine[" +
+                                                                         nLineIndex +
+                                                                         "]/OrderLineReference/LineID")
+                                                     .setErrorText (EText.ORDERLINE_REF_ID_EMPTY.getAsErrorText ())
+                                                     .build ());
+          }
+          else
+          {
+            aEbiOrderRefDetail.setOrderPositionNumber (sOrderPosNumber);
           }
         }
+        aEbiListLineItem.setInvoiceRecipientsOrderReference (aEbiOrderRefDetail);
+        break;
+      }
+
+    // Reduction and surcharge
+    if (aUBLLine.hasAllowanceChargeEntries ())
+      _convertLineAllowanceCharges (aUBLLine, aEbiUnitPriceValue, aEbiListLineItem);
+
+    // Delivery per line item
+    if (aUBLLine.hasDeliveryEntries ())
+    {
+      // Delivery address
+      final int nDeliveryIndex = 0;
+      final DeliveryType aUBLDelivery = aUBLLine.getDeliveryAtIndex (0);
+
+      if (aUBLDelivery.getActualDeliveryDate () != null)
+      {
+        final Ebi42DeliveryType aEbiDelivery = EbInterface42Helper.convertDelivery (aUBLDelivery,
+                                                                                    "InvoiceLine[" +
+                                                                                                  nLineIndex +
+                                                                                                  "]/Delivery[" +
+                                                                                                  nDeliveryIndex +
+                                                                                                  "]",
+                                                                                    aUBLDoc.getAccountingCustomerParty (),
+                                                                                    aTransformationErrorList,
+                                                                                    m_aContentLocale,
+                                                                                    m_aDisplayLocale);
+        aEbiListLineItem.setDelivery (aEbiDelivery);
+      }
+    }
 
-        // Perform customizing as last action
-        if (m_aCustomizer != null)
-          m_aCustomizer.additionalItemMapping (aUBLLine, aEbiListLineItem);
+    return aEbiListLineItem;
+  }
 
-        // Add the item to the list
+  /**
+   * Convert all invoice lines
+   *
+   * @param aUBLLineList
+   *        All invoice lines if they are available in memory. Only in this case
+   *        the lines may be converted in parallel. May be <code>null</code>.
+   * @param aUBLLines
+   *        Iterator over the invoice lines to convert. May not be
+   *        <code>null</code>.
+   * @return The totals of all converted lines. Never <code>null</code>.
+   */
+  @Nonnull
+  private TotalsAccumulator _convertLines (@Nonnull final InvoiceType aUBLDoc,
+                                    @Nullable final List <InvoiceLineType> aUBLLineList,
+                                    @Nonnull final Iterator <InvoiceLineType> aUBLLines,
+                                    @Nullable final Consumer <? super Ebi42ListLineItemType> aLineItemConsumer,
+                                    @Nonnull final TaxCategoryPercentResolver aTaxCategoryPercResolver,
+                                    @Nullable final String sUBLOrderReferenceID,
+                                    @Nullable final ConversionPhaseTimer aTimer,
+                                    @Nonnull final ErrorList aTransformationErrorList,
+                                    @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.LINES);
+    // Sums of all line item amounts - required for global reduction and
+    // surcharge without LineExtensionAmount and for the totals verification
+    final TotalsAccumulator aTotals = new TotalsAccumulator ();
+    final Ebi42DetailsType aEbiDetails = new Ebi42DetailsType ();
+    final Ebi42ItemListType aEbiItemList = new Ebi42ItemListType ();
+
+    // Convert the lines of large documents in parallel upfront
+    ParallelLineConversion aParallelLines = null;
+    if (aUBLLineList != null && isParallelLineConversion (aUBLLineList.size ()))
+      aParallelLines = ParallelLineConversion.convert (aUBLLineList,
+                                                       (aLine, nIndex, aLineErrorList) -> _convertLine (aUBLDoc,
+                                                                                                        aLine,
+                                                                                                        nIndex,
+                                                                                                        aTaxCategoryPercResolver,
+                                                                                                        sUBLOrderReferenceID,
+                                                                                                        aLineErrorList),
+                                                       m_nParallelLineChunkSize,
+                                                       m_bFailFast,
+                                                       ForkJoinPool.commonPool ());
+
+    int nLineIndex = 0;
+    while (aUBLLines.hasNext ())
+    {
+      final InvoiceLineType aUBLLine = aUBLLines.next ();
+      final Ebi42ListLineItemType aEbiListLineItem = aParallelLines != null ? aParallelLines.getLineItem (nLineIndex,
+                                                                                                          aTransformationErrorList)
+                                                                            : _convertLine (aUBLDoc,
+                                                                                            aUBLLine,
+                                                                                            nLineIndex,
+                                                                                            aTaxCategoryPercResolver,
+                                                                                            sUBLOrderReferenceID,
+                                                                                            aTransformationErrorList);
+
+      // Perform customizing as last action - always in line order and in the
+      // calling thread, even if the lines were converted in parallel
+      if (m_aCustomizer != null)
+        m_aCustomizer.additionalItemMapping (aUBLLine, aEbiListLineItem);
+
+      aTotals.addLine (aEbiListLineItem.getVATRate ().getValue (), aEbiListLineItem.getLineItemAmount ());
+
+      // Add the item to the list
+      if (aLineItemConsumer != null)
+        aLineItemConsumer.accept (aEbiListLineItem);
+      else
         aEbiItemList.addListLineItem (aEbiListLineItem);
-        nLineIndex++;
+      nLineIndex++;
+
+      // Don't convert the remaining lines
+      if (isFailFastAbort (aTransformationErrorList))
+      {
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.LINES, nPhaseStart, nLineIndex);
+        return aTotals;
       }
-      aEbiDetails.addItemList (aEbiItemList);
-      aEbiDoc.setDetails (aEbiDetails);
     }
+    aEbiDetails.addItemList (aEbiItemList);
+    aEbiDoc.setDetails (aEbiDetails);
 
+    final Ebi42VATType aEbiVAT = aEbiDoc.getTax ().getVAT ();
     if (aEbiVAT.hasNoVATItemEntries ())
     {
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName ("InvoiceLine")
-                                               .setErrorText (EText.VAT_ITEM_MISSING.getDisplayText (m_aDisplayLocale))
+                                               .setErrorText (EText.VAT_ITEM_MISSING.getAsErrorText ())
                                                .build ());
       if (false)
       {
         // No default in this case
+        final BigDecimal aTotalZeroPercLineExtensionAmount = aTotals.getTaxableAmount (BigDecimal.ZERO);
         final Ebi42VATItemType aEbiVATItem = new Ebi42VATItemType ();
         aEbiVATItem.setTaxedAmount (aTotalZeroPercLineExtensionAmount);
         final Ebi42VATRateType aEbiVATVATRate = new Ebi42VATRateType ();
@@ -1254,91 +1491,107 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
         aEbiVAT.addVATItem (aEbiVATItem);
       }
     }
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.LINES, nPhaseStart, nLineIndex);
+    return aTotals;
+  }
 
-    // Global reduction and surcharge
-    if (aUBLDoc.hasAllowanceChargeEntries ())
+  private void _convertGlobalAllowanceCharges (@Nonnull final InvoiceType aUBLDoc,
+                                               @Nonnull final TotalsAccumulator aTotals,
+                                               @Nonnull final TaxCategoryPercentResolver aTaxCategoryPercResolver,
+                                               @Nonnull final ErrorList aTransformationErrorList,
+                                               @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    // Start with quantity*unitPrice for base amount
+    BigDecimal aEbiBaseAmount = aUBLDoc.getLegalMonetaryTotal ().getLineExtensionAmountValue ();
+    if (aEbiBaseAmount == null)
     {
-      // Start with quantity*unitPrice for base amount
-      BigDecimal aEbiBaseAmount = aUBLDoc.getLegalMonetaryTotal ().getLineExtensionAmountValue ();
-      if (aEbiBaseAmount == null)
-      {
-        // No global LineExtensionAmount is present - sum all rows
-        BigDecimal tmp = BigDecimal.ZERO;
-        for (final Ebi42ItemListType aEbiItemList : aEbiDoc.getDetails ().getItemList ())
-          for (final Ebi42ListLineItemType aEbiListLineItem : aEbiItemList.getListLineItem ())
-            tmp = tmp.add (aEbiListLineItem.getLineItemAmount ());
-        aEbiBaseAmount = tmp;
-      }
-      final Ebi42ReductionAndSurchargeDetailsType aEbiRS = new Ebi42ReductionAndSurchargeDetailsType ();
+      // No global LineExtensionAmount is present - use the sum of all rows
+      aEbiBaseAmount = aTotals.getLineItemAmount ();
+    }
+    final Ebi42ReductionAndSurchargeDetailsType aEbiRS = new Ebi42ReductionAndSurchargeDetailsType ();
 
-      int nAllowanceChargeIndex = 0;
-      for (final AllowanceChargeType aUBLAllowanceCharge : aUBLDoc.getAllowanceCharge ())
-      {
-        final boolean bItemIsSurcharge = aUBLAllowanceCharge.getChargeIndicator ().isValue ();
+    int nAllowanceChargeIndex = 0;
+    for (final AllowanceChargeType aUBLAllowanceCharge : aUBLDoc.getAllowanceCharge ())
+    {
+      final boolean bItemIsSurcharge = aUBLAllowanceCharge.getChargeIndicator ().isValue ();
 
-        final Ebi42ReductionAndSurchargeType aEbiRSItem = new Ebi42ReductionAndSurchargeType ();
-        // Amount is mandatory
-        final BigDecimal aAmount = aUBLAllowanceCharge.getAmountValue ();
-        aEbiRSItem.setAmount (aAmount);
+      final Ebi42ReductionAndSurchargeType aEbiRSItem = new Ebi42ReductionAndSurchargeType ();
+      // Amount is mandatory
+      final BigDecimal aAmount = aUBLAllowanceCharge.getAmountValue ();
+      aEbiRSItem.setAmount (aAmount);
 
-        // Base amount is optional
-        if (aUBLAllowanceCharge.getBaseAmount () != null)
-          aEbiRSItem.setBaseAmount (aUBLAllowanceCharge.getBaseAmountValue ());
-        if (aEbiRSItem.getBaseAmount () == null)
-          aEbiRSItem.setBaseAmount (aEbiBaseAmount);
+      // Base amount is optional
+      if (aUBLAllowanceCharge.getBaseAmount () != null)
+        aEbiRSItem.setBaseAmount (aUBLAllowanceCharge.getBaseAmountValue ());
+      if (aEbiRSItem.getBaseAmount () == null)
+        aEbiRSItem.setBaseAmount (aEbiBaseAmount);
 
-        if (aUBLAllowanceCharge.getMultiplierFactorNumeric () != null)
-        {
-          // Percentage is optional
-          final BigDecimal aPerc = aUBLAllowanceCharge.getMultiplierFactorNumericValue ().multiply (CGlobal.BIGDEC_100);
-          aEbiRSItem.setPercentage (aPerc);
-        }
+      if (aUBLAllowanceCharge.getMultiplierFactorNumeric () != null)
+      {
+        // Percentage is optional
+        final BigDecimal aPerc = aUBLAllowanceCharge.getMultiplierFactorNumericValue ().multiply (CGlobal.BIGDEC_100);
+        aEbiRSItem.setPercentage (aPerc);
+      }
 
-        aEbiRSItem.setComment (getAllowanceChargeComment (aUBLAllowanceCharge));
+      aEbiRSItem.setComment (getAllowanceChargeComment (aUBLAllowanceCharge));
 
-        Ebi42VATRateType aEbiVATRate = null;
-        for (final TaxCategoryType aUBLTaxCategory : aUBLAllowanceCharge.getTaxCategory ())
-          if (aUBLTaxCategory.getPercent () != null)
-          {
-            aEbiVATRate = new Ebi42VATRateType ();
-            aEbiVATRate.setValue (aUBLTaxCategory.getPercentValue ());
-            if (false)
-              aEbiVATRate.setTaxCode (aUBLTaxCategory.getIDValue ());
-            break;
-          }
-        if (aEbiVATRate == null)
+      Ebi42VATRateType aEbiVATRate = null;
+      for (final TaxCategoryType aUBLTaxCategory : aUBLAllowanceCharge.getTaxCategory ())
+      {
+        BigDecimal aUBLPercent = aUBLTaxCategory.getPercentValue ();
+        if (aUBLPercent == null)
         {
-          aTransformationErrorList.add (SingleError.builderError ()
-                                                   .setErrorFieldName ("Invoice/AllowanceCharge[" +
-                                                                       nAllowanceChargeIndex +
-                                                                       "]")
-                                                   .setErrorText (EText.ALLOWANCE_CHARGE_NO_TAXRATE.getDisplayText (m_aDisplayLocale))
-                                                   .build ());
-          // No default in this case
-          if (false)
-          {
-            aEbiVATRate = new Ebi42VATRateType ();
-            aEbiVATRate.setValue (BigDecimal.ZERO);
-            aEbiVATRate.setTaxCode (ETaxCode.NOT_TAXABLE.getID ());
-          }
+          // Not specified - check from tax totals
+          aUBLPercent = aTaxCategoryPercResolver.getPercentage (aUBLTaxCategory);
         }
-        aEbiRSItem.setVATRate (aEbiVATRate);
-
-        if (bItemIsSurcharge)
+        if (aUBLPercent != null)
         {
-          aEbiRS.addReductionOrSurchargeOrOtherVATableTax (new ObjectFactory ().createSurcharge (aEbiRSItem));
-          aEbiBaseAmount = aEbiBaseAmount.add (aEbiRSItem.getAmount ());
+          aEbiVATRate = new Ebi42VATRateType ();
+          aEbiVATRate.setValue (aUBLPercent);
+          if (false)
+            aEbiVATRate.setTaxCode (aUBLTaxCategory.getIDValue ());
+          break;
         }
-        else
+      }
+      if (aEbiVATRate == null)
+      {
+        aTransformationErrorList.add (SingleError.builderError ()
+                                                 .setErrorFieldName ("Invoice/AllowanceCharge[" +
+                                                                     nAllowanceChargeIndex +
+                                                                     "]")
+                                                 .setErrorText (EText.ALLOWANCE_CHARGE_NO_TAXRATE.getAsErrorText ())
+                                                 .build ());
+        // No default in this case
+        if (false)
         {
-          aEbiRS.addReductionOrSurchargeOrOtherVATableTax (new ObjectFactory ().createReduction (aEbiRSItem));
-          aEbiBaseAmount = aEbiBaseAmount.subtract (aEbiRSItem.getAmount ());
+          aEbiVATRate = new Ebi42VATRateType ();
+          aEbiVATRate.setValue (BigDecimal.ZERO);
+          aEbiVATRate.setTaxCode (ETaxCode.NOT_TAXABLE.getID ());
         }
-        aEbiDoc.setReductionAndSurchargeDetails (aEbiRS);
-        ++nAllowanceChargeIndex;
       }
+      aEbiRSItem.setVATRate (aEbiVATRate);
+      aTotals.addAllowanceCharge (bItemIsSurcharge, aEbiVATRate == null ? null : aEbiVATRate.getValue (), aAmount);
+
+      if (bItemIsSurcharge)
+      {
+        aEbiRS.addReductionOrSurchargeOrOtherVATableTax (new ObjectFactory ().createSurcharge (aEbiRSItem));
+        aEbiBaseAmount = aEbiBaseAmount.add (aEbiRSItem.getAmount ());
+      }
+      else
+      {
+        aEbiRS.addReductionOrSurchargeOrOtherVATableTax (new ObjectFactory ().createReduction (aEbiRSItem));
+        aEbiBaseAmount = aEbiBaseAmount.subtract (aEbiRSItem.getAmount ());
+      }
+      aEbiDoc.setReductionAndSurchargeDetails (aEbiRS);
+      ++nAllowanceChargeIndex;
     }
+  }
 
+  private void _convertMonetaryTotal (@Nonnull final InvoiceType aUBLDoc,
+                                      @Nonnull final ErrorList aTransformationErrorList,
+                                      @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
     // PrepaidAmount is not supported!
     final MonetaryTotalType aUBLMonetaryTotal = aUBLDoc.getLegalMonetaryTotal ();
     if (aUBLMonetaryTotal.getPrepaidAmount () != null &&
@@ -1346,7 +1599,7 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
     {
       aTransformationErrorList.add (SingleError.builderError ()
                                                .setErrorFieldName ("Invoice/LegalMonetaryTotal/PrepaidAmount")
-                                               .setErrorText (EText.PREPAID_NOT_SUPPORTED.getDisplayText (m_aDisplayLocale))
+                                               .setErrorText (EText.PREPAID_NOT_SUPPORTED.getAsErrorText ())
                                                .build ());
     }
 
@@ -1358,11 +1611,12 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
       aEbiDoc.setTotalGrossAmount (aUBLMonetaryTotal.getPayableAmountValue ().setScale (SCALE_PRICE2, ROUNDING_MODE));
     // Payable amount
     aEbiDoc.setPayableAmount (aUBLMonetaryTotal.getPayableAmountValue ().setScale (SCALE_PRICE2, ROUNDING_MODE));
+  }
 
-    // Payment method
-    _convertPayment (aUBLDoc, aTransformationErrorList, aEbiDoc);
-
-    // Delivery
+  private void _convertDelivery (@Nonnull final InvoiceType aUBLDoc,
+                                 @Nonnull final ErrorList aTransformationErrorList,
+                                 @Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
     Ebi42DeliveryType aEbiDelivery = null;
     {
       // Delivery address
@@ -1420,16 +1674,279 @@ public final class InvoiceToEbInterface42Converter extends AbstractInvoiceConver
       if (aEbiDelivery.getDate () == null && aEbiDelivery.getPeriod () == null)
         aTransformationErrorList.add (SingleError.builderError ()
                                                  .setErrorFieldName ("Invoice")
-                                                 .setErrorText (EText.ERB_NO_DELIVERY_DATE.getDisplayText (m_aDisplayLocale))
+                                                 .setErrorText (EText.ERB_NO_DELIVERY_DATE.getAsErrorText ())
                                                  .build ());
     }
 
     if (aEbiDelivery.getDate () != null || aEbiDelivery.getPeriod () != null)
       aEbiDoc.setDelivery (aEbiDelivery);
+  }
+
+  @Nullable
+  private Ebi42InvoiceType _convertToEbInterface (@Nonnull final InvoiceType aUBLDoc,
+                                                  @Nullable final List <InvoiceLineType> aUBLLineList,
+                                                  @Nonnull final Iterator <InvoiceLineType> aUBLLines,
+                                                  @Nullable final Consumer <? super Ebi42ListLineItemType> aLineItemConsumer,
+                                                  @Nullable final ConversionPhaseTimer aTimer,
+                                                  @Nonnull final ErrorList aTransformationErrorList)
+  {
+    long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.CONSISTENCY_CHECK);
+
+    // Consistency check before starting the conversion
+    _checkConsistency (aUBLDoc, aTransformationErrorList);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.CONSISTENCY_CHECK, nPhaseStart, 0);
+    if (aTransformationErrorList.containsAtLeastOneError ())
+      return null;
+
+    if (m_bParallelSections)
+      return _convertToEbInterfaceParallel (aUBLDoc,
+                                            aUBLLineList,
+                                            aUBLLines,
+                                            aLineItemConsumer,
+                                            aTimer,
+                                            aTransformationErrorList);
+
+    // Build ebInterface invoice
+    final Ebi42InvoiceType aEbiDoc = new Ebi42InvoiceType ();
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.HEADER);
+    _convertHeader (aUBLDoc, aTransformationErrorList, aEbiDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.HEADER, nPhaseStart, 0);
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Biller, invoice recipient and ordering party
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.PARTIES);
+    _convertParties (aUBLDoc, aTransformationErrorList, aEbiDoc);
+    if (isFailFastAbort (aTransformationErrorList))
+    {
+      if (aTimer != null)
+        aTimer.onPhaseEnd (EConversionPhase.PARTIES, nPhaseStart, 0);
+      return null;
+    }
+
+    // Order reference of invoice recipient
+    final String sUBLOrderReferenceID = _convertOrderReference (aUBLDoc, aTransformationErrorList, aEbiDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.PARTIES, nPhaseStart, 0);
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Tax totals
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.TAX_TOTALS);
+    final TaxCategoryPercentResolver aTaxCategoryPercResolver = _convertTaxTotals (aUBLDoc,
+                                                                                   aTransformationErrorList,
+                                                                                   aEbiDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.TAX_TOTALS, nPhaseStart, getTaxSubtotalCount (aUBLDoc.getTaxTotal ()));
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Line items
+    final TotalsAccumulator aTotals = _convertLines (aUBLDoc,
+                                                     aUBLLineList,
+                                                     aUBLLines,
+                                                     aLineItemConsumer,
+                                                     aTaxCategoryPercResolver,
+                                                     sUBLOrderReferenceID,
+                                                     aTimer,
+                                                     aTransformationErrorList,
+                                                     aEbiDoc);
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Global reduction and surcharge
+    if (aUBLDoc.hasAllowanceChargeEntries ())
+    {
+      nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES);
+      _convertGlobalAllowanceCharges (aUBLDoc,
+                                      aTotals,
+                                      aTaxCategoryPercResolver,
+                                      aTransformationErrorList,
+                                      aEbiDoc);
+      if (aTimer != null)
+        aTimer.onPhaseEnd (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES, nPhaseStart, aUBLDoc.getAllowanceChargeCount ());
+    }
+    verifyTotals (aTotals,
+                  aUBLDoc.getLegalMonetaryTotal (),
+                  "Invoice/LegalMonetaryTotal",
+                  aTransformationErrorList,
+                  aEbiDoc);
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Total amounts
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.MONETARY_TOTAL);
+    _convertMonetaryTotal (aUBLDoc, aTransformationErrorList, aEbiDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.MONETARY_TOTAL, nPhaseStart, 0);
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Payment method
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.PAYMENT);
+    _convertPayment (aUBLDoc, aTransformationErrorList, aEbiDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.PAYMENT, nPhaseStart, aUBLDoc.getPaymentMeansCount ());
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Delivery
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.DELIVERY);
+    _convertDelivery (aUBLDoc, aTransformationErrorList, aEbiDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.DELIVERY, nPhaseStart, aUBLDoc.getDeliveryCount ());
+    if (isFailFastAbort (aTransformationErrorList))
+      return null;
+
+    // Perform customizing as last action
+    if (m_aCustomizer != null)
+    {
+      nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.CUSTOMIZER);
+      m_aCustomizer.additionalGlobalMapping (aUBLDoc, aEbiDoc);
+      if (aTimer != null)
+        aTimer.onPhaseEnd (EConversionPhase.CUSTOMIZER, nPhaseStart, 0);
+    }
+
+    return aEbiDoc;
+  }
+  /**
+   * Same as the sequential conversion, but the sections that don't depend on
+   * each other are converted concurrently. Each section sets different
+   * properties of the ebInterface document. The errors are merged in the order
+   * of the sequential conversion, so that the results are identical.
+   */
+  @Nullable
+  private Ebi42InvoiceType _convertToEbInterfaceParallel (@Nonnull final InvoiceType aUBLDoc,
+                                                          @Nullable final List <InvoiceLineType> aUBLLineList,
+                                                          @Nonnull final Iterator <InvoiceLineType> aUBLLines,
+                                                          @Nullable final Consumer <? super Ebi42ListLineItemType> aLineItemConsumer,
+                                                          @Nullable final ConversionPhaseTimer aTimer,
+                                                          @Nonnull final ErrorList aTransformationErrorList)
+  {
+    // Each section is timed in the thread executing it
+    final Ebi42InvoiceType aEbiDoc = new Ebi42InvoiceType ();
+    try (final ParallelSections aSections = new ParallelSections (ForkJoinPool.commonPool ()))
+    {
+      // Header including the related and referenced documents
+      final ParallelSections.Section <?> aHeader = aSections.fork (aErrorList -> {
+        final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.HEADER);
+        _convertHeader (aUBLDoc, aErrorList, aEbiDoc);
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.HEADER, nPhaseStart, 0);
+        return null;
+      });
+      // The order reference is stored in the invoice recipient
+      final ParallelSections.Section <String> aParties = aSections.fork (aErrorList -> {
+        final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.PARTIES);
+        _convertParties (aUBLDoc, aErrorList, aEbiDoc);
+        final String ret = _convertOrderReference (aUBLDoc, aErrorList, aEbiDoc);
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.PARTIES, nPhaseStart, 0);
+        return ret;
+      });
+      final ParallelSections.Section <TaxCategoryPercentResolver> aTaxTotals = aSections.fork (aErrorList -> {
+        final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.TAX_TOTALS);
+        final TaxCategoryPercentResolver ret = _convertTaxTotals (aUBLDoc, aErrorList, aEbiDoc);
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.TAX_TOTALS, nPhaseStart, getTaxSubtotalCount (aUBLDoc.getTaxTotal ()));
+        return ret;
+      });
+      final ParallelSections.Section <?> aMonetaryTotal = aSections.fork (aErrorList -> {
+        final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.MONETARY_TOTAL);
+        _convertMonetaryTotal (aUBLDoc, aErrorList, aEbiDoc);
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.MONETARY_TOTAL, nPhaseStart, 0);
+        return null;
+      });
+      // The payment depends on the payable amount
+      final ParallelSections.Section <?> aPayment = aSections.forkAfter (aMonetaryTotal, aErrorList -> {
+        final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.PAYMENT);
+        _convertPayment (aUBLDoc, aErrorList, aEbiDoc);
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.PAYMENT, nPhaseStart, aUBLDoc.getPaymentMeansCount ());
+        return null;
+      });
+      final ParallelSections.Section <?> aDelivery = aSections.fork (aErrorList -> {
+        final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.DELIVERY);
+        _convertDelivery (aUBLDoc, aErrorList, aEbiDoc);
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.DELIVERY, nPhaseStart, aUBLDoc.getDeliveryCount ());
+        return null;
+      });
+
+      aHeader.join (aTransformationErrorList);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+
+      final String sUBLOrderReferenceID = aParties.join (aTransformationErrorList);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+
+      final TaxCategoryPercentResolver aTaxCategoryPercResolver = aTaxTotals.join (aTransformationErrorList);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+
+      // Line items - need the tax totals
+      final TotalsAccumulator aTotals = _convertLines (aUBLDoc,
+                                                       aUBLLineList,
+                                                       aUBLLines,
+                                                       aLineItemConsumer,
+                                                       aTaxCategoryPercResolver,
+                                                       sUBLOrderReferenceID,
+                                                       aTimer,
+                                                       aTransformationErrorList,
+                                                       aEbiDoc);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+
+      // Global reduction and surcharge
+      if (aUBLDoc.hasAllowanceChargeEntries ())
+      {
+        final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES);
+        _convertGlobalAllowanceCharges (aUBLDoc,
+                                        aTotals,
+                                        aTaxCategoryPercResolver,
+                                        aTransformationErrorList,
+                                        aEbiDoc);
+        if (aTimer != null)
+          aTimer.onPhaseEnd (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES,
+                             nPhaseStart,
+                             aUBLDoc.getAllowanceChargeCount ());
+      }
+      verifyTotals (aTotals,
+                    aUBLDoc.getLegalMonetaryTotal (),
+                    "Invoice/LegalMonetaryTotal",
+                    aTransformationErrorList,
+                    aEbiDoc);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+
+      // Total amounts
+      aMonetaryTotal.join (aTransformationErrorList);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+
+      // Payment method
+      aPayment.join (aTransformationErrorList);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+
+      // Delivery
+      aDelivery.join (aTransformationErrorList);
+      if (isFailFastAbort (aTransformationErrorList))
+        return null;
+    }
 
     // Perform customizing as last action
     if (m_aCustomizer != null)
+    {
+      final long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.CUSTOMIZER);
       m_aCustomizer.additionalGlobalMapping (aUBLDoc, aEbiDoc);
+      if (aTimer != null)
+        aTimer.onPhaseEnd (EConversionPhase.CUSTOMIZER, nPhaseStart, 0);
+    }
 
     return aEbiDoc;
   }
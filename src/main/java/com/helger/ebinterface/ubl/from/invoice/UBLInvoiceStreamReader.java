@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.invoice;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.stream.StreamSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.jaxb.JAXBContextCache;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.InvoiceLineType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Streaming reader for UBL invoices. The invoice header (everything before the
+ * first <code>InvoiceLine</code> element - this includes all parties, the
+ * <code>TaxTotal</code> and the <code>LegalMonetaryTotal</code>) is read
+ * completely upon creation, and the invoice lines are read lazily one by one
+ * via the {@link Iterator} interface. This keeps the memory consumption
+ * bounded by the size of the header plus a single invoice line, independent of
+ * the number of lines in the document.<br>
+ * Note: in contrast to the <code>UBL21Reader</code> no XML Schema validation
+ * is performed.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public final class UBLInvoiceStreamReader implements Iterator <InvoiceLineType>, Closeable
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (UBLInvoiceStreamReader.class);
+  private static final QName QNAME_INVOICE_LINE = new QName ("urn:oasis:names:specification:ubl:schema:xsd:CommonAggregateComponents-2",
+                                                             "InvoiceLine");
+
+  private final InputStream m_aIS;
+  private final XMLEventReader m_aEventReader;
+  private final Unmarshaller m_aUnmarshaller;
+  private final InvoiceType m_aHeader;
+  private int m_nLineCount = 0;
+
+  private UBLInvoiceStreamReader (@Nonnull final InputStream aIS) throws XMLStreamException, JAXBException
+  {
+    m_aIS = aIS;
+
+    final XMLInputFactory aXIF = XMLInputFactory.newInstance ();
+    // Avoid XXE
+    aXIF.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    aXIF.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    m_aEventReader = aXIF.createXMLEventReader (aIS);
+
+    final JAXBContext aJAXBContext = JAXBContextCache.getInstance ().getFromCache (InvoiceType.class);
+    m_aUnmarshaller = aJAXBContext.createUnmarshaller ();
+
+    // Copy all events up to the first invoice line into a separate buffer and
+    // unmarshal this as the header
+    final NonBlockingByteArrayOutputStream aHeaderOS = new NonBlockingByteArrayOutputStream ();
+    final XMLEventWriter aHeaderWriter = XMLOutputFactory.newInstance ().createXMLEventWriter (aHeaderOS, "UTF-8");
+    StartElement aRootElement = null;
+    int nDepth = 0;
+    while (m_aEventReader.hasNext ())
+    {
+      final XMLEvent aEvent = m_aEventReader.peek ();
+      if (aEvent.isStartElement ())
+      {
+        if (nDepth == 1 && QNAME_INVOICE_LINE.equals (aEvent.asStartElement ().getName ()))
+        {
+          // First invoice line - header is complete
+          break;
+        }
+        if (nDepth == 0)
+          aRootElement = aEvent.asStartElement ();
+        nDepth++;
+      }
+      else
+        if (aEvent.isEndElement ())
+          nDepth--;
+
+      m_aEventReader.nextEvent ();
+
+      // Skip everything outside of the root element (comments etc.)
+      if (aRootElement != null && (nDepth > 0 || aEvent.isEndElement ()))
+        aHeaderWriter.add (aEvent);
+
+      if (aRootElement != null && nDepth == 0)
+      {
+        // Root element is closed - no invoice lines at all
+        break;
+      }
+    }
+    if (aRootElement == null)
+      throw new XMLStreamException ("No root element found");
+
+    if (nDepth > 0)
+    {
+      // Close the root element manually
+      aHeaderWriter.add (XMLEventFactory.newInstance ().createEndElement (aRootElement.getName (), null));
+    }
+    aHeaderWriter.close ();
+
+    m_aHeader = m_aUnmarshaller.unmarshal (new StreamSource (new NonBlockingByteArrayInputStream (aHeaderOS.toByteArray ())),
+                                           InvoiceType.class)
+                               .getValue ();
+    if (s_aLogger.isDebugEnabled ())
+      s_aLogger.debug ("Read UBL invoice header with " + aHeaderOS.size () + " bytes");
+  }
+
+  /**
+   * @return The UBL invoice containing all header data but no invoice lines.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  public InvoiceType getHeader ()
+  {
+    return m_aHeader;
+  }
+
+  /**
+   * @return The number of invoice lines read so far. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getLineCount ()
+  {
+    return m_nLineCount;
+  }
+
+  public boolean hasNext ()
+  {
+    try
+    {
+      while (m_aEventReader.hasNext ())
+      {
+        final XMLEvent aEvent = m_aEventReader.peek ();
+        if (aEvent.isStartElement ())
+        {
+          if (QNAME_INVOICE_LINE.equals (aEvent.asStartElement ().getName ()))
+            return true;
+
+          // UBL has nothing after the invoice lines
+          s_aLogger.warn ("Skipping unexpected element " + aEvent.asStartElement ().getName () + " after InvoiceLine");
+          _skipElement ();
+        }
+        else
+          if (aEvent.isEndElement ())
+          {
+            // End of root element
+            return false;
+          }
+          else
+            m_aEventReader.nextEvent ();
+      }
+      return false;
+    }
+    catch (final XMLStreamException ex)
+    {
+      throw new IllegalStateException ("Failed to read UBL invoice stream", ex);
+    }
+  }
+
+  private void _skipElement () throws XMLStreamException
+  {
+    int nDepth = 0;
+    do
+    {
+      final XMLEvent aEvent = m_aEventReader.nextEvent ();
+      if (aEvent.isStartElement ())
+        nDepth++;
+      else
+        if (aEvent.isEndElement ())
+          nDepth--;
+    } while (nDepth > 0);
+  }
+
+  @Nonnull
+  public InvoiceLineType next ()
+  {
+    if (!hasNext ())
+      throw new NoSuchElementException ();
+
+    try
+    {
+      final InvoiceLineType ret = m_aUnmarshaller.unmarshal (m_aEventReader, InvoiceLineType.class).getValue ();
+      m_nLineCount++;
+      return ret;
+    }
+    catch (final JAXBException ex)
+    {
+      throw new IllegalStateException ("Failed to read UBL invoice line " + m_nLineCount, ex);
+    }
+  }
+
+  public void close ()
+  {
+    try
+    {
+      m_aEventReader.close ();
+    }
+    catch (final XMLStreamException ex)
+    {
+      s_aLogger.warn ("Failed to close XML event reader", ex);
+    }
+    StreamHelper.close (m_aIS);
+  }
+
+  /**
+   * Create a new streaming reader and read the invoice header.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. It is
+   *        closed when the returned reader is closed.
+   * @return <code>null</code> if the header could not be read.
+   */
+  @Nullable
+  public static UBLInvoiceStreamReader create (@Nonnull final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    try
+    {
+      return new UBLInvoiceStreamReader (aIS);
+    }
+    catch (final XMLStreamException | JAXBException ex)
+    {
+      s_aLogger.error ("Failed to read UBL invoice header", ex);
+      StreamHelper.close (aIS);
+      return null;
+    }
+  }
+}
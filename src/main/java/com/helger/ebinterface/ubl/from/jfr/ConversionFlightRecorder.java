@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.error.IError;
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.from.EConversionPhase;
+import com.helger.ebinterface.ubl.from.IConversionPhaseListener;
+
+/**
+ * Phase listener that emits Java Flight Recorder events for conversions
+ * ({@value #CONVERSION_EVENT_NAME}) and conversion phases
+ * ({@value #PHASE_EVENT_NAME}), so that slow documents can be correlated with
+ * GC pauses and allocation spikes in the same recording. It can be installed on
+ * the UBL to ebInterface converters via <code>builder ().setPhaseListener
+ * (x)</code> and on the ebInterface to UBL converter via the constructor.
+ * <p>
+ * The events are begun when a conversion or phase starts and ended when it
+ * finishes, so the event duration is the duration of the conversion or phase.
+ * Which events are recorded is controlled by the standard JFR settings of the
+ * respective event type: by default only conversions that took at least 20 ms
+ * and phases that took at least 10 ms are recorded (<code>threshold</code>
+ * setting) and no stack traces are recorded (<code>stackTrace</code>
+ * setting).
+ * <p>
+ * Requires a Java runtime that contains the <code>jdk.jfr</code> API (Java 11
+ * or later).
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class ConversionFlightRecorder implements IConversionPhaseListener
+{
+  /** The name of the conversion event */
+  public static final String CONVERSION_EVENT_NAME = ConversionEvent.NAME;
+  /** The name of the conversion phase event */
+  public static final String PHASE_EVENT_NAME = ConversionPhaseEvent.NAME;
+
+  /**
+   * The maximum number of open events per thread. Events that were begun but
+   * never ended because a conversion was aborted by an exception are dropped
+   * when this limit is reached.
+   */
+  private static final int MAX_OPEN_EVENTS = 32;
+
+  // The start and the end of a conversion or phase are reported in the same
+  // thread and are properly nested
+  private final ThreadLocal <ArrayDeque <ConversionEvent>> m_aConversions = ThreadLocal.withInitial (ArrayDeque::new);
+  private final ThreadLocal <ArrayDeque <ConversionPhaseEvent>> m_aPhases = ThreadLocal.withInitial (ArrayDeque::new);
+
+  private static <T> void _push (@Nonnull final ArrayDeque <T> aStack, @Nonnull final T aEvent)
+  {
+    if (aStack.size () >= MAX_OPEN_EVENTS)
+      aStack.clear ();
+    aStack.push (aEvent);
+  }
+
+  /**
+   * Remove the most recently begun event matching the passed filter from the
+   * stack. Events begun after it were never ended and are discarded.
+   */
+  @Nullable
+  private static <T> T _pop (@Nonnull final ArrayDeque <T> aStack, @Nonnull final Predicate <? super T> aFilter)
+  {
+    final Iterator <T> it = aStack.iterator ();
+    while (it.hasNext ())
+      if (aFilter.test (it.next ()))
+      {
+        T ret;
+        do
+        {
+          ret = aStack.pop ();
+        } while (!aFilter.test (ret));
+        return ret;
+      }
+    return null;
+  }
+
+  @Override
+  public void onConversionStart (@Nonnull final EDocumentRoute eRoute, final boolean bStrictERBMode)
+  {
+    final ConversionEvent aEvent = new ConversionEvent ();
+    aEvent.m_sRoute = eRoute.name ();
+    aEvent.m_bStrictERBMode = bStrictERBMode;
+    _push (m_aConversions.get (), aEvent);
+    aEvent.begin ();
+  }
+
+  @Override
+  public void onPhaseStart (@Nonnull final EDocumentRoute eRoute, @Nonnull final EConversionPhase ePhase)
+  {
+    final ConversionPhaseEvent aEvent = new ConversionPhaseEvent ();
+    aEvent.m_sRoute = eRoute.name ();
+    aEvent.m_sPhase = ePhase.name ();
+    _push (m_aPhases.get (), aEvent);
+    aEvent.begin ();
+  }
+
+  @Override
+  public void onPhaseEnd (@Nonnull final EDocumentRoute eRoute,
+                          @Nonnull final EConversionPhase ePhase,
+                          final long nDurationNanos,
+                          @Nonnegative final int nElementCount)
+  {
+    final String sRoute = eRoute.name ();
+    final String sPhase = ePhase.name ();
+    final ConversionPhaseEvent aEvent = _pop (m_aPhases.get (),
+                                              x -> x.m_sRoute.equals (sRoute) && x.m_sPhase.equals (sPhase));
+    if (aEvent != null)
+    {
+      aEvent.end ();
+      if (aEvent.shouldCommit ())
+      {
+        aEvent.m_nElementCount = nElementCount;
+        aEvent.commit ();
+      }
+    }
+  }
+
+  @Override
+  public void onConversionEnd (@Nonnull final EDocumentRoute eRoute,
+                               final boolean bStrictERBMode,
+                               final long nDurationNanos,
+                               @Nonnegative final int nLineCount,
+                               @Nonnull final ErrorList aErrorList,
+                               final boolean bSuccess)
+  {
+    final String sRoute = eRoute.name ();
+    final ConversionEvent aEvent = _pop (m_aConversions.get (), x -> x.m_sRoute.equals (sRoute));
+    if (aEvent != null)
+    {
+      aEvent.end ();
+      if (aEvent.shouldCommit ())
+      {
+        int nErrorCount = 0;
+        int nWarningCount = 0;
+        for (final IError aError : aErrorList)
+          if (aError.getErrorLevel () == EErrorLevel.WARN)
+            nWarningCount++;
+          else
+            if (aError.isError ())
+              nErrorCount++;
+
+        aEvent.m_nLineCount = nLineCount;
+        aEvent.m_nErrorCount = nErrorCount;
+        aEvent.m_nWarningCount = nWarningCount;
+        aEvent.m_bSuccess = bSuccess;
+        aEvent.commit ();
+      }
+    }
+  }
+}
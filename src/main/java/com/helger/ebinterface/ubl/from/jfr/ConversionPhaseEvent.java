@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a single conversion phase. The event duration is
+ * the duration of the phase.
+ *
+ * @author Philip Helger
+ */
+@Name (ConversionPhaseEvent.NAME)
+@Label ("Conversion Phase")
+@Category ({ "ebInterface", "UBL Mapping" })
+@Description ("A single phase of a UBL to ebInterface or ebInterface to UBL conversion")
+@StackTrace (false)
+@Threshold ("10 ms")
+final class ConversionPhaseEvent extends jdk.jfr.Event
+{
+  public static final String NAME = "com.helger.ebinterface.ubl.ConversionPhase";
+
+  @Name ("route")
+  @Label ("Route")
+  @Description ("The conversion route identifying the source document type")
+  String m_sRoute;
+
+  @Name ("phase")
+  @Label ("Phase")
+  String m_sPhase;
+
+  @Name ("elementCount")
+  @Label ("Element Count")
+  @Description ("The number of elements handled in the phase")
+  int m_nElementCount;
+}
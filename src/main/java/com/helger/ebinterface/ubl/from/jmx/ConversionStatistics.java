@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ext.CommonsLinkedHashMap;
+import com.helger.commons.collection.ext.ICommonsOrderedMap;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.error.text.IHasErrorText;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.ebinterface.ubl.DeferredErrorText;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+import com.helger.ebinterface.ubl.from.IConversionPhaseListener;
+
+/**
+ * Aggregated conversion statistics that can be installed as
+ * {@link IConversionPhaseListener} on any number of converters (e.g. all
+ * converters used by a batch pipeline) and that can be exposed via JMX. All
+ * counters are striped {@link LongAdder}s and the latency histograms are
+ * lock-free, so that many concurrent conversion threads don't contend.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class ConversionStatistics implements IConversionPhaseListener, IConversionStatisticsMXBean
+{
+  /** The JMX domain used for registration */
+  public static final String JMX_DOMAIN = "com.helger.ebinterface.ubl";
+  /** The percentiles exposed via JMX */
+  private static final int [] PERCENTILES = new int [] { 50, 90, 99 };
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (ConversionStatistics.class);
+  private static final EText [] ETEXTS = EText.values ();
+
+  private final LongAdder m_aDocumentsConverted = new LongAdder ();
+  private final LongAdder m_aDocumentsFailed = new LongAdder ();
+  private final LongAdder m_aDocumentsWithWarnings = new LongAdder ();
+  private final LongAdder m_aLinesConverted = new LongAdder ();
+  private final LatencyHistogram [] m_aLatencies = new LatencyHistogram [EDocumentSizeClass.values ().length];
+  private final LongAdder [] m_aErrorTextCounts = new LongAdder [ETEXTS.length];
+
+  public ConversionStatistics ()
+  {
+    for (int i = 0; i < m_aLatencies.length; ++i)
+      m_aLatencies[i] = new LatencyHistogram ();
+    for (int i = 0; i < m_aErrorTextCounts.length; ++i)
+      m_aErrorTextCounts[i] = new LongAdder ();
+  }
+
+  @Override
+  public void onConversionEnd (@Nonnull final EDocumentRoute eRoute,
+                               final boolean bStrictERBMode,
+                               final long nDurationNanos,
+                               @Nonnegative final int nLineCount,
+                               @Nonnull final ErrorList aErrorList,
+                               final boolean bSuccess)
+  {
+    boolean bHasWarning = false;
+    for (final IError aError : aErrorList)
+    {
+      if (aError.getErrorLevel () == EErrorLevel.WARN)
+        bHasWarning = true;
+      final IHasErrorText aErrorText = aError.getErrorTexts ();
+      if (aErrorText instanceof DeferredErrorText)
+      {
+        final Object aText = ((DeferredErrorText) aErrorText).getText ();
+        if (aText instanceof EText)
+          m_aErrorTextCounts[((EText) aText).ordinal ()].increment ();
+      }
+    }
+
+    if (bSuccess)
+    {
+      m_aDocumentsConverted.increment ();
+      if (bHasWarning)
+        m_aDocumentsWithWarnings.increment ();
+    }
+    else
+      m_aDocumentsFailed.increment ();
+    m_aLinesConverted.add (nLineCount);
+    final long nDurationMicros = TimeUnit.NANOSECONDS.toMicros (Math.max (0, nDurationNanos));
+    m_aLatencies[EDocumentSizeClass.getFromLineCount (nLineCount).ordinal ()].recordValue (nDurationMicros);
+  }
+
+  @Override
+  public long getDocumentsConverted ()
+  {
+    return m_aDocumentsConverted.sum ();
+  }
+
+  @Override
+  public long getDocumentsFailed ()
+  {
+    return m_aDocumentsFailed.sum ();
+  }
+
+  @Override
+  public long getDocumentsWithWarnings ()
+  {
+    return m_aDocumentsWithWarnings.sum ();
+  }
+
+  @Override
+  public long getLinesConverted ()
+  {
+    return m_aLinesConverted.sum ();
+  }
+
+  /**
+   * @param eSizeClass
+   *        The size class to query. May not be <code>null</code>.
+   * @return The latency histogram in microseconds of the passed size class.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  public LatencyHistogram getLatencyHistogram (@Nonnull final EDocumentSizeClass eSizeClass)
+  {
+    ValueEnforcer.notNull (eSizeClass, "SizeClass");
+    return m_aLatencies[eSizeClass.ordinal ()];
+  }
+
+  @Override
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, Long> getLatencyMicros ()
+  {
+    final ICommonsOrderedMap <String, Long> ret = new CommonsLinkedHashMap <> ();
+    for (final EDocumentSizeClass eSizeClass : EDocumentSizeClass.values ())
+    {
+      final LatencyHistogram aHistogram = m_aLatencies[eSizeClass.ordinal ()];
+      final long nCount = aHistogram.getTotalCount ();
+      if (nCount > 0)
+      {
+        ret.put (eSizeClass.name () + ".count", Long.valueOf (nCount));
+        for (final int nPercentile : PERCENTILES)
+          ret.put (eSizeClass.name () + ".p" + nPercentile,
+                   Long.valueOf (aHistogram.getValueAtPercentile (nPercentile)));
+        ret.put (eSizeClass.name () + ".max", Long.valueOf (aHistogram.getMaxValue ()));
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @param eText
+   *        The text to query. May not be <code>null</code>.
+   * @return The number of errors and warnings with the passed text.
+   */
+  @Nonnegative
+  public long getErrorTextCount (@Nonnull final EText eText)
+  {
+    ValueEnforcer.notNull (eText, "Text");
+    return m_aErrorTextCounts[eText.ordinal ()].sum ();
+  }
+
+  @Override
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, Long> getErrorTextCounts ()
+  {
+    final ICommonsOrderedMap <String, Long> ret = new CommonsLinkedHashMap <> ();
+    for (final EText eText : ETEXTS)
+    {
+      final long nCount = m_aErrorTextCounts[eText.ordinal ()].sum ();
+      if (nCount > 0)
+        ret.put (eText.name (), Long.valueOf (nCount));
+    }
+    return ret;
+  }
+
+  @Override
+  public void reset ()
+  {
+    m_aDocumentsConverted.reset ();
+    m_aDocumentsFailed.reset ();
+    m_aDocumentsWithWarnings.reset ();
+    m_aLinesConverted.reset ();
+    for (final LatencyHistogram aHistogram : m_aLatencies)
+      aHistogram.reset ();
+    for (final LongAdder aCount : m_aErrorTextCounts)
+      aCount.reset ();
+  }
+
+  /**
+   * Get the JMX object name for the passed instance name.
+   *
+   * @param sName
+   *        The name of the statistics instance. May neither be
+   *        <code>null</code> nor empty.
+   * @return The object name with domain {@value #JMX_DOMAIN}.
+   * @throws JMException
+   *         If the resulting object name is invalid
+   */
+  @Nonnull
+  public static ObjectName getObjectName (@Nonnull @Nonempty final String sName) throws JMException
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+    return new ObjectName (JMX_DOMAIN + ":type=ConversionStatistics,name=" + ObjectName.quote (sName));
+  }
+
+  /**
+   * Register this object at the platform MBean server.
+   *
+   * @param sName
+   *        The name of the statistics instance. May neither be
+   *        <code>null</code> nor empty.
+   * @return {@link ESuccess}. Never <code>null</code>.
+   */
+  @Nonnull
+  public ESuccess registerMBean (@Nonnull @Nonempty final String sName)
+  {
+    try
+    {
+      ManagementFactory.getPlatformMBeanServer ().registerMBean (this, getObjectName (sName));
+      return ESuccess.SUCCESS;
+    }
+    catch (final JMException ex)
+    {
+      s_aLogger.error ("Failed to register conversion statistics MBean '" + sName + "'", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * Unregister this object from the platform MBean server.
+   *
+   * @param sName
+   *        The name used for registration. May neither be <code>null</code>
+   *        nor empty.
+   * @return {@link ESuccess}. Never <code>null</code>.
+   */
+  @Nonnull
+  public static ESuccess unregisterMBean (@Nonnull @Nonempty final String sName)
+  {
+    try
+    {
+      ManagementFactory.getPlatformMBeanServer ().unregisterMBean (getObjectName (sName));
+      return ESuccess.SUCCESS;
+    }
+    catch (final JMException ex)
+    {
+      s_aLogger.error ("Failed to unregister conversion statistics MBean '" + sName + "'", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("DocumentsConverted", getDocumentsConverted ())
+                                       .append ("DocumentsFailed", getDocumentsFailed ())
+                                       .append ("DocumentsWithWarnings", getDocumentsWithWarnings ())
+                                       .append ("LinesConverted", getLinesConverted ())
+                                       .toString ();
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jmx;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * The document size classes, based on the number of lines, for which separate
+ * latency histograms are kept.
+ *
+ * @author Philip Helger
+ */
+public enum EDocumentSizeClass
+{
+  /** Less than 10 lines */
+  TINY (10),
+  /** Less than 100 lines */
+  SMALL (100),
+  /** Less than 1000 lines */
+  MEDIUM (1_000),
+  /** Less than 10000 lines */
+  LARGE (10_000),
+  /** Everything else */
+  HUGE (Integer.MAX_VALUE);
+
+  private final int m_nMaxLineCountExcl;
+
+  private EDocumentSizeClass (@Nonnegative final int nMaxLineCountExcl)
+  {
+    m_nMaxLineCountExcl = nMaxLineCountExcl;
+  }
+
+  /**
+   * @return The exclusive upper line count limit of this class.
+   */
+  @Nonnegative
+  public int getMaxLineCountExcl ()
+  {
+    return m_nMaxLineCountExcl;
+  }
+
+  /**
+   * Get the size class of a document.
+   *
+   * @param nLineCount
+   *        The number of lines of the document.
+   * @return The matching size class. Never <code>null</code>.
+   */
+  @Nonnull
+  public static EDocumentSizeClass getFromLineCount (@Nonnegative final int nLineCount)
+  {
+    for (final EDocumentSizeClass e : values ())
+      if (nLineCount < e.m_nMaxLineCountExcl)
+        return e;
+    return HUGE;
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jmx;
+
+import java.util.Map;
+
+/**
+ * JMX interface of {@link ConversionStatistics}.
+ *
+ * @author Philip Helger
+ */
+public interface IConversionStatisticsMXBean
+{
+  /**
+   * @return The number of documents that were converted to ebInterface.
+   */
+  long getDocumentsConverted ();
+
+  /**
+   * @return The number of documents that could not be converted.
+   */
+  long getDocumentsFailed ();
+
+  /**
+   * @return The number of converted documents with at least one warning.
+   */
+  long getDocumentsWithWarnings ();
+
+  /**
+   * @return The number of lines of all converted and failed documents.
+   */
+  long getLinesConverted ();
+
+  /**
+   * @return The conversion latency in microseconds per document size class.
+   *         The keys have the form <code>SIZECLASS.pNN</code> (e.g.
+   *         <code>SMALL.p99</code>), <code>SIZECLASS.max</code> and
+   *         <code>SIZECLASS.count</code>. Only size classes with at least one
+   *         document are contained.
+   */
+  Map <String, Long> getLatencyMicros ();
+
+  /**
+   * @return The number of errors and warnings per <code>EText</code> constant.
+   *         Only texts that occurred at least once are contained.
+   */
+  Map <String, Long> getErrorTextCounts ();
+
+  /**
+   * Reset all counters and histograms.
+   */
+  void reset ();
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jmx;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A lock-free histogram for non-negative values (e.g. latencies) with a
+ * log-linear bucket layout similar to HdrHistogram: values &lt; 8 are
+ * recorded exactly, larger values are recorded in 8 sub-buckets per power of
+ * two, so that the relative error of every reported value is below 12.5%. The
+ * counts are striped {@link LongAdder}s, so that concurrent recording threads
+ * don't contend on a single memory location.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class LatencyHistogram
+{
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+  private final LongAdder [] m_aCounts = new LongAdder [BUCKET_COUNT];
+  private final LongAccumulator m_aMax = new LongAccumulator (Math::max, 0);
+
+  public LatencyHistogram ()
+  {
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+      m_aCounts[i] = new LongAdder ();
+  }
+
+  static int getBucketIndex (@Nonnegative final long nValue)
+  {
+    if (nValue < SUB_BUCKET_COUNT)
+      return (int) nValue;
+    final int nMagnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros (nValue);
+    final int nSubBucket = (int) (nValue >>> (nMagnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (nMagnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + nSubBucket;
+  }
+
+  static long getHighestValueInBucket (@Nonnegative final int nIndex)
+  {
+    if (nIndex < SUB_BUCKET_COUNT)
+      return nIndex;
+    final int nShift = nIndex / SUB_BUCKET_COUNT - 1;
+    final long nLowest = (long) (SUB_BUCKET_COUNT + nIndex % SUB_BUCKET_COUNT) << nShift;
+    return nLowest + (1L << nShift) - 1;
+  }
+
+  /**
+   * Record a single value.
+   *
+   * @param nValue
+   *        The value to record. Must be &ge; 0.
+   */
+  public void recordValue (@Nonnegative final long nValue)
+  {
+    ValueEnforcer.isGE0 (nValue, "Value");
+    m_aCounts[getBucketIndex (nValue)].increment ();
+    m_aMax.accumulate (nValue);
+  }
+
+  /**
+   * @return The number of recorded values.
+   */
+  @Nonnegative
+  public long getTotalCount ()
+  {
+    long ret = 0;
+    for (final LongAdder aCount : m_aCounts)
+      ret += aCount.sum ();
+    return ret;
+  }
+
+  /**
+   * @return The largest recorded value or 0 if no value was recorded.
+   */
+  @Nonnegative
+  public long getMaxValue ()
+  {
+    return m_aMax.get ();
+  }
+
+  /**
+   * Get the value at the passed percentile. As recording may happen
+   * concurrently, the result is only an approximation of a consistent
+   * snapshot.
+   *
+   * @param dPercentile
+   *        The percentile between 0 and 100.
+   * @return The highest value that is equivalent to the value at the passed
+   *         percentile or 0 if no value was recorded.
+   */
+  @Nonnegative
+  public long getValueAtPercentile (final double dPercentile)
+  {
+    ValueEnforcer.isBetweenInclusive (dPercentile, "Percentile", 0, 100);
+
+    final long [] aCounts = new long [BUCKET_COUNT];
+    long nTotal = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      aCounts[i] = m_aCounts[i].sum ();
+      nTotal += aCounts[i];
+    }
+    if (nTotal == 0)
+      return 0;
+
+    final long nRank = Math.max (1, (long) Math.ceil (dPercentile / 100 * nTotal));
+    long nSeen = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+    {
+      nSeen += aCounts[i];
+      if (nSeen >= nRank)
+        return Math.min (getHighestValueInBucket (i), getMaxValue ());
+    }
+    return getMaxValue ();
+  }
+
+  /**
+   * Remove all recorded values. Values recorded concurrently may or may not be
+   * removed.
+   */
+  public void reset ()
+  {
+    for (final LongAdder aCount : m_aCounts)
+      aCount.reset ();
+    m_aMax.reset ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("TotalCount", getTotalCount ())
+                                       .append ("Max", getMaxValue ())
+                                       .toString ();
+  }
+}
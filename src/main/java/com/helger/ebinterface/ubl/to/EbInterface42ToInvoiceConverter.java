@@ -4,11 +4,18 @@ import java.math.BigDecimal;
 import java.util.Locale;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.bind.JAXBElement;
 
 import com.helger.commons.CGlobal;
+import com.helger.commons.error.list.ErrorList;
 import com.helger.commons.math.MathHelper;
 import com.helger.commons.string.StringHelper;
+import com.helger.ebinterface.ubl.CodeListHelper;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.from.EConversionPhase;
+import com.helger.ebinterface.ubl.from.IConversionPhaseListener;
+import com.helger.ebinterface.ubl.from.helper.ConversionPhaseTimer;
 import com.helger.ebinterface.v42.Ebi42AdditionalInformationType;
 import com.helger.ebinterface.v42.Ebi42ArticleNumberType;
 import com.helger.ebinterface.v42.Ebi42BelowTheLineItemType;
@@ -75,17 +82,46 @@ import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
  */
 public class EbInterface42ToInvoiceConverter extends AbstractToUBLConverter
 {
+  private final IConversionPhaseListener m_aPhaseListener;
+
   public EbInterface42ToInvoiceConverter (@Nonnull final Locale aDisplayLocale, @Nonnull final Locale aContentLocale)
+  {
+    this (aDisplayLocale, aContentLocale, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDisplayLocale
+   *        The locale for error messages. May not be <code>null</code>.
+   * @param aContentLocale
+   *        The locale for the created UBL files. May not be <code>null</code>.
+   * @param aPhaseListener
+   *        The optional listener to be informed about the duration of the
+   *        single conversion phases. Must be thread-safe if the converter is
+   *        shared between threads. May be <code>null</code>.
+   */
+  public EbInterface42ToInvoiceConverter (@Nonnull final Locale aDisplayLocale,
+                                          @Nonnull final Locale aContentLocale,
+                                          @Nullable final IConversionPhaseListener aPhaseListener)
   {
     super (aDisplayLocale, aContentLocale);
+    m_aPhaseListener = aPhaseListener;
   }
 
-  @Nonnull
-  public InvoiceType convertInvoice (@Nonnull final Ebi42InvoiceType aEbiDoc)
+  /**
+   * @return The optional phase listener. May be <code>null</code>.
+   */
+  @Nullable
+  public final IConversionPhaseListener getPhaseListener ()
   {
-    final String sCurrency = aEbiDoc.getInvoiceCurrency ();
+    return m_aPhaseListener;
+  }
 
-    final InvoiceType aUBLDoc = new InvoiceType ();
+  private void _convertHeader (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                               @Nonnull final String sCurrency,
+                               @Nonnull final InvoiceType aUBLDoc)
+  {
     aUBLDoc.setUBLVersionID (UBL_VERSION_21);
 
     // Attributes
@@ -136,168 +172,437 @@ public class EbInterface42ToInvoiceConverter extends AbstractToUBLConverter
         aUBLDoc.addAdditionalDocumentReference (aUBLDocRef);
       }
     }
+  }
 
-    // Handle Delivery
+  private void _convertDelivery (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                                 @Nonnull final InvoiceType aUBLDoc)
+  {
+    final DeliveryType aUBLDelivery = convertDelivery (aEbiDoc.getDelivery ());
+    if (aUBLDelivery != null)
     {
-      final DeliveryType aUBLDelivery = convertDelivery (aEbiDoc.getDelivery ());
-      if (aUBLDelivery != null)
+      // Remember in invoice
+      if (aUBLDoc.getInvoicePeriodCount () == 0 && aUBLDelivery.getRequestedDeliveryPeriod () != null)
+        aUBLDoc.addInvoicePeriod (aUBLDelivery.getRequestedDeliveryPeriod ());
+
+      aUBLDoc.addDelivery (aUBLDelivery);
+    }
+  }
+
+  private void _convertBiller (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                               @Nonnull final InvoiceType aUBLDoc)
+  {
+    final Ebi42BillerType aEbiBiller = aEbiDoc.getBiller ();
+    if (aEbiBiller != null)
+    {
+      final SupplierPartyType aUBLSupplier = new SupplierPartyType ();
+      PartyType aUBLParty = convertParty (aEbiBiller.getAddress ());
+      if (StringHelper.hasText (aEbiBiller.getVATIdentificationNumber ()))
+      {
+        if (aUBLParty == null)
+          aUBLParty = new PartyType ();
+
+        final PartyTaxSchemeType aPTS = new PartyTaxSchemeType ();
+        aPTS.setTaxScheme (createTaxSchemeVAT ());
+        final CompanyIDType aCID = aPTS.setCompanyID (aEbiBiller.getVATIdentificationNumber ());
+        aCID.setSchemeID (SUPPORTED_TAX_SCHEME_ID.getID ());
+        aUBLParty.addPartyTaxScheme (aPTS);
+      }
+      if (StringHelper.hasText (aEbiBiller.getInvoiceRecipientsBillerID ()))
       {
-        // Remember in invoice
-        if (aUBLDoc.getInvoicePeriodCount () == 0 && aUBLDelivery.getRequestedDeliveryPeriod () != null)
-          aUBLDoc.addInvoicePeriod (aUBLDelivery.getRequestedDeliveryPeriod ());
+        if (aUBLParty == null)
+          aUBLParty = new PartyType ();
+
+        // Set in 2 different places
+        aUBLSupplier.setCustomerAssignedAccountID (aEbiBiller.getInvoiceRecipientsBillerID ());
+        final PartyIdentificationType aPI = new PartyIdentificationType ();
+        aPI.setID (aEbiBiller.getInvoiceRecipientsBillerID ());
+        aUBLParty.addPartyIdentification (aPI);
+      }
+      aUBLSupplier.setParty (aUBLParty);
 
-        aUBLDoc.addDelivery (aUBLDelivery);
+      // Put this into global contract document references
+      for (final Ebi42FurtherIdentificationType aEbiFI : aEbiBiller.getFurtherIdentification ())
+      {
+        final DocumentReferenceType aUBLContractDoc = new DocumentReferenceType ();
+        final IDType aID = new IDType ();
+        aID.setValue (aEbiFI.getValue ());
+        aID.setSchemeID (aEbiFI.getIdentificationType ());
+        aUBLContractDoc.setID (aID);
+        aUBLDoc.addContractDocumentReference (aUBLContractDoc);
       }
+
+      aUBLDoc.setAccountingSupplierParty (aUBLSupplier);
     }
+  }
 
-    // Handle Biller
+  private void _convertInvoiceRecipient (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                                         @Nonnull final InvoiceType aUBLDoc)
+  {
+    final Ebi42InvoiceRecipientType aEbiIR = aEbiDoc.getInvoiceRecipient ();
+    if (aEbiIR != null)
     {
-      final Ebi42BillerType aEbiBiller = aEbiDoc.getBiller ();
-      if (aEbiBiller != null)
+      final CustomerPartyType aUBLCustomer = new CustomerPartyType ();
+      PartyType aUBLParty = convertParty (aEbiIR.getAddress ());
+      if (StringHelper.hasText (aEbiIR.getVATIdentificationNumber ()))
       {
-        final SupplierPartyType aUBLSupplier = new SupplierPartyType ();
-        PartyType aUBLParty = convertParty (aEbiBiller.getAddress ());
-        if (StringHelper.hasText (aEbiBiller.getVATIdentificationNumber ()))
+        if (aUBLParty == null)
+          aUBLParty = new PartyType ();
+
+        final PartyTaxSchemeType aPTS = new PartyTaxSchemeType ();
+        aPTS.setTaxScheme (createTaxSchemeVAT ());
+        final CompanyIDType aCID = aPTS.setCompanyID (aEbiIR.getVATIdentificationNumber ());
+        aCID.setSchemeID (SUPPORTED_TAX_SCHEME_ID.getID ());
+        aUBLParty.addPartyTaxScheme (aPTS);
+      }
+      if (StringHelper.hasText (aEbiIR.getBillersInvoiceRecipientID ()))
+      {
+        if (aUBLParty == null)
+          aUBLParty = new PartyType ();
+
+        // Set in 2 different places
+        aUBLCustomer.setSupplierAssignedAccountID (aEbiIR.getBillersInvoiceRecipientID ());
+        final PartyIdentificationType aPI = new PartyIdentificationType ();
+        aPI.setID (aEbiIR.getBillersInvoiceRecipientID ());
+        aUBLParty.addPartyIdentification (aPI);
+      }
+      aUBLCustomer.setParty (aUBLParty);
+
+      // Put this into global contract document references
+      for (final Ebi42FurtherIdentificationType aEbiFI : aEbiIR.getFurtherIdentification ())
+      {
+        final AdditionalAccountIDType aUBLAddAccID = new AdditionalAccountIDType ();
+        aUBLAddAccID.setValue (aEbiFI.getValue ());
+        aUBLAddAccID.setSchemeID (aEbiFI.getIdentificationType ());
+        aUBLCustomer.addAdditionalAccountID (aUBLAddAccID);
+      }
+
+      // Handle order reference from invoice recipient
+      final Ebi42OrderReferenceType aEbiOR = aEbiIR.getOrderReference ();
+      if (aEbiOR != null)
+      {
+        final OrderReferenceType aUBLOR = new OrderReferenceType ();
+        aUBLOR.setID (aEbiOR.getOrderID ());
+        if (aEbiOR.getReferenceDate () != null)
+          aUBLOR.setIssueDate (aEbiOR.getReferenceDate ());
+        aUBLDoc.setOrderReference (aUBLOR);
+      }
+
+      aUBLDoc.setAccountingCustomerParty (aUBLCustomer);
+    }
+  }
+
+  private void _convertOrderingParty (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                                      @Nonnull final InvoiceType aUBLDoc)
+  {
+    final Ebi42OrderingPartyType aEbiOrdering = aEbiDoc.getOrderingParty ();
+    if (aEbiOrdering != null)
+    {
+      final CustomerPartyType aUBLCustomer = new CustomerPartyType ();
+      PartyType aUBLParty = convertParty (aEbiOrdering.getAddress ());
+      if (StringHelper.hasText (aEbiOrdering.getVATIdentificationNumber ()))
+      {
+        if (aUBLParty == null)
+          aUBLParty = new PartyType ();
+
+        final PartyTaxSchemeType aPTS = new PartyTaxSchemeType ();
+        aPTS.setTaxScheme (createTaxSchemeVAT ());
+        final CompanyIDType aCID = aPTS.setCompanyID (aEbiOrdering.getVATIdentificationNumber ());
+        aCID.setSchemeID (SUPPORTED_TAX_SCHEME_ID.getID ());
+        aUBLParty.addPartyTaxScheme (aPTS);
+      }
+      if (StringHelper.hasText (aEbiOrdering.getBillersOrderingPartyID ()))
+      {
+        if (aUBLParty == null)
+          aUBLParty = new PartyType ();
+
+        // Set in 2 different places
+        aUBLCustomer.setSupplierAssignedAccountID (aEbiOrdering.getBillersOrderingPartyID ());
+        final PartyIdentificationType aPI = new PartyIdentificationType ();
+        aPI.setID (aEbiOrdering.getBillersOrderingPartyID ());
+        aUBLParty.addPartyIdentification (aPI);
+      }
+      aUBLCustomer.setParty (aUBLParty);
+
+      // Put this into global contract document references
+      for (final Ebi42FurtherIdentificationType aEbiFI : aEbiOrdering.getFurtherIdentification ())
+      {
+        final DocumentReferenceType aUBLContractDoc = new DocumentReferenceType ();
+        final IDType aID = new IDType ();
+        aID.setValue (aEbiFI.getValue ());
+        aID.setSchemeID (aEbiFI.getIdentificationType ());
+        aUBLContractDoc.setID (aID);
+        aUBLDoc.addContractDocumentReference (aUBLContractDoc);
+      }
+
+      aUBLDoc.setBuyerCustomerParty (aUBLCustomer);
+    }
+  }
+
+  private void _convertLineReductionAndSurcharge (@Nonnull final Ebi42ListLineItemType aEbiItem,
+                                                  @Nonnull final String sCurrency,
+                                                  @Nonnull final InvoiceLineType aUBLLine)
+  {
+    for (final JAXBElement <?> aEbiRS : aEbiItem.getReductionAndSurchargeListLineItemDetails ()
+                                                .getReductionListLineItemOrSurchargeListLineItemOrOtherVATableTaxListLineItem ())
+    {
+      final Object aValue = aEbiRS.getValue ();
+      final AllowanceChargeType aUBLAC = new AllowanceChargeType ();
+
+      if (aValue instanceof Ebi42OtherVATableTaxBaseType)
+      {
+        // Other VAT-able tax
+        final Ebi42OtherVATableTaxBaseType aEbiRSValue = (Ebi42OtherVATableTaxBaseType) aValue;
+
+        aUBLAC.setChargeIndicator (true);
+        aUBLAC.setBaseAmount (aEbiRSValue.getBaseAmount ()).setCurrencyID (sCurrency);
+        if (aEbiRSValue.getPercentage () != null)
+          aUBLAC.setMultiplierFactorNumeric (aEbiRSValue.getPercentage ().divide (CGlobal.BIGDEC_100));
+        if (aEbiRSValue.getAmount () != null)
+          aUBLAC.setAmount (aEbiRSValue.getAmount ()).setCurrencyID (sCurrency);
+        else
+          if (aEbiRSValue.getPercentage () != null)
+            aUBLAC.setAmount (MathHelper.getPercentValue (aEbiRSValue.getBaseAmount (),
+                                                          aEbiRSValue.getPercentage ()))
+                  .setCurrencyID (sCurrency);
+        if (StringHelper.hasText (aEbiRSValue.getTaxID ()))
+          aUBLAC.setAllowanceChargeReasonCode (aEbiRSValue.getTaxID ());
+        if (StringHelper.hasText (aEbiRSValue.getComment ()))
+          aUBLAC.addAllowanceChargeReason (new AllowanceChargeReasonType (aEbiRSValue.getComment ()));
+      }
+      else
+      {
+        // Reduction/surcharge
+        final Ebi42ReductionAndSurchargeBaseType aEbiRSValue = (Ebi42ReductionAndSurchargeBaseType) aValue;
+        final boolean bIsReduction = aEbiRS.getName ().getLocalPart ().equals ("ReductionListLineItem");
+
+        aUBLAC.setChargeIndicator (!bIsReduction);
+        aUBLAC.setBaseAmount (aEbiRSValue.getBaseAmount ()).setCurrencyID (sCurrency);
+        if (aEbiRSValue.getPercentage () != null)
+          aUBLAC.setMultiplierFactorNumeric (aEbiRSValue.getPercentage ().divide (CGlobal.BIGDEC_100));
+        if (aEbiRSValue.getAmount () != null)
+          aUBLAC.setAmount (aEbiRSValue.getAmount ()).setCurrencyID (sCurrency);
+        else
+          if (aEbiRSValue.getPercentage () != null)
+            aUBLAC.setAmount (MathHelper.getPercentValue (aEbiRSValue.getBaseAmount (),
+                                                          aEbiRSValue.getPercentage ()))
+                  .setCurrencyID (sCurrency);
+        if (StringHelper.hasText (aEbiRSValue.getComment ()))
+          aUBLAC.addAllowanceChargeReason (new AllowanceChargeReasonType (aEbiRSValue.getComment ()));
+      }
+
+      aUBLLine.addAllowanceCharge (aUBLAC);
+    }
+  }
+
+  @Nonnull
+  private InvoiceLineType _convertLine (@Nonnull final Ebi42ListLineItemType aEbiItem,
+                                        final int nInvoiceLineIndex,
+                                        @Nonnull final String sCurrency)
+  {
+    final InvoiceLineType aUBLLine = new InvoiceLineType ();
+    aUBLLine.setID (aEbiItem.getPositionNumber () != null ? aEbiItem.getPositionNumber ().toString ()
+                                                          : Integer.toString (nInvoiceLineIndex));
+
+    EUnitOfMeasureCode21 eUOM = CodeListHelper.getUnitOfMeasure (aEbiItem.getQuantity ().getUnit ());
+    if (eUOM == null)
+      eUOM = EUnitOfMeasureCode21.C62;
+
+    aUBLLine.setInvoicedQuantity (aEbiItem.getQuantity ().getValue ()).setUnitCode (eUOM.getID ());
+    aUBLLine.setLineExtensionAmount (aEbiItem.getLineItemAmount ()).setCurrencyID (sCurrency);
+
+    final PriceType aUBLPrice = new PriceType ();
+    aUBLPrice.setPriceAmount (aEbiItem.getUnitPrice ().getValue ()).setCurrencyID (sCurrency);
+    if (aEbiItem.getUnitPrice ().getBaseQuantity () != null)
+      aUBLPrice.setBaseQuantity (aEbiItem.getUnitPrice ().getBaseQuantity ());
+    aUBLLine.setPrice (aUBLPrice);
+
+    if (aEbiItem.getDelivery () != null)
+      aUBLLine.addDelivery (convertDelivery (aEbiItem.getDelivery ()));
+
+    {
+      final ItemType aUBLItem = new ItemType ();
+      for (final String sEbiDesc : aEbiItem.getDescription ())
+        aUBLItem.addDescription (new DescriptionType (sEbiDesc));
+      aUBLItem.setPackSizeNumeric (BigDecimal.ONE);
+
+      {
+        TaxCategoryType aUBLTaxCategory;
+        if (aEbiItem.getTaxExemption () != null)
         {
-          if (aUBLParty == null)
-            aUBLParty = new PartyType ();
-
-          final PartyTaxSchemeType aPTS = new PartyTaxSchemeType ();
-          aPTS.setTaxScheme (createTaxSchemeVAT ());
-          final CompanyIDType aCID = aPTS.setCompanyID (aEbiBiller.getVATIdentificationNumber ());
-          aCID.setSchemeID (SUPPORTED_TAX_SCHEME_ID.getID ());
-          aUBLParty.addPartyTaxScheme (aPTS);
+          // Exempt
+          aUBLTaxCategory = createTaxCategoryVAT ("E");
+          aUBLTaxCategory.setPercent (BigDecimal.ZERO);
+          if (StringHelper.hasText (aEbiItem.getTaxExemption ().getValue ()))
+            aUBLTaxCategory.addTaxExemptionReason (new TaxExemptionReasonType (aEbiItem.getTaxExemption ()
+                                                                                       .getValue ()));
         }
-        if (StringHelper.hasText (aEbiBiller.getInvoiceRecipientsBillerID ()))
+        else
         {
-          if (aUBLParty == null)
-            aUBLParty = new PartyType ();
-
-          // Set in 2 different places
-          aUBLSupplier.setCustomerAssignedAccountID (aEbiBiller.getInvoiceRecipientsBillerID ());
-          final PartyIdentificationType aPI = new PartyIdentificationType ();
-          aPI.setID (aEbiBiller.getInvoiceRecipientsBillerID ());
-          aUBLParty.addPartyIdentification (aPI);
+          // Standard
+          aUBLTaxCategory = createTaxCategoryVAT ("S");
+          aUBLTaxCategory.setPercent (aEbiItem.getVATRate ().getValue ());
+          if (StringHelper.hasText (aEbiItem.getVATRate ().getTaxCode ()))
+            aUBLTaxCategory.setName (aEbiItem.getVATRate ().getTaxCode ());
         }
-        aUBLSupplier.setParty (aUBLParty);
+        aUBLTaxCategory.setTaxScheme (createTaxSchemeVAT ());
 
-        // Put this into global contract document references
-        for (final Ebi42FurtherIdentificationType aEbiFI : aEbiBiller.getFurtherIdentification ())
+        aUBLItem.addClassifiedTaxCategory (aUBLTaxCategory);
+      }
+
+      if (aEbiItem.getReductionAndSurchargeListLineItemDetails () != null)
+        _convertLineReductionAndSurcharge (aEbiItem, sCurrency, aUBLLine);
+
+      for (final Ebi42ArticleNumberType aArticleNumber : aEbiItem.getArticleNumber ())
+      {
+        final ItemIdentificationType aUBLIID = new ItemIdentificationType ();
+        aUBLIID.setID (aArticleNumber.getValue ());
+        if (aArticleNumber.getArticleNumberType () != null)
         {
-          final DocumentReferenceType aUBLContractDoc = new DocumentReferenceType ();
-          final IDType aID = new IDType ();
-          aID.setValue (aEbiFI.getValue ());
-          aID.setSchemeID (aEbiFI.getIdentificationType ());
-          aUBLContractDoc.setID (aID);
-          aUBLDoc.addContractDocumentReference (aUBLContractDoc);
+          final PartyType aUBLIssuer = new PartyType ();
+          final PartyIdentificationType aUBLPI = new PartyIdentificationType ();
+          aUBLPI.setID (aArticleNumber.getArticleNumberType ().value ());
+          aUBLIssuer.addPartyIdentification (aUBLPI);
+          aUBLIID.setIssuerParty (aUBLIssuer);
         }
-
-        aUBLDoc.setAccountingSupplierParty (aUBLSupplier);
+        aUBLItem.addManufacturersItemIdentification (aUBLIID);
       }
-    }
 
-    // Handle Invoice Recipient
-    {
-      final Ebi42InvoiceRecipientType aEbiIR = aEbiDoc.getInvoiceRecipient ();
-      if (aEbiIR != null)
+      final Ebi42AdditionalInformationType aEbiAdditionalInfo = aEbiItem.getAdditionalInformation ();
+      if (aEbiAdditionalInfo != null)
       {
-        final CustomerPartyType aUBLCustomer = new CustomerPartyType ();
-        PartyType aUBLParty = convertParty (aEbiIR.getAddress ());
-        if (StringHelper.hasText (aEbiIR.getVATIdentificationNumber ()))
+        for (final String sSerialNumber : aEbiAdditionalInfo.getSerialNumber ())
         {
-          if (aUBLParty == null)
-            aUBLParty = new PartyType ();
-
-          final PartyTaxSchemeType aPTS = new PartyTaxSchemeType ();
-          aPTS.setTaxScheme (createTaxSchemeVAT ());
-          final CompanyIDType aCID = aPTS.setCompanyID (aEbiIR.getVATIdentificationNumber ());
-          aCID.setSchemeID (SUPPORTED_TAX_SCHEME_ID.getID ());
-          aUBLParty.addPartyTaxScheme (aPTS);
+          aUBLItem.addAdditionalItemProperty (createItemProperty ("SerialNumber", sSerialNumber));
         }
-        if (StringHelper.hasText (aEbiIR.getBillersInvoiceRecipientID ()))
+        for (final String sChargeNumber : aEbiAdditionalInfo.getSerialNumber ())
         {
-          if (aUBLParty == null)
-            aUBLParty = new PartyType ();
-
-          // Set in 2 different places
-          aUBLCustomer.setSupplierAssignedAccountID (aEbiIR.getBillersInvoiceRecipientID ());
-          final PartyIdentificationType aPI = new PartyIdentificationType ();
-          aPI.setID (aEbiIR.getBillersInvoiceRecipientID ());
-          aUBLParty.addPartyIdentification (aPI);
+          aUBLItem.addAdditionalItemProperty (createItemProperty ("ChargeNumber", sChargeNumber));
         }
-        aUBLCustomer.setParty (aUBLParty);
-
-        // Put this into global contract document references
-        for (final Ebi42FurtherIdentificationType aEbiFI : aEbiIR.getFurtherIdentification ())
+        for (final Ebi42ClassificationType aEbiClassification : aEbiAdditionalInfo.getClassification ())
         {
-          final AdditionalAccountIDType aUBLAddAccID = new AdditionalAccountIDType ();
-          aUBLAddAccID.setValue (aEbiFI.getValue ());
-          aUBLAddAccID.setSchemeID (aEbiFI.getIdentificationType ());
-          aUBLCustomer.addAdditionalAccountID (aUBLAddAccID);
+          final CommodityClassificationType aUBLCC = new CommodityClassificationType ();
+          final ItemClassificationCodeType aUBLICC = new ItemClassificationCodeType ();
+          aUBLICC.setValue (aEbiClassification.getValue ());
+          aUBLICC.setName (aEbiClassification.getClassificationSchema ());
+          aUBLCC.setItemClassificationCode (aUBLICC);
+          aUBLItem.addCommodityClassification (aUBLCC);
         }
-
-        // Handle order reference from invoice recipient
-        final Ebi42OrderReferenceType aEbiOR = aEbiIR.getOrderReference ();
-        if (aEbiOR != null)
+        if (aEbiAdditionalInfo.getAlternativeQuantity () != null)
         {
-          final OrderReferenceType aUBLOR = new OrderReferenceType ();
-          aUBLOR.setID (aEbiOR.getOrderID ());
-          if (aEbiOR.getReferenceDate () != null)
-            aUBLOR.setIssueDate (aEbiOR.getReferenceDate ());
-          aUBLDoc.setOrderReference (aUBLOR);
+          aUBLItem.addAdditionalItemProperty (createItemProperty ("AlternativeQuantity",
+                                                                  aEbiAdditionalInfo.getAlternativeQuantity ()
+                                                                                    .getValue ()
+                                                                                    .toString ()));
+        }
+        if (aEbiAdditionalInfo.getSize () != null)
+        {
+          aUBLItem.addAdditionalItemProperty (createItemProperty ("Size", aEbiAdditionalInfo.getSize ()));
+        }
+        if (aEbiAdditionalInfo.getWeight () != null)
+        {
+          aUBLItem.addAdditionalItemProperty (createItemProperty ("Weight",
+                                                                  aEbiAdditionalInfo.getWeight ()
+                                                                                    .getValue ()
+                                                                                    .toString ()));
+        }
+        if (aEbiAdditionalInfo.getBoxes () != null)
+        {
+          aUBLItem.addAdditionalItemProperty (createItemProperty ("Boxes",
+                                                                  aEbiAdditionalInfo.getBoxes ().toString ()));
+        }
+        if (aEbiAdditionalInfo.getColor () != null)
+        {
+          aUBLItem.addAdditionalItemProperty (createItemProperty ("Color", aEbiAdditionalInfo.getColor ()));
         }
-
-        aUBLDoc.setAccountingCustomerParty (aUBLCustomer);
       }
+
+      aUBLLine.setItem (aUBLItem);
     }
 
-    // Handle OrderingParty
+    // Order line ref
+    final Ebi42OrderReferenceDetailType aEbiORLine = aEbiItem.getInvoiceRecipientsOrderReference ();
+    if (aEbiORLine != null)
     {
-      final Ebi42OrderingPartyType aEbiOrdering = aEbiDoc.getOrderingParty ();
-      if (aEbiOrdering != null)
+      final OrderLineReferenceType aUBLOrderLineRef = new OrderLineReferenceType ();
+      boolean bAny1 = false;
       {
-        final CustomerPartyType aUBLCustomer = new CustomerPartyType ();
-        PartyType aUBLParty = convertParty (aEbiOrdering.getAddress ());
-        if (StringHelper.hasText (aEbiOrdering.getVATIdentificationNumber ()))
+        final OrderReferenceType aUBLOrderRef = new OrderReferenceType ();
+        boolean bAny = false;
+        if (aEbiORLine.getOrderID () != null)
         {
-          if (aUBLParty == null)
-            aUBLParty = new PartyType ();
-
-          final PartyTaxSchemeType aPTS = new PartyTaxSchemeType ();
-          aPTS.setTaxScheme (createTaxSchemeVAT ());
-          final CompanyIDType aCID = aPTS.setCompanyID (aEbiOrdering.getVATIdentificationNumber ());
-          aCID.setSchemeID (SUPPORTED_TAX_SCHEME_ID.getID ());
-          aUBLParty.addPartyTaxScheme (aPTS);
+          aUBLOrderRef.setID (aEbiORLine.getOrderID ());
+          bAny = true;
         }
-        if (StringHelper.hasText (aEbiOrdering.getBillersOrderingPartyID ()))
+        if (aEbiORLine.getReferenceDate () != null)
         {
-          if (aUBLParty == null)
-            aUBLParty = new PartyType ();
-
-          // Set in 2 different places
-          aUBLCustomer.setSupplierAssignedAccountID (aEbiOrdering.getBillersOrderingPartyID ());
-          final PartyIdentificationType aPI = new PartyIdentificationType ();
-          aPI.setID (aEbiOrdering.getBillersOrderingPartyID ());
-          aUBLParty.addPartyIdentification (aPI);
+          aUBLOrderRef.setIssueDate (aEbiORLine.getReferenceDate ());
+          bAny = true;
         }
-        aUBLCustomer.setParty (aUBLParty);
-
-        // Put this into global contract document references
-        for (final Ebi42FurtherIdentificationType aEbiFI : aEbiOrdering.getFurtherIdentification ())
+        if (bAny)
         {
-          final DocumentReferenceType aUBLContractDoc = new DocumentReferenceType ();
-          final IDType aID = new IDType ();
-          aID.setValue (aEbiFI.getValue ());
-          aID.setSchemeID (aEbiFI.getIdentificationType ());
-          aUBLContractDoc.setID (aID);
-          aUBLDoc.addContractDocumentReference (aUBLContractDoc);
+          aUBLOrderLineRef.setOrderReference (aUBLOrderRef);
+          bAny1 = true;
         }
+      }
+      if (aEbiORLine.getOrderPositionNumber () != null)
+      {
+        aUBLOrderLineRef.setLineID (aEbiORLine.getOrderPositionNumber ());
+        bAny1 = true;
+      }
+      if (bAny1)
+        aUBLLine.addOrderLineReference (aUBLOrderLineRef);
+    }
 
-        aUBLDoc.setBuyerCustomerParty (aUBLCustomer);
+    return aUBLLine;
+  }
+
+  @Nonnull
+  private InvoiceLineType _convertBelowTheLineItem (@Nonnull final Ebi42BelowTheLineItemType aEbiItem,
+                                                    final int nBelowTheLineIndex,
+                                                    @Nonnull final String sCurrency)
+  {
+    final InvoiceLineType aUBLLine = new InvoiceLineType ();
+    aUBLLine.setID ("BTL" + nBelowTheLineIndex);
+    aUBLLine.addNote (new NoteType ("BelowTheLineItem"));
+    aUBLLine.setInvoicedQuantity (BigDecimal.ONE).setUnitCode (EUnitOfMeasureCode21.C62.getID ());
+    aUBLLine.setLineExtensionAmount (aEbiItem.getLineItemAmount ()).setCurrencyID (sCurrency);
+
+    final PriceType aUBLPrice = new PriceType ();
+    aUBLPrice.setPriceAmount (aEbiItem.getLineItemAmount ());
+    aUBLPrice.setBaseQuantity (BigDecimal.ONE);
+    aUBLLine.setPrice (aUBLPrice);
+
+    {
+      final ItemType aUBLItem = new ItemType ();
+      if (StringHelper.hasText (aEbiItem.getDescription ()))
+        aUBLItem.addDescription (new DescriptionType (aEbiItem.getDescription ()));
+      aUBLItem.setPackSizeNumeric (BigDecimal.ONE);
+
+      {
+        // Exempt
+        final TaxCategoryType aUBLTaxCategory = createTaxCategoryVAT ("E");
+        aUBLTaxCategory.setPercent (BigDecimal.ZERO);
+        aUBLTaxCategory.setTaxScheme (createTaxSchemeVAT ());
+
+        aUBLTaxCategory.addTaxExemptionReason (new TaxExemptionReasonType ("BelowTheLine - tax already handled"));
+
+        aUBLItem.addClassifiedTaxCategory (aUBLTaxCategory);
       }
+      aUBLLine.setItem (aUBLItem);
     }
+    return aUBLLine;
+  }
 
-    // Details
+  /**
+   * Convert all line items and all below the line items
+   *
+   * @return The tax exclusive amount. Never <code>null</code>.
+   */
+  @Nonnull
+  private BigDecimal _convertDetails (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                                      @Nonnull final String sCurrency,
+                                      @Nonnull final InvoiceType aUBLDoc)
+  {
     // Header and footer are not translated
     BigDecimal aTaxExclusiveAmount = BigDecimal.ZERO;
     final Ebi42DetailsType aEbiDetails = aEbiDoc.getDetails ();
@@ -306,209 +611,7 @@ public class EbInterface42ToInvoiceConverter extends AbstractToUBLConverter
     {
       for (final Ebi42ListLineItemType aEbiItem : aEbiItemList.getListLineItem ())
       {
-        final InvoiceLineType aUBLLine = new InvoiceLineType ();
-        aUBLLine.setID (aEbiItem.getPositionNumber () != null ? aEbiItem.getPositionNumber ().toString ()
-                                                              : Integer.toString (nInvoiceLineIndex));
-
-        EUnitOfMeasureCode21 eUOM = EUnitOfMeasureCode21.getFromIDOrNull (aEbiItem.getQuantity ().getUnit ());
-        if (eUOM == null)
-          eUOM = EUnitOfMeasureCode21.C62;
-
-        aUBLLine.setInvoicedQuantity (aEbiItem.getQuantity ().getValue ()).setUnitCode (eUOM.getID ());
-        aUBLLine.setLineExtensionAmount (aEbiItem.getLineItemAmount ()).setCurrencyID (sCurrency);
-
-        final PriceType aUBLPrice = new PriceType ();
-        aUBLPrice.setPriceAmount (aEbiItem.getUnitPrice ().getValue ()).setCurrencyID (sCurrency);
-        if (aEbiItem.getUnitPrice ().getBaseQuantity () != null)
-          aUBLPrice.setBaseQuantity (aEbiItem.getUnitPrice ().getBaseQuantity ());
-        aUBLLine.setPrice (aUBLPrice);
-
-        if (aEbiItem.getDelivery () != null)
-          aUBLLine.addDelivery (convertDelivery (aEbiItem.getDelivery ()));
-
-        {
-          final ItemType aUBLItem = new ItemType ();
-          for (final String sEbiDesc : aEbiItem.getDescription ())
-            aUBLItem.addDescription (new DescriptionType (sEbiDesc));
-          aUBLItem.setPackSizeNumeric (BigDecimal.ONE);
-
-          {
-            TaxCategoryType aUBLTaxCategory;
-            if (aEbiItem.getTaxExemption () != null)
-            {
-              // Exempt
-              aUBLTaxCategory = createTaxCategoryVAT ("E");
-              aUBLTaxCategory.setPercent (BigDecimal.ZERO);
-              if (StringHelper.hasText (aEbiItem.getTaxExemption ().getValue ()))
-                aUBLTaxCategory.addTaxExemptionReason (new TaxExemptionReasonType (aEbiItem.getTaxExemption ()
-                                                                                           .getValue ()));
-            }
-            else
-            {
-              // Standard
-              aUBLTaxCategory = createTaxCategoryVAT ("S");
-              aUBLTaxCategory.setPercent (aEbiItem.getVATRate ().getValue ());
-              if (StringHelper.hasText (aEbiItem.getVATRate ().getTaxCode ()))
-                aUBLTaxCategory.setName (aEbiItem.getVATRate ().getTaxCode ());
-            }
-            aUBLTaxCategory.setTaxScheme (createTaxSchemeVAT ());
-
-            aUBLItem.addClassifiedTaxCategory (aUBLTaxCategory);
-          }
-
-          if (aEbiItem.getReductionAndSurchargeListLineItemDetails () != null)
-            for (final JAXBElement <?> aEbiRS : aEbiItem.getReductionAndSurchargeListLineItemDetails ()
-                                                        .getReductionListLineItemOrSurchargeListLineItemOrOtherVATableTaxListLineItem ())
-            {
-              final Object aValue = aEbiRS.getValue ();
-              final AllowanceChargeType aUBLAC = new AllowanceChargeType ();
-
-              if (aValue instanceof Ebi42OtherVATableTaxBaseType)
-              {
-                // Other VAT-able tax
-                final Ebi42OtherVATableTaxBaseType aEbiRSValue = (Ebi42OtherVATableTaxBaseType) aValue;
-
-                aUBLAC.setChargeIndicator (true);
-                aUBLAC.setBaseAmount (aEbiRSValue.getBaseAmount ()).setCurrencyID (sCurrency);
-                if (aEbiRSValue.getPercentage () != null)
-                  aUBLAC.setMultiplierFactorNumeric (aEbiRSValue.getPercentage ().divide (CGlobal.BIGDEC_100));
-                if (aEbiRSValue.getAmount () != null)
-                  aUBLAC.setAmount (aEbiRSValue.getAmount ()).setCurrencyID (sCurrency);
-                else
-                  if (aEbiRSValue.getPercentage () != null)
-                    aUBLAC.setAmount (MathHelper.getPercentValue (aEbiRSValue.getBaseAmount (),
-                                                                  aEbiRSValue.getPercentage ()))
-                          .setCurrencyID (sCurrency);
-                if (StringHelper.hasText (aEbiRSValue.getTaxID ()))
-                  aUBLAC.setAllowanceChargeReasonCode (aEbiRSValue.getTaxID ());
-                if (StringHelper.hasText (aEbiRSValue.getComment ()))
-                  aUBLAC.addAllowanceChargeReason (new AllowanceChargeReasonType (aEbiRSValue.getComment ()));
-              }
-              else
-              {
-                // Reduction/surcharge
-                final Ebi42ReductionAndSurchargeBaseType aEbiRSValue = (Ebi42ReductionAndSurchargeBaseType) aValue;
-                final boolean bIsReduction = aEbiRS.getName ().getLocalPart ().equals ("ReductionListLineItem");
-
-                aUBLAC.setChargeIndicator (!bIsReduction);
-                aUBLAC.setBaseAmount (aEbiRSValue.getBaseAmount ()).setCurrencyID (sCurrency);
-                if (aEbiRSValue.getPercentage () != null)
-                  aUBLAC.setMultiplierFactorNumeric (aEbiRSValue.getPercentage ().divide (CGlobal.BIGDEC_100));
-                if (aEbiRSValue.getAmount () != null)
-                  aUBLAC.setAmount (aEbiRSValue.getAmount ()).setCurrencyID (sCurrency);
-                else
-                  if (aEbiRSValue.getPercentage () != null)
-                    aUBLAC.setAmount (MathHelper.getPercentValue (aEbiRSValue.getBaseAmount (),
-                                                                  aEbiRSValue.getPercentage ()))
-                          .setCurrencyID (sCurrency);
-                if (StringHelper.hasText (aEbiRSValue.getComment ()))
-                  aUBLAC.addAllowanceChargeReason (new AllowanceChargeReasonType (aEbiRSValue.getComment ()));
-              }
-
-              aUBLLine.addAllowanceCharge (aUBLAC);
-            }
-
-          for (final Ebi42ArticleNumberType aArticleNumber : aEbiItem.getArticleNumber ())
-          {
-            final ItemIdentificationType aUBLIID = new ItemIdentificationType ();
-            aUBLIID.setID (aArticleNumber.getValue ());
-            if (aArticleNumber.getArticleNumberType () != null)
-            {
-              final PartyType aUBLIssuer = new PartyType ();
-              final PartyIdentificationType aUBLPI = new PartyIdentificationType ();
-              aUBLPI.setID (aArticleNumber.getArticleNumberType ().value ());
-              aUBLIssuer.addPartyIdentification (aUBLPI);
-              aUBLIID.setIssuerParty (aUBLIssuer);
-            }
-            aUBLItem.addManufacturersItemIdentification (aUBLIID);
-          }
-
-          final Ebi42AdditionalInformationType aEbiAdditionalInfo = aEbiItem.getAdditionalInformation ();
-          if (aEbiAdditionalInfo != null)
-          {
-            for (final String sSerialNumber : aEbiAdditionalInfo.getSerialNumber ())
-            {
-              aUBLItem.addAdditionalItemProperty (createItemProperty ("SerialNumber", sSerialNumber));
-            }
-            for (final String sChargeNumber : aEbiAdditionalInfo.getSerialNumber ())
-            {
-              aUBLItem.addAdditionalItemProperty (createItemProperty ("ChargeNumber", sChargeNumber));
-            }
-            for (final Ebi42ClassificationType aEbiClassification : aEbiAdditionalInfo.getClassification ())
-            {
-              final CommodityClassificationType aUBLCC = new CommodityClassificationType ();
-              final ItemClassificationCodeType aUBLICC = new ItemClassificationCodeType ();
-              aUBLICC.setValue (aEbiClassification.getValue ());
-              aUBLICC.setName (aEbiClassification.getClassificationSchema ());
-              aUBLCC.setItemClassificationCode (aUBLICC);
-              aUBLItem.addCommodityClassification (aUBLCC);
-            }
-            if (aEbiAdditionalInfo.getAlternativeQuantity () != null)
-            {
-              aUBLItem.addAdditionalItemProperty (createItemProperty ("AlternativeQuantity",
-                                                                      aEbiAdditionalInfo.getAlternativeQuantity ()
-                                                                                        .getValue ()
-                                                                                        .toString ()));
-            }
-            if (aEbiAdditionalInfo.getSize () != null)
-            {
-              aUBLItem.addAdditionalItemProperty (createItemProperty ("Size", aEbiAdditionalInfo.getSize ()));
-            }
-            if (aEbiAdditionalInfo.getWeight () != null)
-            {
-              aUBLItem.addAdditionalItemProperty (createItemProperty ("Weight",
-                                                                      aEbiAdditionalInfo.getWeight ()
-                                                                                        .getValue ()
-                                                                                        .toString ()));
-            }
-            if (aEbiAdditionalInfo.getBoxes () != null)
-            {
-              aUBLItem.addAdditionalItemProperty (createItemProperty ("Boxes",
-                                                                      aEbiAdditionalInfo.getBoxes ().toString ()));
-            }
-            if (aEbiAdditionalInfo.getColor () != null)
-            {
-              aUBLItem.addAdditionalItemProperty (createItemProperty ("Color", aEbiAdditionalInfo.getColor ()));
-            }
-          }
-
-          aUBLLine.setItem (aUBLItem);
-        }
-
-        // Order line ref
-        final Ebi42OrderReferenceDetailType aEbiORLine = aEbiItem.getInvoiceRecipientsOrderReference ();
-        if (aEbiORLine != null)
-        {
-          final OrderLineReferenceType aUBLOrderLineRef = new OrderLineReferenceType ();
-          boolean bAny1 = false;
-          {
-            final OrderReferenceType aUBLOrderRef = new OrderReferenceType ();
-            boolean bAny = false;
-            if (aEbiORLine.getOrderID () != null)
-            {
-              aUBLOrderRef.setID (aEbiORLine.getOrderID ());
-              bAny = true;
-            }
-            if (aEbiORLine.getReferenceDate () != null)
-            {
-              aUBLOrderRef.setIssueDate (aEbiORLine.getReferenceDate ());
-              bAny = true;
-            }
-            if (bAny)
-            {
-              aUBLOrderLineRef.setOrderReference (aUBLOrderRef);
-              bAny1 = true;
-            }
-          }
-          if (aEbiORLine.getOrderPositionNumber () != null)
-          {
-            aUBLOrderLineRef.setLineID (aEbiORLine.getOrderPositionNumber ());
-            bAny1 = true;
-          }
-          if (bAny1)
-            aUBLLine.addOrderLineReference (aUBLOrderLineRef);
-        }
-
+        final InvoiceLineType aUBLLine = _convertLine (aEbiItem, nInvoiceLineIndex, sCurrency);
         aUBLDoc.addInvoiceLine (aUBLLine);
 
         aTaxExclusiveAmount = aTaxExclusiveAmount.add (aEbiItem.getLineItemAmount ());
@@ -522,35 +625,7 @@ public class EbInterface42ToInvoiceConverter extends AbstractToUBLConverter
       int nBelowTheLineIndex = 1;
       for (final Ebi42BelowTheLineItemType aEbiItem : aEbiDetails.getBelowTheLineItem ())
       {
-        final InvoiceLineType aUBLLine = new InvoiceLineType ();
-        aUBLLine.setID ("BTL" + nBelowTheLineIndex);
-        aUBLLine.addNote (new NoteType ("BelowTheLineItem"));
-        aUBLLine.setInvoicedQuantity (BigDecimal.ONE).setUnitCode (EUnitOfMeasureCode21.C62.getID ());
-        aUBLLine.setLineExtensionAmount (aEbiItem.getLineItemAmount ()).setCurrencyID (sCurrency);
-
-        final PriceType aUBLPrice = new PriceType ();
-        aUBLPrice.setPriceAmount (aEbiItem.getLineItemAmount ());
-        aUBLPrice.setBaseQuantity (BigDecimal.ONE);
-        aUBLLine.setPrice (aUBLPrice);
-
-        {
-          final ItemType aUBLItem = new ItemType ();
-          if (StringHelper.hasText (aEbiItem.getDescription ()))
-            aUBLItem.addDescription (new DescriptionType (aEbiItem.getDescription ()));
-          aUBLItem.setPackSizeNumeric (BigDecimal.ONE);
-
-          {
-            // Exempt
-            final TaxCategoryType aUBLTaxCategory = createTaxCategoryVAT ("E");
-            aUBLTaxCategory.setPercent (BigDecimal.ZERO);
-            aUBLTaxCategory.setTaxScheme (createTaxSchemeVAT ());
-
-            aUBLTaxCategory.addTaxExemptionReason (new TaxExemptionReasonType ("BelowTheLine - tax already handled"));
-
-            aUBLItem.addClassifiedTaxCategory (aUBLTaxCategory);
-          }
-          aUBLLine.setItem (aUBLItem);
-        }
+        final InvoiceLineType aUBLLine = _convertBelowTheLineItem (aEbiItem, nBelowTheLineIndex, sCurrency);
         aUBLDoc.addInvoiceLine (aUBLLine);
 
         aTaxExclusiveAmount = aTaxExclusiveAmount.add (aEbiItem.getLineItemAmount ());
@@ -558,11 +633,14 @@ public class EbInterface42ToInvoiceConverter extends AbstractToUBLConverter
         ++nBelowTheLineIndex;
       }
     }
+    return aTaxExclusiveAmount;
+  }
 
-    // TODO PaymentMeans
-    // TODO PaymentTerms
-
-    // global allowances and charges
+  private void _convertReductionAndSurcharge (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                                              @Nonnull final String sCurrency,
+                                              @Nonnull final InvoiceType aUBLDoc,
+                                              @Nonnull final MonetaryTotalType aUBLMT)
+  {
     BigDecimal aSumCharges = BigDecimal.ZERO;
     BigDecimal aSumAllowances = BigDecimal.ZERO;
     if (aEbiDoc.getReductionAndSurchargeDetails () != null)
@@ -622,79 +700,146 @@ public class EbInterface42ToInvoiceConverter extends AbstractToUBLConverter
         aUBLDoc.addAllowanceCharge (aUBLAC);
       }
 
-    // VAT total
-    {
-      final TaxTotalType aUBLTaxTotal = new TaxTotalType ();
-      BigDecimal aTaxSum = BigDecimal.ZERO;
-      for (final Ebi42VATItemType aEbiVATItem : aEbiDoc.getTax ().getVAT ().getVATItem ())
-      {
-        final TaxSubtotalType aUBLTaxSubtotal = new TaxSubtotalType ();
-        aUBLTaxSubtotal.setTaxableAmount (aEbiVATItem.getTaxedAmount ()).setCurrencyID (sCurrency);
-        aUBLTaxSubtotal.setTaxAmount (aEbiVATItem.getAmount ()).setCurrencyID (sCurrency);
+    aUBLMT.setAllowanceTotalAmount (aSumAllowances).setCurrencyID (sCurrency);
+    aUBLMT.setChargeTotalAmount (aSumCharges).setCurrencyID (sCurrency);
+  }
 
-        TaxCategoryType aUBLTaxCategory;
-        if (aEbiVATItem.getTaxExemption () != null)
-        {
-          // Exempt
-          aUBLTaxCategory = createTaxCategoryVAT ("E");
-          aUBLTaxCategory.setPercent (BigDecimal.ZERO);
-          if (StringHelper.hasText (aEbiVATItem.getTaxExemption ().getValue ()))
-            aUBLTaxCategory.addTaxExemptionReason (new TaxExemptionReasonType (aEbiVATItem.getTaxExemption ()
-                                                                                          .getValue ()));
-        }
-        else
-        {
-          // Standard
-          aUBLTaxCategory = createTaxCategoryVAT ("S");
-          aUBLTaxCategory.setPercent (aEbiVATItem.getVATRate ().getValue ());
-          if (StringHelper.hasText (aEbiVATItem.getVATRate ().getTaxCode ()))
-            aUBLTaxCategory.setName (aEbiVATItem.getVATRate ().getTaxCode ());
-        }
-        aUBLTaxCategory.setTaxScheme (createTaxSchemeVAT ());
-        aUBLTaxSubtotal.setTaxCategory (aUBLTaxCategory);
-        aUBLTaxTotal.addTaxSubtotal (aUBLTaxSubtotal);
+  private void _convertTax (@Nonnull final Ebi42InvoiceType aEbiDoc,
+                            @Nonnull final String sCurrency,
+                            @Nonnull final InvoiceType aUBLDoc)
+  {
+    final TaxTotalType aUBLTaxTotal = new TaxTotalType ();
+    BigDecimal aTaxSum = BigDecimal.ZERO;
+    for (final Ebi42VATItemType aEbiVATItem : aEbiDoc.getTax ().getVAT ().getVATItem ())
+    {
+      final TaxSubtotalType aUBLTaxSubtotal = new TaxSubtotalType ();
+      aUBLTaxSubtotal.setTaxableAmount (aEbiVATItem.getTaxedAmount ()).setCurrencyID (sCurrency);
+      aUBLTaxSubtotal.setTaxAmount (aEbiVATItem.getAmount ()).setCurrencyID (sCurrency);
 
-        aTaxSum = aTaxSum.add (aEbiVATItem.getAmount ());
+      TaxCategoryType aUBLTaxCategory;
+      if (aEbiVATItem.getTaxExemption () != null)
+      {
+        // Exempt
+        aUBLTaxCategory = createTaxCategoryVAT ("E");
+        aUBLTaxCategory.setPercent (BigDecimal.ZERO);
+        if (StringHelper.hasText (aEbiVATItem.getTaxExemption ().getValue ()))
+          aUBLTaxCategory.addTaxExemptionReason (new TaxExemptionReasonType (aEbiVATItem.getTaxExemption ()
+                                                                                        .getValue ()));
       }
-      for (final Ebi42OtherTaxType aEbiOtherTax : aEbiDoc.getTax ().getOtherTax ())
+      else
       {
-        final TaxSubtotalType aUBLTaxSubtotal = new TaxSubtotalType ();
-        aUBLTaxSubtotal.setTaxableAmount (aEbiOtherTax.getAmount ()).setCurrencyID (sCurrency);
-
-        {
-          final TaxCategoryType aUBLTaxCategory = new TaxCategoryType ();
+        // Standard
+        aUBLTaxCategory = createTaxCategoryVAT ("S");
+        aUBLTaxCategory.setPercent (aEbiVATItem.getVATRate ().getValue ());
+        if (StringHelper.hasText (aEbiVATItem.getVATRate ().getTaxCode ()))
+          aUBLTaxCategory.setName (aEbiVATItem.getVATRate ().getTaxCode ());
+      }
+      aUBLTaxCategory.setTaxScheme (createTaxSchemeVAT ());
+      aUBLTaxSubtotal.setTaxCategory (aUBLTaxCategory);
+      aUBLTaxTotal.addTaxSubtotal (aUBLTaxSubtotal);
 
-          final TaxSchemeType aUBLTaxScheme = createTaxScheme (ETaxSchemeID.OTHER_TAXES.getID ());
-          if (StringHelper.hasText (aEbiOtherTax.getComment ()))
-            aUBLTaxScheme.setName (aEbiOtherTax.getComment ());
-          aUBLTaxCategory.setTaxScheme (aUBLTaxScheme);
+      aTaxSum = aTaxSum.add (aEbiVATItem.getAmount ());
+    }
+    for (final Ebi42OtherTaxType aEbiOtherTax : aEbiDoc.getTax ().getOtherTax ())
+    {
+      final TaxSubtotalType aUBLTaxSubtotal = new TaxSubtotalType ();
+      aUBLTaxSubtotal.setTaxableAmount (aEbiOtherTax.getAmount ()).setCurrencyID (sCurrency);
 
-          aUBLTaxSubtotal.setTaxCategory (aUBLTaxCategory);
-        }
+      {
+        final TaxCategoryType aUBLTaxCategory = new TaxCategoryType ();
 
-        aUBLTaxTotal.addTaxSubtotal (aUBLTaxSubtotal);
+        final TaxSchemeType aUBLTaxScheme = createTaxScheme (ETaxSchemeID.OTHER_TAXES.getID ());
+        if (StringHelper.hasText (aEbiOtherTax.getComment ()))
+          aUBLTaxScheme.setName (aEbiOtherTax.getComment ());
+        aUBLTaxCategory.setTaxScheme (aUBLTaxScheme);
 
-        aTaxSum = aTaxSum.add (aEbiOtherTax.getAmount ());
+        aUBLTaxSubtotal.setTaxCategory (aUBLTaxCategory);
       }
-      aUBLTaxTotal.setTaxAmount (aTaxSum).setCurrencyID (sCurrency);
-      aUBLDoc.addTaxTotal (aUBLTaxTotal);
+
+      aUBLTaxTotal.addTaxSubtotal (aUBLTaxSubtotal);
+
+      aTaxSum = aTaxSum.add (aEbiOtherTax.getAmount ());
     }
+    aUBLTaxTotal.setTaxAmount (aTaxSum).setCurrencyID (sCurrency);
+    aUBLDoc.addTaxTotal (aUBLTaxTotal);
+  }
+
+  @Nonnull
+  public InvoiceType convertInvoice (@Nonnull final Ebi42InvoiceType aEbiDoc)
+  {
+    final ConversionPhaseTimer aTimer = m_aPhaseListener == null ? null
+                                                                 : new ConversionPhaseTimer (m_aPhaseListener,
+                                                                                             EDocumentRoute.EBINTERFACE_42,
+                                                                                             false);
+    long nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.HEADER);
+
+    final String sCurrency = aEbiDoc.getInvoiceCurrency ();
+
+    final InvoiceType aUBLDoc = new InvoiceType ();
+    _convertHeader (aEbiDoc, sCurrency, aUBLDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.HEADER, nPhaseStart, 0);
+
+    // Handle Delivery
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.DELIVERY);
+    _convertDelivery (aEbiDoc, aUBLDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.DELIVERY, nPhaseStart, aUBLDoc.getDeliveryCount ());
+
+    // Handle Biller
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.PARTIES);
+    _convertBiller (aEbiDoc, aUBLDoc);
+
+    // Handle Invoice Recipient
+    _convertInvoiceRecipient (aEbiDoc, aUBLDoc);
+
+    // Handle OrderingParty
+    _convertOrderingParty (aEbiDoc, aUBLDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.PARTIES, nPhaseStart, 0);
+
+    // Details
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.LINES);
+    final BigDecimal aTaxExclusiveAmount = _convertDetails (aEbiDoc, sCurrency, aUBLDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.LINES, nPhaseStart, aUBLDoc.getInvoiceLineCount ());
+
+    // TODO PaymentMeans
+    // TODO PaymentTerms
+
+    // global allowances and charges
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES);
+    final MonetaryTotalType aUBLMT = new MonetaryTotalType ();
+    _convertReductionAndSurcharge (aEbiDoc, sCurrency, aUBLDoc, aUBLMT);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES, nPhaseStart, aUBLDoc.getAllowanceChargeCount ());
+
+    // VAT total
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.TAX_TOTALS);
+    _convertTax (aEbiDoc, sCurrency, aUBLDoc);
+    if (aTimer != null)
+      aTimer.onPhaseEnd (EConversionPhase.TAX_TOTALS,
+                         nPhaseStart,
+                         aUBLDoc.getTaxTotalAtIndex (0).getTaxSubtotalCount ());
 
     // Monetary Totals
-    {
-      final MonetaryTotalType aUBLMT = new MonetaryTotalType ();
-      aUBLMT.setAllowanceTotalAmount (aSumAllowances).setCurrencyID (sCurrency);
-      aUBLMT.setChargeTotalAmount (aSumCharges).setCurrencyID (sCurrency);
-      aUBLMT.setTaxExclusiveAmount (aTaxExclusiveAmount).setCurrencyID (sCurrency);
-      aUBLMT.setTaxInclusiveAmount (aEbiDoc.getTotalGrossAmount ()).setCurrencyID (sCurrency);
-      aUBLMT.setPayableAmount (aEbiDoc.getPayableAmount ()).setCurrencyID (sCurrency);
-      aUBLDoc.setLegalMonetaryTotal (aUBLMT);
-    }
+    nPhaseStart = aTimer == null ? 0 : aTimer.onPhaseStart (EConversionPhase.MONETARY_TOTAL);
+    aUBLMT.setTaxExclusiveAmount (aTaxExclusiveAmount).setCurrencyID (sCurrency);
+    aUBLMT.setTaxInclusiveAmount (aEbiDoc.getTotalGrossAmount ()).setCurrencyID (sCurrency);
+    aUBLMT.setPayableAmount (aEbiDoc.getPayableAmount ()).setCurrencyID (sCurrency);
+    aUBLDoc.setLegalMonetaryTotal (aUBLMT);
 
     // Comment
     if (StringHelper.hasText (aEbiDoc.getComment ()))
       aUBLDoc.addNote (new NoteType (aEbiDoc.getComment ()));
 
+    if (aTimer != null)
+    {
+      aTimer.onPhaseEnd (EConversionPhase.MONETARY_TOTAL, nPhaseStart, 0);
+      // This direction does not collect errors
+      aTimer.onConversionEnd (new ErrorList (), true);
+    }
+
     return aUBLDoc;
   }
 }
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Currency;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+import com.helger.ebinterface.v42.Ebi42AddressIdentifierTypeType;
+import com.helger.ubl21.codelist.EPaymentMeansCode21;
+import com.helger.ubl21.codelist.EUnitOfMeasureCode21;
+
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for classes {@link CodeListIndex} and {@link CodeListHelper}.
+ *
+ * @author Philip Helger
+ */
+public final class CodeListIndexTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final ICommonsList <String> aCodes = new CommonsArrayList <> ();
+    for (int i = 0; i < 1000; ++i)
+      aCodes.add ("Code" + i);
+    // Differs only in case - the first one wins
+    aCodes.add ("CODE1");
+    aCodes.add (null);
+
+    final CodeListIndex <String> aIndex = new CodeListIndex <> (aCodes, x -> x);
+    assertEquals (1000, aIndex.getSize ());
+    for (int i = 0; i < 1000; ++i)
+    {
+      final String sCode = "Code" + i;
+      assertSame (aCodes.get (i), aIndex.get (sCode));
+      assertSame (aCodes.get (i), aIndex.get (sCode.toUpperCase (Locale.US)));
+      assertSame (aCodes.get (i), aIndex.get (sCode.toLowerCase (Locale.US)));
+    }
+    assertEquals ("Code1", aIndex.get ("CODE1"));
+    assertNull (aIndex.get (null));
+    assertNull (aIndex.get (""));
+    assertNull (aIndex.get ("Code1000"));
+    assertFalse (aIndex.contains ("Code 1"));
+
+    // Same semantics as equalsIgnoreCase for non-ASCII characters
+    final CodeListIndex <String> aNonASCII = new CodeListIndex <> (new String [] { "Maß", "i" }, x -> x);
+    assertEquals ("Maß", aNonASCII.get ("MAß"));
+    assertEquals ("i", aNonASCII.get ("ı"));
+    assertEquals (0, new CodeListIndex <> (new String [0], x -> x).getSize ());
+  }
+
+  @Test
+  public void testCodeLists ()
+  {
+    for (final Ebi42AddressIdentifierTypeType e : Ebi42AddressIdentifierTypeType.values ())
+    {
+      assertSame (e, CodeListHelper.getAddressIdentifierType (e.value ()));
+      assertSame (e, CodeListHelper.getAddressIdentifierType (e.value ().toLowerCase (Locale.US)));
+    }
+    assertNull (CodeListHelper.getAddressIdentifierType ("ZZZ"));
+
+    for (final EPaymentMeansCode21 e : EPaymentMeansCode21.values ())
+      assertSame (e, CodeListHelper.getPaymentMeansCode (e.getID ()));
+    assertNull (CodeListHelper.getPaymentMeansCode (null));
+
+    for (final EUnitOfMeasureCode21 e : EUnitOfMeasureCode21.values ())
+      assertSame (e, CodeListHelper.getUnitOfMeasure (e.getID ()));
+    assertSame (EUnitOfMeasureCode21.C62, CodeListHelper.getUnitOfMeasure ("c62"));
+
+    for (final Currency aCurrency : Currency.getAvailableCurrencies ())
+      assertTrue (CodeListHelper.isValidCurrencyCode (aCurrency.getCurrencyCode ()));
+    assertSame (Currency.getInstance ("EUR"), CodeListHelper.getCurrency ("eur"));
+    assertFalse (CodeListHelper.isValidCurrencyCode ("EURO"));
+    assertFalse (CodeListHelper.isValidCurrencyCode (""));
+  }
+
+  @Test
+  public void testInvalidCurrencyCode ()
+  {
+    final InvoiceType aUBLInvoice = new UBLDocumentGenerator (1).setLineCount (2).createInvoice ();
+    aUBLInvoice.setDocumentCurrencyCode ("ABC");
+
+    final ErrorList aErrorList = new ErrorList ();
+    assertNull (new InvoiceToEbInterface42Converter (Locale.GERMANY, Locale.GERMANY, false).convertToEbInterface (aUBLInvoice,
+                                                                                                                  aErrorList));
+    boolean bFound = false;
+    for (final IError aError : aErrorList)
+      if ("DocumentCurrencyCode".equals (aError.getErrorFieldName ()))
+      {
+        assertEquals ("Invalid currency code 'ABC' provided.", aError.getErrorText (Locale.ENGLISH));
+        bFound = true;
+      }
+    assertTrue (aErrorList.toString (), bFound);
+  }
+}
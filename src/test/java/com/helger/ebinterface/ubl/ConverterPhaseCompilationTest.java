@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.CommonsHashMap;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.collection.ext.ICommonsMap;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.to.EbInterface42ToInvoiceConverter;
+
+/**
+ * Ensure that all methods of the converters are small enough to be JIT
+ * compiled. HotSpot does not compile methods with more than
+ * {@value #HUGE_METHOD_LIMIT} bytes of bytecode (<code>-XX:HugeMethodLimit</code>)
+ * so the bytecode size of every method is read from the class files. This
+ * does not depend on the JIT heuristics or on the code paths covered by the
+ * test files.
+ *
+ * @author Philip Helger
+ */
+public final class ConverterPhaseCompilationTest
+{
+  /** The default value of <code>-XX:HugeMethodLimit</code> */
+  private static final int HUGE_METHOD_LIMIT = 8000;
+
+  private static final Class <?> [] CONVERTER_CLASSES = new Class <?> [] { InvoiceToEbInterface42Converter.class,
+                                                                           CreditNoteToEbInterface42Converter.class,
+                                                                           EbInterface42ToInvoiceConverter.class };
+
+  private static void _skipConstantPool (@Nonnull final DataInputStream aDIS,
+                                         @Nonnull final String [] aUTF8) throws IOException
+  {
+    for (int i = 1; i < aUTF8.length; ++i)
+    {
+      final int nTag = aDIS.readUnsignedByte ();
+      switch (nTag)
+      {
+        case 1:
+          // CONSTANT_Utf8
+          aUTF8[i] = aDIS.readUTF ();
+          break;
+        case 7:
+        case 8:
+        case 16:
+        case 19:
+        case 20:
+          // Class, String, MethodType, Module, Package
+          aDIS.readUnsignedShort ();
+          break;
+        case 15:
+          // MethodHandle
+          aDIS.readUnsignedByte ();
+          aDIS.readUnsignedShort ();
+          break;
+        case 3:
+        case 4:
+        case 9:
+        case 10:
+        case 11:
+        case 12:
+        case 17:
+        case 18:
+          // Integer, Float, refs, NameAndType, Dynamic, InvokeDynamic
+          aDIS.readInt ();
+          break;
+        case 5:
+        case 6:
+          // Long and Double take two entries
+          aDIS.readLong ();
+          ++i;
+          break;
+        default:
+          throw new IOException ("Unsupported constant pool tag " + nTag);
+      }
+    }
+  }
+
+  private static void _skipAttributes (@Nonnull final DataInputStream aDIS) throws IOException
+  {
+    final int nAttrCount = aDIS.readUnsignedShort ();
+    for (int i = 0; i < nAttrCount; ++i)
+    {
+      aDIS.readUnsignedShort ();
+      aDIS.skipBytes (aDIS.readInt ());
+    }
+  }
+
+  /**
+   * Read the bytecode size of all methods of the passed class.
+   *
+   * @return A map from method name and descriptor to the bytecode size.
+   */
+  @Nonnull
+  private static ICommonsMap <String, Integer> _getAllMethodCodeLengths (@Nonnull final Class <?> aClass) throws IOException
+  {
+    final ICommonsMap <String, Integer> ret = new CommonsHashMap <> ();
+    try (final InputStream aIS = aClass.getResourceAsStream (aClass.getSimpleName () + ".class"))
+    {
+      assertNotNull (aClass.getName (), aIS);
+      final DataInputStream aDIS = new DataInputStream (aIS);
+      // magic, minor and major version
+      aDIS.readInt ();
+      aDIS.readUnsignedShort ();
+      aDIS.readUnsignedShort ();
+      final String [] aUTF8 = new String [aDIS.readUnsignedShort ()];
+      _skipConstantPool (aDIS, aUTF8);
+      // access flags, this class, super class
+      aDIS.readUnsignedShort ();
+      aDIS.readUnsignedShort ();
+      aDIS.readUnsignedShort ();
+      // interfaces
+      aDIS.skipBytes (aDIS.readUnsignedShort () * 2);
+      // fields
+      final int nFieldCount = aDIS.readUnsignedShort ();
+      for (int i = 0; i < nFieldCount; ++i)
+      {
+        aDIS.skipBytes (6);
+        _skipAttributes (aDIS);
+      }
+      // methods
+      final int nMethodCount = aDIS.readUnsignedShort ();
+      for (int i = 0; i < nMethodCount; ++i)
+      {
+        aDIS.readUnsignedShort ();
+        final String sName = aUTF8[aDIS.readUnsignedShort ()] + aUTF8[aDIS.readUnsignedShort ()];
+        final int nAttrCount = aDIS.readUnsignedShort ();
+        for (int j = 0; j < nAttrCount; ++j)
+        {
+          final String sAttrName = aUTF8[aDIS.readUnsignedShort ()];
+          final int nAttrLength = aDIS.readInt ();
+          if ("Code".equals (sAttrName))
+          {
+            // max stack, max locals
+            aDIS.readUnsignedShort ();
+            aDIS.readUnsignedShort ();
+            final int nCodeLength = aDIS.readInt ();
+            ret.put (sName, Integer.valueOf (nCodeLength));
+            aDIS.skipBytes (nAttrLength - 8);
+          }
+          else
+            aDIS.skipBytes (nAttrLength);
+        }
+      }
+    }
+    return ret;
+  }
+
+  @Test
+  public void testAllMethodsCompilable () throws IOException
+  {
+    final ICommonsList <String> aTooLarge = new CommonsArrayList <> ();
+    for (final Class <?> aClass : CONVERTER_CLASSES)
+    {
+      final ICommonsMap <String, Integer> aCodeLengths = _getAllMethodCodeLengths (aClass);
+      int nPhases = 0;
+      for (final Map.Entry <String, Integer> aEntry : aCodeLengths.entrySet ())
+      {
+        if (aEntry.getKey ().startsWith ("_convert"))
+          nPhases++;
+        if (aEntry.getValue ().intValue () >= HUGE_METHOD_LIMIT)
+          aTooLarge.add (aClass.getName () + "::" + aEntry.getKey () + " (" + aEntry.getValue () + " bytes)");
+      }
+      assertTrue (aClass.getName () + " has no conversion phases", nPhases > 0);
+    }
+    assertFalse ("Too large to be JIT compiled: " + aTooLarge, aTooLarge.isNotEmpty ());
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link DeferredErrorText}.
+ *
+ * @author Philip Helger
+ */
+public final class DeferredErrorTextTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final DeferredErrorText aText = new DeferredErrorText (EText.INVALID_PROFILE_ID, "bla");
+    assertSame (EText.INVALID_PROFILE_ID, aText.getText ());
+    assertTrue (aText.hasArgs ());
+    assertArrayEquals (new Object [] { "bla" }, aText.getAllArgs ());
+    assertEquals ("Die ProfileID 'bla' ist ungültig.", aText.getDisplayText (Locale.GERMAN));
+    assertEquals ("Invalid ProfileID value 'bla' present.", aText.getDisplayText (Locale.ENGLISH));
+    assertEquals (aText, EText.INVALID_PROFILE_ID.getAsErrorText ("bla"));
+    assertEquals (aText.hashCode (), EText.INVALID_PROFILE_ID.getAsErrorText ("bla").hashCode ());
+    assertNotEquals (aText, EText.INVALID_PROFILE_ID.getAsErrorText ("foo"));
+
+    final DeferredErrorText aNoArgs = new DeferredErrorText (EText.NO_PROFILE_ID);
+    assertFalse (aNoArgs.hasArgs ());
+    assertEquals (0, aNoArgs.getAllArgs ().length);
+    assertEquals ("No ProfileID present.", aNoArgs.getDisplayText (Locale.ENGLISH));
+
+    // Changing the passed array has no effect
+    final Object [] aArgs = new Object [] { "bla" };
+    final DeferredErrorText aCopied = new DeferredErrorText (EText.INVALID_PROFILE_ID, aArgs);
+    aArgs[0] = "foo";
+    assertEquals (aText, aCopied);
+    assertEquals ("Invalid ProfileID value 'bla' present.", aCopied.getDisplayText (Locale.ENGLISH));
+  }
+
+  @Test
+  public void testConversionErrorsInMultipleLocales ()
+  {
+    final InvoiceType aUBLInvoice = UBL21Reader.invoice ()
+                                               .read (new File ("src/test/resources/ubl20/invoice_bad/bad-no-orderid.xml"));
+    assertNotNull (aUBLInvoice);
+
+    // The display locale of the converter does not matter for the error texts
+    final ErrorList aErrorList = new ErrorList ();
+    new InvoiceToEbInterface42Converter (Locale.GERMANY, Locale.GERMANY, true).convertToEbInterface (aUBLInvoice,
+                                                                                                   aErrorList);
+    assertTrue (aErrorList.containsAtLeastOneError ());
+    for (final IError aError : aErrorList)
+    {
+      final String sDE = aError.getErrorText (Locale.GERMAN);
+      final String sEN = aError.getErrorText (Locale.ENGLISH);
+      assertNotNull (sDE);
+      assertNotNull (sEN);
+      assertNotEquals (sDE, sEN);
+    }
+  }
+}
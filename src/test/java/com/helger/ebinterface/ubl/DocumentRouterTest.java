@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.UBLToEbInterfaceJAXBPool;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.to.EbInterface42ToInvoiceConverter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+/**
+ * Test class for class {@link DocumentRouter}.
+ *
+ * @author Philip Helger
+ */
+public final class DocumentRouterTest
+{
+  /**
+   * Remembers the highest position read, even after a reset.
+   */
+  private static final class MaxPositionInputStream extends ByteArrayInputStream
+  {
+    private int m_nMaxPos;
+
+    MaxPositionInputStream (@Nonnull final byte [] aBytes)
+    {
+      super (aBytes);
+    }
+
+    @Override
+    public synchronized int read ()
+    {
+      final int ret = super.read ();
+      m_nMaxPos = Math.max (m_nMaxPos, pos);
+      return ret;
+    }
+
+    @Override
+    public synchronized int read (@Nonnull final byte [] aBuf, final int nOfs, final int nLen)
+    {
+      final int ret = super.read (aBuf, nOfs, nLen);
+      m_nMaxPos = Math.max (m_nMaxPos, pos);
+      return ret;
+    }
+  }
+
+  private static final InvoiceToEbInterface42Converter INVOICE_CONVERTER = InvoiceToEbInterface42Converter.builder ()
+                                                                                                          .setLocale (Locale.GERMANY)
+                                                                                                          .build ();
+  private static final CreditNoteToEbInterface42Converter CREDIT_NOTE_CONVERTER = CreditNoteToEbInterface42Converter.builder ()
+                                                                                                                    .setLocale (Locale.GERMANY)
+                                                                                                                    .build ();
+  private static final DocumentRouter ROUTER = new DocumentRouter (INVOICE_CONVERTER,
+                                                                   CREDIT_NOTE_CONVERTER,
+                                                                   new EbInterface42ToInvoiceConverter (Locale.GERMANY,
+                                                                                                        Locale.GERMANY));
+
+  @Nonnull
+  private static String _getResult (@Nonnull final ErrorList aErrorList, final Ebi42InvoiceType aEbInvoice)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (final IError aError : aErrorList)
+      aSB.append (aError.getErrorLevel ().getID ())
+         .append (' ')
+         .append (aError.getErrorFieldName ())
+         .append (' ')
+         .append (aError.getErrorText (Locale.GERMANY))
+         .append ('\n');
+    aSB.append (aEbInvoice == null ? "null" : EbInterfaceWriter.ebInterface42 ().getAsString (aEbInvoice));
+    return aSB.toString ();
+  }
+
+  @Nonnull
+  private static DocumentRouterResult _route (@Nonnull final DocumentRouter aRouter, @Nonnull final String sInput)
+  {
+    return aRouter.route (new NonBlockingByteArrayInputStream (sInput.getBytes (StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testInvoice ()
+  {
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final ErrorList aExpectedErrorList = new ErrorList ();
+      final Ebi42InvoiceType aExpected = INVOICE_CONVERTER.convertToEbInterface (UBL21Reader.invoice ().read (aFile),
+                                                                                 aExpectedErrorList);
+
+      final DocumentRouterResult aResult = ROUTER.route (new NonBlockingByteArrayInputStream (StreamHelper.getAllBytes (new FileSystemResource (aFile))));
+      assertEquals (aFile.getName (), EDocumentRoute.UBL_INVOICE, aResult.getRoute ());
+      assertEquals (AbstractConverter.UBL_VERSION_20, aResult.getUBLVersionID ());
+      assertNull (aResult.getUBLInvoice ());
+      assertEquals (aFile.getName (),
+                    _getResult (aExpectedErrorList, aExpected),
+                    _getResult (aResult.getErrorList (), aResult.getEbInterfaceDocument ()));
+    }
+  }
+
+  @Test
+  public void testCreditNote ()
+  {
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/creditnote")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final ErrorList aExpectedErrorList = new ErrorList ();
+      final Ebi42InvoiceType aExpected = CREDIT_NOTE_CONVERTER.convertToEbInterface (UBL21Reader.creditNote ()
+                                                                                                 .read (aFile),
+                                                                                     aExpectedErrorList);
+
+      final DocumentRouterResult aResult = ROUTER.route (new NonBlockingByteArrayInputStream (StreamHelper.getAllBytes (new FileSystemResource (aFile))));
+      assertEquals (aFile.getName (), EDocumentRoute.UBL_CREDIT_NOTE, aResult.getRoute ());
+      assertEquals (aFile.getName (),
+                    _getResult (aExpectedErrorList, aExpected),
+                    _getResult (aResult.getErrorList (), aResult.getEbInterfaceDocument ()));
+    }
+  }
+
+  @Test
+  public void testEbInterface ()
+  {
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ebi42")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final DocumentRouterResult aResult = ROUTER.route (new NonBlockingByteArrayInputStream (StreamHelper.getAllBytes (new FileSystemResource (aFile))));
+      assertEquals (aFile.getName (), EDocumentRoute.EBINTERFACE_42, aResult.getRoute ());
+      assertTrue (aResult.toString (), aResult.isSuccess ());
+      assertNull (aResult.getUBLVersionID ());
+      assertNull (aResult.getEbInterfaceDocument ());
+      assertNotNull (aResult.getUBLInvoice ());
+    }
+  }
+
+  @Test
+  public void testInvalidUBLVersion ()
+  {
+    final File aFile = new File ("src/test/resources/ubl20/invoice/test-at-gov.xml");
+    final String sInput = StreamHelper.getAllBytesAsString (new FileSystemResource (aFile), StandardCharsets.UTF_8)
+                                      .replace ("UBLVersionID>2.0<", "UBLVersionID>3.7<");
+    final DocumentRouterResult aResult = _route (ROUTER, sInput);
+    assertEquals (EDocumentRoute.UBL_INVOICE, aResult.getRoute ());
+    assertEquals ("3.7", aResult.getUBLVersionID ());
+    assertFalse (aResult.isSuccess ());
+    assertEquals (1, aResult.getErrorList ().getAllErrors ().size ());
+    assertEquals ("UBLVersionID", aResult.getErrorList ().getAllErrors ().getFirst ().getErrorFieldName ());
+    assertNull (aResult.getEbInterfaceDocument ());
+  }
+
+  @Test
+  public void testSchemaInvalid ()
+  {
+    final File aFile = new File ("src/test/resources/ubl20/invoice/test-at-gov.xml");
+    // Well-formed but without the mandatory TaxScheme of the first tax subtotal
+    final String sOriginal = StreamHelper.getAllBytesAsString (new FileSystemResource (aFile), StandardCharsets.UTF_8);
+    final String sInput = sOriginal.replaceFirst ("<cac:TaxScheme>\\s*<cbc:ID[^>]*>VAT</cbc:ID>\\s*</cac:TaxScheme>\\s*</cac:TaxCategory>\\s*</cac:TaxSubtotal>",
+                                                  "</cac:TaxCategory></cac:TaxSubtotal>");
+    assertNotEquals (sOriginal, sInput);
+    final DocumentRouterResult aResult = _route (ROUTER, sInput);
+    assertEquals (EDocumentRoute.UBL_INVOICE, aResult.getRoute ());
+    assertFalse (aResult.isSuccess ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+    assertNull (aResult.getEbInterfaceDocument ());
+  }
+
+  @Test
+  public void testUnsupported ()
+  {
+    final int nSniffLimit = 256;
+    final DocumentRouter aRouter = new DocumentRouter (INVOICE_CONVERTER,
+                                                       CREDIT_NOTE_CONVERTER,
+                                                       new EbInterface42ToInvoiceConverter (Locale.GERMANY,
+                                                                                            Locale.GERMANY),
+                                                       new UBLToEbInterfaceJAXBPool (),
+                                                       nSniffLimit);
+
+    // Unsupported root element - only the prefix may be consumed
+    final StringBuilder aSB = new StringBuilder ("<?xml version=\"1.0\"?><Invoice xmlns=\"urn:foo\">");
+    for (int i = 0; i < 10000; ++i)
+      aSB.append ("<Line>").append (i).append ("</Line>");
+    aSB.append ("</Invoice>");
+    final byte [] aBytes = aSB.toString ().getBytes (StandardCharsets.UTF_8);
+    final NonBlockingByteArrayInputStream aIS = new NonBlockingByteArrayInputStream (aBytes);
+    DocumentRouterResult aResult = aRouter.route (aIS);
+    assertNull (aResult.getRoute ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+    assertTrue (aBytes.length - aIS.available () <= nSniffLimit);
+
+    // Only the beginning of the document is parsed
+    final MaxPositionInputStream aMaxPosIS = new MaxPositionInputStream (aBytes);
+    aResult = ROUTER.route (aMaxPosIS);
+    assertNull (aResult.getRoute ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+    assertTrue (Integer.toString (aMaxPosIS.m_nMaxPos), aMaxPosIS.m_nMaxPos < 1024);
+
+    // Not XML at all
+    aResult = _route (aRouter, "This is not XML");
+    assertNull (aResult.getRoute ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+
+    // Empty
+    aResult = _route (aRouter, "");
+    assertNull (aResult.getRoute ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+
+    // Root element not within the sniff limit
+    final StringBuilder aComment = new StringBuilder ("<!--");
+    for (int i = 0; i < nSniffLimit; ++i)
+      aComment.append ('x');
+    aComment.append ("--><Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\"/>");
+    aResult = _route (aRouter, aComment.toString ());
+    assertNull (aResult.getRoute ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+
+    // Supported root element but not readable
+    aResult = _route (aRouter,
+                      "<Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\"><Unclosed></Invoice>");
+    assertEquals (EDocumentRoute.UBL_INVOICE, aResult.getRoute ());
+    assertFalse (aResult.isSuccess ());
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+
+/**
+ * Test class for class {@link LocalizedTextCache}.
+ *
+ * @author Philip Helger
+ */
+public final class LocalizedTextCacheTest
+{
+  private static enum ETestText
+  {
+    QUOTED ("Der Wert ''{0}'' ist ungültig."),
+    LITERAL ("Use 'ATU00000000' for {0}."),
+    NUMBER ("Defaulting to {0}%."),
+    MISSING (null);
+
+    private final String m_sText;
+
+    private ETestText (final String sText)
+    {
+      m_sText = sText;
+    }
+  }
+
+  private static final Object [] [] ARGS = new Object [] [] { null,
+                                                              new Object [0],
+                                                              new Object [] { "bla" },
+                                                              new Object [] { new BigDecimal ("20.5") },
+                                                              new Object [] { Integer.valueOf (1234567) } };
+
+  @Test
+  public void testSameResultAsMessageFormat ()
+  {
+    final AtomicInteger aResolveCount = new AtomicInteger ();
+    final LocalizedTextCache <ETestText> aCache = new LocalizedTextCache <> (ETestText.class, (e, aLocale) -> {
+      aResolveCount.incrementAndGet ();
+      return e.m_sText;
+    });
+    assertEquals (0, aCache.getLocaleCount ());
+
+    for (final ETestText e : ETestText.values ())
+      for (final Object [] aArgs : ARGS)
+      {
+        final String sExpected = e.m_sText == null || aArgs == null || aArgs.length == 0 ? e.m_sText
+                                                                                          : MessageFormat.format (e.m_sText,
+                                                                                                                  aArgs);
+        assertEquals (sExpected, aCache.getTextWithArgs (e, Locale.GERMAN, aArgs));
+      }
+    assertNull (aCache.getText (ETestText.MISSING, Locale.GERMAN));
+
+    // Resolved once per locale
+    assertEquals (1, aCache.getLocaleCount ());
+    assertEquals (ETestText.values ().length, aResolveCount.get ());
+    assertSame (aCache.getText (ETestText.QUOTED, Locale.ENGLISH), aCache.getText (ETestText.QUOTED, Locale.ENGLISH));
+    assertEquals (2, aCache.getLocaleCount ());
+    assertEquals (2 * ETestText.values ().length, aResolveCount.get ());
+  }
+
+  @Test
+  public void testMaxLocales ()
+  {
+    final AtomicInteger aResolveCount = new AtomicInteger ();
+    final LocalizedTextCache <ETestText> aCache = new LocalizedTextCache <> (ETestText.class, (e, aLocale) -> {
+      aResolveCount.incrementAndGet ();
+      return e.m_sText;
+    }, 2);
+    assertEquals (2, aCache.getMaxLocales ());
+
+    for (final Locale aLocale : Locale.getAvailableLocales ())
+      for (final ETestText e : ETestText.values ())
+        for (final Object [] aArgs : ARGS)
+        {
+          final String sExpected = e.m_sText == null || aArgs == null || aArgs.length == 0 ? e.m_sText
+                                                                                            : MessageFormat.format (e.m_sText,
+                                                                                                                    aArgs);
+          assertEquals (sExpected, aCache.getTextWithArgs (e, aLocale, aArgs));
+          assertEquals (e.m_sText, aCache.getText (e, aLocale));
+        }
+    assertEquals (2, aCache.getLocaleCount ());
+
+    // Cached locales are resolved only once
+    final int nCount = aResolveCount.get ();
+    final Locale aCachedLocale = Locale.getAvailableLocales ()[0];
+    aCache.getText (ETestText.QUOTED, aCachedLocale);
+    assertEquals (nCount, aResolveCount.get ());
+  }
+
+  @Test
+  public void testEText ()
+  {
+    for (final Locale aLocale : new Locale [] { Locale.GERMAN, Locale.ENGLISH, Locale.GERMANY })
+      for (final EText e : EText.values ())
+      {
+        final String sText = e.getDisplayText (aLocale);
+        assertEquals (sText, e.getDisplayTextWithArgs (aLocale));
+        assertEquals (MessageFormat.format (sText, "a", "b", "c"), e.getDisplayTextWithArgs (aLocale, "a", "b", "c"));
+      }
+    assertEquals ("Die ProfileID 'bla' ist ungültig.",
+                  EText.INVALID_PROFILE_ID.getDisplayTextWithArgs (Locale.GERMAN, "bla"));
+    assertEquals ("Invalid ProfileID value 'bla' present.",
+                  EText.INVALID_PROFILE_ID.getDisplayTextWithArgs (Locale.ENGLISH, "bla"));
+  }
+
+  @Test
+  public void testConcurrent () throws Exception
+  {
+    final LocalizedTextCache <ETestText> aCache = new LocalizedTextCache <> (ETestText.class, (e, aLocale) -> e.m_sText);
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (16);
+    try
+    {
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < 64; ++i)
+      {
+        final Locale aLocale = i % 2 == 0 ? Locale.GERMAN : Locale.ENGLISH;
+        final String sArg = "arg" + i;
+        aFutures.add (aExecutor.submit ( () -> {
+          for (int j = 0; j < 1000; ++j)
+            assertEquals ("Der Wert '" + sArg + "' ist ungültig.",
+                          aCache.getTextWithArgs (ETestText.QUOTED, aLocale, sArg));
+        }));
+      }
+      for (final Future <?> aFuture : aFutures)
+        aFuture.get ();
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      assertTrue (aExecutor.awaitTermination (1, TimeUnit.MINUTES));
+    }
+    assertEquals (2, aCache.getLocaleCount ());
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.benchmark;
+
+import java.io.File;
+import java.util.Comparator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.stream.StreamHelper;
+
+/**
+ * Helper methods for the benchmarks.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+final class BenchmarkHelper
+{
+  private BenchmarkHelper ()
+  {}
+
+  /**
+   * Read a test file completely into memory, so that the benchmarks don't
+   * measure file system access.
+   *
+   * @param sPath
+   *        Class path relative path of the test file
+   * @return The file content
+   */
+  @Nonnull
+  static byte [] getBytes (@Nonnull final String sPath)
+  {
+    final byte [] ret = StreamHelper.getAllBytes (new ClassPathResource (sPath));
+    if (ret == null)
+      throw new IllegalArgumentException ("Failed to read test file '" + sPath + "'");
+    return ret;
+  }
+
+  /**
+   * Read all XML files of a test directory completely into memory.
+   *
+   * @param sDir
+   *        Class path relative path of the test directory. Sub directories are
+   *        not considered.
+   * @return The contents of all files, sorted by filename. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  static ICommonsList <byte []> getAllBytes (@Nonnull final String sDir)
+  {
+    final ICommonsList <File> aFiles = new CommonsArrayList <> ();
+    for (final File aFile : new FileSystemIterator (new ClassPathResource (sDir).getAsFile ()).withFilter (IFileFilter.filenameEndsWith (".xml")))
+      aFiles.add (aFile);
+    aFiles.sort (Comparator.comparing (File::getName));
+
+    final ICommonsList <byte []> ret = new CommonsArrayList <> ();
+    for (final File aFile : aFiles)
+      ret.add (getBytes (sDir + "/" + aFile.getName ()));
+    if (ret.isEmpty ())
+      throw new IllegalArgumentException ("No test files found in '" + sDir + "'");
+    return ret;
+  }
+}
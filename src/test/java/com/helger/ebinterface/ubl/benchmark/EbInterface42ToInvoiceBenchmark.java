@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.ebinterface.builder.EbInterfaceReader;
+import com.helger.ebinterface.ubl.to.EbInterface42ToInvoiceConverter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Writer;
+import com.helger.ubl21.UBL21WriterBuilder;
+
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Benchmark for reading ebInterface invoices, converting them to UBL and
+ * writing the UBL result.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class EbInterface42ToInvoiceBenchmark
+{
+  @Param ({ "example-ebi42-finalsettlement.xml", "example-ebi42.xml", "testinstance-valid-schema.xml" })
+  public String m_sFilename;
+
+  private byte [] m_aBytes;
+  private Ebi42InvoiceType m_aEbiDoc;
+  private InvoiceType m_aUBLDoc;
+  private EbInterface42ToInvoiceConverter m_aConverter;
+  private UBL21WriterBuilder <InvoiceType> m_aUBLWriter;
+
+  @Setup
+  public void setup ()
+  {
+    m_aBytes = BenchmarkHelper.getBytes ("ebi42/" + m_sFilename);
+    m_aEbiDoc = EbInterfaceReader.ebInterface42 ().read (m_aBytes);
+    m_aConverter = new EbInterface42ToInvoiceConverter (Locale.GERMANY, Locale.GERMANY);
+    m_aUBLDoc = m_aConverter.convertInvoice (m_aEbiDoc);
+    m_aUBLWriter = UBL21Writer.invoice ();
+  }
+
+  @Benchmark
+  public Ebi42InvoiceType read ()
+  {
+    return EbInterfaceReader.ebInterface42 ().read (m_aBytes);
+  }
+
+  @Benchmark
+  public InvoiceType convert ()
+  {
+    return m_aConverter.convertInvoice (m_aEbiDoc);
+  }
+
+  @Benchmark
+  public byte [] write ()
+  {
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    m_aUBLWriter.write (m_aUBLDoc, aOS);
+    return aOS.toByteArray ();
+  }
+}
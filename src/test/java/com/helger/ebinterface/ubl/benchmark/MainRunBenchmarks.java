@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run all JMH benchmarks of this project with the GC profiler enabled, so that
+ * both throughput and allocation rate are reported. Optionally a regular
+ * expression for the benchmarks to run can be passed as the first argument.
+ *
+ * @author Philip Helger
+ */
+public final class MainRunBenchmarks
+{
+  private MainRunBenchmarks ()
+  {}
+
+  public static void main (final String [] aArgs) throws RunnerException
+  {
+    final String sInclude = aArgs.length > 0 ? aArgs[0] : MainRunBenchmarks.class.getPackage ().getName () + ".*";
+    final Options aOptions = new OptionsBuilder ().include (sInclude)
+                                                  .addProfiler (GCProfiler.class)
+                                                  .build ();
+    new Runner (aOptions).run ();
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.EbInterface42StreamWriter;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+
+/**
+ * Benchmark for reading UBL credit notes, converting them to ebInterface and
+ * writing the ebInterface result.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class UBLCreditNoteBenchmark
+{
+  @Param ({ "BII05 TRDM014 example at.xml",
+            "BII05 TRDM014 example is.xml",
+            "creditnote-with-all-elements-new-creditorid.xml",
+            "creditnote-with-all-elements.xml" })
+  public String m_sFilename;
+
+  private byte [] m_aBytes;
+  private CreditNoteType m_aUBLDoc;
+  private Ebi42InvoiceType m_aEbiDoc;
+  private CreditNoteToEbInterface42Converter m_aConverter;
+  private EbInterfaceWriter <Ebi42InvoiceType> m_aJAXBWriter;
+  private EbInterface42StreamWriter m_aStreamWriter;
+
+  @Setup
+  public void setup ()
+  {
+    m_aBytes = BenchmarkHelper.getBytes ("ubl20/creditnote/" + m_sFilename);
+    m_aUBLDoc = UBL21Reader.creditNote ().read (m_aBytes);
+    m_aConverter = new CreditNoteToEbInterface42Converter (Locale.GERMANY, Locale.GERMANY, false);
+    m_aEbiDoc = m_aConverter.convertToEbInterface (m_aUBLDoc, new ErrorList ());
+    m_aJAXBWriter = EbInterfaceWriter.ebInterface42 ();
+    m_aStreamWriter = new EbInterface42StreamWriter ();
+  }
+
+  @Benchmark
+  public CreditNoteType read ()
+  {
+    return UBL21Reader.creditNote ().read (m_aBytes);
+  }
+
+  @Benchmark
+  public Ebi42InvoiceType convert ()
+  {
+    return m_aConverter.convertToEbInterface (m_aUBLDoc, new ErrorList ());
+  }
+
+  @Benchmark
+  public byte [] writeJAXB ()
+  {
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    m_aJAXBWriter.write (m_aEbiDoc, aOS);
+    return aOS.toByteArray ();
+  }
+
+  @Benchmark
+  public byte [] writeStAX ()
+  {
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    m_aStreamWriter.write (m_aEbiDoc, aOS);
+    return aOS.toByteArray ();
+  }
+}
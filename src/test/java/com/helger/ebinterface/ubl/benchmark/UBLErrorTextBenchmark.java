@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Benchmark for converting a corpus of erroneous UBL invoices and rendering
+ * all resulting error texts in the display locale.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class UBLErrorTextBenchmark
+{
+  @Param ({ "bogus", "ubl20/invoice_bad" })
+  public String m_sDirectory;
+
+  private ICommonsList <InvoiceType> m_aUBLDocs;
+  private InvoiceToEbInterface42Converter m_aConverter;
+
+  @Setup
+  public void setup ()
+  {
+    m_aUBLDocs = new CommonsArrayList <> ();
+    for (final byte [] aBytes : BenchmarkHelper.getAllBytes (m_sDirectory))
+    {
+      final InvoiceType aUBLDoc = UBL21Reader.invoice ().read (aBytes);
+      if (aUBLDoc != null)
+        m_aUBLDocs.add (aUBLDoc);
+    }
+    m_aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                  .setLocale (Locale.GERMANY)
+                                                  .setStrictERBMode (true)
+                                                  .build ();
+  }
+
+  /**
+   * @return The total length of all error texts over all documents
+   */
+  @Benchmark
+  public int convertAndRenderErrors ()
+  {
+    int ret = 0;
+    for (final InvoiceType aUBLDoc : m_aUBLDocs)
+    {
+      final ErrorList aErrorList = new ErrorList ();
+      m_aConverter.convertToEbInterface (aUBLDoc, aErrorList);
+      for (final IError aError : aErrorList)
+        ret += aError.getErrorText (Locale.GERMANY).length ();
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.UBLToEbInterfaceJAXBPool;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.jaxb.JAXBContextCache;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Benchmark for the read-convert-write pipeline with a new JAXB
+ * (un)marshaller per document compared to the pooled ones of
+ * {@link UBLToEbInterfaceJAXBPool}. As the <code>UBL21Reader</code> validates
+ * against the XML Schema, <code>readFreshUnmarshaller</code> is the fair
+ * reference for <code>readPooled</code>.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+@Threads (4)
+public class UBLJAXBPoolBenchmark
+{
+  @Param ({ "delivery-per-item.xml", "invoice-with-all-elements.xml", "test-at-gov.xml" })
+  public String m_sFilename;
+
+  private byte [] m_aBytes;
+  private InvoiceToEbInterface42Converter m_aConverter;
+  private UBLToEbInterfaceJAXBPool m_aPool;
+
+  @Setup
+  public void setup ()
+  {
+    m_aBytes = BenchmarkHelper.getBytes ("ubl20/invoice/" + m_sFilename);
+    m_aConverter = InvoiceToEbInterface42Converter.builder ().setLocale (Locale.GERMANY).build ();
+    m_aPool = new UBLToEbInterfaceJAXBPool ();
+  }
+
+  @Benchmark
+  public InvoiceType readFreshUnmarshaller () throws JAXBException, XMLStreamException
+  {
+    final XMLInputFactory aXIF = XMLInputFactory.newInstance ();
+    aXIF.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    aXIF.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return JAXBContextCache.getInstance ()
+                           .getFromCache (InvoiceType.class)
+                           .createUnmarshaller ()
+                           .unmarshal (aXIF.createXMLStreamReader (new NonBlockingByteArrayInputStream (m_aBytes)),
+                                       InvoiceType.class)
+                           .getValue ();
+  }
+
+  @Benchmark
+  public InvoiceType readPooled ()
+  {
+    return m_aPool.readInvoice (m_aBytes);
+  }
+
+  @Benchmark
+  public byte [] pipelineFresh ()
+  {
+    final InvoiceType aUBLDoc = UBL21Reader.invoice ().read (m_aBytes);
+    final Ebi42InvoiceType aEbiDoc = m_aConverter.convertToEbInterface (aUBLDoc, new ErrorList ());
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    EbInterfaceWriter.ebInterface42 ().write (aEbiDoc, aOS);
+    return aOS.toByteArray ();
+  }
+
+  @Benchmark
+  public byte [] pipelinePooled ()
+  {
+    final InvoiceType aUBLDoc = m_aPool.readInvoice (m_aBytes);
+    final Ebi42InvoiceType aEbiDoc = m_aConverter.convertToEbInterface (aUBLDoc, new ErrorList ());
+    return m_aPool.getEbInterfaceAsBytes (aEbiDoc);
+  }
+}
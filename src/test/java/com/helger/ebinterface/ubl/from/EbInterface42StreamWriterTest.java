@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.ebinterface.builder.EbInterfaceReader;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.invoice.ICustomInvoiceConverter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42ArticleNumberType;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ebinterface.v42.Ebi42ListLineItemType;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.InvoiceLineType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link EbInterface42StreamWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class EbInterface42StreamWriterTest
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (EbInterface42StreamWriterTest.class);
+
+  @Test
+  public void testSameAsJAXB ()
+  {
+    final EbInterface42StreamWriter aStreamWriter = new EbInterface42StreamWriter ();
+    final EbInterfaceReader <Ebi42InvoiceType> aEbiReader = EbInterfaceReader.ebInterface42 ();
+    final EbInterfaceWriter <Ebi42InvoiceType> aEbiWriter = EbInterfaceWriter.ebInterface42 ();
+
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      s_aLogger.info (aFile.getPath ());
+
+      final InvoiceType aUBLInvoice = UBL21Reader.invoice ().read (aFile);
+      assertNotNull (aUBLInvoice);
+      final Ebi42InvoiceType aEbInvoice = new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                               Locale.GERMANY,
+                                                                               false).convertToEbInterface (aUBLInvoice,
+                                                                                                            new ErrorList ());
+      assertNotNull (aEbInvoice);
+      assertTrue (EbInterface42StreamWriter.isFullySupported (aEbInvoice));
+
+      // JAXB
+      final String sJAXB = aEbiWriter.getAsString (aEbInvoice);
+      assertNotNull (sJAXB);
+
+      // StAX to stream
+      final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+      assertTrue (aStreamWriter.write (aEbInvoice, aOS).isSuccess ());
+      // Reading validates against the XML Schema
+      final Ebi42InvoiceType aReadStAX = aEbiReader.read (aOS.toByteArray ());
+      assertNotNull ("Created XML is not schema compliant:\n" + aOS.getAsString (StandardCharsets.UTF_8), aReadStAX);
+
+      // StAX to channel
+      final NonBlockingByteArrayOutputStream aOS2 = new NonBlockingByteArrayOutputStream ();
+      assertTrue (aStreamWriter.write (aEbInvoice, Channels.newChannel (aOS2)).isSuccess ());
+      assertEquals (aOS.getAsString (StandardCharsets.UTF_8), aOS2.getAsString (StandardCharsets.UTF_8));
+
+      // Must be identical to the JAXB output
+      final Ebi42InvoiceType aReadJAXB = aEbiReader.read (sJAXB.getBytes (StandardCharsets.UTF_8));
+      assertNotNull (aReadJAXB);
+      assertEquals (sJAXB, aEbiWriter.getAsString (aReadStAX));
+      assertEquals (aReadJAXB, aReadStAX);
+    }
+  }
+
+  @Test
+  public void testCustomizerAddsElement ()
+  {
+    final EbInterface42StreamWriter aStreamWriter = new EbInterface42StreamWriter ();
+    final EbInterfaceReader <Ebi42InvoiceType> aEbiReader = EbInterfaceReader.ebInterface42 ();
+    final EbInterfaceWriter <Ebi42InvoiceType> aEbiWriter = EbInterfaceWriter.ebInterface42 ();
+
+    final InvoiceType aUBLInvoice = UBL21Reader.invoice ().read (new File ("src/test/resources/ubl20/invoice/test-at-gov.xml"));
+    assertNotNull (aUBLInvoice);
+    final Ebi42InvoiceType aEbInvoice = InvoiceToEbInterface42Converter.builder ()
+                                                                       .setLocale (Locale.GERMANY)
+                                                                       .setCustomizer (new ICustomInvoiceConverter ()
+                                                                       {
+                                                                         @Override
+                                                                         public void additionalItemMapping (@Nonnull final InvoiceLineType aUBLInvoiceLine,
+                                                                                                            @Nonnull final Ebi42ListLineItemType aEbiInvoiceLine)
+                                                                         {
+                                                                           final Ebi42ArticleNumberType aArticleNumber = new Ebi42ArticleNumberType ();
+                                                                           aArticleNumber.setValue ("4711");
+                                                                           aEbiInvoiceLine.getArticleNumber ().add (aArticleNumber);
+                                                                         }
+                                                                       })
+                                                                       .build ()
+                                                                       .convertToEbInterface (aUBLInvoice,
+                                                                                              new ErrorList ());
+    assertNotNull (aEbInvoice);
+    assertFalse (EbInterface42StreamWriter.isFullySupported (aEbInvoice));
+
+    // The added element must not get lost
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    assertTrue (aStreamWriter.write (aEbInvoice, aOS).isSuccess ());
+    final String sWritten = aOS.getAsString (StandardCharsets.UTF_8);
+    assertTrue (sWritten, sWritten.contains (">4711<"));
+    final Ebi42InvoiceType aRead = aEbiReader.read (aOS.toByteArray ());
+    assertNotNull ("Created XML is not schema compliant:\n" + sWritten, aRead);
+    assertEquals (aEbiWriter.getAsString (aEbInvoice), aEbiWriter.getAsString (aRead));
+  }
+}
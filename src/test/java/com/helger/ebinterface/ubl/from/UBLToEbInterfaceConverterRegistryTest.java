@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.AbstractConverter;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.ICustomInvoiceConverter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link UBLToEbInterfaceConverterRegistry} and the
+ * thread-safety of the shared converters.
+ *
+ * @author Philip Helger
+ */
+public final class UBLToEbInterfaceConverterRegistryTest
+{
+  private static final int THREAD_COUNT = 64;
+  private static final int ROUNDS_PER_THREAD = 3;
+
+  @Test
+  public void testSharedInstances ()
+  {
+    final UBLToEbInterfaceConverterRegistry aRegistry = new UBLToEbInterfaceConverterRegistry ();
+    final InvoiceToEbInterface42Converter aInvoiceConverter = aRegistry.getInvoiceConverter (Locale.GERMANY,
+                                                                                             Locale.GERMANY,
+                                                                                             true);
+    assertSame (aInvoiceConverter, aRegistry.getInvoiceConverter (Locale.GERMANY, Locale.GERMANY, true));
+    assertNotSame (aInvoiceConverter, aRegistry.getInvoiceConverter (Locale.GERMANY, Locale.GERMANY, false));
+    assertNotSame (aInvoiceConverter, aRegistry.getInvoiceConverter (Locale.ENGLISH, Locale.GERMANY, true));
+    assertEquals (Locale.GERMANY, aInvoiceConverter.getDisplayLocale ());
+    assertEquals (Locale.GERMANY, aInvoiceConverter.getContentLocale ());
+    assertTrue (aInvoiceConverter.isStrictERBMode ());
+    assertNull (aInvoiceConverter.getCustomizer ());
+
+    final CreditNoteToEbInterface42Converter aCreditNoteConverter = aRegistry.getCreditNoteConverter (Locale.ENGLISH,
+                                                                                                      Locale.GERMANY,
+                                                                                                      false);
+    assertSame (aCreditNoteConverter, aRegistry.getCreditNoteConverter (Locale.ENGLISH, Locale.GERMANY, false));
+    assertEquals (Locale.ENGLISH, aCreditNoteConverter.getDisplayLocale ());
+    assertEquals (4, aRegistry.getConverterCount ());
+
+    assertSame (UBLToEbInterfaceConverterRegistry.getDefaultInstance (),
+                UBLToEbInterfaceConverterRegistry.getDefaultInstance ());
+  }
+
+  @Test
+  public void testBuilder ()
+  {
+    final ICustomInvoiceConverter aCustomizer = new ICustomInvoiceConverter ()
+    {};
+    final InvoiceToEbInterface42Converter aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                      .setLocale (Locale.ENGLISH)
+                                                                                      .setStrictERBMode (true)
+                                                                                      .setCustomizer (aCustomizer)
+                                                                                      .build ();
+    assertEquals (Locale.ENGLISH, aConverter.getDisplayLocale ());
+    assertEquals (Locale.ENGLISH, aConverter.getContentLocale ());
+    assertTrue (aConverter.isStrictERBMode ());
+    assertSame (aCustomizer, aConverter.getCustomizer ());
+  }
+
+  @Test
+  public void testSetAllFrom () throws Exception
+  {
+    final InvoiceToEbInterface42Converter aDefault = InvoiceToEbInterface42Converter.builder ()
+                                                                                    .setLocale (Locale.GERMANY)
+                                                                                    .build ();
+    final InvoiceToEbInterface42Converter aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                      .setDisplayLocale (Locale.ENGLISH)
+                                                                                      .setContentLocale (Locale.FRENCH)
+                                                                                      .setStrictERBMode (true)
+                                                                                      .setFailFast (true)
+                                                                                      .setCheckCustomizationID (true)
+                                                                                      .setTotalsTolerance (new BigDecimal ("0.05"))
+                                                                                      .setTotalsMismatchIsError (true)
+                                                                                      .setParallelLineThreshold (100)
+                                                                                      .setParallelLineChunkSize (7)
+                                                                                      .setParallelSections (true)
+                                                                                      .setPhaseListener (new IConversionPhaseListener ()
+                                                                                      {})
+                                                                                      .build ();
+    final InvoiceToEbInterface42Converter aCopy = InvoiceToEbInterface42Converter.builder ()
+                                                                                 .setAllFrom (aConverter)
+                                                                                 .build ();
+
+    // All settings of the converter base classes must be copied
+    int nGetterCount = 0;
+    for (final Class <?> aClass : new Class <?> [] { AbstractConverter.class, AbstractToEbInterfaceConverter.class })
+      for (final Method aMethod : aClass.getDeclaredMethods ())
+        if (Modifier.isPublic (aMethod.getModifiers ()) &&
+            !Modifier.isStatic (aMethod.getModifiers ()) &&
+            aMethod.getParameterCount () == 0 &&
+            (aMethod.getName ().startsWith ("get") || aMethod.getName ().startsWith ("is")))
+        {
+          final Object aValue = aMethod.invoke (aConverter);
+          // A new setting must be set to a non-default value above
+          assertNotEquals (aMethod.getName (), aMethod.invoke (aDefault), aValue);
+          assertEquals (aMethod.getName (), aValue, aMethod.invoke (aCopy));
+          nGetterCount++;
+        }
+    assertEquals (11, nGetterCount);
+  }
+
+  /**
+   * Convert all documents and return for each one the error list and the
+   * serialized ebInterface document.
+   */
+  @Nonnull
+  private static <T> ICommonsList <String> _convertAll (@Nonnull final ICommonsList <T> aDocs,
+                                                       @Nonnull final Function <T, String> aConverter)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (final T aDoc : aDocs)
+      ret.add (aConverter.apply (aDoc));
+    return ret;
+  }
+
+  @Nonnull
+  private static String _getResult (@Nonnull final ErrorList aErrorList, final Ebi42InvoiceType aEbInvoice)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (final IError aError : aErrorList)
+      aSB.append (aError.getErrorLevel ().getID ())
+         .append (' ')
+         .append (aError.getErrorFieldName ())
+         .append (' ')
+         .append (aError.getErrorText (Locale.GERMANY))
+         .append ('\n');
+    aSB.append (aEbInvoice == null ? "null" : EbInterfaceWriter.ebInterface42 ().getAsString (aEbInvoice));
+    return aSB.toString ();
+  }
+
+  private static <T> void _runConcurrently (@Nonnull final ICommonsList <T> aDocs,
+                                            @Nonnull final Function <T, String> aConverter) throws Exception
+  {
+    // Single threaded reference
+    final ICommonsList <String> aExpected = _convertAll (aDocs, aConverter);
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (THREAD_COUNT);
+    try
+    {
+      final CountDownLatch aStartSignal = new CountDownLatch (1);
+      final ICommonsList <Future <ICommonsList <String>>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < THREAD_COUNT; ++i)
+      {
+        // Each thread starts at a different document to maximize overlap
+        final int nOffset = i % aDocs.size ();
+        aFutures.add (aExecutor.submit ( () -> {
+          aStartSignal.await ();
+          final String [] aResults = new String [aDocs.size ()];
+          for (int nRound = 0; nRound < ROUNDS_PER_THREAD; ++nRound)
+            for (int j = 0; j < aDocs.size (); ++j)
+            {
+              final int nIndex = (nOffset + j) % aDocs.size ();
+              final String sResult = aConverter.apply (aDocs.get (nIndex));
+              if (aResults[nIndex] != null && !aResults[nIndex].equals (sResult))
+                throw new IllegalStateException ("Different results in the same thread for document " + nIndex);
+              aResults[nIndex] = sResult;
+            }
+          return new CommonsArrayList <> (aResults);
+        }));
+      }
+      aStartSignal.countDown ();
+
+      for (final Future <ICommonsList <String>> aFuture : aFutures)
+        assertEquals (aExpected, aFuture.get ());
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      assertTrue (aExecutor.awaitTermination (1, TimeUnit.MINUTES));
+    }
+  }
+
+  @Test
+  public void testInvoiceConcurrently () throws Exception
+  {
+    final ICommonsList <InvoiceType> aDocs = new CommonsArrayList <> ();
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+      aDocs.add (UBL21Reader.invoice ().read (aFile));
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice_bad")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+      aDocs.add (UBL21Reader.invoice ().read (aFile));
+    for (int i = 0; i < 8; ++i)
+      aDocs.add (new UBLDocumentGenerator (i).setLineCount (50 + i * 10)
+                                             .setTaxCategoryCount (1 + i)
+                                             .setLineAllowanceChargeCount (i % 3)
+                                             .setPaymentMeansCount (1 + i % 4)
+                                             .setDeliveryCount (i % 2)
+                                             .createInvoice ());
+    aDocs.removeIf (x -> x == null);
+    assertTrue (aDocs.size () > THREAD_COUNT / 8);
+
+    for (final boolean bStrictERBMode : new boolean [] { false, true })
+    {
+      final InvoiceToEbInterface42Converter aConverter = UBLToEbInterfaceConverterRegistry.getDefaultInstance ()
+                                                                                          .getInvoiceConverter (Locale.GERMANY,
+                                                                                                                Locale.GERMANY,
+                                                                                                                bStrictERBMode);
+      _runConcurrently (aDocs, x -> {
+        final ErrorList aErrorList = new ErrorList ();
+        return _getResult (aErrorList, aConverter.convertToEbInterface (x, aErrorList));
+      });
+    }
+  }
+
+  @Test
+  public void testCreditNoteConcurrently () throws Exception
+  {
+    final ICommonsList <CreditNoteType> aDocs = new CommonsArrayList <> ();
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/creditnote")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+      aDocs.add (UBL21Reader.creditNote ().read (aFile));
+    for (int i = 0; i < 8; ++i)
+      aDocs.add (new UBLDocumentGenerator (i).setLineCount (50 + i * 10)
+                                             .setTaxCategoryCount (1 + i)
+                                             .setAllowanceChargeCount (i)
+                                             .setDeliveryCount (i % 2)
+                                             .createCreditNote ());
+    aDocs.removeIf (x -> x == null);
+
+    final CreditNoteToEbInterface42Converter aConverter = UBLToEbInterfaceConverterRegistry.getDefaultInstance ()
+                                                                                           .getCreditNoteConverter (Locale.GERMANY,
+                                                                                                                    Locale.GERMANY,
+                                                                                                                    true);
+    _runConcurrently (aDocs, x -> {
+      final ErrorList aErrorList = new ErrorList ();
+      return _getResult (aErrorList, aConverter.convertToEbInterface (x, aErrorList));
+    });
+  }
+}
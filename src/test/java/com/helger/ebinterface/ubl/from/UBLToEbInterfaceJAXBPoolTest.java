@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.ebinterface.builder.EbInterfaceReader;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+import com.helger.ubl21.UBL21Writer;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link UBLToEbInterfaceJAXBPool}.
+ *
+ * @author Philip Helger
+ */
+public final class UBLToEbInterfaceJAXBPoolTest
+{
+  @Test
+  public void testReadSameAsUBL21Reader ()
+  {
+    final UBLToEbInterfaceJAXBPool aPool = new UBLToEbInterfaceJAXBPool (2);
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final InvoiceType aExpected = UBL21Reader.invoice ().read (aFile);
+      assertNotNull (aExpected);
+      final InvoiceType aPooled = aPool.readInvoice (new FileSystemResource (aFile));
+      assertNotNull (aFile.getName (), aPooled);
+      assertEquals (UBL21Writer.invoice ().getAsString (aExpected), UBL21Writer.invoice ().getAsString (aPooled));
+
+      // Wrong document type
+      assertNull (aPool.readCreditNote (new FileSystemResource (aFile)));
+    }
+
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/creditnote")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final CreditNoteType aExpected = UBL21Reader.creditNote ().read (aFile);
+      assertNotNull (aExpected);
+      final CreditNoteType aPooled = aPool.readCreditNote (new FileSystemResource (aFile));
+      assertNotNull (aFile.getName (), aPooled);
+      assertEquals (UBL21Writer.creditNote ().getAsString (aExpected),
+                    UBL21Writer.creditNote ().getAsString (aPooled));
+
+      // Wrong document type
+      assertNull (aPool.readInvoice (new FileSystemResource (aFile)));
+    }
+
+    // Not XML at all
+    assertNull (aPool.readInvoice (new byte [] { 'a', 'b', 'c' }));
+    assertTrue (aPool.toString (), aPool.toString ().length () > 0);
+  }
+
+  @Test
+  public void testWriteConcurrently () throws Exception
+  {
+    final UBLToEbInterfaceJAXBPool aPool = new UBLToEbInterfaceJAXBPool (2);
+    final InvoiceToEbInterface42Converter aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                      .setLocale (Locale.GERMANY)
+                                                                                      .build ();
+
+    final ICommonsList <byte []> aInputs = new CommonsArrayList <> ();
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+      aInputs.add (StreamHelper.getAllBytes (new FileSystemResource (aFile)));
+
+    // More threads than idle objects to also use non-pooled objects
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (8);
+    try
+    {
+      final ICommonsList <Future <String>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < 8; ++i)
+        for (final byte [] aInput : aInputs)
+          aFutures.add (aExecutor.submit ( () -> {
+            final InvoiceType aUBLDoc = aPool.readInvoice (aInput);
+            assertNotNull (aUBLDoc);
+            final Ebi42InvoiceType aEbiDoc = aConverter.convertToEbInterface (aUBLDoc, new ErrorList ());
+            assertNotNull (aEbiDoc);
+            final byte [] aBytes = aPool.getEbInterfaceAsBytes (aEbiDoc);
+            assertNotNull (aBytes);
+            final EbInterfaceWriter <Ebi42InvoiceType> aEbiWriter = EbInterfaceWriter.ebInterface42 ();
+            // Reading validates against the XML Schema
+            final Ebi42InvoiceType aReadEbiDoc = EbInterfaceReader.ebInterface42 ().read (aBytes);
+            assertNotNull (aReadEbiDoc);
+            assertEquals (aEbiWriter.getAsString (aEbiDoc), aEbiWriter.getAsString (aReadEbiDoc));
+            return aEbiWriter.getAsString (aReadEbiDoc);
+          }));
+
+      for (int i = 0; i < aFutures.size (); ++i)
+        assertEquals (aFutures.get (i % aInputs.size ()).get (), aFutures.get (i).get ());
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      assertTrue (aExecutor.awaitTermination (1, TimeUnit.MINUTES));
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.ebinterface.builder.EbInterfaceReader;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.EUBLDocumentType;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+/**
+ * Test class for class {@link UBLToEbInterfacePipeline}.
+ *
+ * @author Philip Helger
+ */
+public final class UBLToEbInterfacePipelineTest
+{
+  private static final InvoiceToEbInterface42Converter INVOICE_CONVERTER = InvoiceToEbInterface42Converter.builder ()
+                                                                                                          .setLocale (Locale.GERMANY)
+                                                                                                          .build ();
+  private static final CreditNoteToEbInterface42Converter CREDIT_NOTE_CONVERTER = CreditNoteToEbInterface42Converter.builder ()
+                                                                                                                    .setLocale (Locale.GERMANY)
+                                                                                                                    .build ();
+
+  private static void _assertSame (final Ebi42InvoiceType aExpected, final byte [] aBytes)
+  {
+    final String sOutput = new String (aBytes, StandardCharsets.UTF_8);
+    // Compact output
+    assertFalse (sOutput, sOutput.contains ("\n "));
+    // Reading validates against the XML Schema
+    final Ebi42InvoiceType aRead = EbInterfaceReader.ebInterface42 ().read (aBytes);
+    assertNotNull (sOutput, aRead);
+    assertEquals (EbInterfaceWriter.ebInterface42 ().getAsString (aExpected),
+                  EbInterfaceWriter.ebInterface42 ().getAsString (aRead));
+  }
+
+  @Test
+  public void testInvoice ()
+  {
+    final UBLToEbInterfacePipeline aPipeline = new UBLToEbInterfacePipeline (INVOICE_CONVERTER, CREDIT_NOTE_CONVERTER);
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final ErrorList aExpectedErrorList = new ErrorList ();
+      final Ebi42InvoiceType aExpected = INVOICE_CONVERTER.convertToEbInterface (UBL21Reader.invoice ().read (aFile),
+                                                                                 aExpectedErrorList);
+      assertNotNull (aExpected);
+      if (aExpectedErrorList.containsAtLeastOneError ())
+        continue;
+
+      final byte [] aInput = StreamHelper.getAllBytes (new FileSystemResource (aFile));
+      final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+      final UBLToEbInterfacePipelineResult aResult = aPipeline.convert (new NonBlockingByteArrayInputStream (aInput),
+                                                                        aOS);
+      assertTrue (aFile.getName () + ": " + aResult.toString (), aResult.isSuccess ());
+      assertEquals (EUBLDocumentType.INVOICE, aResult.getDocumentType ());
+      assertTrue (aResult.getReadNanos () > 0);
+      assertTrue (aResult.getConvertNanos () > 0);
+      assertTrue (aResult.getWriteNanos () > 0);
+      assertEquals (aResult.getReadNanos () + aResult.getConvertNanos () + aResult.getWriteNanos (),
+                    aResult.getTotalNanos ());
+      _assertSame (aExpected, aOS.toByteArray ());
+
+      // Same via channels
+      final NonBlockingByteArrayOutputStream aOS2 = new NonBlockingByteArrayOutputStream ();
+      assertTrue (aPipeline.convert (Channels.newChannel (new NonBlockingByteArrayInputStream (aInput)),
+                                     Channels.newChannel (aOS2))
+                           .isSuccess ());
+      assertEquals (new String (aOS.toByteArray (), StandardCharsets.UTF_8),
+                    new String (aOS2.toByteArray (), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testCreditNote ()
+  {
+    final UBLToEbInterfacePipeline aPipeline = new UBLToEbInterfacePipeline (INVOICE_CONVERTER, CREDIT_NOTE_CONVERTER);
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/creditnote")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final ErrorList aExpectedErrorList = new ErrorList ();
+      final Ebi42InvoiceType aExpected = CREDIT_NOTE_CONVERTER.convertToEbInterface (UBL21Reader.creditNote ()
+                                                                                                 .read (aFile),
+                                                                                     aExpectedErrorList);
+      assertNotNull (aExpected);
+      if (aExpectedErrorList.containsAtLeastOneError ())
+        continue;
+
+      final byte [] aInput = StreamHelper.getAllBytes (new FileSystemResource (aFile));
+      final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+      final UBLToEbInterfacePipelineResult aResult = aPipeline.convert (new NonBlockingByteArrayInputStream (aInput),
+                                                                        aOS);
+      assertTrue (aFile.getName () + ": " + aResult.toString (), aResult.isSuccess ());
+      assertEquals (EUBLDocumentType.CREDIT_NOTE, aResult.getDocumentType ());
+      _assertSame (aExpected, aOS.toByteArray ());
+    }
+  }
+
+  @Test
+  public void testUnsupported ()
+  {
+    final UBLToEbInterfacePipeline aPipeline = new UBLToEbInterfacePipeline (INVOICE_CONVERTER, CREDIT_NOTE_CONVERTER);
+    for (final String sInput : new String [] { "",
+                                               "abc",
+                                               "<Invoice/>",
+                                               "<?xml version='1.0'?><Order xmlns='urn:oasis:names:specification:ubl:schema:xsd:Order-2'/>" })
+    {
+      final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+      final UBLToEbInterfacePipelineResult aResult = aPipeline.convert (new NonBlockingByteArrayInputStream (sInput.getBytes (StandardCharsets.UTF_8)),
+                                                                        aOS);
+      assertFalse (sInput, aResult.isSuccess ());
+      assertNull (sInput, aResult.getDocumentType ());
+      assertTrue (sInput, aResult.getErrorList ().containsAtLeastOneError ());
+      assertEquals (0, aResult.getConvertNanos ());
+      assertEquals (0, aOS.toByteArray ().length);
+      // Localized error texts
+      final IError aError = aResult.getErrorList ().getAllItems ().getFirst ();
+      assertNotEquals (sInput, aError.getErrorText (Locale.GERMANY), aError.getErrorText (Locale.ENGLISH));
+    }
+  }
+
+  @Test
+  public void testSchemaInvalid ()
+  {
+    final UBLToEbInterfacePipeline aPipeline = new UBLToEbInterfacePipeline (INVOICE_CONVERTER, CREDIT_NOTE_CONVERTER);
+    final File aFile = new File ("src/test/resources/ubl20/invoice/test-at-gov.xml");
+    // Well-formed but without the mandatory TaxScheme of the first tax subtotal
+    final String sOriginal = StreamHelper.getAllBytesAsString (new FileSystemResource (aFile), StandardCharsets.UTF_8);
+    final String sInput = sOriginal.replaceFirst ("<cac:TaxScheme>\\s*<cbc:ID[^>]*>VAT</cbc:ID>\\s*</cac:TaxScheme>\\s*</cac:TaxCategory>\\s*</cac:TaxSubtotal>",
+                                                  "</cac:TaxCategory></cac:TaxSubtotal>");
+    assertNotEquals (sOriginal, sInput);
+    final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+    final UBLToEbInterfacePipelineResult aResult = aPipeline.convert (new NonBlockingByteArrayInputStream (sInput.getBytes (StandardCharsets.UTF_8)),
+                                                                      aOS);
+    assertFalse (aResult.isSuccess ());
+    assertEquals (EUBLDocumentType.INVOICE, aResult.getDocumentType ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+    assertEquals (0, aOS.toByteArray ().length);
+  }
+
+  @Test
+  public void testWriteError ()
+  {
+    final UBLToEbInterfacePipeline aPipeline = new UBLToEbInterfacePipeline (INVOICE_CONVERTER, CREDIT_NOTE_CONVERTER);
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final ErrorList aExpectedErrorList = new ErrorList ();
+      INVOICE_CONVERTER.convertToEbInterface (UBL21Reader.invoice ().read (aFile), aExpectedErrorList);
+      if (aExpectedErrorList.containsAtLeastOneError ())
+        continue;
+
+      final byte [] aInput = StreamHelper.getAllBytes (new FileSystemResource (aFile));
+      final UBLToEbInterfacePipelineResult aResult = aPipeline.convert (new NonBlockingByteArrayInputStream (aInput),
+                                                                        new OutputStream ()
+                                                                        {
+                                                                          @Override
+                                                                          public void write (final int b) throws IOException
+                                                                          {
+                                                                            throw new IOException ("Disk full");
+                                                                          }
+                                                                        });
+      assertFalse (aFile.getName (), aResult.isSuccess ());
+      assertTrue (aFile.getName (), aResult.getErrorList ().containsAtLeastOneError ());
+    }
+  }
+}
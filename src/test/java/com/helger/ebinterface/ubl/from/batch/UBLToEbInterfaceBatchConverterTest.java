@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.batch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.CommonsTreeSet;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.collection.ext.ICommonsSortedSet;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.ebinterface.ubl.EUBLDocumentType;
+import com.helger.ebinterface.ubl.from.EbInterface42StreamWriter;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+/**
+ * Test class for class {@link UBLToEbInterfaceBatchConverter}.
+ *
+ * @author Philip Helger
+ */
+public final class UBLToEbInterfaceBatchConverterTest
+{
+  private static final int REPEAT = 10;
+
+  @Nonnull
+  private static ICommonsList <IReadableResource> _getFiles (final String sDir)
+  {
+    final ICommonsList <IReadableResource> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < REPEAT; ++i)
+      for (final File aFile : new FileSystemIterator (new File (sDir)).withFilter (IFileFilter.filenameEndsWith (".xml")))
+        ret.add (new FileSystemResource (aFile));
+    return ret;
+  }
+
+  @Nonnull
+  private static UBLToEbInterfaceBatchConverter _createBatch ()
+  {
+    return new UBLToEbInterfaceBatchConverter (new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                                    Locale.GERMANY,
+                                                                                    false),
+                                               new CreditNoteToEbInterface42Converter (Locale.GERMANY,
+                                                                                       Locale.GERMANY,
+                                                                                       false));
+  }
+
+  @Test
+  public void testOrdered () throws InterruptedException
+  {
+    final ICommonsList <IReadableResource> aFiles = _getFiles ("src/test/resources/ubl20/invoice");
+    final ICommonsList <UBLToEbInterfaceBatchResult> aResults = new CommonsArrayList <> ();
+    final UBLToEbInterfaceBatchStatistics aStats = _createBatch ().setParallelism (4)
+                                                                  .setMaxPendingDocuments (3)
+                                                                  .convert (EUBLDocumentType.INVOICE,
+                                                                            aFiles,
+                                                                            aResults::add);
+    assertEquals (aFiles.size (), aStats.getDocumentCount ());
+    assertEquals (aFiles.size (), aStats.getSuccessCount ());
+    assertEquals (aFiles.size (), aResults.size ());
+
+    final InvoiceToEbInterface42Converter aConverter = new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                                            Locale.GERMANY,
+                                                                                            false);
+    for (int i = 0; i < aResults.size (); ++i)
+    {
+      final UBLToEbInterfaceBatchResult aResult = aResults.get (i);
+      assertEquals (i, aResult.getIndex ());
+      assertTrue (aResult.isSuccess ());
+      assertFalse (aResult.getErrorList ().containsAtLeastOneError ());
+
+      // Must be identical to sequential conversion
+      final Ebi42InvoiceType aEbInvoice = aConverter.convertToEbInterface (UBL21Reader.invoice ()
+                                                                                      .read (aFiles.get (i)),
+                                                                           new ErrorList ());
+      assertNotNull (aEbInvoice);
+      final NonBlockingByteArrayOutputStream aOS = new NonBlockingByteArrayOutputStream ();
+      new EbInterface42StreamWriter ().write (aEbInvoice, aOS);
+      assertArrayEquals (aOS.toByteArray (), aResult.getEbInterface ());
+    }
+  }
+
+  @Test
+  public void testUnordered () throws InterruptedException
+  {
+    final ICommonsList <IReadableResource> aFiles = _getFiles ("src/test/resources/ubl20/creditnote");
+    final ICommonsSortedSet <Integer> aIndices = new CommonsTreeSet <> ();
+    final UBLToEbInterfaceBatchStatistics aStats = _createBatch ().setParallelism (3)
+                                                                  .setOrdered (false)
+                                                                  .convert (EUBLDocumentType.CREDIT_NOTE, aFiles, x -> {
+                                                                    assertTrue (x.isSuccess ());
+                                                                    aIndices.add (Integer.valueOf (x.getIndex ()));
+                                                                  });
+    assertEquals (aFiles.size (), aStats.getSuccessCount ());
+    assertEquals (aFiles.size (), aIndices.size ());
+    assertEquals (0, aIndices.getFirst ().intValue ());
+    assertEquals (aFiles.size () - 1, aIndices.getLast ().intValue ());
+  }
+
+  @Test
+  public void testBad () throws InterruptedException
+  {
+    final ICommonsList <IReadableResource> aFiles = _getFiles ("src/test/resources/ubl20/invoice_bad");
+    final UBLToEbInterfaceBatchStatistics aStats = _createBatch ().setParallelism (2).convert (EUBLDocumentType.INVOICE,
+                                                                                              aFiles,
+                                                                                              x -> {
+                                                                                                assertFalse (x.isSuccess ());
+                                                                                                assertTrue (x.getErrorList ()
+                                                                                                             .containsAtLeastOneError ());
+                                                                                              });
+    assertEquals (aFiles.size (), aStats.getFailureCount ());
+  }
+}
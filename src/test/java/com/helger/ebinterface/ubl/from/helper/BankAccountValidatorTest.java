@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link BankAccountValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class BankAccountValidatorTest
+{
+  @Test
+  public void testBIC ()
+  {
+    for (final String sBIC : new String [] { "BKAUATWW", "RZOOAT2L", "GIBAATWWXXX", "RZSTAT2G403", "dnbanokk", "1234AT2L" })
+      assertTrue (sBIC, BankAccountValidator.isValidBIC (sBIC));
+
+    assertEquals (EBICValidationResult.INVALID_LENGTH, BankAccountValidator.validateBIC (null));
+    assertEquals (EBICValidationResult.INVALID_LENGTH, BankAccountValidator.validateBIC (""));
+    assertEquals (EBICValidationResult.INVALID_LENGTH, BankAccountValidator.validateBIC ("BKAUATW"));
+    assertEquals (EBICValidationResult.INVALID_LENGTH, BankAccountValidator.validateBIC ("BKAUATWWX"));
+    assertEquals (EBICValidationResult.INVALID_LENGTH, BankAccountValidator.validateBIC ("GIBAATWWXXXX"));
+    assertEquals (EBICValidationResult.INVALID_CHARACTER, BankAccountValidator.validateBIC ("BKAU ATW"));
+    assertEquals (EBICValidationResult.INVALID_CHARACTER, BankAccountValidator.validateBIC ("BKAUÄTWW"));
+    assertEquals (EBICValidationResult.INVALID_COUNTRY_CODE, BankAccountValidator.validateBIC ("BKAU12WW"));
+  }
+
+  @Test
+  public void testIBAN ()
+  {
+    for (final String sIBAN : new String [] { "AT611904300234573201",
+                                              "DE89370400440532013000",
+                                              "GB29NWBK60161331926819",
+                                              "NO9386011117947",
+                                              "FR1420041010050500013M02606",
+                                              "fr1420041010050500013m02606",
+                                              "MT84MALT011000012345MTLCAST001S",
+                                              "LC55HEMM000100010012001200023015" })
+      assertTrue (sIBAN, BankAccountValidator.isValidIBAN (sIBAN));
+
+    assertEquals (EIBANValidationResult.INVALID_FORMAT, BankAccountValidator.validateIBAN (null));
+    assertEquals (EIBANValidationResult.INVALID_FORMAT, BankAccountValidator.validateIBAN (""));
+    assertEquals (EIBANValidationResult.INVALID_FORMAT, BankAccountValidator.validateIBAN ("AT6"));
+    assertEquals (EIBANValidationResult.INVALID_FORMAT, BankAccountValidator.validateIBAN ("1234567890"));
+    assertEquals (EIBANValidationResult.INVALID_FORMAT, BankAccountValidator.validateIBAN ("ATX11904300234573201"));
+    assertEquals (EIBANValidationResult.INVALID_CHARACTER,
+                  BankAccountValidator.validateIBAN ("AT61 1904 3002 3457 3201"));
+    assertEquals (EIBANValidationResult.INVALID_CHARACTER, BankAccountValidator.validateIBAN ("AT61-1904300234573201"));
+    assertEquals (EIBANValidationResult.UNKNOWN_COUNTRY, BankAccountValidator.validateIBAN ("NN1212345123412341"));
+    assertEquals (EIBANValidationResult.UNKNOWN_COUNTRY, BankAccountValidator.validateIBAN ("US611904300234573201"));
+    assertEquals (EIBANValidationResult.INVALID_LENGTH, BankAccountValidator.validateIBAN ("AT6119043002345732011"));
+    assertEquals (EIBANValidationResult.INVALID_LENGTH, BankAccountValidator.validateIBAN ("DE12B0102030450600000000001"));
+    assertEquals (EIBANValidationResult.INVALID_CHECKSUM, BankAccountValidator.validateIBAN ("AT621904300234573201"));
+    assertEquals (EIBANValidationResult.INVALID_CHECKSUM, BankAccountValidator.validateIBAN ("AT611904300234573210"));
+    assertEquals (EIBANValidationResult.INVALID_CHECKSUM, BankAccountValidator.validateIBAN ("DK1212341234123412"));
+
+    for (final EIBANValidationResult e : EIBANValidationResult.values ())
+      assertEquals (e == EIBANValidationResult.UNKNOWN_COUNTRY ||
+                    e == EIBANValidationResult.INVALID_LENGTH ||
+                    e == EIBANValidationResult.INVALID_CHECKSUM,
+                    e.isDefectiveIBAN ());
+
+    assertEquals (20, BankAccountValidator.getIBANLength ("AT"));
+    assertEquals (20, BankAccountValidator.getIBANLength ("at"));
+    assertEquals (-1, BankAccountValidator.getIBANLength ("US"));
+    assertEquals (-1, BankAccountValidator.getIBANLength ("A"));
+    assertEquals (-1, BankAccountValidator.getIBANLength (null));
+  }
+
+  @Test
+  public void testIBANCheckDigits ()
+  {
+    // Each valid IBAN has exactly one pair of valid check digits
+    final String sBBAN = "1904300234573201";
+    int nValidCount = 0;
+    for (int i = 0; i < 100; ++i)
+    {
+      final String sIBAN = "AT" + (i < 10 ? "0" : "") + i + sBBAN;
+      if (BankAccountValidator.isValidIBAN (sIBAN))
+      {
+        assertEquals (61, i);
+        ++nValidCount;
+      }
+    }
+    assertEquals (1, nValidCount);
+    assertFalse (BankAccountValidator.isValidIBAN ("AT99" + sBBAN));
+  }
+}
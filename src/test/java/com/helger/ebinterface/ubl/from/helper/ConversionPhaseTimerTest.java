@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.from.EConversionPhase;
+import com.helger.ebinterface.ubl.from.IConversionPhaseListener;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.creditnote.ICustomCreditNoteConverter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.UBLVersionIDType;
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link ConversionPhaseTimer}.
+ *
+ * @author Philip Helger
+ */
+public final class ConversionPhaseTimerTest
+{
+  /**
+   * Collects the element counts per phase
+   */
+  private static final class MockListener implements IConversionPhaseListener
+  {
+    private final Map <EConversionPhase, Integer> m_aPhases = new EnumMap <> (EConversionPhase.class);
+    private final Set <EConversionPhase> m_aStartedPhases = EnumSet.noneOf (EConversionPhase.class);
+    private final AtomicInteger m_aConversionStarts = new AtomicInteger ();
+    private final AtomicInteger m_aConversions = new AtomicInteger ();
+    private EDocumentRoute m_eRoute;
+    private int m_nLineCount = -1;
+    private boolean m_bSuccess;
+
+    @Override
+    public synchronized void onConversionStart (@Nonnull final EDocumentRoute eRoute, final boolean bStrictERBMode)
+    {
+      m_aConversionStarts.incrementAndGet ();
+    }
+
+    @Override
+    public synchronized void onPhaseStart (@Nonnull final EDocumentRoute eRoute, @Nonnull final EConversionPhase ePhase)
+    {
+      assertEquals (1, m_aConversionStarts.get ());
+      assertTrue ("Phase started twice: " + ePhase, m_aStartedPhases.add (ePhase));
+    }
+
+    @Override
+    public synchronized void onPhaseEnd (@Nonnull final EDocumentRoute eRoute,
+                                         @Nonnull final EConversionPhase ePhase,
+                                         final long nDurationNanos,
+                                         final int nElementCount)
+    {
+      assertTrue (nDurationNanos >= 0);
+      assertTrue ("Phase not started: " + ePhase, m_aStartedPhases.contains (ePhase));
+      assertNull ("Phase reported twice: " + ePhase, m_aPhases.put (ePhase, Integer.valueOf (nElementCount)));
+      m_eRoute = eRoute;
+    }
+
+    @Override
+    public synchronized void onConversionEnd (@Nonnull final EDocumentRoute eRoute,
+                                              final boolean bStrictERBMode,
+                                              final long nDurationNanos,
+                                              final int nLineCount,
+                                              @Nonnull final ErrorList aErrorList,
+                                              final boolean bSuccess)
+    {
+      assertTrue (nDurationNanos >= 0);
+      assertSame (m_eRoute, eRoute);
+      assertEquals (m_aStartedPhases, m_aPhases.keySet ());
+      m_nLineCount = nLineCount;
+      m_bSuccess = bSuccess;
+      m_aConversions.incrementAndGet ();
+    }
+  }
+
+  @Test
+  public void testInvoice ()
+  {
+    final UBLDocumentGenerator aGenerator = new UBLDocumentGenerator (1).setLineCount (50)
+                                                                        .setTaxCategoryCount (3)
+                                                                        .setAllowanceChargeCount (2)
+                                                                        .setPaymentMeansCount (2)
+                                                                        .setDeliveryCount (1);
+    final InvoiceType aUBLInvoice = aGenerator.createInvoice ();
+
+    final ErrorList aRefErrorList = new ErrorList ();
+    final Ebi42InvoiceType aRef = InvoiceToEbInterface42Converter.builder ()
+                                                                 .setLocale (Locale.GERMANY)
+                                                                 .build ()
+                                                                 .convertToEbInterface (aUBLInvoice, aRefErrorList);
+    assertNotNull (aRef);
+    assertTrue (aRefErrorList.isEmpty ());
+
+    for (final boolean bParallelSections : new boolean [] { false, true })
+    {
+      final MockListener aListener = new MockListener ();
+      final InvoiceToEbInterface42Converter aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                        .setLocale (Locale.GERMANY)
+                                                                                        .setParallelSections (bParallelSections)
+                                                                                        .setPhaseListener (aListener)
+                                                                                        .build ();
+      assertSame (aListener, aConverter.getPhaseListener ());
+
+      final ErrorList aErrorList = new ErrorList ();
+      final Ebi42InvoiceType aEbi = aConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+      assertNotNull (aEbi);
+      assertTrue (aErrorList.isEmpty ());
+      assertEquals (EbInterfaceWriter.ebInterface42 ().getAsString (aRef),
+                    EbInterfaceWriter.ebInterface42 ().getAsString (aEbi));
+
+      assertEquals (1, aListener.m_aConversions.get ());
+      assertSame (EDocumentRoute.UBL_INVOICE, aListener.m_eRoute);
+      assertTrue (aListener.m_bSuccess);
+      assertEquals (50, aListener.m_nLineCount);
+      // No customizer
+      assertEquals (EConversionPhase.values ().length - 1, aListener.m_aPhases.size ());
+      assertFalse (aListener.m_aPhases.containsKey (EConversionPhase.CUSTOMIZER));
+      assertEquals (50, aListener.m_aPhases.get (EConversionPhase.LINES).intValue ());
+      assertEquals (3, aListener.m_aPhases.get (EConversionPhase.TAX_TOTALS).intValue ());
+      assertEquals (2, aListener.m_aPhases.get (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES).intValue ());
+      assertEquals (2, aListener.m_aPhases.get (EConversionPhase.PAYMENT).intValue ());
+      assertEquals (1, aListener.m_aPhases.get (EConversionPhase.DELIVERY).intValue ());
+    }
+  }
+
+  @Test
+  public void testCreditNote ()
+  {
+    final CreditNoteType aUBLCreditNote = new UBLDocumentGenerator (2).setLineCount (20)
+                                                                      .setAllowanceChargeCount (0)
+                                                                      .createCreditNote ();
+    for (final boolean bParallelSections : new boolean [] { false, true })
+    {
+      final MockListener aListener = new MockListener ();
+      final CreditNoteToEbInterface42Converter aConverter = CreditNoteToEbInterface42Converter.builder ()
+                                                                                              .setLocale (Locale.GERMANY)
+                                                                                              .setParallelSections (bParallelSections)
+                                                                                              .setPhaseListener (aListener)
+                                                                                              .setCustomizer (new ICustomCreditNoteConverter ()
+                                                                                              {})
+                                                                                              .build ();
+      final ErrorList aErrorList = new ErrorList ();
+      assertNotNull (aConverter.convertToEbInterface (aUBLCreditNote, aErrorList));
+
+      assertEquals (1, aListener.m_aConversions.get ());
+      assertSame (EDocumentRoute.UBL_CREDIT_NOTE, aListener.m_eRoute);
+      assertTrue (aListener.m_bSuccess);
+      assertEquals (20, aListener.m_nLineCount);
+      // No global allowances and charges
+      assertFalse (aListener.m_aPhases.containsKey (EConversionPhase.GLOBAL_ALLOWANCE_CHARGES));
+      assertTrue (aListener.m_aPhases.containsKey (EConversionPhase.CUSTOMIZER));
+      assertEquals (EConversionPhase.values ().length - 1, aListener.m_aPhases.size ());
+    }
+  }
+
+  @Test
+  public void testConsistencyError ()
+  {
+    final InvoiceType aUBLInvoice = new UBLDocumentGenerator (3).createInvoice ();
+    aUBLInvoice.setUBLVersionID ((UBLVersionIDType) null);
+
+    final MockListener aListener = new MockListener ();
+    final ErrorList aErrorList = new ErrorList ();
+    assertNull (InvoiceToEbInterface42Converter.builder ()
+                                               .setLocale (Locale.GERMANY)
+                                               .setPhaseListener (aListener)
+                                               .build ()
+                                               .convertToEbInterface (aUBLInvoice, aErrorList));
+    assertTrue (aErrorList.containsAtLeastOneError ());
+    assertEquals (1, aListener.m_aConversions.get ());
+    assertFalse (aListener.m_bSuccess);
+    assertEquals (0, aListener.m_nLineCount);
+    assertEquals (1, aListener.m_aPhases.size ());
+    assertTrue (aListener.m_aPhases.containsKey (EConversionPhase.CONSISTENCY_CHECK));
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.DeferredErrorText;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CountryType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link CountryNameCache}.
+ *
+ * @author Philip Helger
+ */
+public final class CountryNameCacheTest
+{
+  @Test
+  public void testBasic ()
+  {
+    for (final String sCountryCode : Locale.getISOCountries ())
+    {
+      assertTrue (CountryNameCache.isValidCountryCode (sCountryCode));
+      assertTrue (CountryNameCache.isValidCountryCode (sCountryCode.toLowerCase (Locale.US)));
+      assertEquals (sCountryCode, CountryNameCache.getNormalizedCountryCode (sCountryCode.toLowerCase (Locale.US)));
+      for (final Locale aLocale : new Locale [] { Locale.GERMANY, Locale.ENGLISH })
+        assertEquals (new Locale ("", sCountryCode).getDisplayCountry (aLocale),
+                      CountryNameCache.getCountryName (sCountryCode, aLocale));
+    }
+    assertEquals ("Österreich", CountryNameCache.getCountryName ("at", Locale.GERMANY));
+    assertEquals ("Austria", CountryNameCache.getCountryName ("AT", Locale.ENGLISH));
+    assertSame (CountryNameCache.getCountryName ("AT", Locale.GERMANY),
+                CountryNameCache.getCountryName ("at", Locale.GERMANY));
+
+    for (final String sInvalid : new String [] { null, "", "A", "AUT", "040", "A1", "XX", "Ä T" })
+    {
+      assertFalse (sInvalid, CountryNameCache.isValidCountryCode (sInvalid));
+      assertNull (sInvalid, CountryNameCache.getNormalizedCountryCode (sInvalid));
+      assertNull (sInvalid, CountryNameCache.getCountryName (sInvalid, Locale.GERMANY));
+    }
+  }
+
+  @Test
+  public void testConversion ()
+  {
+    final InvoiceType aUBLInvoice = new UBLDocumentGenerator (1).setLineCount (2).setDeliveryCount (0).createInvoice ();
+    final InvoiceToEbInterface42Converter aConverter = new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                                            Locale.GERMANY,
+                                                                                            false);
+
+    // Country name is filled from the code
+    ErrorList aErrorList = new ErrorList ();
+    Ebi42InvoiceType aEbiInvoice = aConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+    assertNotNull (aEbiInvoice);
+    assertTrue (aErrorList.isEmpty ());
+    assertEquals ("Österreich", aEbiInvoice.getBiller ().getAddress ().getCountry ().getValue ());
+
+    // Lower case country code is written in upper case
+    final CountryType aCountry = aUBLInvoice.getAccountingSupplierParty ().getParty ().getPostalAddress ().getCountry ();
+    aCountry.setIdentificationCode ("at");
+    aErrorList = new ErrorList ();
+    aEbiInvoice = aConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+    assertNotNull (aEbiInvoice);
+    assertTrue (aErrorList.isEmpty ());
+    assertEquals ("AT", aEbiInvoice.getBiller ().getAddress ().getCountry ().getCountryCode ());
+    assertEquals ("Österreich", aEbiInvoice.getBiller ().getAddress ().getCountry ().getValue ());
+
+    // Invalid country code
+    aCountry.setIdentificationCode ("XX");
+    aErrorList = new ErrorList ();
+    aEbiInvoice = aConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+    assertNull (aEbiInvoice);
+    assertEquals (1, aErrorList.getAllErrors ().size ());
+    final IError aError = aErrorList.getAllErrors ().getFirst ();
+    assertTrue (aError.getErrorFieldName (),
+                aError.getErrorFieldName ().endsWith ("/PostalAddress/Country/IdentificationCode"));
+    assertEquals (EText.ADDRESS_INVALID_COUNTRY, ((DeferredErrorText) aError.getErrorTexts ()).getText ());
+  }
+}
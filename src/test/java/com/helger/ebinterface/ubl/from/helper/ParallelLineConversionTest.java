@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigInteger;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.SingleError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.ICustomInvoiceConverter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ebinterface.v42.Ebi42ListLineItemType;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.InvoiceLineType;
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link ParallelLineConversion}.
+ *
+ * @author Philip Helger
+ */
+public final class ParallelLineConversionTest
+{
+  private static final int LINE_COUNT = 1000;
+  private static final int CHUNK_SIZE = 16;
+
+  @Nonnull
+  private static String _getResult (@Nonnull final ErrorList aErrorList, final Ebi42InvoiceType aEbInvoice)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (final IError aError : aErrorList)
+      aSB.append (aError.getErrorLevel ().getID ())
+         .append (' ')
+         .append (aError.getErrorFieldName ())
+         .append (' ')
+         .append (aError.getErrorText (Locale.GERMANY))
+         .append ('\n');
+    aSB.append (aEbInvoice == null ? "null" : EbInterfaceWriter.ebInterface42 ().getAsString (aEbInvoice));
+    return aSB.toString ();
+  }
+
+  @Test
+  public void testOrderAndErrors ()
+  {
+    final ICommonsList <Integer> aLines = new CommonsArrayList <> ();
+    for (int i = 0; i < LINE_COUNT; ++i)
+      aLines.add (Integer.valueOf (i));
+
+    final ParallelLineConversion aResult = ParallelLineConversion.convert (aLines, (aLine, nIndex, aErrorList) -> {
+      assertEquals (aLine.intValue (), nIndex);
+      if (nIndex % 7 == 0)
+        aErrorList.add (SingleError.builderError ()
+                                   .setErrorFieldName (Integer.toString (nIndex))
+                                   .setErrorText ("Error in line " + nIndex)
+                                   .build ());
+      final Ebi42ListLineItemType ret = new Ebi42ListLineItemType ();
+      ret.setPositionNumber (BigInteger.valueOf (nIndex));
+      return ret;
+    }, CHUNK_SIZE, false, ForkJoinPool.commonPool ());
+    assertEquals (LINE_COUNT, aResult.getLineCount ());
+
+    final ErrorList aErrorList = new ErrorList ();
+    for (int i = 0; i < LINE_COUNT; ++i)
+      assertEquals (i, aResult.getLineItem (i, aErrorList).getPositionNumber ().intValue ());
+
+    int nExpectedIndex = 0;
+    for (final IError aError : aErrorList)
+    {
+      assertEquals (Integer.toString (nExpectedIndex), aError.getErrorFieldName ());
+      nExpectedIndex += 7;
+    }
+    assertEquals ((LINE_COUNT + 6) / 7 * 7, nExpectedIndex);
+  }
+
+  @Test
+  public void testFailFastSkipsRemainingLines ()
+  {
+    final ICommonsList <Integer> aLines = new CommonsArrayList <> ();
+    for (int i = 0; i < LINE_COUNT; ++i)
+      aLines.add (Integer.valueOf (i));
+
+    // With a single worker the lines are converted in order
+    final ForkJoinPool aPool = new ForkJoinPool (1);
+    try
+    {
+      final AtomicInteger aConvertedCount = new AtomicInteger (0);
+      final ParallelLineConversion aResult = ParallelLineConversion.convert (aLines,
+                                                                             (aLine, nIndex, aErrorList) -> {
+                                                                               aConvertedCount.incrementAndGet ();
+                                                                               if (nIndex == 3)
+                                                                                 aErrorList.add (SingleError.builderError ()
+                                                                                                            .setErrorText ("Error in line " +
+                                                                                                                           nIndex)
+                                                                                                            .build ());
+                                                                               return new Ebi42ListLineItemType ();
+                                                                             },
+                                                                             CHUNK_SIZE,
+                                                                             true,
+                                                                             aPool);
+      assertEquals (4, aConvertedCount.get ());
+
+      final ErrorList aErrorList = new ErrorList ();
+      for (int i = 0; i <= 3; ++i)
+        assertNotNull (aResult.getLineItem (i, aErrorList));
+      assertEquals (1, aErrorList.getAllItems ().size ());
+      for (int i = 4; i < LINE_COUNT; ++i)
+        assertNull (aResult.getLineItem (i, aErrorList));
+    }
+    finally
+    {
+      aPool.shutdown ();
+    }
+  }
+
+  @Test
+  public void testCustomizerInvokedInLineOrder ()
+  {
+    final InvoiceType aUBLInvoice = new UBLDocumentGenerator (13).setLineCount (LINE_COUNT).createInvoice ();
+    final Thread aCallingThread = Thread.currentThread ();
+    // Not thread-safe on purpose
+    final ICommonsList <String> aLineIDs = new CommonsArrayList <> ();
+    final ErrorList aErrorList = new ErrorList ();
+    InvoiceToEbInterface42Converter.builder ()
+                                   .setLocale (Locale.GERMANY)
+                                   .setParallelLineThreshold (1)
+                                   .setParallelLineChunkSize (CHUNK_SIZE)
+                                   .setCustomizer (new ICustomInvoiceConverter ()
+                                   {
+                                     @Override
+                                     public void additionalItemMapping (@Nonnull final InvoiceLineType aUBLInvoiceLine,
+                                                                        @Nonnull final Ebi42ListLineItemType aEbiInvoiceLine)
+                                     {
+                                       assertSame (aCallingThread, Thread.currentThread ());
+                                       aLineIDs.add (aUBLInvoiceLine.getIDValue ());
+                                     }
+                                   })
+                                   .build ()
+                                   .convertToEbInterface (aUBLInvoice, aErrorList);
+
+    assertEquals (LINE_COUNT, aLineIDs.size ());
+    for (int i = 0; i < LINE_COUNT; ++i)
+      assertEquals (aUBLInvoice.getInvoiceLineAtIndex (i).getIDValue (), aLineIDs.get (i));
+  }
+
+  @Test
+  public void testInvoiceSameAsSequential ()
+  {
+    final InvoiceType aUBLInvoice = new UBLDocumentGenerator (11).setLineCount (LINE_COUNT)
+                                                                 .setTaxCategoryCount (4)
+                                                                 .setLineAllowanceChargeCount (2)
+                                                                 .createInvoice ();
+    // Line specific warnings
+    for (int i = 0; i < LINE_COUNT; i += 13)
+      aUBLInvoice.getInvoiceLineAtIndex (i).setID ("pos" + i);
+    for (int i = 50; i < LINE_COUNT; i += 97)
+    {
+      final InvoiceLineType aUBLLine = aUBLInvoice.getInvoiceLineAtIndex (i);
+      aUBLLine.getItem ().getClassifiedTaxCategory ().clear ();
+      aUBLLine.getTaxTotal ().clear ();
+    }
+
+    for (final boolean bStrictERBMode : new boolean [] { false, true })
+      for (final boolean bFailFast : new boolean [] { false, true })
+      {
+        final ErrorList aSeqErrorList = new ErrorList ();
+        final String sExpected = _getResult (aSeqErrorList,
+                                             InvoiceToEbInterface42Converter.builder ()
+                                                                            .setLocale (Locale.GERMANY)
+                                                                            .setStrictERBMode (bStrictERBMode)
+                                                                            .setFailFast (bFailFast)
+                                                                            .build ()
+                                                                            .convertToEbInterface (aUBLInvoice,
+                                                                                                   aSeqErrorList));
+        assertFalse (aSeqErrorList.isEmpty ());
+
+        final ErrorList aParErrorList = new ErrorList ();
+        final String sParallel = _getResult (aParErrorList,
+                                             InvoiceToEbInterface42Converter.builder ()
+                                                                            .setLocale (Locale.GERMANY)
+                                                                            .setStrictERBMode (bStrictERBMode)
+                                                                            .setFailFast (bFailFast)
+                                                                            .setParallelLineThreshold (LINE_COUNT / 2)
+                                                                            .setParallelLineChunkSize (CHUNK_SIZE)
+                                                                            .build ()
+                                                                            .convertToEbInterface (aUBLInvoice,
+                                                                                                   aParErrorList));
+        assertEquals (sExpected, sParallel);
+      }
+  }
+
+  @Test
+  public void testCreditNoteSameAsSequential ()
+  {
+    final CreditNoteType aUBLCreditNote = new UBLDocumentGenerator (12).setLineCount (LINE_COUNT)
+                                                                       .setTaxCategoryCount (3)
+                                                                       .setAllowanceChargeCount (2)
+                                                                       .createCreditNote ();
+
+    for (final boolean bStrictERBMode : new boolean [] { false, true })
+    {
+      final ErrorList aSeqErrorList = new ErrorList ();
+      final String sExpected = _getResult (aSeqErrorList,
+                                           CreditNoteToEbInterface42Converter.builder ()
+                                                                             .setLocale (Locale.GERMANY)
+                                                                             .setStrictERBMode (bStrictERBMode)
+                                                                             .build ()
+                                                                             .convertToEbInterface (aUBLCreditNote,
+                                                                                                    aSeqErrorList));
+
+      final ErrorList aParErrorList = new ErrorList ();
+      final String sParallel = _getResult (aParErrorList,
+                                           CreditNoteToEbInterface42Converter.builder ()
+                                                                             .setLocale (Locale.GERMANY)
+                                                                             .setStrictERBMode (bStrictERBMode)
+                                                                             .setParallelLineThreshold (1)
+                                                                             .setParallelLineChunkSize (CHUNK_SIZE)
+                                                                             .build ()
+                                                                             .convertToEbInterface (aUBLCreditNote,
+                                                                                                    aParErrorList));
+      assertEquals (sExpected, sParallel);
+    }
+  }
+}
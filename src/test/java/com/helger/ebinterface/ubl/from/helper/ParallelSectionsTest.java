@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.IError;
+import com.helger.commons.error.SingleError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link ParallelSections}.
+ *
+ * @author Philip Helger
+ */
+public final class ParallelSectionsTest
+{
+  @Nonnull
+  private static String _getResult (@Nonnull final ErrorList aErrorList, final Ebi42InvoiceType aEbInvoice)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (final IError aError : aErrorList)
+      aSB.append (aError.getErrorLevel ().getID ())
+         .append (' ')
+         .append (aError.getErrorFieldName ())
+         .append (' ')
+         .append (aError.getErrorText (Locale.GERMANY))
+         .append ('\n');
+    aSB.append (aEbInvoice == null ? "null" : EbInterfaceWriter.ebInterface42 ().getAsString (aEbInvoice));
+    return aSB.toString ();
+  }
+
+  @Nonnull
+  private static IError _createError (@Nonnull final String sFieldName)
+  {
+    return SingleError.builderError ().setErrorFieldName (sFieldName).setErrorText ("Error").build ();
+  }
+
+  @Test
+  public void testJoinOrder ()
+  {
+    final ErrorList aErrorList = new ErrorList ();
+    try (final ParallelSections aSections = new ParallelSections (ForkJoinPool.commonPool ()))
+    {
+      final ParallelSections.Section <String> aFirst = aSections.fork (x -> {
+        x.add (_createError ("a"));
+        x.add (_createError ("b"));
+        return "first";
+      });
+      final ParallelSections.Section <String> aSecond = aSections.fork (x -> {
+        x.add (_createError ("c"));
+        return "second";
+      });
+      final ParallelSections.Section <String> aThird = aSections.forkAfter (aSecond, x -> {
+        x.add (_createError ("d"));
+        return "third";
+      });
+
+      // Join in reverse order
+      assertEquals ("third", aThird.join (aErrorList));
+      assertEquals ("second", aSecond.join (aErrorList));
+      assertEquals ("first", aFirst.join (aErrorList));
+    }
+
+    final StringBuilder aSB = new StringBuilder ();
+    for (final IError aError : aErrorList)
+      aSB.append (aError.getErrorFieldName ());
+    assertEquals ("dcab", aSB.toString ());
+  }
+
+  @Test
+  public void testException ()
+  {
+    final IllegalStateException ex = new IllegalStateException ("oops");
+    try (final ParallelSections aSections = new ParallelSections (ForkJoinPool.commonPool ()))
+    {
+      final ParallelSections.Section <?> aSection = aSections.fork (x -> {
+        throw ex;
+      });
+      aSection.join (new ErrorList ());
+      fail ();
+    }
+    catch (final IllegalStateException ex2)
+    {
+      // The original exception is rethrown
+      assertSame (ex, ex2);
+    }
+  }
+
+  @Test
+  public void testCancelPending ()
+  {
+    // Executor that only collects the tasks
+    final ICommonsList <Runnable> aTasks = new CommonsArrayList <> ();
+    final AtomicInteger aCount = new AtomicInteger (0);
+    final ErrorList aErrorList = new ErrorList ();
+    try (final ParallelSections aSections = new ParallelSections (aTasks::add))
+    {
+      final ParallelSections.Section <String> aFirst = aSections.fork (x -> {
+        aCount.incrementAndGet ();
+        return "first";
+      });
+      final ParallelSections.Section <String> aSecond = aSections.fork (x -> {
+        aCount.incrementAndGet ();
+        x.add (_createError ("b"));
+        return "second";
+      });
+      final ParallelSections.Section <String> aThird = aSections.forkAfter (aFirst, x -> {
+        aCount.incrementAndGet ();
+        return "third";
+      });
+      assertEquals (2, aTasks.size ());
+
+      // Run the first section only
+      aTasks.remove (0).run ();
+      assertEquals (1, aCount.get ());
+      assertEquals ("first", aFirst.join (aErrorList));
+
+      // Skip the rest
+      aSections.cancelPending ();
+      while (aTasks.isNotEmpty ())
+        aTasks.remove (0).run ();
+      assertEquals (1, aCount.get ());
+      assertNull (aSecond.join (aErrorList));
+      assertNull (aThird.join (aErrorList));
+      assertTrue (aErrorList.isEmpty ());
+    }
+  }
+
+  @Test
+  public void testInvoiceSameAsSequential ()
+  {
+    for (final String sDir : new String [] { "src/test/resources/ubl20/invoice",
+                                             "src/test/resources/ubl20/invoice_bad" })
+      for (final File aFile : new FileSystemIterator (new File (sDir)).withFilter (IFileFilter.filenameEndsWith (".xml")))
+      {
+        final InvoiceType aUBLInvoice = UBL21Reader.invoice ().read (aFile);
+        if (aUBLInvoice == null)
+          continue;
+
+        for (final boolean bStrictERBMode : new boolean [] { false, true })
+          for (final boolean bFailFast : new boolean [] { false, true })
+          {
+            final ErrorList aSeqErrorList = new ErrorList ();
+            final String sExpected = _getResult (aSeqErrorList,
+                                                 InvoiceToEbInterface42Converter.builder ()
+                                                                                .setLocale (Locale.GERMANY)
+                                                                                .setStrictERBMode (bStrictERBMode)
+                                                                                .setFailFast (bFailFast)
+                                                                                .build ()
+                                                                                .convertToEbInterface (aUBLInvoice,
+                                                                                                       aSeqErrorList));
+
+            final ErrorList aParErrorList = new ErrorList ();
+            final String sParallel = _getResult (aParErrorList,
+                                                 InvoiceToEbInterface42Converter.builder ()
+                                                                                .setLocale (Locale.GERMANY)
+                                                                                .setStrictERBMode (bStrictERBMode)
+                                                                                .setFailFast (bFailFast)
+                                                                                .setParallelSections (true)
+                                                                                .build ()
+                                                                                .convertToEbInterface (aUBLInvoice,
+                                                                                                       aParErrorList));
+            assertEquals (aFile.getName (), sExpected, sParallel);
+          }
+      }
+  }
+
+  @Test
+  public void testCreditNoteSameAsSequential ()
+  {
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/creditnote")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      final CreditNoteType aUBLCreditNote = UBL21Reader.creditNote ().read (aFile);
+      assertFalse (aFile.getName (), aUBLCreditNote == null);
+
+      for (final boolean bStrictERBMode : new boolean [] { false, true })
+      {
+        final ErrorList aSeqErrorList = new ErrorList ();
+        final String sExpected = _getResult (aSeqErrorList,
+                                             CreditNoteToEbInterface42Converter.builder ()
+                                                                               .setLocale (Locale.GERMANY)
+                                                                               .setStrictERBMode (bStrictERBMode)
+                                                                               .build ()
+                                                                               .convertToEbInterface (aUBLCreditNote,
+                                                                                                      aSeqErrorList));
+
+        final ErrorList aParErrorList = new ErrorList ();
+        final String sParallel = _getResult (aParErrorList,
+                                             CreditNoteToEbInterface42Converter.builder ()
+                                                                               .setLocale (Locale.GERMANY)
+                                                                               .setStrictERBMode (bStrictERBMode)
+                                                                               .setParallelSections (true)
+                                                                               .build ()
+                                                                               .convertToEbInterface (aUBLCreditNote,
+                                                                                                      aParErrorList));
+        assertEquals (aFile.getName (), sExpected, sParallel);
+      }
+    }
+  }
+
+  @Test
+  public void testRelatedDocuments ()
+  {
+    // The related and referenced documents are converted in the header section
+    final CreditNoteType aUBLCreditNote = UBL21Reader.creditNote ()
+                                                     .read (new File ("src/test/resources/ubl20/creditnote/creditnote-with-all-elements.xml"));
+    assertFalse (aUBLCreditNote.getBillingReference ().isEmpty ());
+
+    final Ebi42InvoiceType aSequential = CreditNoteToEbInterface42Converter.builder ()
+                                                                            .setLocale (Locale.GERMANY)
+                                                                            .build ()
+                                                                            .convertToEbInterface (aUBLCreditNote,
+                                                                                                   new ErrorList ());
+    final Ebi42InvoiceType aParallel = CreditNoteToEbInterface42Converter.builder ()
+                                                                          .setLocale (Locale.GERMANY)
+                                                                          .setParallelSections (true)
+                                                                          .build ()
+                                                                          .convertToEbInterface (aUBLCreditNote,
+                                                                                                 new ErrorList ());
+    assertTrue (aSequential.getRelatedDocumentCount () > 0);
+    assertEquals (aSequential.getRelatedDocumentCount (), aParallel.getRelatedDocumentCount ());
+    for (int i = 0; i < aSequential.getRelatedDocumentCount (); ++i)
+      assertEquals (aSequential.getRelatedDocumentAtIndex (i).getInvoiceNumber (),
+                    aParallel.getRelatedDocumentAtIndex (i).getInvoiceNumber ());
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.error.IError;
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+import com.helger.peppol.identifier.peppol.doctype.IPeppolPredefinedDocumentTypeIdentifier;
+import com.helger.peppol.identifier.peppol.process.IPeppolPredefinedProcessIdentifier;
+import com.helger.peppol.identifier.peppol.process.PredefinedProcessIdentifierManager;
+
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.CustomizationIDType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link PeppolProfileIndex}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolProfileIndexTest
+{
+  @Test
+  public void testPredefined ()
+  {
+    assertTrue (PeppolProfileIndex.getPredefinedProcessIdentifierCount () > 0);
+    for (final IPeppolPredefinedProcessIdentifier aProcID : PredefinedProcessIdentifierManager.getAllProcessIdentifiers ())
+    {
+      final String sProfileID = aProcID.getValue ();
+      assertSame (PredefinedProcessIdentifierManager.getProcessIdentifierOfID (sProfileID),
+                  PeppolProfileIndex.getPredefinedProcessIdentifier (sProfileID));
+      assertSame (PeppolProfileIndex.getPredefinedProcessIdentifier (sProfileID),
+                  PeppolProfileIndex.getProcessIdentifier (sProfileID));
+
+      for (final IPeppolPredefinedDocumentTypeIdentifier aDocTypeID : aProcID.getDocumentTypeIdentifiers ())
+      {
+        final IPeppolPredefinedDocumentTypeIdentifier aFound = PeppolProfileIndex.getDocumentTypeIdentifier (sProfileID,
+                                                                                                           aDocTypeID.getAsUBLCustomizationID ());
+        assertNotNull (aFound);
+        assertEquals (aDocTypeID.getAsUBLCustomizationID (), aFound.getAsUBLCustomizationID ());
+      }
+      assertNull (PeppolProfileIndex.getDocumentTypeIdentifier (sProfileID, "urn:does:not:exist"));
+      assertNull (PeppolProfileIndex.getDocumentTypeIdentifier (sProfileID, null));
+    }
+
+    assertNull (PeppolProfileIndex.getPredefinedProcessIdentifier (null));
+    assertNull (PeppolProfileIndex.getPredefinedProcessIdentifier ("urn:does:not:exist"));
+    assertNull (PeppolProfileIndex.getDocumentTypeIdentifier ("urn:does:not:exist", "urn:does:not:exist"));
+  }
+
+  @Test
+  public void testBoundedCache ()
+  {
+    assertNull (PeppolProfileIndex.getProcessIdentifier (null));
+
+    // Repeated lookups return the same result
+    final String sProfileID = "urn:www.example.org:profile:custom:ver1.0";
+    final boolean bValid = PeppolProfileIndex.getProcessIdentifier (sProfileID) != null;
+    assertEquals (bValid, PeppolProfileIndex.getProcessIdentifier (sProfileID) != null);
+
+    for (int i = 0; i < 2 * PeppolProfileIndex.MAX_CACHED_PROFILE_IDS; ++i)
+      PeppolProfileIndex.getProcessIdentifier ("urn:www.example.org:profile:custom" + i + ":ver1.0");
+    assertTrue (PeppolProfileIndex.getCachedProfileIDCount () <= PeppolProfileIndex.MAX_CACHED_PROFILE_IDS);
+
+    // Still resolved when the cache is full
+    assertEquals (bValid,
+                  PeppolProfileIndex.getProcessIdentifier ("urn:www.example.org:profile:custom:ver2.0") != null);
+  }
+
+  private static boolean _containsCustomizationIDWarning (@Nonnull final ErrorList aErrorList)
+  {
+    for (final IError aError : aErrorList)
+      if (aError.getErrorFieldName () != null && aError.getErrorFieldName ().startsWith ("CustomizationID"))
+      {
+        assertEquals (EErrorLevel.WARN, aError.getErrorLevel ());
+        return true;
+      }
+    return false;
+  }
+
+  @Test
+  public void testCheckCustomizationID ()
+  {
+    final InvoiceToEbInterface42Converter aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                      .setLocale (Locale.GERMANY)
+                                                                                      .setCheckCustomizationID (true)
+                                                                                      .build ();
+    assertTrue (aConverter.isCheckCustomizationID ());
+    assertFalse (new InvoiceToEbInterface42Converter (Locale.GERMANY, Locale.GERMANY, false).isCheckCustomizationID ());
+
+    // Wrong schemeID
+    InvoiceType aUBLInvoice = new UBLDocumentGenerator (1).createInvoice ();
+    aUBLInvoice.getCustomizationID ().setSchemeID ("foo");
+    ErrorList aErrorList = new ErrorList ();
+    assertNotNull (aConverter.convertToEbInterface (aUBLInvoice, aErrorList));
+    assertTrue (aErrorList.toString (), _containsCustomizationIDWarning (aErrorList));
+
+    // Without check no warning
+    aErrorList = new ErrorList ();
+    assertNotNull (new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                        Locale.GERMANY,
+                                                        false).convertToEbInterface (aUBLInvoice, aErrorList));
+    assertFalse (aErrorList.toString (), _containsCustomizationIDWarning (aErrorList));
+
+    // No CustomizationID
+    aUBLInvoice = new UBLDocumentGenerator (1).createInvoice ();
+    aUBLInvoice.setCustomizationID ((CustomizationIDType) null);
+    aErrorList = new ErrorList ();
+    assertNotNull (aConverter.convertToEbInterface (aUBLInvoice, aErrorList));
+    assertTrue (aErrorList.toString (), _containsCustomizationIDWarning (aErrorList));
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxCategoryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IDType;
+
+/**
+ * Test class for class {@link TaxCategoryPercentResolver}.
+ *
+ * @author Philip Helger
+ */
+public final class TaxCategoryPercentResolverTest
+{
+  @Nonnull
+  private static IDType _createID (@Nullable final String sSchemeID, @Nullable final String sValue)
+  {
+    final IDType ret = new IDType ();
+    ret.setSchemeID (sSchemeID);
+    ret.setValue (sValue);
+    return ret;
+  }
+
+  @Nonnull
+  private static TaxCategoryType _createTaxCategory (@Nullable final String sTaxSchemeSchemeID,
+                                                     @Nullable final String sTaxSchemeID,
+                                                     @Nullable final String sTaxCategorySchemeID,
+                                                     @Nullable final String sTaxCategoryID)
+  {
+    final TaxSchemeType aTaxScheme = new TaxSchemeType ();
+    aTaxScheme.setID (_createID (sTaxSchemeSchemeID, sTaxSchemeID));
+    final TaxCategoryType ret = new TaxCategoryType ();
+    ret.setID (_createID (sTaxCategorySchemeID, sTaxCategoryID));
+    ret.setTaxScheme (aTaxScheme);
+    return ret;
+  }
+
+  @Test
+  public void testIsEqualTrimmed ()
+  {
+    assertTrue (TaxCategoryPercentResolver.isEqualTrimmed (null, null));
+    assertTrue (TaxCategoryPercentResolver.isEqualTrimmed ("", ""));
+    assertTrue (TaxCategoryPercentResolver.isEqualTrimmed ("", "  \t\n"));
+    assertTrue (TaxCategoryPercentResolver.isEqualTrimmed ("S", "S"));
+    assertTrue (TaxCategoryPercentResolver.isEqualTrimmed ("S", " S"));
+    assertTrue (TaxCategoryPercentResolver.isEqualTrimmed ("S", "S\n"));
+    assertTrue (TaxCategoryPercentResolver.isEqualTrimmed ("a b", "\ta b "));
+    assertFalse (TaxCategoryPercentResolver.isEqualTrimmed (null, "S"));
+    assertFalse (TaxCategoryPercentResolver.isEqualTrimmed ("S", null));
+    assertFalse (TaxCategoryPercentResolver.isEqualTrimmed ("S", "Z"));
+    assertFalse (TaxCategoryPercentResolver.isEqualTrimmed ("S", "SS"));
+    assertFalse (TaxCategoryPercentResolver.isEqualTrimmed ("S", "s"));
+    assertFalse (TaxCategoryPercentResolver.isEqualTrimmed ("", "S"));
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final TaxCategoryPercentResolver aResolver = new TaxCategoryPercentResolver ();
+    assertTrue (aResolver.isEmpty ());
+    assertNull (aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S")));
+
+    aResolver.addTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S", new BigDecimal ("20"));
+    aResolver.addTaxCategory ("UN/ECE 5153", "VAT", null, "AA", new BigDecimal ("10"));
+    assertFalse (aResolver.isEmpty ());
+    assertEquals (2, aResolver.getSize ());
+
+    assertEquals (new BigDecimal ("20"),
+                  aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S")));
+    assertEquals (new BigDecimal ("20"),
+                  aResolver.getPercentage (_createTaxCategory (" UN/ECE 5153", "VAT\n", "UN/ECE 5305 ", " S ")));
+    assertEquals (new BigDecimal ("10"), aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", null, "AA")));
+
+    // Scheme IDs are part of the key
+    assertNull (aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", null, "S")));
+    assertNull (aResolver.getPercentage (_createTaxCategory (null, "VAT", "UN/ECE 5305", "S")));
+    assertNull (aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "AA")));
+
+    // Incomplete tax categories
+    final TaxCategoryType aNoScheme = _createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S");
+    aNoScheme.setTaxScheme (null);
+    assertNull (aResolver.getPercentage (aNoScheme));
+    final TaxCategoryType aNoID = _createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S");
+    aNoID.setID ((IDType) null);
+    assertNull (aResolver.getPercentage (aNoID));
+
+    // Last one wins
+    aResolver.addTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S", new BigDecimal ("19"));
+    assertEquals (new BigDecimal ("19"),
+                  aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S")));
+  }
+
+  @Test
+  public void testNullTaxCategoryID ()
+  {
+    final TaxCategoryPercentResolver aResolver = new TaxCategoryPercentResolver ();
+    aResolver.addTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", null, new BigDecimal ("20"));
+    assertEquals (1, aResolver.getSize ());
+    assertNull (aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "S")));
+    assertNull (aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", "")));
+    assertEquals (new BigDecimal ("20"),
+                  aResolver.getPercentage (_createTaxCategory ("UN/ECE 5153", "VAT", "UN/ECE 5305", null)));
+  }
+
+  @Test
+  public void testGrow ()
+  {
+    final TaxCategoryPercentResolver aResolver = new TaxCategoryPercentResolver ();
+    for (int i = 0; i < 100; ++i)
+      aResolver.addTaxCategory (null, "VAT", null, "C" + i, BigDecimal.valueOf (i));
+    assertEquals (100, aResolver.getSize ());
+    for (int i = 0; i < 100; ++i)
+      assertEquals (BigDecimal.valueOf (i), aResolver.getPercentage (_createTaxCategory (null, "VAT", null, "C" + i)));
+  }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link TotalsAccumulator}.
+ *
+ * @author Philip Helger
+ */
+public final class TotalsAccumulatorTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final TotalsAccumulator aTotals = new TotalsAccumulator ();
+    assertEquals (0, aTotals.getLineCount ());
+    assertEquals (0, BigDecimal.ZERO.compareTo (aTotals.getTaxExclusiveAmount ()));
+    assertTrue (aTotals.getAllVATRates ().isEmpty ());
+    assertTrue (aTotals.isAllVATRatesKnown ());
+
+    aTotals.addLine (new BigDecimal ("20"), new BigDecimal ("100.00"));
+    aTotals.addLine (new BigDecimal ("20.00"), new BigDecimal ("50.50"));
+    aTotals.addLine (new BigDecimal ("10"), new BigDecimal ("10"));
+    assertEquals (3, aTotals.getLineCount ());
+    assertEquals (new BigDecimal ("160.50"), aTotals.getLineItemAmount ());
+    // Different scales are the same rate
+    assertEquals (2, aTotals.getAllVATRates ().size ());
+    assertEquals (new BigDecimal ("150.50"), aTotals.getTaxableAmount (new BigDecimal ("20.0")));
+    assertEquals (0, BigDecimal.ZERO.compareTo (aTotals.getTaxableAmount (BigDecimal.ZERO)));
+
+    aTotals.addAllowanceCharge (false, new BigDecimal ("20"), new BigDecimal ("0.50"));
+    aTotals.addAllowanceCharge (true, new BigDecimal ("10"), new BigDecimal ("5"));
+    assertEquals (new BigDecimal ("0.50"), aTotals.getAllowanceTotalAmount ());
+    assertEquals (new BigDecimal ("5"), aTotals.getChargeTotalAmount ());
+    assertEquals (new BigDecimal ("165.00"), aTotals.getTaxExclusiveAmount ());
+    assertEquals (new BigDecimal ("150.00"), aTotals.getTaxableAmount (new BigDecimal ("20")));
+    assertEquals (new BigDecimal ("15"), aTotals.getTaxableAmount (new BigDecimal ("10")));
+    assertTrue (aTotals.isAllVATRatesKnown ());
+
+    // Unknown VAT rate
+    aTotals.addAllowanceCharge (true, null, BigDecimal.ONE);
+    assertEquals (new BigDecimal ("6"), aTotals.getChargeTotalAmount ());
+    assertFalse (aTotals.isAllVATRatesKnown ());
+    assertEquals (2, aTotals.getAllVATRates ().size ());
+    assertNotNull (aTotals.toString ());
+  }
+
+  @Test
+  public void testVerifyGeneratedDocuments ()
+  {
+    final InvoiceToEbInterface42Converter aInvoiceConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                             .setLocale (Locale.GERMANY)
+                                                                                             .setTotalsTolerance (AbstractToEbInterfaceConverter.DEFAULT_TOTALS_TOLERANCE)
+                                                                                             .build ();
+    final CreditNoteToEbInterface42Converter aCreditNoteConverter = CreditNoteToEbInterface42Converter.builder ()
+                                                                                                      .setLocale (Locale.GERMANY)
+                                                                                                      .setTotalsTolerance (AbstractToEbInterfaceConverter.DEFAULT_TOTALS_TOLERANCE)
+                                                                                                      .build ();
+    assertEquals (AbstractToEbInterfaceConverter.DEFAULT_TOTALS_TOLERANCE, aInvoiceConverter.getTotalsTolerance ());
+    assertNull (new InvoiceToEbInterface42Converter (Locale.GERMANY, Locale.GERMANY, false).getTotalsTolerance ());
+
+    for (int i = 0; i < 8; ++i)
+    {
+      final UBLDocumentGenerator aGenerator = new UBLDocumentGenerator (i).setLineCount (10 + i * 20)
+                                                                          .setTaxCategoryCount (1 + i)
+                                                                          .setAllowanceChargeCount (i)
+                                                                          .setLineAllowanceChargeCount (i % 3);
+      ErrorList aErrorList = new ErrorList ();
+      assertNotNull (aInvoiceConverter.convertToEbInterface (aGenerator.createInvoice (), aErrorList));
+      assertTrue (aErrorList.toString (), aErrorList.isEmpty ());
+
+      aErrorList = new ErrorList ();
+      assertNotNull (aCreditNoteConverter.convertToEbInterface (aGenerator.createCreditNote (), aErrorList));
+      assertTrue (aErrorList.toString (), aErrorList.isEmpty ());
+    }
+  }
+
+  @Test
+  public void testMismatch ()
+  {
+    final InvoiceType aUBLInvoice = new UBLDocumentGenerator (1).createInvoice ();
+    aUBLInvoice.getLegalMonetaryTotal ().setLineExtensionAmount (aUBLInvoice.getLegalMonetaryTotal ()
+                                                                            .getLineExtensionAmountValue ()
+                                                                            .add (BigDecimal.ONE));
+
+    // Not verified by default
+    ErrorList aErrorList = new ErrorList ();
+    assertNotNull (new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                        Locale.GERMANY,
+                                                        false).convertToEbInterface (aUBLInvoice, aErrorList));
+    assertTrue (aErrorList.toString (), aErrorList.isEmpty ());
+
+    // Warning
+    aErrorList = new ErrorList ();
+    assertNotNull (InvoiceToEbInterface42Converter.builder ()
+                                                  .setLocale (Locale.GERMANY)
+                                                  .setTotalsTolerance (AbstractToEbInterfaceConverter.DEFAULT_TOTALS_TOLERANCE)
+                                                  .build ()
+                                                  .convertToEbInterface (aUBLInvoice, aErrorList));
+    assertEquals (aErrorList.toString (), 1, aErrorList.getAllItems ().size ());
+    assertEquals (EErrorLevel.WARN, aErrorList.getMostSevereErrorLevel ());
+
+    // Error
+    aErrorList = new ErrorList ();
+    assertNull (InvoiceToEbInterface42Converter.builder ()
+                                               .setLocale (Locale.GERMANY)
+                                               .setTotalsTolerance (AbstractToEbInterfaceConverter.DEFAULT_TOTALS_TOLERANCE)
+                                               .setTotalsMismatchIsError (true)
+                                               .build ()
+                                               .convertToEbInterface (aUBLInvoice, aErrorList));
+    assertTrue (aErrorList.toString (), aErrorList.containsAtLeastOneError ());
+
+    // Within the tolerance
+    aErrorList = new ErrorList ();
+    assertNotNull (InvoiceToEbInterface42Converter.builder ()
+                                                  .setLocale (Locale.GERMANY)
+                                                  .setTotalsTolerance (BigDecimal.ONE)
+                                                  .setTotalsMismatchIsError (true)
+                                                  .build ()
+                                                  .convertToEbInterface (aUBLInvoice, aErrorList));
+    assertTrue (aErrorList.toString (), aErrorList.isEmpty ());
+
+    // Taxable amount per tax rate
+    final CreditNoteType aUBLCreditNote = new UBLDocumentGenerator (2).setTaxCategoryCount (2).createCreditNote ();
+    aUBLCreditNote.getTaxTotalAtIndex (0)
+                  .getTaxSubtotalAtIndex (0)
+                  .setTaxableAmount (aUBLCreditNote.getTaxTotalAtIndex (0)
+                                                   .getTaxSubtotalAtIndex (0)
+                                                   .getTaxableAmountValue ()
+                                                   .add (BigDecimal.TEN));
+    aErrorList = new ErrorList ();
+    assertNotNull (CreditNoteToEbInterface42Converter.builder ()
+                                                     .setLocale (Locale.GERMANY)
+                                                     .setTotalsTolerance (AbstractToEbInterfaceConverter.DEFAULT_TOTALS_TOLERANCE)
+                                                     .build ()
+                                                     .convertToEbInterface (aUBLCreditNote, aErrorList));
+    assertEquals (aErrorList.toString (), 1, aErrorList.getAllItems ().size ());
+    assertEquals (EErrorLevel.WARN, aErrorList.getMostSevereErrorLevel ());
+  }
+}
@@ -16,6 +16,8 @@
  */
 package com.helger.ebinterface.ubl.from.invoice;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -30,6 +32,7 @@ import org.w3c.dom.Document;
 
 import com.helger.commons.collection.ext.CommonsArrayList;
 import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.IError;
 import com.helger.commons.error.level.EErrorLevel;
 import com.helger.commons.error.list.ErrorList;
 import com.helger.commons.io.file.FileHelper;
@@ -39,6 +42,7 @@ import com.helger.commons.io.file.iterate.FileSystemIterator;
 import com.helger.commons.io.resource.FileSystemResource;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.ebinterface.ubl.from.Ebi42TestMarshaller;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
 import com.helger.ebinterface.v42.Ebi42InvoiceType;
 import com.helger.ubl21.UBL21Reader;
 
@@ -166,4 +170,102 @@ public final class InvoiceToEbInterface42ConverterTest
       assertNull (aDocEb);
     }
   }
+
+  @Test
+  public void testFailFast ()
+  {
+    final ICommonsList <File> aTestFiles = new CommonsArrayList<> ();
+    for (final String sDir : new String [] { "src/test/resources/ubl20/invoice",
+                                             "src/test/resources/ubl20/invoice_bad",
+                                             "src/test/resources/bogus" })
+      for (final File aFile : new FileSystemIterator (new File (sDir)).withFilter (IFileFilter.filenameEndsWith (".xml")))
+        aTestFiles.add (aFile);
+
+    for (final boolean bStrictERBMode : new boolean [] { false, true })
+    {
+      final InvoiceToEbInterface42Converter aConverter = new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                                              Locale.GERMANY,
+                                                                                              bStrictERBMode);
+      final InvoiceToEbInterface42Converter aFailFastConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                                .setLocale (Locale.GERMANY)
+                                                                                                .setStrictERBMode (bStrictERBMode)
+                                                                                                .setFailFast (true)
+                                                                                                .build ();
+      assertFalse (aConverter.isFailFast ());
+      assertTrue (aFailFastConverter.isFailFast ());
+
+      for (final File aFile : aTestFiles)
+      {
+        final InvoiceType aUBLInvoice = UBL21Reader.invoice ().read (aFile);
+        if (aUBLInvoice == null)
+          continue;
+
+        final ErrorList aErrorList = new ErrorList ();
+        final Ebi42InvoiceType aEbInvoice = aConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+
+        final ErrorList aFailFastErrorList = new ErrorList ();
+        final Ebi42InvoiceType aFailFastEbInvoice = aFailFastConverter.convertToEbInterface (aUBLInvoice,
+                                                                                            aFailFastErrorList);
+
+        // The fail-fast errors must be the beginning of the regular errors
+        final ICommonsList <IError> aErrors = aErrorList.getAllItems ();
+        final ICommonsList <IError> aFailFastErrors = aFailFastErrorList.getAllItems ();
+        assertTrue (aFile.getPath (), aFailFastErrors.size () <= aErrors.size ());
+        for (int i = 0; i < aFailFastErrors.size (); ++i)
+          assertEquals (aFile.getPath (), aErrors.get (i), aFailFastErrors.get (i));
+
+        if (aErrorList.containsAtLeastOneError ())
+        {
+          assertNull (aFile.getPath (), aFailFastEbInvoice);
+          assertTrue (aFile.getPath (), aFailFastErrorList.containsAtLeastOneError ());
+        }
+        else
+        {
+          assertNotNull (aFile.getPath (), aEbInvoice);
+          assertNotNull (aFile.getPath (), aFailFastEbInvoice);
+          assertEquals (aFile.getPath (), aErrors, aFailFastErrors);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidIBAN ()
+  {
+    for (final boolean bStrictERBMode : new boolean [] { false, true })
+    {
+      final InvoiceToEbInterface42Converter aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                      .setLocale (Locale.GERMANY)
+                                                                                      .setStrictERBMode (bStrictERBMode)
+                                                                                      .setFailFast (true)
+                                                                                      .build ();
+
+      // Printed format with spaces is fine
+      final InvoiceType aUBLInvoice = new UBLDocumentGenerator (1).setPaymentMeansCount (1).createInvoice ();
+      aUBLInvoice.getPaymentMeansAtIndex (0).getPayeeFinancialAccount ().setID ("AT05 1111 2222 3333 0000");
+      ErrorList aErrorList = new ErrorList ();
+      final Ebi42InvoiceType aEbInvoice = aConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+      assertNotNull (aErrorList.toString (), aEbInvoice);
+      assertTrue (aErrorList.toString (), aErrorList.isEmpty ());
+      assertEquals ("AT051111222233330000",
+                    aEbInvoice.getPaymentMethod ()
+                              .getUniversalBankTransaction ()
+                              .getBeneficiaryAccountAtIndex (0)
+                              .getIBAN ());
+
+      // Wrong check digits
+      aUBLInvoice.getPaymentMeansAtIndex (0).getPayeeFinancialAccount ().setID ("AT48 1111 2222 3333 0000");
+      aErrorList = new ErrorList ();
+      assertNull (aConverter.convertToEbInterface (aUBLInvoice, aErrorList));
+      assertTrue (aErrorList.toString (), aErrorList.containsAtLeastOneError ());
+      assertEquals ("PaymentMeans[0]/PayeeFinancialAccount/ID",
+                    aErrorList.getAllItems ().getLast ().getErrorFieldName ());
+
+      // Wrong length
+      aUBLInvoice.getPaymentMeansAtIndex (0).getPayeeFinancialAccount ().setID ("AT0511112222333300");
+      aErrorList = new ErrorList ();
+      assertNull (aConverter.convertToEbInterface (aUBLInvoice, aErrorList));
+      assertTrue (aErrorList.toString (), aErrorList.containsAtLeastOneError ());
+    }
+  }
 }
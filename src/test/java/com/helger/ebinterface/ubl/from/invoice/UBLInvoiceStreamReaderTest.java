@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.invoice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.error.IError;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.io.file.FileHelper;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.file.filter.IFileFilter;
+import com.helger.commons.io.file.iterate.FileSystemIterator;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Reader;
+
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link UBLInvoiceStreamReader}.
+ *
+ * @author Philip Helger
+ */
+public final class UBLInvoiceStreamReaderTest
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (UBLInvoiceStreamReaderTest.class);
+
+  /** Size of the generated big invoice in MB */
+  private static final int BIG_INVOICE_MB = Integer.getInteger ("ebi.test.streaming.mb", 50).intValue ();
+  /** Max heap of the JVM converting the big invoice */
+  private static final String BIG_INVOICE_XMX = System.getProperty ("ebi.test.streaming.xmx", "32m");
+
+  /**
+   * ErrorList.toString () contains object identities and can therefore not be
+   * used for comparison.
+   */
+  @Nonnull
+  private static String _getAsString (@Nonnull final ErrorList aErrorList)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (final IError aError : aErrorList)
+      aSB.append (aError.getErrorLevel ().getID ())
+         .append (' ')
+         .append (aError.getErrorFieldName ())
+         .append (' ')
+         .append (aError.getErrorText (Locale.GERMANY))
+         .append ('\n');
+    return aSB.toString ();
+  }
+
+  @Test
+  public void testSameResultAsDOM ()
+  {
+    final EbInterfaceWriter <Ebi42InvoiceType> aEbiWriter = EbInterfaceWriter.ebInterface42 ();
+    final InvoiceToEbInterface42Converter aConverter = new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                                            Locale.GERMANY,
+                                                                                            false);
+    for (final File aFile : new FileSystemIterator (new File ("src/test/resources/ubl20/invoice")).withFilter (IFileFilter.filenameEndsWith (".xml")))
+    {
+      s_aLogger.info (aFile.getPath ());
+
+      // Regular way
+      final InvoiceType aUBLInvoice = UBL21Reader.invoice ().read (aFile);
+      assertNotNull (aUBLInvoice);
+      final ErrorList aErrorList = new ErrorList ();
+      final Ebi42InvoiceType aEbInvoice = aConverter.convertToEbInterface (aUBLInvoice, aErrorList);
+      assertNotNull (aEbInvoice);
+
+      // Streaming way
+      final ErrorList aErrorList2 = new ErrorList ();
+      Ebi42InvoiceType aEbInvoice2;
+      try (final UBLInvoiceStreamReader aReader = UBLInvoiceStreamReader.create (FileHelper.getInputStream (aFile)))
+      {
+        assertNotNull (aReader);
+        aEbInvoice2 = aConverter.convertToEbInterface (aReader, null, aErrorList2);
+        assertEquals (aUBLInvoice.getInvoiceLineCount (), aReader.getLineCount ());
+      }
+      assertNotNull (aEbInvoice2);
+
+      assertEquals (_getAsString (aErrorList), _getAsString (aErrorList2));
+      assertEquals (aEbiWriter.getAsString (aEbInvoice), aEbiWriter.getAsString (aEbInvoice2));
+    }
+  }
+
+  /**
+   * Create a big invoice by repeating the first invoice line of an existing
+   * invoice until the desired size is reached.
+   */
+  private static int _createBigInvoice (final File aSrcFile,
+                                        final File aDestFile,
+                                        final long nTargetBytes) throws IOException
+  {
+    final String sSrc = SimpleFileIO.getFileAsString (aSrcFile, StandardCharsets.UTF_8);
+    final int nLineStart = sSrc.indexOf ("<cac:InvoiceLine>");
+    final int nLineEnd = sSrc.indexOf ("</cac:InvoiceLine>") + "</cac:InvoiceLine>".length ();
+    final int nFooterStart = sSrc.lastIndexOf ("</cac:InvoiceLine>") + "</cac:InvoiceLine>".length ();
+    final String sHeader = sSrc.substring (0, nLineStart);
+    final String sLine = sSrc.substring (nLineStart, nLineEnd);
+    final String sFooter = sSrc.substring (nFooterStart);
+
+    int nLines = 0;
+    long nBytes = sHeader.length () + sFooter.length ();
+    try (final Writer aWriter = FileHelper.getBufferedWriter (aDestFile, StandardCharsets.UTF_8))
+    {
+      aWriter.write (sHeader);
+      while (nBytes < nTargetBytes)
+      {
+        aWriter.write (sLine);
+        aWriter.write ('\n');
+        nBytes += sLine.length () + 1;
+        nLines++;
+      }
+      aWriter.write (sFooter);
+    }
+    return nLines;
+  }
+
+  /**
+   * Entry point for the JVM with the small heap
+   *
+   * @param aArgs
+   *        The file to convert
+   */
+  public static void main (final String [] aArgs)
+  {
+    final AtomicInteger aCount = new AtomicInteger ();
+    final ErrorList aErrorList = new ErrorList ();
+    try (final UBLInvoiceStreamReader aReader = UBLInvoiceStreamReader.create (FileHelper.getInputStream (new File (aArgs[0]))))
+    {
+      final Ebi42InvoiceType aEbInvoice = new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                               Locale.GERMANY,
+                                                                               false).convertToEbInterface (aReader,
+                                                                                                            x -> aCount.incrementAndGet (),
+                                                                                                            aErrorList);
+      if (aEbInvoice == null)
+        System.exit (2);
+    }
+    System.out.println ("LINES=" + aCount.get ());
+  }
+
+  @Test
+  public void testBigInvoiceWithSmallHeap () throws Exception
+  {
+    final File aSrcFile = new File ("src/test/resources/ubl20/invoice/20120828104552.325.xml");
+    final File aBigFile = new File ("target/streaming-big-invoice.xml");
+    final int nLines = _createBigInvoice (aSrcFile, aBigFile, BIG_INVOICE_MB * 1024L * 1024L);
+    s_aLogger.info ("Created " + aBigFile.length () + " bytes invoice with " + nLines + " lines");
+
+    try
+    {
+      final Process aProcess = new ProcessBuilder (new File (System.getProperty ("java.home"), "bin/java").getAbsolutePath (),
+                                                   "-Xmx" + BIG_INVOICE_XMX,
+                                                   "-cp",
+                                                   System.getProperty ("java.class.path"),
+                                                   UBLInvoiceStreamReaderTest.class.getName (),
+                                                   aBigFile.getAbsolutePath ()).redirectErrorStream (true).start ();
+      final String sOutput = StreamHelper.getAllBytesAsString (aProcess.getInputStream (), StandardCharsets.UTF_8);
+      assertTrue ("Timeout", aProcess.waitFor (30, TimeUnit.MINUTES));
+      assertEquals (sOutput, 0, aProcess.exitValue ());
+      assertTrue (sOutput, sOutput.contains ("LINES=" + nLines));
+    }
+    finally
+    {
+      FileHelper.getFileOperationManager ().deleteFileIfExisting (aBigFile);
+    }
+  }
+}
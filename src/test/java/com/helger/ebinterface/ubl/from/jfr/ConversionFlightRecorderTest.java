@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.EDocumentRoute;
+import com.helger.ebinterface.ubl.from.EConversionPhase;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+import com.helger.ebinterface.ubl.to.EbInterface42ToInvoiceConverter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link ConversionFlightRecorder}.
+ *
+ * @author Philip Helger
+ */
+public final class ConversionFlightRecorderTest
+{
+  /**
+   * Run the passed action with a new listener while a recording with the passed
+   * event threshold is running.
+   */
+  @Nonnull
+  private static List <RecordedEvent> _record (@Nonnull final Duration aThreshold,
+                                               @Nonnull final Consumer <ConversionFlightRecorder> aAction) throws Exception
+  {
+    final ConversionFlightRecorder aRecorder = new ConversionFlightRecorder ();
+    final Path aFile = Files.createTempFile ("ebinterface-ubl", ".jfr");
+    try
+    {
+      try (final Recording aRecording = new Recording ())
+      {
+        aRecording.enable (ConversionFlightRecorder.CONVERSION_EVENT_NAME).withThreshold (aThreshold).withStackTrace ();
+        aRecording.enable (ConversionFlightRecorder.PHASE_EVENT_NAME).withThreshold (aThreshold);
+        aRecording.start ();
+
+        aAction.accept (aRecorder);
+
+        aRecording.stop ();
+        aRecording.dump (aFile);
+      }
+      return RecordingFile.readAllEvents (aFile);
+    }
+    finally
+    {
+      Files.delete (aFile);
+    }
+  }
+
+  /**
+   * Convert a generated UBL invoice to ebInterface and back with the passed
+   * listener.
+   */
+  private static void _convert (@Nonnull final ConversionFlightRecorder aRecorder)
+  {
+    final InvoiceType aUBLInvoice = new UBLDocumentGenerator (1).setLineCount (30).createInvoice ();
+    final ErrorList aErrorList = new ErrorList ();
+    final Ebi42InvoiceType aEbInvoice = InvoiceToEbInterface42Converter.builder ()
+                                                                       .setLocale (Locale.GERMANY)
+                                                                       .setStrictERBMode (true)
+                                                                       .setPhaseListener (aRecorder)
+                                                                       .build ()
+                                                                       .convertToEbInterface (aUBLInvoice, aErrorList);
+    assertNotNull (aEbInvoice);
+    assertTrue (aErrorList.isEmpty ());
+    assertNotNull (new EbInterface42ToInvoiceConverter (Locale.GERMANY,
+                                                        Locale.GERMANY,
+                                                        aRecorder).convertInvoice (aEbInvoice));
+  }
+
+  @Test
+  public void testAllEvents () throws Exception
+  {
+    final List <RecordedEvent> aEvents = _record (Duration.ZERO, ConversionFlightRecorderTest::_convert);
+
+    final ICommonsList <RecordedEvent> aConversions = new CommonsArrayList <> ();
+    final ICommonsList <String> aPhases = new CommonsArrayList <> ();
+    for (final RecordedEvent aEvent : aEvents)
+    {
+      final String sName = aEvent.getEventType ().getName ();
+      if (ConversionFlightRecorder.CONVERSION_EVENT_NAME.equals (sName))
+        aConversions.add (aEvent);
+      else
+        if (ConversionFlightRecorder.PHASE_EVENT_NAME.equals (sName))
+        {
+          assertNull (aEvent.getStackTrace ());
+          assertFalse (aEvent.getDuration ().isNegative ());
+          aPhases.add (aEvent.getString ("route") + "." + aEvent.getString ("phase"));
+        }
+    }
+
+    assertEquals (2, aConversions.size ());
+    final RecordedEvent aUBLConversion = aConversions.findFirst (x -> x.getString ("route")
+                                                                       .equals (EDocumentRoute.UBL_INVOICE.name ()));
+    assertNotNull (aUBLConversion);
+    assertTrue (aUBLConversion.getBoolean ("strictERBMode"));
+    assertTrue (aUBLConversion.getBoolean ("success"));
+    assertEquals (30, aUBLConversion.getInt ("lineCount"));
+    assertEquals (0, aUBLConversion.getInt ("errorCount"));
+    assertEquals (0, aUBLConversion.getInt ("warningCount"));
+    assertTrue (aUBLConversion.getDuration ().toNanos () > 0);
+    assertNotNull (aUBLConversion.getStackTrace ());
+
+    final RecordedEvent aEbiConversion = aConversions.findFirst (x -> x.getString ("route")
+                                                                       .equals (EDocumentRoute.EBINTERFACE_42.name ()));
+    assertNotNull (aEbiConversion);
+    assertEquals (30, aEbiConversion.getInt ("lineCount"));
+
+    assertTrue (aPhases.contains (EDocumentRoute.UBL_INVOICE.name () + "." + EConversionPhase.CONSISTENCY_CHECK.name ()));
+    assertTrue (aPhases.contains (EDocumentRoute.UBL_INVOICE.name () + "." + EConversionPhase.LINES.name ()));
+    assertTrue (aPhases.contains (EDocumentRoute.EBINTERFACE_42.name () + "." + EConversionPhase.LINES.name ()));
+    assertTrue (aPhases.contains (EDocumentRoute.EBINTERFACE_42.name () + "." + EConversionPhase.TAX_TOTALS.name ()));
+  }
+
+  @Test
+  public void testThreshold () throws Exception
+  {
+    for (final RecordedEvent aEvent : _record (Duration.ofHours (1), ConversionFlightRecorderTest::_convert))
+      assertTrue (aEvent.getEventType ().getName (), !aEvent.getEventType ().getName ().startsWith ("com.helger."));
+  }
+
+  @Test
+  public void testAbortedPhase () throws Exception
+  {
+    final List <RecordedEvent> aEvents = _record (Duration.ZERO, aRecorder -> {
+      // A conversion that was aborted by an exception in the header phase
+      aRecorder.onConversionStart (EDocumentRoute.UBL_INVOICE, false);
+      aRecorder.onPhaseStart (EDocumentRoute.UBL_INVOICE, EConversionPhase.HEADER);
+
+      // A regular conversion afterwards
+      aRecorder.onConversionStart (EDocumentRoute.UBL_CREDIT_NOTE, false);
+      aRecorder.onPhaseStart (EDocumentRoute.UBL_CREDIT_NOTE, EConversionPhase.LINES);
+      aRecorder.onPhaseEnd (EDocumentRoute.UBL_CREDIT_NOTE, EConversionPhase.LINES, 0, 5);
+      // Not started
+      aRecorder.onPhaseEnd (EDocumentRoute.UBL_CREDIT_NOTE, EConversionPhase.PAYMENT, 0, 1);
+      aRecorder.onConversionEnd (EDocumentRoute.UBL_CREDIT_NOTE, false, 0, 5, new ErrorList (), true);
+    });
+
+    final ICommonsList <RecordedEvent> aOwnEvents = new CommonsArrayList <> ();
+    for (final RecordedEvent aEvent : aEvents)
+      if (aEvent.getEventType ().getName ().startsWith ("com.helger."))
+        aOwnEvents.add (aEvent);
+    assertEquals (2, aOwnEvents.size ());
+
+    final RecordedEvent aPhase = aOwnEvents.findFirst (x -> x.getEventType ()
+                                                             .getName ()
+                                                             .equals (ConversionFlightRecorder.PHASE_EVENT_NAME));
+    assertNotNull (aPhase);
+    assertEquals (EDocumentRoute.UBL_CREDIT_NOTE.name (), aPhase.getString ("route"));
+    assertEquals (EConversionPhase.LINES.name (), aPhase.getString ("phase"));
+    assertEquals (5, aPhase.getInt ("elementCount"));
+
+    final RecordedEvent aConversion = aOwnEvents.findFirst (x -> x.getEventType ()
+                                                                  .getName ()
+                                                                  .equals (ConversionFlightRecorder.CONVERSION_EVENT_NAME));
+    assertNotNull (aConversion);
+    assertEquals (EDocumentRoute.UBL_CREDIT_NOTE.name (), aConversion.getString ("route"));
+    assertEquals (5, aConversion.getInt ("lineCount"));
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.ubl.from.AbstractToEbInterfaceConverter.EText;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.ubl.generator.UBLDocumentGenerator;
+
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.UBLVersionIDType;
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link ConversionStatistics}.
+ *
+ * @author Philip Helger
+ */
+public final class ConversionStatisticsTest
+{
+  private static final int THREAD_COUNT = 64;
+
+  @Test
+  public void testConcurrent () throws Exception
+  {
+    final ConversionStatistics aStats = new ConversionStatistics ();
+    final InvoiceToEbInterface42Converter aInvoiceConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                             .setLocale (Locale.GERMANY)
+                                                                                             .setPhaseListener (aStats)
+                                                                                             .build ();
+    final CreditNoteToEbInterface42Converter aCreditNoteConverter = CreditNoteToEbInterface42Converter.builder ()
+                                                                                                      .setLocale (Locale.GERMANY)
+                                                                                                      .setPhaseListener (aStats)
+                                                                                                      .build ();
+    final InvoiceType aSmallInvoice = new UBLDocumentGenerator (1).setLineCount (5).createInvoice ();
+    final InvoiceType aMediumInvoice = new UBLDocumentGenerator (2).setLineCount (200).createInvoice ();
+    final CreditNoteType aCreditNote = new UBLDocumentGenerator (3).setLineCount (20).createCreditNote ();
+    final InvoiceType aBadInvoice = new UBLDocumentGenerator (4).setLineCount (1).createInvoice ();
+    aBadInvoice.setUBLVersionID ((UBLVersionIDType) null);
+
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (THREAD_COUNT);
+    try
+    {
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < THREAD_COUNT; ++i)
+        aFutures.add (aExecutor.submit ( () -> {
+          assertNotNull (aInvoiceConverter.convertToEbInterface (aSmallInvoice, new ErrorList ()));
+          assertNotNull (aInvoiceConverter.convertToEbInterface (aMediumInvoice, new ErrorList ()));
+          assertNotNull (aCreditNoteConverter.convertToEbInterface (aCreditNote, new ErrorList ()));
+          assertNull (aInvoiceConverter.convertToEbInterface (aBadInvoice, new ErrorList ()));
+        }));
+      for (final Future <?> aFuture : aFutures)
+        aFuture.get ();
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      assertTrue (aExecutor.awaitTermination (1, TimeUnit.MINUTES));
+    }
+
+    assertEquals (3 * THREAD_COUNT, aStats.getDocumentsConverted ());
+    assertEquals (THREAD_COUNT, aStats.getDocumentsFailed ());
+    assertEquals (0, aStats.getDocumentsWithWarnings ());
+    // The lines of the failed document are not converted
+    assertEquals ((5 + 200 + 20) * THREAD_COUNT, aStats.getLinesConverted ());
+    assertEquals (2 * THREAD_COUNT, aStats.getLatencyHistogram (EDocumentSizeClass.TINY).getTotalCount ());
+    assertEquals (THREAD_COUNT, aStats.getLatencyHistogram (EDocumentSizeClass.SMALL).getTotalCount ());
+    assertEquals (THREAD_COUNT, aStats.getLatencyHistogram (EDocumentSizeClass.MEDIUM).getTotalCount ());
+    assertEquals (0, aStats.getLatencyHistogram (EDocumentSizeClass.HUGE).getTotalCount ());
+    assertEquals (THREAD_COUNT, aStats.getErrorTextCount (EText.NO_UBL_VERSION_ID));
+
+    final Map <String, Long> aLatencies = aStats.getLatencyMicros ();
+    assertEquals (Long.valueOf (THREAD_COUNT), aLatencies.get ("MEDIUM.count"));
+    assertTrue (aLatencies.get ("MEDIUM.p99").longValue () <= aLatencies.get ("MEDIUM.max").longValue ());
+    assertNull (aLatencies.get ("HUGE.count"));
+    assertEquals (Long.valueOf (THREAD_COUNT), aStats.getErrorTextCounts ().get (EText.NO_UBL_VERSION_ID.name ()));
+
+    aStats.reset ();
+    assertEquals (0, aStats.getDocumentsConverted ());
+    assertTrue (aStats.getLatencyMicros ().isEmpty ());
+    assertTrue (aStats.getErrorTextCounts ().isEmpty ());
+  }
+
+  @Test
+  public void testJMX () throws Exception
+  {
+    final ConversionStatistics aStats = new ConversionStatistics ();
+    final String sName = "test-" + System.nanoTime ();
+    assertTrue (aStats.registerMBean (sName).isSuccess ());
+    try
+    {
+      final InvoiceToEbInterface42Converter aConverter = InvoiceToEbInterface42Converter.builder ()
+                                                                                        .setLocale (Locale.GERMANY)
+                                                                                        .setPhaseListener (aStats)
+                                                                                        .build ();
+      assertNotNull (aConverter.convertToEbInterface (new UBLDocumentGenerator (5).createInvoice (), new ErrorList ()));
+
+      final MBeanServer aServer = ManagementFactory.getPlatformMBeanServer ();
+      final ObjectName aName = ConversionStatistics.getObjectName (sName);
+      assertEquals (Long.valueOf (1), aServer.getAttribute (aName, "DocumentsConverted"));
+      assertTrue (aServer.getAttribute (aName, "LatencyMicros") instanceof TabularData);
+      aServer.invoke (aName, "reset", null, null);
+      assertEquals (Long.valueOf (0), aServer.getAttribute (aName, "DocumentsConverted"));
+    }
+    finally
+    {
+      assertTrue (ConversionStatistics.unregisterMBean (sName).isSuccess ());
+    }
+  }
+}
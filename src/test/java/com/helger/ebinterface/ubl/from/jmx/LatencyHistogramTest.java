@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.from.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link LatencyHistogram}.
+ *
+ * @author Philip Helger
+ */
+public final class LatencyHistogramTest
+{
+  @Test
+  public void testBucketIndex ()
+  {
+    // Exact values
+    for (int i = 0; i < 16; ++i)
+    {
+      assertEquals (i, LatencyHistogram.getBucketIndex (i));
+      assertEquals (i, LatencyHistogram.getHighestValueInBucket (i));
+    }
+
+    // Each value is within its bucket and the relative error is below 12.5%
+    int nLastIndex = 0;
+    for (long nValue = 1; nValue > 0 && nValue < Long.MAX_VALUE / 3; nValue = nValue * 3 + 1)
+    {
+      final int nIndex = LatencyHistogram.getBucketIndex (nValue);
+      assertTrue (nIndex >= nLastIndex);
+      final long nHighest = LatencyHistogram.getHighestValueInBucket (nIndex);
+      assertTrue (nValue + " > " + nHighest, nHighest >= nValue);
+      assertTrue (nValue + " vs. " + nHighest, nHighest - nValue <= nValue / 8);
+      if (nIndex > 0)
+        assertTrue (LatencyHistogram.getHighestValueInBucket (nIndex - 1) < nValue);
+      nLastIndex = nIndex;
+    }
+    assertTrue (LatencyHistogram.getBucketIndex (Long.MAX_VALUE) >= nLastIndex);
+  }
+
+  @Test
+  public void testPercentiles ()
+  {
+    final LatencyHistogram aHistogram = new LatencyHistogram ();
+    assertEquals (0, aHistogram.getTotalCount ());
+    assertEquals (0, aHistogram.getValueAtPercentile (99));
+
+    for (int i = 1; i <= 1000; ++i)
+      aHistogram.recordValue (i);
+    assertEquals (1000, aHistogram.getTotalCount ());
+    assertEquals (1000, aHistogram.getMaxValue ());
+    assertEquals (1, aHistogram.getValueAtPercentile (0));
+    final long nP50 = aHistogram.getValueAtPercentile (50);
+    assertTrue (Long.toString (nP50), nP50 >= 500 && nP50 <= 500 * 9 / 8);
+    final long nP99 = aHistogram.getValueAtPercentile (99);
+    assertTrue (Long.toString (nP99), nP99 >= 990 && nP99 <= 1000);
+    assertEquals (1000, aHistogram.getValueAtPercentile (100));
+
+    aHistogram.reset ();
+    assertEquals (0, aHistogram.getTotalCount ());
+    assertEquals (0, aHistogram.getMaxValue ());
+  }
+
+  @Test
+  public void testConcurrentRecording () throws Exception
+  {
+    final LatencyHistogram aHistogram = new LatencyHistogram ();
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (64);
+    try
+    {
+      for (int i = 0; i < 64; ++i)
+        aExecutor.submit ( () -> {
+          for (int j = 0; j < 10_000; ++j)
+            aHistogram.recordValue (j);
+        });
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      assertTrue (aExecutor.awaitTermination (1, TimeUnit.MINUTES));
+    }
+    assertEquals (64 * 10_000, aHistogram.getTotalCount ());
+    assertEquals (9_999, aHistogram.getMaxValue ());
+  }
+}
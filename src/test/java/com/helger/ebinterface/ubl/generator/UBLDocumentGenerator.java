@@ -0,0 +1,690 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.generator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.ext.CommonsArrayList;
+import com.helger.commons.collection.ext.ICommonsList;
+import com.helger.ebinterface.ubl.AbstractConverter;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.AddressType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.AllowanceChargeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.BranchType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.ContactType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CountryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CreditNoteLineType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CustomerPartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.DeliveryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.FinancialAccountType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.FinancialInstitutionType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.InvoiceLineType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.ItemType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.LocationType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.MonetaryTotalType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.OrderLineReferenceType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.OrderReferenceType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyIdentificationType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyNameType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyTaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PaymentMeansType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PeriodType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PriceType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.SupplierPartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxCategoryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSubtotalType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxTotalType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.AllowanceChargeReasonType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.DescriptionType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.NoteType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.PaymentIDType;
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Generator for synthetic UBL 2.1 invoices and credit notes of arbitrary size.
+ * The created documents only depend on the seed and the configured counts, so
+ * the same settings always create the same document. All documents can be
+ * converted to ebInterface 4.2 without errors and warnings, both in lax and in
+ * strict ERB mode.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public final class UBLDocumentGenerator
+{
+  public static final int DEFAULT_LINE_COUNT = 10;
+  public static final int DEFAULT_TAX_CATEGORY_COUNT = 2;
+  public static final int DEFAULT_ALLOWANCE_CHARGE_COUNT = 1;
+  public static final int DEFAULT_LINE_ALLOWANCE_CHARGE_COUNT = 1;
+  public static final int DEFAULT_PAYMENT_MEANS_COUNT = 1;
+  public static final int DEFAULT_DELIVERY_COUNT = 1;
+  /**
+   * Maximum number of allowances and charges per level. Each allowance is at
+   * most 50% / count of its base amount so that no amount gets negative.
+   */
+  public static final int MAX_ALLOWANCE_CHARGE_COUNT = 50;
+
+  private static final String CURRENCY = "EUR";
+  private static final String PROFILE_ID_INVOICE = "urn:www.cenbii.eu:profile:bii04:ver1.0";
+  private static final String PROFILE_ID_CREDIT_NOTE = "urn:www.cenbii.eu:profile:bii05:ver1.0";
+  private static final String CUSTOMIZATION_ID_INVOICE = "urn:www.cenbii.eu:transaction:biicoretrdm010:ver1.0:#urn:www.peppol.eu:bis:peppol4a:ver1.0";
+  private static final String CUSTOMIZATION_ID_CREDIT_NOTE = "urn:www.cenbii.eu:transaction:biicoretrdm014:ver1.0:#urn:www.peppol.eu:bis:peppol5a:ver1.0";
+  private static final String TAX_CATEGORY_SCHEME_ID = "UNCL5305";
+  private static final String PAYMENT_MEANS_CODE_CREDIT_TRANSFER = "31";
+  /** Alternative codes for all but the first payment means */
+  private static final String [] PAYMENT_MEANS_CODES = new String [] { "30", "42", "49" };
+  private static final int [] TAX_RATES = new int [] { 20, 10, 13, 0, 19, 7, 5, 12 };
+  private static final String [] UNIT_CODES = new String [] { "C62", "KGM", "HUR", "MTR", "LTR" };
+  private static final String [] ITEM_NAMES = new String [] { "Paper",
+                                                              "Toner",
+                                                              "Consulting",
+                                                              "Cable",
+                                                              "Cleaning agent",
+                                                              "Desk",
+                                                              "Software license" };
+  private static final String [] STREETS = new String [] { "Hintere Zollamtsstraße",
+                                                           "Mariahilfer Straße",
+                                                           "Landstraße",
+                                                           "Herrengasse",
+                                                           "Bahnhofplatz" };
+  private static final String [] CITIES = new String [] { "Wien", "Linz", "Graz", "Salzburg", "Innsbruck" };
+  private static final String [] ZIP_CODES = new String [] { "1030", "4020", "8010", "5020", "6020" };
+  private static final String [] BICS = new String [] { "BKAUATWW", "RZOOAT2L", "GIBAATWWXXX", "OBKLAT2L" };
+
+  private final long m_nSeed;
+  private final DatatypeFactory m_aDTFactory;
+  private int m_nLineCount = DEFAULT_LINE_COUNT;
+  private int m_nTaxCategoryCount = DEFAULT_TAX_CATEGORY_COUNT;
+  private int m_nAllowanceChargeCount = DEFAULT_ALLOWANCE_CHARGE_COUNT;
+  private int m_nLineAllowanceChargeCount = DEFAULT_LINE_ALLOWANCE_CHARGE_COUNT;
+  private int m_nPaymentMeansCount = DEFAULT_PAYMENT_MEANS_COUNT;
+  private int m_nDeliveryCount = DEFAULT_DELIVERY_COUNT;
+
+  /**
+   * Constructor
+   *
+   * @param nSeed
+   *        The seed for the random number generator. Each created document
+   *        uses a new random number generator with this seed.
+   */
+  public UBLDocumentGenerator (final long nSeed)
+  {
+    m_nSeed = nSeed;
+    try
+    {
+      m_aDTFactory = DatatypeFactory.newInstance ();
+    }
+    catch (final DatatypeConfigurationException ex)
+    {
+      throw new IllegalStateException ("Failed to create DatatypeFactory", ex);
+    }
+  }
+
+  /**
+   * @param nLineCount
+   *        The number of invoice or credit note lines. Must be &gt; 0.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLDocumentGenerator setLineCount (@Nonnegative final int nLineCount)
+  {
+    ValueEnforcer.isGT0 (nLineCount, "LineCount");
+    m_nLineCount = nLineCount;
+    return this;
+  }
+
+  /**
+   * @param nTaxCategoryCount
+   *        The number of different VAT rates used. Must be between 1 and 8.
+   *        If there are less lines than tax categories, only as many tax
+   *        categories as lines are used.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLDocumentGenerator setTaxCategoryCount (@Nonnegative final int nTaxCategoryCount)
+  {
+    ValueEnforcer.isBetweenInclusive (nTaxCategoryCount, "TaxCategoryCount", 1, TAX_RATES.length);
+    m_nTaxCategoryCount = nTaxCategoryCount;
+    return this;
+  }
+
+  /**
+   * @param nAllowanceChargeCount
+   *        The number of document level allowances and charges. Must be between
+   *        0 and {@link #MAX_ALLOWANCE_CHARGE_COUNT}.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLDocumentGenerator setAllowanceChargeCount (@Nonnegative final int nAllowanceChargeCount)
+  {
+    ValueEnforcer.isBetweenInclusive (nAllowanceChargeCount, "AllowanceChargeCount", 0, MAX_ALLOWANCE_CHARGE_COUNT);
+    m_nAllowanceChargeCount = nAllowanceChargeCount;
+    return this;
+  }
+
+  /**
+   * @param nLineAllowanceChargeCount
+   *        The number of allowances and charges per line. Must be between 0 and
+   *        {@link #MAX_ALLOWANCE_CHARGE_COUNT}.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLDocumentGenerator setLineAllowanceChargeCount (@Nonnegative final int nLineAllowanceChargeCount)
+  {
+    ValueEnforcer.isBetweenInclusive (nLineAllowanceChargeCount,
+                                      "LineAllowanceChargeCount",
+                                      0,
+                                      MAX_ALLOWANCE_CHARGE_COUNT);
+    m_nLineAllowanceChargeCount = nLineAllowanceChargeCount;
+    return this;
+  }
+
+  /**
+   * @param nPaymentMeansCount
+   *        The number of payment means. Must be &gt; 0, because strict ERB
+   *        mode requires a payment method. The first one is always a credit
+   *        transfer. Payment means are not used for credit notes.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLDocumentGenerator setPaymentMeansCount (@Nonnegative final int nPaymentMeansCount)
+  {
+    ValueEnforcer.isGT0 (nPaymentMeansCount, "PaymentMeansCount");
+    m_nPaymentMeansCount = nPaymentMeansCount;
+    return this;
+  }
+
+  /**
+   * @param nDeliveryCount
+   *        The number of document level deliveries. Must be &ge; 0. If it is 0
+   *        an invoice period is created instead, so that strict ERB mode is
+   *        satisfied.
+   * @return this for chaining
+   */
+  @Nonnull
+  public UBLDocumentGenerator setDeliveryCount (@Nonnegative final int nDeliveryCount)
+  {
+    ValueEnforcer.isGE0 (nDeliveryCount, "DeliveryCount");
+    m_nDeliveryCount = nDeliveryCount;
+    return this;
+  }
+
+  @Nonnull
+  private XMLGregorianCalendar _getDate (@Nonnull final LocalDate aDate)
+  {
+    return m_aDTFactory.newXMLGregorianCalendarDate (aDate.getYear (),
+                                                     aDate.getMonthValue (),
+                                                     aDate.getDayOfMonth (),
+                                                     DatatypeConstants.FIELD_UNDEFINED);
+  }
+
+  @Nonnull
+  private static String _getDigits (@Nonnull final Random aRandom, @Nonnegative final int nCount)
+  {
+    final StringBuilder aSB = new StringBuilder (nCount);
+    for (int i = 0; i < nCount; ++i)
+      aSB.append ((char) ('0' + aRandom.nextInt (10)));
+    return aSB.toString ();
+  }
+
+  /**
+   * Create an Austrian IBAN with valid check digits.
+   */
+  @Nonnull
+  private static String _createIBAN (@Nonnull final Random aRandom)
+  {
+    final String sBBAN = _getDigits (aRandom, 16);
+    // BBAN + "AT" as digits ("A"=10, "T"=29) + "00"
+    final String sCheckInput = sBBAN + "102900";
+    int nMod = 0;
+    for (int i = 0; i < sCheckInput.length (); ++i)
+      nMod = (nMod * 10 + sCheckInput.charAt (i) - '0') % 97;
+    final int nCheckDigits = 98 - nMod;
+    return "AT" + (nCheckDigits < 10 ? "0" : "") + nCheckDigits + sBBAN;
+  }
+
+  @Nonnull
+  private static TaxSchemeType _createTaxSchemeVAT ()
+  {
+    final TaxSchemeType ret = new TaxSchemeType ();
+    final IDType aID = ret.setID (AbstractConverter.SUPPORTED_TAX_SCHEME_ID.getID ());
+    aID.setSchemeAgencyID ("6");
+    aID.setSchemeID (AbstractConverter.SUPPORTED_TAX_SCHEME_SCHEME_ID);
+    return ret;
+  }
+
+  @Nonnull
+  private static TaxCategoryType _createTaxCategory (@Nonnegative final int nTaxCategoryIndex)
+  {
+    final int nRate = TAX_RATES[nTaxCategoryIndex];
+    final TaxCategoryType ret = new TaxCategoryType ();
+    final IDType aID = ret.setID (nRate == 0 ? "Z" : "S");
+    aID.setSchemeAgencyID ("6");
+    aID.setSchemeID (TAX_CATEGORY_SCHEME_ID);
+    ret.setPercent (BigDecimal.valueOf (nRate));
+    ret.setTaxScheme (_createTaxSchemeVAT ());
+    return ret;
+  }
+
+  @Nonnull
+  private static AddressType _createAddress (@Nonnull final Random aRandom)
+  {
+    final int nIndex = aRandom.nextInt (CITIES.length);
+    final AddressType ret = new AddressType ();
+    ret.setStreetName (STREETS[aRandom.nextInt (STREETS.length)]);
+    ret.setBuildingNumber (Integer.toString (1 + aRandom.nextInt (200)));
+    ret.setCityName (CITIES[nIndex]);
+    ret.setPostalZone (ZIP_CODES[nIndex]);
+    final CountryType aCountry = new CountryType ();
+    aCountry.setIdentificationCode ("AT");
+    ret.setCountry (aCountry);
+    return ret;
+  }
+
+  @Nonnull
+  private static PartyType _createParty (@Nonnull final Random aRandom, @Nonnull final String sName)
+  {
+    final PartyType ret = new PartyType ();
+
+    final PartyIdentificationType aPartyID = new PartyIdentificationType ();
+    aPartyID.setID ("90" + _getDigits (aRandom, 11)).setSchemeID ("GLN");
+    ret.addPartyIdentification (aPartyID);
+
+    final PartyNameType aPartyName = new PartyNameType ();
+    aPartyName.setName (sName);
+    ret.addPartyName (aPartyName);
+
+    ret.setPostalAddress (_createAddress (aRandom));
+
+    final PartyTaxSchemeType aPartyTaxScheme = new PartyTaxSchemeType ();
+    aPartyTaxScheme.setCompanyID ("ATU" + _getDigits (aRandom, 8));
+    aPartyTaxScheme.setTaxScheme (_createTaxSchemeVAT ());
+    ret.addPartyTaxScheme (aPartyTaxScheme);
+
+    final ContactType aContact = new ContactType ();
+    aContact.setElectronicMail ("office@" + sName.toLowerCase (Locale.US).replace (' ', '-') + ".example.org");
+    ret.setContact (aContact);
+    return ret;
+  }
+
+  @Nonnull
+  private static SupplierPartyType _createSupplier (@Nonnull final Random aRandom)
+  {
+    final SupplierPartyType ret = new SupplierPartyType ();
+    ret.setCustomerAssignedAccountID ("S" + _getDigits (aRandom, 6));
+    ret.setParty (_createParty (aRandom, "Supplier " + aRandom.nextInt (1000)));
+    return ret;
+  }
+
+  @Nonnull
+  private static CustomerPartyType _createCustomer (@Nonnull final Random aRandom, @Nonnull final String sPrefix)
+  {
+    final CustomerPartyType ret = new CustomerPartyType ();
+    ret.setSupplierAssignedAccountID ("C" + _getDigits (aRandom, 6));
+    ret.setParty (_createParty (aRandom, sPrefix + " " + aRandom.nextInt (1000)));
+    return ret;
+  }
+
+  @Nonnull
+  private static AllowanceChargeType _createAllowanceCharge (@Nonnull final Random aRandom,
+                                                             @Nonnull final BigDecimal aBaseAmount,
+                                                             @Nonnegative final int nCount)
+  {
+    final boolean bCharge = aRandom.nextBoolean ();
+    // At most 50% of the base amount for all allowances together
+    final int nPerc = 1 + aRandom.nextInt (Math.max (1, 50 / nCount));
+    final BigDecimal aMultiplier = BigDecimal.valueOf (nPerc, 2);
+
+    final AllowanceChargeType ret = new AllowanceChargeType ();
+    ret.setChargeIndicator (bCharge);
+    ret.addAllowanceChargeReason (new AllowanceChargeReasonType (bCharge ? "Freight" : "Discount"));
+    ret.setMultiplierFactorNumeric (aMultiplier);
+    ret.setAmount (aBaseAmount.multiply (aMultiplier).setScale (AbstractConverter.SCALE_PRICE2,
+                                                                AbstractConverter.ROUNDING_MODE))
+       .setCurrencyID (CURRENCY);
+    ret.setBaseAmount (aBaseAmount).setCurrencyID (CURRENCY);
+    return ret;
+  }
+
+  /**
+   * @return The signed amount of the passed allowance or charge.
+   */
+  @Nonnull
+  private static BigDecimal _getSignedAmount (@Nonnull final AllowanceChargeType aAllowanceCharge)
+  {
+    final BigDecimal aAmount = aAllowanceCharge.getAmountValue ();
+    return aAllowanceCharge.getChargeIndicator ().isValue () ? aAmount : aAmount.negate ();
+  }
+
+  @Nonnull
+  private InvoiceLineType _createLine (@Nonnull final Random aRandom,
+                                       @Nonnegative final int nLineIndex,
+                                       @Nonnegative final int nTaxCategoryIndex)
+  {
+    final BigDecimal aQuantity = BigDecimal.valueOf (1 + aRandom.nextInt (100));
+    final BigDecimal aPrice = BigDecimal.valueOf (100 + aRandom.nextInt (99900), 2);
+    final BigDecimal aBaseAmount = aQuantity.multiply (aPrice);
+
+    final InvoiceLineType ret = new InvoiceLineType ();
+    ret.setID (Integer.toString (nLineIndex + 1));
+    ret.setInvoicedQuantity (aQuantity).setUnitCode (UNIT_CODES[aRandom.nextInt (UNIT_CODES.length)]);
+
+    final OrderLineReferenceType aOrderLineReference = new OrderLineReferenceType ();
+    aOrderLineReference.setLineID (Integer.toString ((nLineIndex + 1) * 10));
+    ret.addOrderLineReference (aOrderLineReference);
+
+    BigDecimal aLineExtensionAmount = aBaseAmount;
+    for (int i = 0; i < m_nLineAllowanceChargeCount; ++i)
+    {
+      final AllowanceChargeType aAllowanceCharge = _createAllowanceCharge (aRandom,
+                                                                           aBaseAmount,
+                                                                           m_nLineAllowanceChargeCount);
+      ret.addAllowanceCharge (aAllowanceCharge);
+      aLineExtensionAmount = aLineExtensionAmount.add (_getSignedAmount (aAllowanceCharge));
+    }
+    ret.setLineExtensionAmount (aLineExtensionAmount).setCurrencyID (CURRENCY);
+
+    final ItemType aItem = new ItemType ();
+    final String sItemName = ITEM_NAMES[aRandom.nextInt (ITEM_NAMES.length)];
+    aItem.setName (sItemName);
+    aItem.addDescription (new DescriptionType (sItemName + " #" + _getDigits (aRandom, 5)));
+    aItem.addClassifiedTaxCategory (_createTaxCategory (nTaxCategoryIndex));
+    ret.setItem (aItem);
+
+    final PriceType aPriceType = new PriceType ();
+    aPriceType.setPriceAmount (aPrice).setCurrencyID (CURRENCY);
+    aPriceType.setBaseQuantity (BigDecimal.ONE);
+    ret.setPrice (aPriceType);
+    return ret;
+  }
+
+  @Nonnull
+  private static CreditNoteLineType _getAsCreditNoteLine (@Nonnull final InvoiceLineType aInvoiceLine)
+  {
+    final CreditNoteLineType ret = new CreditNoteLineType ();
+    ret.setID (aInvoiceLine.getIDValue ());
+    ret.setCreditedQuantity (aInvoiceLine.getInvoicedQuantityValue ())
+       .setUnitCode (aInvoiceLine.getInvoicedQuantity ().getUnitCode ());
+    ret.setLineExtensionAmount (aInvoiceLine.getLineExtensionAmountValue ()).setCurrencyID (CURRENCY);
+    for (final OrderLineReferenceType aOrderLineReference : aInvoiceLine.getOrderLineReference ())
+      ret.addOrderLineReference (aOrderLineReference);
+    for (final AllowanceChargeType aAllowanceCharge : aInvoiceLine.getAllowanceCharge ())
+      ret.addAllowanceCharge (aAllowanceCharge);
+    ret.setItem (aInvoiceLine.getItem ());
+    ret.setPrice (aInvoiceLine.getPrice ());
+    return ret;
+  }
+
+  @Nonnull
+  private static PaymentMeansType _createPaymentMeans (@Nonnull final Random aRandom,
+                                                       @Nonnegative final int nPaymentMeansIndex,
+                                                       @Nonnull final String sDocumentID,
+                                                       @Nonnull final XMLGregorianCalendar aDueDate)
+  {
+    final String sCode = nPaymentMeansIndex == 0 ? PAYMENT_MEANS_CODE_CREDIT_TRANSFER
+                                                 : PAYMENT_MEANS_CODES[(nPaymentMeansIndex - 1) %
+                                                                       PAYMENT_MEANS_CODES.length];
+    final PaymentMeansType ret = new PaymentMeansType ();
+    ret.setPaymentMeansCode (sCode);
+    ret.setPaymentDueDate (aDueDate);
+    ret.addPaymentID (new PaymentIDType ("PAY-" + sDocumentID + "-" + nPaymentMeansIndex));
+
+    final FinancialInstitutionType aFinancialInstitution = new FinancialInstitutionType ();
+    aFinancialInstitution.setID (BICS[aRandom.nextInt (BICS.length)]);
+    final BranchType aBranch = new BranchType ();
+    aBranch.setFinancialInstitution (aFinancialInstitution);
+    final FinancialAccountType aAccount = new FinancialAccountType ();
+    aAccount.setID (_createIBAN (aRandom));
+    aAccount.setFinancialInstitutionBranch (aBranch);
+    ret.setPayeeFinancialAccount (aAccount);
+    return ret;
+  }
+
+  @Nonnull
+  private DeliveryType _createDelivery (@Nonnull final Random aRandom,
+                                        @Nonnegative final int nDeliveryIndex,
+                                        @Nonnull final LocalDate aIssueDate)
+  {
+    final DeliveryType ret = new DeliveryType ();
+    ret.setID ("D" + (nDeliveryIndex + 1));
+    ret.setActualDeliveryDate (_getDate (aIssueDate.minusDays (1 + aRandom.nextInt (30))));
+
+    final LocationType aLocation = new LocationType ();
+    aLocation.addDescription (new DescriptionType ("Warehouse " + (nDeliveryIndex + 1)));
+    aLocation.setAddress (_createAddress (aRandom));
+    ret.setDeliveryLocation (aLocation);
+
+    final PartyNameType aPartyName = new PartyNameType ();
+    aPartyName.setName ("Delivery recipient " + aRandom.nextInt (1000));
+    final PartyType aParty = new PartyType ();
+    aParty.addPartyName (aPartyName);
+    ret.setDeliveryParty (aParty);
+    return ret;
+  }
+
+  /**
+   * The document content that is identical for invoices and credit notes.
+   *
+   * @author Philip Helger
+   */
+  private static final class Content
+  {
+    private String m_sID;
+    private LocalDate m_aIssueDate;
+    private OrderReferenceType m_aOrderReference;
+    private SupplierPartyType m_aSupplier;
+    private CustomerPartyType m_aCustomer;
+    private CustomerPartyType m_aBuyer;
+    private final ICommonsList <InvoiceLineType> m_aLines = new CommonsArrayList <> ();
+    private final ICommonsList <AllowanceChargeType> m_aAllowanceCharges = new CommonsArrayList <> ();
+    private TaxTotalType m_aTaxTotal;
+    private MonetaryTotalType m_aMonetaryTotal;
+    private final ICommonsList <DeliveryType> m_aDeliveries = new CommonsArrayList <> ();
+    private PeriodType m_aPeriod;
+  }
+
+  @Nonnull
+  private Content _createContent (@Nonnull final Random aRandom, @Nonnull final String sIDPrefix)
+  {
+    final Content ret = new Content ();
+    ret.m_sID = sIDPrefix + (100000 + aRandom.nextInt (900000));
+    ret.m_aIssueDate = LocalDate.of (2017, 1, 1).plusDays (aRandom.nextInt (365));
+    ret.m_aOrderReference = new OrderReferenceType ();
+    ret.m_aOrderReference.setID ("PO-" + _getDigits (aRandom, 8));
+
+    ret.m_aSupplier = _createSupplier (aRandom);
+    ret.m_aCustomer = _createCustomer (aRandom, "Customer");
+    ret.m_aBuyer = _createCustomer (aRandom, "Buyer");
+
+    // Lines - ensure that each used tax category has at least one line
+    final int nTaxCategoryCount = Math.min (m_nTaxCategoryCount, m_nLineCount);
+    final BigDecimal [] aLineAmounts = new BigDecimal [nTaxCategoryCount];
+    final BigDecimal [] aTaxableAmounts = new BigDecimal [nTaxCategoryCount];
+    for (int i = 0; i < nTaxCategoryCount; ++i)
+    {
+      aLineAmounts[i] = BigDecimal.ZERO;
+      aTaxableAmounts[i] = BigDecimal.ZERO;
+    }
+    BigDecimal aLineExtensionAmount = BigDecimal.ZERO;
+    for (int nLineIndex = 0; nLineIndex < m_nLineCount; ++nLineIndex)
+    {
+      final int nTaxCategoryIndex = nLineIndex < nTaxCategoryCount ? nLineIndex
+                                                                   : aRandom.nextInt (nTaxCategoryCount);
+      final InvoiceLineType aLine = _createLine (aRandom, nLineIndex, nTaxCategoryIndex);
+      ret.m_aLines.add (aLine);
+      aLineAmounts[nTaxCategoryIndex] = aLineAmounts[nTaxCategoryIndex].add (aLine.getLineExtensionAmountValue ());
+      aLineExtensionAmount = aLineExtensionAmount.add (aLine.getLineExtensionAmountValue ());
+    }
+    System.arraycopy (aLineAmounts, 0, aTaxableAmounts, 0, nTaxCategoryCount);
+
+    // Document level allowances and charges
+    BigDecimal aAllowanceTotal = BigDecimal.ZERO;
+    BigDecimal aChargeTotal = BigDecimal.ZERO;
+    for (int i = 0; i < m_nAllowanceChargeCount; ++i)
+    {
+      final int nTaxCategoryIndex = aRandom.nextInt (nTaxCategoryCount);
+      final AllowanceChargeType aAllowanceCharge = _createAllowanceCharge (aRandom,
+                                                                           aLineAmounts[nTaxCategoryIndex],
+                                                                           m_nAllowanceChargeCount);
+      aAllowanceCharge.addTaxCategory (_createTaxCategory (nTaxCategoryIndex));
+      ret.m_aAllowanceCharges.add (aAllowanceCharge);
+      aTaxableAmounts[nTaxCategoryIndex] = aTaxableAmounts[nTaxCategoryIndex].add (_getSignedAmount (aAllowanceCharge));
+      if (aAllowanceCharge.getChargeIndicator ().isValue ())
+        aChargeTotal = aChargeTotal.add (aAllowanceCharge.getAmountValue ());
+      else
+        aAllowanceTotal = aAllowanceTotal.add (aAllowanceCharge.getAmountValue ());
+    }
+
+    // Taxes
+    ret.m_aTaxTotal = new TaxTotalType ();
+    BigDecimal aTaxExclusiveAmount = BigDecimal.ZERO;
+    BigDecimal aTaxAmount = BigDecimal.ZERO;
+    for (int i = 0; i < nTaxCategoryCount; ++i)
+    {
+      final BigDecimal aSubtotalTaxAmount = aTaxableAmounts[i].multiply (BigDecimal.valueOf (TAX_RATES[i]))
+                                                              .divide (CGlobal.BIGDEC_100,
+                                                                       AbstractConverter.SCALE_PRICE2,
+                                                                       AbstractConverter.ROUNDING_MODE);
+      final TaxSubtotalType aSubtotal = new TaxSubtotalType ();
+      aSubtotal.setTaxableAmount (aTaxableAmounts[i]).setCurrencyID (CURRENCY);
+      aSubtotal.setTaxAmount (aSubtotalTaxAmount).setCurrencyID (CURRENCY);
+      aSubtotal.setTaxCategory (_createTaxCategory (i));
+      ret.m_aTaxTotal.addTaxSubtotal (aSubtotal);
+      aTaxExclusiveAmount = aTaxExclusiveAmount.add (aTaxableAmounts[i]);
+      aTaxAmount = aTaxAmount.add (aSubtotalTaxAmount);
+    }
+    ret.m_aTaxTotal.setTaxAmount (aTaxAmount).setCurrencyID (CURRENCY);
+
+    // Totals
+    final BigDecimal aTaxInclusiveAmount = aTaxExclusiveAmount.add (aTaxAmount);
+    ret.m_aMonetaryTotal = new MonetaryTotalType ();
+    ret.m_aMonetaryTotal.setLineExtensionAmount (aLineExtensionAmount).setCurrencyID (CURRENCY);
+    ret.m_aMonetaryTotal.setTaxExclusiveAmount (aTaxExclusiveAmount).setCurrencyID (CURRENCY);
+    ret.m_aMonetaryTotal.setTaxInclusiveAmount (aTaxInclusiveAmount).setCurrencyID (CURRENCY);
+    if (m_nAllowanceChargeCount > 0)
+    {
+      ret.m_aMonetaryTotal.setAllowanceTotalAmount (aAllowanceTotal).setCurrencyID (CURRENCY);
+      ret.m_aMonetaryTotal.setChargeTotalAmount (aChargeTotal).setCurrencyID (CURRENCY);
+    }
+    ret.m_aMonetaryTotal.setPayableAmount (aTaxInclusiveAmount).setCurrencyID (CURRENCY);
+
+    // Delivery date or invoice period
+    for (int i = 0; i < m_nDeliveryCount; ++i)
+      ret.m_aDeliveries.add (_createDelivery (aRandom, i, ret.m_aIssueDate));
+    if (m_nDeliveryCount == 0)
+    {
+      ret.m_aPeriod = new PeriodType ();
+      ret.m_aPeriod.setStartDate (_getDate (ret.m_aIssueDate.minusMonths (1).withDayOfMonth (1)));
+      ret.m_aPeriod.setEndDate (_getDate (ret.m_aIssueDate.withDayOfMonth (1).minusDays (1)));
+    }
+    return ret;
+  }
+
+  /**
+   * @return A new UBL invoice based on the current settings. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public InvoiceType createInvoice ()
+  {
+    final Random aRandom = new Random (m_nSeed);
+    final Content aContent = _createContent (aRandom, "INV-");
+
+    final InvoiceType ret = new InvoiceType ();
+    ret.setUBLVersionID (AbstractConverter.UBL_VERSION_21);
+    ret.setCustomizationID (CUSTOMIZATION_ID_INVOICE).setSchemeID (AbstractConverter.CUSTOMIZATION_SCHEMEID);
+    ret.setProfileID (PROFILE_ID_INVOICE);
+    ret.setID (aContent.m_sID);
+    ret.setIssueDate (_getDate (aContent.m_aIssueDate));
+    ret.setInvoiceTypeCode (AbstractConverter.INVOICE_TYPE_CODE).setListID ("UNCL1001");
+    ret.addNote (new NoteType ("Synthetic invoice with " + m_nLineCount + " lines"));
+    ret.setDocumentCurrencyCode (CURRENCY);
+    if (aContent.m_aPeriod != null)
+      ret.addInvoicePeriod (aContent.m_aPeriod);
+    ret.setOrderReference (aContent.m_aOrderReference);
+    ret.setAccountingSupplierParty (aContent.m_aSupplier);
+    ret.setAccountingCustomerParty (aContent.m_aCustomer);
+    ret.setBuyerCustomerParty (aContent.m_aBuyer);
+    for (final DeliveryType aDelivery : aContent.m_aDeliveries)
+      ret.addDelivery (aDelivery);
+
+    final XMLGregorianCalendar aDueDate = _getDate (aContent.m_aIssueDate.plusDays (30));
+    for (int i = 0; i < m_nPaymentMeansCount; ++i)
+      ret.addPaymentMeans (_createPaymentMeans (aRandom, i, aContent.m_sID, aDueDate));
+
+    for (final AllowanceChargeType aAllowanceCharge : aContent.m_aAllowanceCharges)
+      ret.addAllowanceCharge (aAllowanceCharge);
+    ret.addTaxTotal (aContent.m_aTaxTotal);
+    ret.setLegalMonetaryTotal (aContent.m_aMonetaryTotal);
+    for (final InvoiceLineType aLine : aContent.m_aLines)
+      ret.addInvoiceLine (aLine);
+    return ret;
+  }
+
+  /**
+   * @return A new UBL credit note based on the current settings. Payment means
+   *         are not created, because credit notes are converted without
+   *         payment. Never <code>null</code>.
+   */
+  @Nonnull
+  public CreditNoteType createCreditNote ()
+  {
+    final Random aRandom = new Random (m_nSeed);
+    final Content aContent = _createContent (aRandom, "CN-");
+
+    final CreditNoteType ret = new CreditNoteType ();
+    ret.setUBLVersionID (AbstractConverter.UBL_VERSION_21);
+    ret.setCustomizationID (CUSTOMIZATION_ID_CREDIT_NOTE).setSchemeID (AbstractConverter.CUSTOMIZATION_SCHEMEID);
+    ret.setProfileID (PROFILE_ID_CREDIT_NOTE);
+    ret.setID (aContent.m_sID);
+    ret.setIssueDate (_getDate (aContent.m_aIssueDate));
+    ret.addNote (new NoteType ("Synthetic credit note with " + m_nLineCount + " lines"));
+    ret.setDocumentCurrencyCode (CURRENCY);
+    if (aContent.m_aPeriod != null)
+      ret.addInvoicePeriod (aContent.m_aPeriod);
+    ret.setOrderReference (aContent.m_aOrderReference);
+    ret.setAccountingSupplierParty (aContent.m_aSupplier);
+    ret.setAccountingCustomerParty (aContent.m_aCustomer);
+    ret.setBuyerCustomerParty (aContent.m_aBuyer);
+    for (final DeliveryType aDelivery : aContent.m_aDeliveries)
+      ret.addDelivery (aDelivery);
+    for (final AllowanceChargeType aAllowanceCharge : aContent.m_aAllowanceCharges)
+      ret.addAllowanceCharge (aAllowanceCharge);
+    ret.addTaxTotal (aContent.m_aTaxTotal);
+    ret.setLegalMonetaryTotal (aContent.m_aMonetaryTotal);
+    for (final InvoiceLineType aLine : aContent.m_aLines)
+      ret.addCreditNoteLine (_getAsCreditNoteLine (aLine));
+    return ret;
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2015 Bundesrechenzentrum GmbH - www.brz.gv.at
+ * Copyright (c) 2015-2016 AUSTRIAPRO - www.austriapro.at
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.ebinterface.ubl.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.error.list.ErrorList;
+import com.helger.ebinterface.builder.EbInterfaceWriter;
+import com.helger.ebinterface.ubl.from.creditnote.CreditNoteToEbInterface42Converter;
+import com.helger.ebinterface.ubl.from.invoice.InvoiceToEbInterface42Converter;
+import com.helger.ebinterface.v42.Ebi42InvoiceType;
+import com.helger.ubl21.UBL21Writer;
+
+import oasis.names.specification.ubl.schema.xsd.creditnote_21.CreditNoteType;
+import oasis.names.specification.ubl.schema.xsd.invoice_21.InvoiceType;
+
+/**
+ * Test class for class {@link UBLDocumentGenerator}.
+ *
+ * @author Philip Helger
+ */
+public final class UBLDocumentGeneratorTest
+{
+  @Nonnull
+  private static UBLDocumentGenerator [] _getGenerators ()
+  {
+    return new UBLDocumentGenerator [] { new UBLDocumentGenerator (1),
+                                         new UBLDocumentGenerator (2).setLineCount (1)
+                                                                     .setTaxCategoryCount (3)
+                                                                     .setAllowanceChargeCount (0)
+                                                                     .setLineAllowanceChargeCount (0)
+                                                                     .setDeliveryCount (0),
+                                         new UBLDocumentGenerator (3).setLineCount (500)
+                                                                     .setTaxCategoryCount (8)
+                                                                     .setAllowanceChargeCount (UBLDocumentGenerator.MAX_ALLOWANCE_CHARGE_COUNT)
+                                                                     .setLineAllowanceChargeCount (5)
+                                                                     .setPaymentMeansCount (4)
+                                                                     .setDeliveryCount (3) };
+  }
+
+  @Test
+  public void testDeterministic ()
+  {
+    final String sInvoice = UBL21Writer.invoice ().getAsString (new UBLDocumentGenerator (42).createInvoice ());
+    assertNotNull (sInvoice);
+    assertEquals (sInvoice, UBL21Writer.invoice ().getAsString (new UBLDocumentGenerator (42).createInvoice ()));
+    assertNotEquals (sInvoice, UBL21Writer.invoice ().getAsString (new UBLDocumentGenerator (43).createInvoice ()));
+
+    final UBLDocumentGenerator aGenerator = new UBLDocumentGenerator (42);
+    final String sCreditNote = UBL21Writer.creditNote ().getAsString (aGenerator.createCreditNote ());
+    assertNotNull (sCreditNote);
+    assertEquals (sCreditNote, UBL21Writer.creditNote ().getAsString (aGenerator.createCreditNote ()));
+  }
+
+  @Test
+  public void testConvertInvoice ()
+  {
+    final EbInterfaceWriter <Ebi42InvoiceType> aEbiWriter = EbInterfaceWriter.ebInterface42 ();
+    for (final UBLDocumentGenerator aGenerator : _getGenerators ())
+    {
+      final InvoiceType aUBLInvoice = aGenerator.createInvoice ();
+      assertNotNull (UBL21Writer.invoice ().getAsString (aUBLInvoice));
+      for (final boolean bStrictERBMode : new boolean [] { false, true })
+      {
+        final ErrorList aErrorList = new ErrorList ();
+        final Ebi42InvoiceType aEbInvoice = new InvoiceToEbInterface42Converter (Locale.GERMANY,
+                                                                                 Locale.GERMANY,
+                                                                                 bStrictERBMode).convertToEbInterface (aUBLInvoice,
+                                                                                                                       aErrorList);
+        assertTrue (aErrorList.toString (), aErrorList.isEmpty ());
+        assertNotNull (aEbInvoice);
+        assertEquals (aUBLInvoice.getInvoiceLineCount (),
+                      aEbInvoice.getDetails ().getItemListAtIndex (0).getListLineItemCount ());
+        assertNotNull (aEbiWriter.getAsString (aEbInvoice));
+      }
+    }
+  }
+
+  @Test
+  public void testConvertCreditNote ()
+  {
+    final EbInterfaceWriter <Ebi42InvoiceType> aEbiWriter = EbInterfaceWriter.ebInterface42 ();
+    for (final UBLDocumentGenerator aGenerator : _getGenerators ())
+    {
+      final CreditNoteType aUBLCreditNote = aGenerator.createCreditNote ();
+      assertNotNull (UBL21Writer.creditNote ().getAsString (aUBLCreditNote));
+      for (final boolean bStrictERBMode : new boolean [] { false, true })
+      {
+        final ErrorList aErrorList = new ErrorList ();
+        final Ebi42InvoiceType aEbInvoice = new CreditNoteToEbInterface42Converter (Locale.GERMANY,
+                                                                                    Locale.GERMANY,
+                                                                                    bStrictERBMode).convertToEbInterface (aUBLCreditNote,
+                                                                                                                          aErrorList);
+        assertTrue (aErrorList.toString (), aErrorList.isEmpty ());
+        assertNotNull (aEbInvoice);
+        assertNotNull (aEbiWriter.getAsString (aEbInvoice));
+      }
+    }
+  }
+}